@@ -0,0 +1,313 @@
+package Default;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The ColumnarCourseDBStructure class stores courses column by column instead of as one object per
+ * course. CRNs and credits are primitive int columns, and course IDs, rooms, and instructor names
+ * are int columns of codes into per-column string dictionaries, so each distinct string is held once.
+ * A primitive open-addressing table maps CRNs to rows.
+ *
+ * <p>get and iteration return a new CourseDBElement built from the columns on demand. It is a
+ * lightweight view: its strings are the shared dictionary entries, and it is garbage as soon as the
+ * caller drops it. Callers should therefore compare courses by CRN rather than by identity.</p>
+ *
+ * <p>Rows stay dense: removing a course moves the last row into its place. The dictionaries keep
+ * strings that no row uses any more, which costs little since they hold each distinct string once.</p>
+ */
+public class ColumnarCourseDBStructure implements CourseDBStoreInterface {
+    private static final double MAX_LOAD_FACTOR = 0.75; // Grow the slot table once it is this full.
+    private static final int MIN_CAPACITY = 16;         // Smallest slot table ever allocated.
+
+    private int[] crnColumn;        // The CRN of each row.
+    private int[] creditsColumn;    // The credits of each row.
+    private int[] idColumn;         // The course ID code of each row.
+    private int[] roomColumn;       // The room number code of each row.
+    private int[] instructorColumn; // The instructor name code of each row.
+    private int rows;               // The number of rows in use.
+
+    private int[] slots;            // Row + 1 for each occupied slot, 0 for an empty one.
+    private int mask;               // Slot table capacity - 1.
+
+    private final CourseDBStringDictionary ids = new CourseDBStringDictionary();
+    private final CourseDBStringDictionary rooms = new CourseDBStringDictionary();
+    private final CourseDBStringDictionary instructors = new CourseDBStringDictionary();
+
+    /**
+     * Creates a ColumnarCourseDBStructure instance with an estimated number of courses.
+     *
+     * @param estimatedNumCourses The estimated number of courses used to size the columns.
+     */
+    public ColumnarCourseDBStructure(int estimatedNumCourses) {
+        int rowCapacity = Math.max(MIN_CAPACITY, estimatedNumCourses);
+        crnColumn = new int[rowCapacity];
+        creditsColumn = new int[rowCapacity];
+        idColumn = new int[rowCapacity];
+        roomColumn = new int[rowCapacity];
+        instructorColumn = new int[rowCapacity];
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD_FACTOR < estimatedNumCourses) {
+            capacity <<= 1;
+        }
+        slots = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Adds a course as a new row. If a course with the same CRN already exists, it is not added again.
+     *
+     * @param element The CourseDBElement to add.
+     */
+    @Override
+    public void add(CourseDBElement element) {
+        int crn = element.getCRN();
+        int slot = CrnHashStrategy.FIBONACCI.hash(crn) & mask;
+        while (slots[slot] != 0) {
+            if (crnColumn[slots[slot] - 1] == crn) {
+                return; // Element already exists, exit quietly
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (rows == crnColumn.length) {
+            growColumns();
+        }
+        crnColumn[rows] = crn;
+        creditsColumn[rows] = element.getCredits();
+        idColumn[rows] = ids.encode(element.getID());
+        roomColumn[rows] = rooms.encode(element.getRoomNum());
+        instructorColumn[rows] = instructors.encode(element.getInstructorName());
+        slots[slot] = ++rows;
+        if (rows > slots.length * MAX_LOAD_FACTOR) {
+            growSlots();
+        }
+    }
+
+    /**
+     * Stores a course, overwriting the row of the course with the same CRN if there is one.
+     *
+     * @param element The CourseDBElement to store.
+     * @return A view of the course it replaced, or null if the CRN was not stored.
+     */
+    @Override
+    public CourseDBElement update(CourseDBElement element) {
+        int row = rowOf(element.getCRN());
+        if (row < 0) {
+            add(element);
+            return null;
+        }
+        CourseDBElement previous = view(row);
+        creditsColumn[row] = element.getCredits();
+        idColumn[row] = ids.encode(element.getID());
+        roomColumn[row] = rooms.encode(element.getRoomNum());
+        instructorColumn[row] = instructors.encode(element.getInstructorName());
+        return previous;
+    }
+
+    /**
+     * Removes the course with the given CRN and moves the last row into its place.
+     *
+     * @param crn The CRN of the course to remove.
+     * @return A view of the course removed, or null if the CRN was not stored.
+     */
+    @Override
+    public CourseDBElement remove(int crn) {
+        int slot = slotOf(crn);
+        if (slot < 0) {
+            return null;
+        }
+        int row = slots[slot] - 1;
+        CourseDBElement removed = view(row);
+        deleteSlot(slot);
+        int last = --rows;
+        if (row != last) {
+            slots[slotOf(crnColumn[last])] = row + 1;
+            crnColumn[row] = crnColumn[last];
+            creditsColumn[row] = creditsColumn[last];
+            idColumn[row] = idColumn[last];
+            roomColumn[row] = roomColumn[last];
+            instructorColumn[row] = instructorColumn[last];
+        }
+        return removed;
+    }
+
+    /**
+     * Retrieves a course based on the provided CRN, building its CourseDBElement view from the columns.
+     *
+     * @param crn The CRN of the course to retrieve.
+     * @return A CourseDBElement holding the course's values.
+     * @throws IOException If the course with the specified CRN is not found.
+     */
+    @Override
+    public CourseDBElement get(int crn) throws IOException {
+        int row = rowOf(crn);
+        if (row < 0) {
+            throw new IOException("Course not found with CRN: " + crn);
+        }
+        return view(row);
+    }
+
+    /**
+     * Finds a course based on the provided CRN without throwing on a miss.
+     *
+     * @param crn The CRN of the course to find.
+     * @return A CourseDBElement holding the course's values, or null if it is not stored.
+     */
+    @Override
+    public CourseDBElement find(int crn) {
+        int row = rowOf(crn);
+        return row < 0 ? null : view(row);
+    }
+
+    /**
+     * Returns an ArrayList of string representations of all courses, in row order.
+     *
+     * @return An ArrayList of strings representing all courses.
+     */
+    @Override
+    public ArrayList<String> showAll() {
+        ArrayList<String> courseStrings = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            courseStrings.add(view(row).toString());
+        }
+        return courseStrings;
+    }
+
+    /**
+     * Returns the capacity of the CRN slot table.
+     *
+     * @return The number of slots.
+     */
+    @Override
+    public int getTableSize() {
+        return slots.length;
+    }
+
+    /**
+     * Returns the number of courses stored.
+     *
+     * @return The number of rows.
+     */
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * Returns an iterator over every course in row order, building each view as it is reached.
+     *
+     * @return An iterator over the stored courses.
+     */
+    @Override
+    public Iterator<CourseDBElement> iterator() {
+        return new Iterator<CourseDBElement>() {
+            private int row; // The next row to return.
+
+            @Override
+            public boolean hasNext() {
+                return row < rows;
+            }
+
+            @Override
+            public CourseDBElement next() {
+                if (row >= rows) {
+                    throw new NoSuchElementException();
+                }
+                return view(row++);
+            }
+        };
+    }
+
+    /**
+     * Returns the row holding a CRN.
+     *
+     * @param crn The CRN to find.
+     * @return The row, or -1 if the CRN is not stored.
+     */
+    private int rowOf(int crn) {
+        int slot = slotOf(crn);
+        return slot < 0 ? -1 : slots[slot] - 1;
+    }
+
+    /**
+     * Returns the slot that points at a CRN's row.
+     *
+     * @param crn The CRN to find.
+     * @return The slot, or -1 if the CRN is not stored.
+     */
+    private int slotOf(int crn) {
+        int slot = CrnHashStrategy.FIBONACCI.hash(crn) & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            if (crnColumn[entry - 1] == crn) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Empties a slot and moves each later member of its probe run that may live there back into
+     * the gap, so lookups never stop early at it.
+     *
+     * @param gap The slot to empty.
+     */
+    private void deleteSlot(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int entry = slots[slot];
+            if (entry == 0) {
+                break;
+            }
+            int home = CrnHashStrategy.FIBONACCI.hash(crnColumn[entry - 1]) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                slots[gap] = entry;
+                gap = slot;
+            }
+        }
+        slots[gap] = 0;
+    }
+
+    /**
+     * Builds the CourseDBElement view of a row.
+     *
+     * @param row The row.
+     * @return A CourseDBElement holding the row's values.
+     */
+    private CourseDBElement view(int row) {
+        return new CourseDBElement(ids.decode(idColumn[row]), crnColumn[row], creditsColumn[row],
+                rooms.decode(roomColumn[row]), instructors.decode(instructorColumn[row]));
+    }
+
+    /**
+     * Grows every column by half.
+     */
+    private void growColumns() {
+        int capacity = crnColumn.length + (crnColumn.length >> 1);
+        crnColumn = Arrays.copyOf(crnColumn, capacity);
+        creditsColumn = Arrays.copyOf(creditsColumn, capacity);
+        idColumn = Arrays.copyOf(idColumn, capacity);
+        roomColumn = Arrays.copyOf(roomColumn, capacity);
+        instructorColumn = Arrays.copyOf(instructorColumn, capacity);
+    }
+
+    /**
+     * Doubles the slot table and reinserts every row.
+     */
+    private void growSlots() {
+        slots = new int[slots.length << 1];
+        mask = slots.length - 1;
+        for (int row = 0; row < rows; row++) {
+            int slot = CrnHashStrategy.FIBONACCI.hash(crnColumn[row]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = row + 1;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+
+/**
+ * This class contains JUnit tests for the ColumnarCourseDBStructure class. It tests that courses
+ * read back with the same values, that duplicate CRNs are ignored, and that repeated strings are shared.
+ */
+public class ColumnarCourseDBStructureTest {
+
+    /**
+     * Test that values survive the round trip through the columns, including growth and null fields.
+     */
+    @Test
+    public void testAddAndGet() throws IOException {
+        ColumnarCourseDBStructure structure = new ColumnarCourseDBStructure(4);
+        for (int i = 0; i < 3000; i++) {
+            structure.add(new CourseDBElement("CMSC" + (i % 30), 20000 + i * 3, 1 + i % 4,
+                    i % 7 == 0 ? null : "SC" + (i % 11), "Instructor " + (i % 13)));
+        }
+        structure.add(new CourseDBElement("DUPLICATE", 20000, 9, "X", "Y"));
+
+        assertEquals(3000, structure.size());
+        assertEquals(3000, structure.showAll().size());
+        for (int i = 0; i < 3000; i++) {
+            CourseDBElement course = structure.get(20000 + i * 3);
+            assertEquals("CMSC" + (i % 30), course.getID());
+            assertEquals(1 + i % 4, course.getCredits());
+            assertEquals(i % 7 == 0 ? null : "SC" + (i % 11), course.getRoomNum());
+            assertEquals("Instructor " + (i % 13), course.getInstructorName());
+        }
+        assertThrows(IOException.class, () -> structure.get(20001));
+    }
+
+    /**
+     * Test that equal strings from different courses come back as the same shared instance.
+     */
+    @Test
+    public void testStringsAreShared() throws IOException {
+        ColumnarCourseDBStructure structure = new ColumnarCourseDBStructure(10);
+        structure.add(new CourseDBElement(new String("CMSC204"), 1, 4, "SC450", "Joey"));
+        structure.add(new CourseDBElement(new String("CMSC204"), 2, 4, "SC451", "Joey"));
+        assertSame(structure.get(1).getID(), structure.get(2).getID());
+    }
+}
@@ -0,0 +1,226 @@
+package Default;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * The CompressedCrnSet class is an immutable sorted set of CRNs stored in delta/varint-compressed
+ * blocks. CRNs are sorted and cut into blocks of BLOCK_SIZE. Each block keeps its first CRN in a
+ * plain int array, and the gaps to the following CRNs as unsigned varints: seven bits per byte,
+ * with the high bit set on every byte but the last. Catalog CRNs are dense, so most gaps take one
+ * byte, and a set costs little more than one byte per CRN instead of four.
+ *
+ * <p>contains and indexOf binary-search the first CRNs, then decode at most one block, so a lookup
+ * reads a few cache lines. indexOf returns the rank of a CRN among the set, which is its record
+ * number in anything else sorted by CRN, such as the index of a CourseDBSnapshot.</p>
+ */
+public class CompressedCrnSet {
+    /** CRNs per block: larger blocks compress a little better but decode more per lookup. */
+    public static final int BLOCK_SIZE = 64;
+
+    private final int size;          // The number of CRNs.
+    private final int[] firsts;      // The first CRN of each block.
+    private final int[] offsets;     // Where each block's gaps start in data, plus the end of data.
+    private final byte[] data;       // The varint gaps of every block, block after block.
+
+    /**
+     * Creates a CompressedCrnSet holding the given CRNs. Duplicates are kept once.
+     *
+     * @param crns The CRNs, in any order; the array is not modified.
+     */
+    public CompressedCrnSet(int[] crns) {
+        this(sortedDistinct(crns));
+    }
+
+    /**
+     * Creates a CompressedCrnSet from CRNs that are already sorted and distinct.
+     */
+    private CompressedCrnSet(SortedCrns sorted) {
+        int[] crns = sorted.crns;
+        size = sorted.size;
+        int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        firsts = new int[blocks];
+        offsets = new int[blocks + 1];
+        byte[] out = new byte[Math.max(16, size + (size >> 2))];
+        int length = 0;
+        for (int block = 0; block < blocks; block++) {
+            int start = block * BLOCK_SIZE;
+            int end = Math.min(size, start + BLOCK_SIZE);
+            firsts[block] = crns[start];
+            offsets[block] = length;
+            for (int i = start + 1; i < end; i++) {
+                if (length + 5 > out.length) {
+                    out = Arrays.copyOf(out, out.length + (out.length >> 1) + 5);
+                }
+                // The gap is positive and below 2^32, so it is written as an unsigned int.
+                int gap = crns[i] - crns[i - 1];
+                while ((gap & ~0x7F) != 0) {
+                    out[length++] = (byte) ((gap & 0x7F) | 0x80);
+                    gap >>>= 7;
+                }
+                out[length++] = (byte) gap;
+            }
+        }
+        offsets[blocks] = length;
+        data = Arrays.copyOf(out, length);
+    }
+
+    /**
+     * Creates a CompressedCrnSet holding the CRNs of the given courses.
+     *
+     * @param courses The courses.
+     * @return The set of their CRNs.
+     */
+    public static CompressedCrnSet of(Iterable<CourseDBElement> courses) {
+        int[] crns = new int[16];
+        int count = 0;
+        for (CourseDBElement course : courses) {
+            if (count == crns.length) {
+                crns = Arrays.copyOf(crns, count << 1);
+            }
+            crns[count++] = course.getCRN();
+        }
+        return new CompressedCrnSet(Arrays.copyOf(crns, count));
+    }
+
+    /**
+     * Creates a CompressedCrnSet from CRNs that are already sorted in increasing order without
+     * duplicates, such as the CRN index of a snapshot, without copying or sorting them.
+     *
+     * @param crns  The sorted CRNs.
+     * @param count The number of CRNs to use from the start of the array.
+     * @return The set.
+     * @throws IllegalArgumentException If the CRNs are not strictly increasing.
+     */
+    public static CompressedCrnSet ofSorted(int[] crns, int count) {
+        for (int i = 1; i < count; i++) {
+            if (crns[i] <= crns[i - 1]) {
+                throw new IllegalArgumentException("CRNs are not strictly increasing at position " + i);
+            }
+        }
+        return new CompressedCrnSet(new SortedCrns(crns, count));
+    }
+
+    /**
+     * Tells whether the set holds a CRN.
+     *
+     * @param crn The CRN to look for.
+     * @return Whether the CRN is in the set.
+     */
+    public boolean contains(int crn) {
+        return indexOf(crn) >= 0;
+    }
+
+    /**
+     * Returns the rank of a CRN: the number of smaller CRNs in the set.
+     *
+     * @param crn The CRN to look for.
+     * @return The rank of the CRN, or -1 if it is not in the set.
+     */
+    public int indexOf(int crn) {
+        int block = Arrays.binarySearch(firsts, crn);
+        if (block >= 0) {
+            return block * BLOCK_SIZE;
+        }
+        block = -block - 2; // The block whose first CRN is the largest one below crn.
+        if (block < 0) {
+            return -1;
+        }
+        int value = firsts[block];
+        int position = offsets[block];
+        int end = offsets[block + 1];
+        for (int rank = block * BLOCK_SIZE + 1; position < end; rank++) {
+            int gap = 0;
+            int shift = 0;
+            byte next;
+            do {
+                next = data[position++];
+                gap |= (next & 0x7F) << shift;
+                shift += 7;
+            } while (next < 0);
+            value += gap;
+            if (value >= crn) {
+                return value == crn ? rank : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Passes every CRN in the set to an action, in increasing order.
+     *
+     * @param action Receives each CRN.
+     */
+    public void forEach(IntConsumer action) {
+        for (int block = 0; block < firsts.length; block++) {
+            int value = firsts[block];
+            action.accept(value);
+            int position = offsets[block];
+            int end = offsets[block + 1];
+            while (position < end) {
+                int gap = 0;
+                int shift = 0;
+                byte next;
+                do {
+                    next = data[position++];
+                    gap |= (next & 0x7F) << shift;
+                    shift += 7;
+                } while (next < 0);
+                value += gap;
+                action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of CRNs in the set.
+     *
+     * @return The size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the bytes held by the set's arrays, not counting object headers.
+     *
+     * @return The size of the encoded set in bytes.
+     */
+    public long getSizeInBytes() {
+        return data.length + 4L * (firsts.length + offsets.length);
+    }
+
+    /**
+     * Returns the bits the set spends per CRN.
+     *
+     * @return The bits per CRN, or 0 for an empty set.
+     */
+    public double getBitsPerKey() {
+        return size == 0 ? 0 : getSizeInBytes() * 8.0 / size;
+    }
+
+    /**
+     * CRNs sorted in increasing order without duplicates, and how many of them are in use.
+     */
+    private static final class SortedCrns {
+        private final int[] crns;
+        private final int size;
+
+        private SortedCrns(int[] crns, int size) {
+            this.crns = crns;
+            this.size = size;
+        }
+    }
+
+    private static SortedCrns sortedDistinct(int[] crns) {
+        int[] sorted = crns.clone();
+        Arrays.sort(sorted);
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (size == 0 || sorted[i] != sorted[size - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return new SortedCrns(sorted, size);
+    }
+}
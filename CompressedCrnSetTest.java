@@ -0,0 +1,66 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class contains JUnit tests for CompressedCrnSet. It tests that contains and indexOf agree
+ * with a binary search of the sorted CRNs, across block boundaries, large gaps, and negative CRNs,
+ * and that dense CRNs take about a byte each.
+ */
+public class CompressedCrnSetTest {
+
+    /**
+     * Test that lookups agree with Arrays.binarySearch for present and absent CRNs.
+     */
+    @Test
+    public void testMatchesBinarySearch() {
+        Random random = new Random(204);
+        int[] crns = new int[3000];
+        for (int i = 0; i < crns.length; i++) {
+            crns[i] = i % 10 == 0 ? random.nextInt() : 10000 + random.nextInt(20000);
+        }
+        crns[0] = Integer.MIN_VALUE;
+        crns[1] = Integer.MAX_VALUE;
+        crns[2] = crns[3]; // A duplicate is kept once.
+        CompressedCrnSet set = new CompressedCrnSet(crns);
+        int[] sorted = Arrays.stream(crns).sorted().distinct().toArray();
+        assertEquals(sorted.length, set.size());
+
+        for (int i = 0; i < sorted.length; i++) {
+            assertEquals(i, set.indexOf(sorted[i]));
+        }
+        for (int crn = 9990; crn < 30010; crn++) {
+            int expected = Arrays.binarySearch(sorted, crn);
+            assertEquals(Math.max(-1, expected), set.indexOf(crn), "CRN " + crn);
+        }
+        for (int i = 0; i < 10000; i++) {
+            int crn = random.nextInt();
+            assertEquals(Arrays.binarySearch(sorted, crn) >= 0, set.contains(crn));
+        }
+
+        int[] seen = new int[set.size()];
+        int[] count = new int[1];
+        set.forEach(crn -> seen[count[0]++] = crn);
+        assertArrayEquals(sorted, seen);
+    }
+
+    /**
+     * Test that dense CRNs compress to about a byte each and that ofSorted rejects unsorted input.
+     */
+    @Test
+    public void testCompression() {
+        int[] crns = CourseDBBenchmark.Distribution.RANDOM.crns(100000);
+        CompressedCrnSet set = new CompressedCrnSet(crns);
+        assertTrue(set.getBitsPerKey() < 10, "Bits per key: " + set.getBitsPerKey());
+        assertTrue(set.contains(crns[0]));
+
+        assertEquals(0, new CompressedCrnSet(new int[0]).size());
+        assertFalse(new CompressedCrnSet(new int[0]).contains(0));
+        assertEquals(1, CompressedCrnSet.ofSorted(new int[] {1, 5, 9}, 3).indexOf(5));
+        assertThrows(IllegalArgumentException.class, () -> CompressedCrnSet.ofSorted(new int[] {1, 1}, 2));
+    }
+}
@@ -0,0 +1,468 @@
+package Default;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * The ConcurrentCourseDBStructure class is a thread-safe hash table for course information.
+ * Reads take no locks: buckets are chains of immutable nodes published through an
+ * AtomicReferenceArray, so a reader always sees a complete chain. Writers lock only the stripe
+ * that owns their bucket, and resizing locks every stripe while it builds and publishes a new table.
+ */
+public class ConcurrentCourseDBStructure implements CourseDBStoreInterface {
+    private static final double MAX_LOAD_FACTOR = 0.75; // Grow the table once it is this full.
+    private static final int DEFAULT_STRIPES = 64;      // Number of write locks; must be a power of two.
+    private static final int PARALLEL_BATCH_MIN = 16384; // Batches at least this large fill stripes in parallel.
+
+    private volatile AtomicReferenceArray<Node> table; // The live table; replaced as a whole on resize.
+    private final ReentrantLock[] locks;                // Stripe i guards every bucket whose index is i mod locks.length.
+    private final int[] stripeSizes;                    // The number of courses under each stripe, guarded by that stripe.
+    private final LongAdder count = new LongAdder();    // The total number of courses.
+    private final CrnHashStrategy hashStrategy;         // The hash function used to place CRNs.
+
+    /**
+     * An immutable link in a bucket chain.
+     */
+    private static final class Node {
+        private final CourseDBElement element; // The course stored in this node.
+        private final Node next;               // The next node in the chain, or null.
+
+        private Node(CourseDBElement element, Node next) {
+            this.element = element;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Creates a ConcurrentCourseDBStructure instance with an estimated number of courses.
+     *
+     * @param estimatedNumCourses The estimated number of courses used to size the table.
+     */
+    public ConcurrentCourseDBStructure(int estimatedNumCourses) {
+        this(estimatedNumCourses, CrnHashStrategy.FIBONACCI);
+    }
+
+    /**
+     * Creates a ConcurrentCourseDBStructure instance with an estimated number of courses and a hash strategy.
+     *
+     * @param estimatedNumCourses The estimated number of courses used to size the table.
+     * @param hashStrategy        The hash function used to place CRNs in the table.
+     */
+    public ConcurrentCourseDBStructure(int estimatedNumCourses, CrnHashStrategy hashStrategy) {
+        this.hashStrategy = hashStrategy;
+        int capacity = DEFAULT_STRIPES;
+        while (capacity * MAX_LOAD_FACTOR < estimatedNumCourses) {
+            capacity <<= 1;
+        }
+        table = new AtomicReferenceArray<>(capacity);
+        locks = new ReentrantLock[DEFAULT_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        stripeSizes = new int[DEFAULT_STRIPES];
+    }
+
+    /**
+     * Adds a CourseDBElement to the table. If an element with the same CRN already exists, it is not added again.
+     * Concurrent adds of the same CRN are serialized by the bucket's stripe lock, so exactly one of them wins.
+     *
+     * @param element The CourseDBElement to add to the table.
+     */
+    @Override
+    public void add(CourseDBElement element) {
+        int crn = element.getCRN();
+        boolean grow;
+        while (true) {
+            AtomicReferenceArray<Node> current = table;
+            int index = indexFor(crn, current.length());
+            int stripe = index & (locks.length - 1);
+            ReentrantLock lock = locks[stripe];
+            lock.lock();
+            try {
+                if (current != table) {
+                    continue; // A resize replaced the table while we waited; retry against the new one.
+                }
+                Node head = current.get(index);
+                if (findInChain(head, crn) != null) {
+                    return; // Element already exists, exit quietly
+                }
+                current.set(index, new Node(element, head));
+                count.increment();
+                // Only sum the global count once this stripe is past its share of the load factor.
+                grow = ++stripeSizes[stripe] > current.length() * MAX_LOAD_FACTOR / locks.length
+                        && count.sum() > current.length() * MAX_LOAD_FACTOR;
+            } finally {
+                lock.unlock();
+            }
+            break;
+        }
+        if (grow) {
+            resize(count.sum());
+        }
+    }
+
+    /**
+     * Stores a CourseDBElement, replacing the element with the same CRN if there is one. Readers
+     * see either the old or the new element, never neither.
+     *
+     * @param element The CourseDBElement to store.
+     * @return The element it replaced, or null if the CRN was not in the table.
+     */
+    @Override
+    public CourseDBElement update(CourseDBElement element) {
+        return change(element.getCRN(), element);
+    }
+
+    /**
+     * Removes the CourseDBElement with the given CRN. The table does not shrink.
+     *
+     * @param crn The CRN of the course to remove.
+     * @return The element removed, or null if the CRN was not in the table.
+     */
+    @Override
+    public CourseDBElement remove(int crn) {
+        return change(crn, null);
+    }
+
+    /**
+     * Replaces or removes the course with a CRN under its bucket's stripe lock. Nodes are
+     * immutable, so the part of the chain before the course is copied and the rest is shared.
+     *
+     * @param crn         The CRN to change.
+     * @param replacement The new course, or null to remove the course. A replacement for a CRN
+     *                    that is not stored is added.
+     * @return The course that was stored under the CRN, or null.
+     */
+    private CourseDBElement change(int crn, CourseDBElement replacement) {
+        CourseDBElement previous;
+        boolean grow = false;
+        while (true) {
+            AtomicReferenceArray<Node> current = table;
+            int index = indexFor(crn, current.length());
+            int stripe = index & (locks.length - 1);
+            ReentrantLock lock = locks[stripe];
+            lock.lock();
+            try {
+                if (current != table) {
+                    continue; // A resize replaced the table while we waited; retry against the new one.
+                }
+                Node head = current.get(index);
+                previous = findInChain(head, crn);
+                if (previous != null) {
+                    current.set(index, rebuild(head, crn, replacement));
+                    if (replacement == null) {
+                        stripeSizes[stripe]--;
+                        count.decrement();
+                    }
+                } else if (replacement != null) {
+                    current.set(index, new Node(replacement, head));
+                    count.increment();
+                    grow = ++stripeSizes[stripe] > current.length() * MAX_LOAD_FACTOR / locks.length
+                            && count.sum() > current.length() * MAX_LOAD_FACTOR;
+                }
+            } finally {
+                lock.unlock();
+            }
+            break;
+        }
+        if (grow) {
+            resize(count.sum());
+        }
+        return previous;
+    }
+
+    /**
+     * Adds a batch of courses. The table is grown once for the whole batch, the courses are grouped
+     * by stripe, and each stripe's lock is taken once for all of its courses. Large batches fill
+     * the stripes in parallel on the common fork/join pool.
+     *
+     * <p>A CRN's stripe is its hash modulo the stripe count, which no resize changes, so the
+     * grouping stays valid even if another thread grows the table while the batch runs.</p>
+     *
+     * @param courses The courses to add.
+     */
+    @Override
+    public void addAll(Collection<? extends CourseDBElement> courses) {
+        CourseDBElement[] batch = courses.toArray(new CourseDBElement[0]);
+        resize(count.sum() + batch.length);
+
+        // Counting sort by stripe: starts[s] is where stripe s's courses begin in grouped.
+        int[] starts = new int[locks.length + 1];
+        for (CourseDBElement course : batch) {
+            starts[stripeFor(course.getCRN()) + 1]++;
+        }
+        for (int stripe = 0; stripe < locks.length; stripe++) {
+            starts[stripe + 1] += starts[stripe];
+        }
+        CourseDBElement[] grouped = new CourseDBElement[batch.length];
+        int[] next = starts.clone();
+        for (CourseDBElement course : batch) {
+            grouped[next[stripeFor(course.getCRN())]++] = course;
+        }
+
+        IntStream stripes = IntStream.range(0, locks.length);
+        if (batch.length >= PARALLEL_BATCH_MIN) {
+            stripes = stripes.parallel();
+        }
+        stripes.forEach(stripe -> addToStripe(stripe, grouped, starts[stripe], starts[stripe + 1]));
+        resize(count.sum()); // Duplicates or concurrent adds may leave the estimate off; settle the load factor.
+    }
+
+    /**
+     * Adds a run of courses that all belong to one stripe, holding that stripe's lock once.
+     */
+    private void addToStripe(int stripe, CourseDBElement[] grouped, int from, int to) {
+        if (from == to) {
+            return;
+        }
+        ReentrantLock lock = locks[stripe];
+        lock.lock();
+        try {
+            AtomicReferenceArray<Node> current = table; // Cannot change while we hold a stripe lock.
+            int added = 0;
+            for (int i = from; i < to; i++) {
+                int crn = grouped[i].getCRN();
+                int index = indexFor(crn, current.length());
+                Node head = current.get(index);
+                if (findInChain(head, crn) == null) {
+                    current.set(index, new Node(grouped[i], head));
+                    added++;
+                }
+            }
+            stripeSizes[stripe] += added;
+            count.add(added);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves a CourseDBElement based on the provided CRN without taking any lock.
+     *
+     * @param crn The CRN of the course to retrieve.
+     * @return The CourseDBElement associated with the given CRN.
+     * @throws IOException If the course with the specified CRN is not found in the table.
+     */
+    @Override
+    public CourseDBElement get(int crn) throws IOException {
+        CourseDBElement element = find(crn);
+        if (element == null) {
+            throw new IOException("Course not found with CRN: " + crn);
+        }
+        return element;
+    }
+
+    /**
+     * Finds a CourseDBElement based on the provided CRN without taking any lock or throwing on a miss.
+     *
+     * @param crn The CRN of the course to find.
+     * @return The CourseDBElement associated with the given CRN, or null if it is not in the table.
+     */
+    @Override
+    public CourseDBElement find(int crn) {
+        AtomicReferenceArray<Node> current = table;
+        return findInChain(current.get(indexFor(crn, current.length())), crn);
+    }
+
+    /**
+     * Returns an ArrayList of string representations of all course elements in the table. The
+     * scan does not block writers; courses added while it runs may or may not be included.
+     *
+     * @return An ArrayList of strings representing all course elements in the table.
+     */
+    @Override
+    public ArrayList<String> showAll() {
+        AtomicReferenceArray<Node> current = table;
+        ArrayList<String> courseStrings = new ArrayList<>();
+        for (int i = 0; i < current.length(); i++) {
+            for (Node node = current.get(i); node != null; node = node.next) {
+                courseStrings.add(node.element.toString());
+            }
+        }
+        return courseStrings;
+    }
+
+    /**
+     * Returns the number of buckets in the live table.
+     *
+     * @return The size of the hash table.
+     */
+    @Override
+    public int getTableSize() {
+        return table.length();
+    }
+
+    /**
+     * Returns the number of courses stored. Under concurrent adds the result is only an estimate.
+     *
+     * @return The number of courses.
+     */
+    @Override
+    public int size() {
+        return count.intValue();
+    }
+
+    /**
+     * Returns true: reads take no locks and writers lock their own stripes.
+     *
+     * @return true.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Returns a snapshot of the table's size, load factor, and longest chain without taking any
+     * lock, so the figures may be slightly stale under concurrent adds. Finding the longest chain
+     * visits every bucket.
+     *
+     * @return The current statistics for this table.
+     */
+    @Override
+    public CourseDBStructureStats getStats() {
+        AtomicReferenceArray<Node> current = table;
+        int longestChain = 0;
+        for (int i = 0; i < current.length(); i++) {
+            int chain = 0;
+            for (Node node = current.get(i); node != null; node = node.next) {
+                chain++;
+            }
+            longestChain = Math.max(longestChain, chain);
+        }
+        return new CourseDBStructureStats(count.intValue(), current.length(), longestChain, false);
+    }
+
+    /**
+     * Returns an iterator over the courses in the table. Like showAll it does not block writers;
+     * it reads the table that was live when it was created and sees each chain as of when it reaches it.
+     *
+     * @return An iterator over the stored courses.
+     */
+    @Override
+    public Iterator<CourseDBElement> iterator() {
+        return new Iterator<CourseDBElement>() {
+            private final AtomicReferenceArray<Node> current = table;
+            private int bucketIndex; // The next bucket to read.
+            private Node node;       // The next node to return, or null.
+
+            @Override
+            public boolean hasNext() {
+                while (node == null && bucketIndex < current.length()) {
+                    node = current.get(bucketIndex++);
+                }
+                return node != null;
+            }
+
+            @Override
+            public CourseDBElement next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                CourseDBElement element = node.element;
+                node = node.next;
+                return element;
+            }
+        };
+    }
+
+    /**
+     * Grows the table until it holds the given number of courses within the load factor. Every
+     * stripe lock is held while the new table is built, so no add can run against the old table
+     * once the new one is published. Readers keep using whichever table they loaded, and the old
+     * table stays complete because its chains are never modified.
+     *
+     * @param courses The number of courses the table must fit.
+     */
+    private void resize(long courses) {
+        if (courses <= table.length() * MAX_LOAD_FACTOR) {
+            return;
+        }
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            AtomicReferenceArray<Node> current = table;
+            if (courses <= current.length() * MAX_LOAD_FACTOR) {
+                return; // Another thread already grew the table.
+            }
+            int capacity = current.length() << 1;
+            while (capacity * MAX_LOAD_FACTOR < courses) {
+                capacity <<= 1;
+            }
+            // Bucket i moves to i + k * length for some k, which is the same stripe, so stripeSizes stay valid.
+            AtomicReferenceArray<Node> larger = new AtomicReferenceArray<>(capacity);
+            for (int i = 0; i < current.length(); i++) {
+                for (Node node = current.get(i); node != null; node = node.next) {
+                    int index = indexFor(node.element.getCRN(), larger.length());
+                    larger.set(index, new Node(node.element, larger.get(index)));
+                }
+            }
+            table = larger;
+        } finally {
+            for (ReentrantLock lock : locks) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Searches a chain for the course with the given CRN.
+     *
+     * @param node The head of the chain.
+     * @param crn  The CRN to look for.
+     * @return The matching course, or null if the chain does not contain it.
+     */
+    private static CourseDBElement findInChain(Node node, int crn) {
+        for (; node != null; node = node.next) {
+            if (node.element.getCRN() == crn) {
+                return node.element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Copies a chain up to the node holding a CRN, which must be present, and links the copy to
+     * the replacement, if any, and the shared rest of the chain.
+     *
+     * @param node        The head of the chain.
+     * @param crn         The CRN to replace or remove.
+     * @param replacement The new course, or null to drop the node.
+     * @return The head of the new chain.
+     */
+    private static Node rebuild(Node node, int crn, CourseDBElement replacement) {
+        if (node.element.getCRN() == crn) {
+            return replacement == null ? node.next : new Node(replacement, node.next);
+        }
+        return new Node(node.element, rebuild(node.next, crn, replacement));
+    }
+
+    /**
+     * Maps a CRN to the stripe that guards its bucket in a table of any size.
+     *
+     * @param crn The CRN to place.
+     * @return The stripe index.
+     */
+    private int stripeFor(int crn) {
+        return hashStrategy.hash(crn) & (locks.length - 1);
+    }
+
+    /**
+     * Maps a CRN to a bucket of a power-of-two table.
+     *
+     * @param crn    The CRN to place.
+     * @param length The table length.
+     * @return The bucket index.
+     */
+    private int indexFor(int crn, int length) {
+        return hashStrategy.hash(crn) & (length - 1);
+    }
+}
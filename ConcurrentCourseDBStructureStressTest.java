@@ -0,0 +1,163 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class contains stress tests for ConcurrentCourseDBStructure. Writers and readers run
+ * against one structure that starts small, so the table is resized repeatedly under contention.
+ */
+public class ConcurrentCourseDBStructureStressTest {
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final int CRNS_PER_WRITER = 20000;
+
+    /**
+     * Test that an add that has returned is always visible to a get that starts afterwards.
+     * Each writer marks a CRN as published after add returns; readers that observe the mark
+     * must then be able to find the CRN, even while the table is being resized.
+     */
+    @Test
+    public void testAddHappensBeforeGet() throws InterruptedException {
+        ConcurrentCourseDBStructure structure = new ConcurrentCourseDBStructure(16);
+        int total = THREADS * CRNS_PER_WRITER;
+        AtomicIntegerArray published = new AtomicIntegerArray(total);
+        AtomicInteger writersDone = new AtomicInteger();
+        AtomicReference<String> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < THREADS; w++) {
+            final int writer = w;
+            threads.add(new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = writer; i < total; i += THREADS) {
+                    structure.add(new CourseDBElement("CMSC204", i, 4, "SC450", "Writer " + writer));
+                    published.set(i, 1);
+                }
+                writersDone.incrementAndGet();
+            }));
+        }
+        for (int r = 0; r < THREADS; r++) {
+            final int reader = r;
+            threads.add(new Thread(() -> {
+                awaitQuietly(start);
+                int crn = reader;
+                while (writersDone.get() < THREADS && failure.get() == null) {
+                    crn = (crn + 7919) % total;
+                    if (published.get(crn) == 1) {
+                        try {
+                            if (structure.get(crn).getCRN() != crn) {
+                                failure.compareAndSet(null, "Wrong course returned for CRN " + crn);
+                            }
+                        } catch (IOException e) {
+                            failure.compareAndSet(null, "Published CRN " + crn + " was not found");
+                        }
+                    }
+                }
+            }));
+        }
+        runAll(threads, start);
+
+        assertNull(failure.get());
+        assertEquals(total, structure.size());
+        assertEquals(total, structure.showAll().size());
+        assertTrue(structure.getTableSize() * 0.75 >= total);
+    }
+
+    /**
+     * Test that when many threads race to add the same CRNs, exactly one element per CRN is kept
+     * and every thread then observes the same winner.
+     */
+    @Test
+    public void testDuplicateAddsHaveOneWinner() throws InterruptedException, IOException {
+        ConcurrentCourseDBStructure structure = new ConcurrentCourseDBStructure(16);
+        int distinct = 5000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < THREADS; w++) {
+            final int writer = w;
+            threads.add(new Thread(() -> {
+                awaitQuietly(start);
+                for (int crn = 0; crn < distinct; crn++) {
+                    structure.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Writer " + writer));
+                }
+            }));
+        }
+        runAll(threads, start);
+
+        assertEquals(distinct, structure.size());
+        assertEquals(distinct, structure.showAll().size());
+        for (int crn = 0; crn < distinct; crn++) {
+            assertSame(structure.get(crn), structure.get(crn));
+        }
+    }
+
+    /**
+     * Test that batch adds racing single adds over overlapping CRNs keep exactly one element per
+     * CRN, and that the table ends up sized for everything it holds.
+     */
+    @Test
+    public void testBatchAddsRaceSingleAdds() throws InterruptedException {
+        ConcurrentCourseDBStructure structure = new ConcurrentCourseDBStructure(16);
+        int distinct = 40000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < THREADS; w++) {
+            final int writer = w;
+            threads.add(new Thread(() -> {
+                awaitQuietly(start);
+                if (writer % 2 == 0) {
+                    List<CourseDBElement> batch = new ArrayList<>();
+                    for (int crn = writer; crn < distinct; crn++) {
+                        batch.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Writer " + writer));
+                    }
+                    structure.addAll(batch);
+                } else {
+                    for (int crn = distinct - 1; crn >= 0; crn--) {
+                        structure.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Writer " + writer));
+                    }
+                }
+            }));
+        }
+        runAll(threads, start);
+
+        assertEquals(distinct, structure.size());
+        assertEquals(distinct, structure.showAll().size());
+        for (int crn = 0; crn < distinct; crn++) {
+            assertEquals(crn, structure.find(crn).getCRN());
+        }
+        assertTrue(structure.getTableSize() * 0.75 >= distinct);
+    }
+
+    /**
+     * Starts every thread, releases them together, and waits for all of them to finish.
+     */
+    private static void runAll(List<Thread> threads, CountDownLatch start) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Waits for the start signal, restoring the interrupt flag if interrupted.
+     */
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package Default;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The CourseDBBatchBenchmark class compares CourseDBManager's batch APIs with the equivalent loops of
+ * single calls: addAll against one add per course, and getAll against one get per CRN. Each structure
+ * type is measured at each catalog size, with CRNs inserted and looked up in random order.
+ *
+ * <p>Usage: java Default.CourseDBBatchBenchmark [sizes] [structures], for example
+ * {@code java Default.CourseDBBatchBenchmark 100000,1000000 open_addressing,concurrent}.
+ * The speedup of getAll on large batches includes splitting the batch across cores, so it grows
+ * with the number of available processors.</p>
+ */
+public class CourseDBBatchBenchmark {
+    private static volatile long sink; // Consumes results so the JIT cannot discard the measured work.
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional comma-separated sizes and structure types.
+     */
+    public static void main(String[] args) {
+        String sizes = args.length > 0 ? args[0] : "10000,100000,1000000";
+        String structures = args.length > 1 ? args[1] : "chained,open_addressing,concurrent";
+
+        System.out.printf("%d cores%n", Runtime.getRuntime().availableProcessors());
+        CourseDBBenchmark.printHeader();
+        for (String structureName : structures.split(",")) {
+            CourseDBStructureType type = CourseDBStructureType.valueOf(structureName.trim().toUpperCase(Locale.ROOT));
+            for (String sizeText : sizes.split(",")) {
+                runSuite(type, Integer.parseInt(sizeText.trim()));
+            }
+        }
+    }
+
+    /**
+     * Measures single and batch adds and gets for one structure type and catalog size.
+     */
+    private static void runSuite(CourseDBStructureType type, int size) {
+        String label = type + "/" + size;
+        int[] crns = CourseDBBenchmark.Distribution.RANDOM.crns(size);
+        List<CourseDBElement> courses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            courses.add(new CourseDBElement("CMSC" + (100 + i % 400), crns[i], 1 + i % 4, "SC" + (i % 500),
+                    "Instructor" + (i % 2000)));
+        }
+
+        // Both add rows start from a default-sized structure, as a manager filled by a service would.
+        CourseDBBenchmark.measure(label, "add-loop", size, () -> {
+            CourseDBManager manager = new CourseDBManager(type.create(500));
+            for (CourseDBElement course : courses) {
+                manager.add(course.getID(), course.getCRN(), course.getCredits(), course.getRoomNum(),
+                        course.getInstructorName());
+            }
+            sink += manager.get(crns[size - 1]).getCredits();
+        });
+        CourseDBBenchmark.measure(label, "addAll", size, () -> {
+            CourseDBManager manager = new CourseDBManager(type.create(500));
+            manager.addAll(courses);
+            sink += manager.get(crns[size - 1]).getCredits();
+        });
+
+        CourseDBManager manager = new CourseDBManager(type.create(size));
+        manager.addAll(courses);
+        int[] lookupOrder = CourseDBBenchmark.Distribution.RANDOM.crns(size);
+        for (int i = 0; i < size; i++) {
+            lookupOrder[i] = crns[(lookupOrder[i] - 10000) / 4 % size]; // Visit the stored CRNs in a shuffled order.
+        }
+        CourseDBElement[] results = new CourseDBElement[size];
+
+        CourseDBBenchmark.measure(label, "get-loop", size, () -> {
+            long sum = 0;
+            for (int crn : lookupOrder) {
+                sum += manager.get(crn).getCredits();
+            }
+            sink += sum;
+        });
+        CourseDBBenchmark.measure(label, "getAll", size, () -> {
+            sink += manager.getAll(lookupOrder, results);
+        });
+    }
+}
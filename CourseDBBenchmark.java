@@ -0,0 +1,272 @@
+package Default;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * The CourseDBBenchmark class measures the course database at several catalog sizes and CRN
+ * distributions. For each configured structure type it times add, get and find hits and misses,
+ * CourseDBManager.get hits and misses with and without metrics, showAll, and
+ * CourseDBManager.readFile, and reports throughput, average time, and bytes allocated per
+ * operation. The find and manager rows show the miss path costing the same as the hit path, while
+ * get-miss shows the cost of the thrown exception.
+ *
+ * <p>Usage: java Default.CourseDBBenchmark [sizes] [distributions] [structures], for example
+ * {@code java Default.CourseDBBenchmark 1000,100000,10000000 sequential,random chained,open_addressing}.
+ * Run with -Xmx large enough for the largest size. Each measurement is warmed up first and the
+ * best of several rounds is reported, so results are stable enough to compare tuning changes.</p>
+ */
+public class CourseDBBenchmark {
+    private static final int WARMUP_ROUNDS = 3;   // Rounds run and discarded before measuring.
+    private static final int MEASURED_ROUNDS = 5; // Rounds measured; the fastest is reported.
+    private static final int MISS_OFFSET = 1 << 30; // Added to CRNs to produce keys that are never present.
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile long sink; // Consumes results so the JIT cannot discard the measured work.
+
+    /**
+     * The CRN distributions a benchmark can draw keys from.
+     */
+    public enum Distribution {
+        /** CRNs 10000, 10001, 10002, and so on. */
+        SEQUENTIAL,
+        /** Distinct CRNs in a random order drawn from a range four times the catalog size. */
+        RANDOM;
+
+        /**
+         * Generates distinct CRNs.
+         *
+         * @param count The number of CRNs to generate.
+         * @return The CRNs in insertion order.
+         */
+        public int[] crns(int count) {
+            int[] crns = new int[count];
+            if (this == SEQUENTIAL) {
+                for (int i = 0; i < count; i++) {
+                    crns[i] = 10000 + i;
+                }
+                return crns;
+            }
+            // Take every fourth number of a range and shuffle, which keeps the CRNs distinct without a set.
+            Random random = new Random(204);
+            for (int i = 0; i < count; i++) {
+                crns[i] = 10000 + i * 4 + random.nextInt(4);
+            }
+            for (int i = count - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = crns[i];
+                crns[i] = crns[j];
+                crns[j] = swap;
+            }
+            return crns;
+        }
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional comma-separated sizes, distributions, and structure types.
+     * @throws IOException If the temporary course file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int[] sizes = parseSizes(args.length > 0 ? args[0] : "1000,10000,100000,1000000");
+        String distributions = args.length > 1 ? args[1] : "sequential,random";
+        String structures = args.length > 2 ? args[2] : "chained,open_addressing";
+
+        printHeader();
+        for (String structureName : structures.split(",")) {
+            CourseDBStructureType type = CourseDBStructureType.valueOf(structureName.trim().toUpperCase(Locale.ROOT));
+            for (String distributionName : distributions.split(",")) {
+                Distribution distribution = Distribution.valueOf(distributionName.trim().toUpperCase(Locale.ROOT));
+                for (int size : sizes) {
+                    runSuite(type, distribution, size);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs every operation for one structure type, distribution, and catalog size.
+     */
+    private static void runSuite(CourseDBStructureType type, Distribution distribution, int size) throws IOException {
+        String label = type + "/" + distribution + "/" + size;
+        int[] crns = distribution.crns(size);
+        CourseDBElement[] elements = new CourseDBElement[size];
+        for (int i = 0; i < size; i++) {
+            elements[i] = new CourseDBElement("CMSC" + (100 + i % 400), crns[i], 1 + i % 4, "SC" + (i % 500),
+                    "Instructor" + (i % 2000));
+        }
+
+        measure(label, "add", size, () -> {
+            CourseDBStructureInterface structure = type.create(size);
+            for (CourseDBElement element : elements) {
+                structure.add(element);
+            }
+            sink += structure.getTableSize();
+        });
+
+        CourseDBStoreInterface loaded = type.create(size);
+        for (CourseDBElement element : elements) {
+            loaded.add(element);
+        }
+        int[] lookupOrder = Distribution.RANDOM.crns(size);
+        for (int i = 0; i < size; i++) {
+            lookupOrder[i] = crns[(lookupOrder[i] - 10000) / 4 % size]; // Visit the stored CRNs in a shuffled order.
+        }
+
+        measure(label, "get-hit", size, () -> {
+            long sum = 0;
+            try {
+                for (int crn : lookupOrder) {
+                    sum += loaded.get(crn).getCredits();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            sink += sum;
+        });
+
+        measure(label, "get-miss", size, () -> {
+            long misses = 0;
+            for (int crn : lookupOrder) {
+                try {
+                    loaded.get(crn + MISS_OFFSET);
+                } catch (IOException e) {
+                    misses++;
+                }
+            }
+            sink += misses;
+        });
+
+        measure(label, "find-hit", size, () -> {
+            long sum = 0;
+            for (int crn : lookupOrder) {
+                sum += loaded.find(crn).getCredits();
+            }
+            sink += sum;
+        });
+
+        measure(label, "find-miss", size, () -> {
+            long misses = 0;
+            for (int crn : lookupOrder) {
+                if (loaded.find(crn + MISS_OFFSET) == null) {
+                    misses++;
+                }
+            }
+            sink += misses;
+        });
+
+        CourseDBManager loadedManager = new CourseDBManager(loaded);
+        measure(label, "mgr-get-hit", size, () -> {
+            long sum = 0;
+            for (int crn : lookupOrder) {
+                sum += loadedManager.get(crn).getCredits();
+            }
+            sink += sum;
+        });
+
+        measure(label, "mgr-get-miss", size, () -> {
+            long misses = 0;
+            for (int crn : lookupOrder) {
+                if (loadedManager.get(crn + MISS_OFFSET) == null) {
+                    misses++;
+                }
+            }
+            sink += misses;
+        });
+
+        // The same hit loop with metrics on, timing one get in 64 and then every get.
+        for (int sampleInterval : new int[] {64, 1}) {
+            loadedManager.enableMetrics(sampleInterval);
+            measure(label, "mgr-get-m" + sampleInterval, size, () -> {
+                long sum = 0;
+                for (int crn : lookupOrder) {
+                    sum += loadedManager.get(crn).getCredits();
+                }
+                sink += sum;
+            });
+        }
+        loadedManager.disableMetrics();
+
+        measure(label, "showAll", size, () -> {
+            ArrayList<String> all = loaded.showAll();
+            sink += all.size();
+        });
+
+        File courseFile = File.createTempFile("coursedb-bench", ".txt");
+        courseFile.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(courseFile)) {
+            for (CourseDBElement element : elements) {
+                writer.println(element.getID() + " " + element.getCRN() + " " + element.getCredits() + " "
+                        + element.getRoomNum() + " " + element.getInstructorName());
+            }
+        }
+        measure(label, "readFile", size, () -> {
+            CourseDBManager manager = new CourseDBManager(type.create(size));
+            try {
+                manager.readFile(courseFile);
+            } catch (FileNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+            sink += manager.showAll().size();
+        });
+        courseFile.delete();
+    }
+
+    /**
+     * Prints the column headings.
+     */
+    static void printHeader() {
+        System.out.printf("%-40s %-12s %14s %12s %12s%n", "configuration", "operation", "ops/s", "ns/op", "bytes/op");
+    }
+
+    /**
+     * Warms up and then measures a body that performs a fixed number of operations, printing the
+     * throughput, average time, and allocation per operation of the fastest measured round.
+     *
+     * @param label      The configuration being measured.
+     * @param operation  The operation being measured.
+     * @param operations The number of operations one run of the body performs.
+     * @param body       The work to measure.
+     */
+    static void measure(String label, String operation, int operations, Runnable body) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            body.run();
+        }
+        long bestNanos = Long.MAX_VALUE;
+        long bestBytes = Long.MAX_VALUE;
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            body.run();
+            long elapsed = System.nanoTime() - start;
+            long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+            bestNanos = Math.min(bestNanos, elapsed);
+            bestBytes = Math.min(bestBytes, bytes);
+        }
+        double nanosPerOp = (double) bestNanos / operations;
+        System.out.printf("%-40s %-12s %14.0f %12.1f %12.1f%n", label, operation,
+                1e9 / nanosPerOp, nanosPerOp, (double) bestBytes / operations);
+    }
+
+    /**
+     * Parses a comma-separated list of catalog sizes.
+     */
+    private static int[] parseSizes(String list) {
+        String[] parts = list.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].trim());
+        }
+        return sizes;
+    }
+}
@@ -0,0 +1,484 @@
+package Default;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CourseDBCatalog class keeps many academic terms queryable, each in its own CourseDBManager,
+ * without keeping them all in memory. Terms are registered with the course file or snapshot that
+ * holds them and are loaded on first access. Once the estimated memory of the resident terms passes
+ * the memory budget, the least recently used terms are evicted; the next access loads them again.
+ * Cross-term lookups search only the resident terms, so history that nobody is reading costs no
+ * memory and no lookup time.
+ *
+ * <p>A source whose name ends in ".snapshot" is memory-mapped with CourseDBSnapshot; anything else
+ * is read as a course file. Mapped terms are cheap to keep: their courses live in the page cache,
+ * and only their decoded strings and a compressed CRN index (see MappedCourseDBStructure.cacheCrnIndex)
+ * are on the heap. Terms read from course files get a membership filter when their structure
+ * supports one, because a cross-term lookup misses in every term but one.</p>
+ *
+ * <p>The memory of a term is estimated for its structure type: one object and three Strings per
+ * course for object-per-course structures, one row of int columns per course plus each distinct
+ * string once for COLUMNAR, and the direct memory actually reserved for OFF_HEAP, which keeps
+ * almost nothing on the heap. A structure that holds resources, such as OFF_HEAP's direct memory,
+ * is closed when its term is evicted, as soon as no get or findResident is still reading it.</p>
+ *
+ * <p>An evicted term is reloaded from its source, so changes made through a term's manager are lost
+ * on eviction unless they were saved to that source, for example with saveSnapshot. Terms that take
+ * changes, such as the current term, are better kept in their own manager outside the catalog.</p>
+ */
+public class CourseDBCatalog {
+    /** The suffix of term sources that are snapshots rather than course files. */
+    public static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final int BYTES_PER_COURSE = 92;         // A course and its share of the structure, before strings.
+    private static final int BYTES_PER_STRING = 40;         // A String and its array, before the characters.
+    private static final int MAPPED_BYTES_PER_COURSE = 8;   // A mapped course's share of the decoded string cache.
+    private static final int BYTES_PER_COURSE_LINE = 40;    // Typical course-file line, for sizing structures.
+    private static final int COLUMNAR_BYTES_PER_COURSE = 28; // Five int columns and a share of the slot table.
+    private static final int BYTES_PER_DICTIONARY_ENTRY = 48; // A dictionary's map entry and array slot per string.
+    private static final int OFF_HEAP_BYTES_ON_HEAP = 256;   // The heap side of an off-heap structure.
+
+    private final long memoryBudget;                // Estimated memory the resident terms may use, in bytes.
+    private final CourseDBStructureType structureType; // The structure terms read from course files use.
+    private final Map<String, Term> terms = new LinkedHashMap<>(); // Every registered term, in registration order.
+    private final LinkedHashMap<String, Term> resident = new LinkedHashMap<>(16, 0.75f, true); // Least recently used first.
+    private long residentBytes;                     // The estimated memory of the resident terms.
+    private long loads;                             // Terms loaded, counting reloads.
+    private long evictions;                         // Terms evicted to stay within the budget.
+
+    /**
+     * A registered term. Its loaded state is guarded by the catalog; the term itself is locked
+     * while it loads, so concurrent first accesses load it once.
+     */
+    private static final class Term {
+        private final String name;                  // The term's name.
+        private final Path source;                  // The course file or snapshot holding the term.
+        private Loaded loaded;                      // The loaded term, or null if it is not resident.
+
+        private Term(String name, Path source) {
+            this.name = name;
+            this.source = source;
+        }
+    }
+
+    /**
+     * One load of a term, guarded by the catalog. It outlives its eviction while catalog lookups
+     * are still reading it, and its structure is closed once the last of them finishes.
+     */
+    private static final class Loaded {
+        private final CourseDBManager manager;      // The loaded term.
+        private final long bytes;                   // The estimated memory of the loaded term.
+        private int readers;                        // Catalog lookups reading the manager now.
+        private boolean evicted;                    // Whether the term has been unloaded.
+
+        private Loaded(CourseDBManager manager, long bytes) {
+            this.manager = manager;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Creates an empty CourseDBCatalog whose terms read from course files use the structure type
+     * named by the "coursedb.structure" system property (see CourseDBStructureType).
+     *
+     * @param memoryBudget The estimated memory the resident terms may use, in bytes.
+     */
+    public CourseDBCatalog(long memoryBudget) {
+        this(memoryBudget, CourseDBStructureType.fromSystemProperty());
+    }
+
+    /**
+     * Creates an empty CourseDBCatalog.
+     *
+     * @param memoryBudget  The estimated memory the resident terms may use, in bytes.
+     * @param structureType The structure terms read from course files use.
+     * @throws IllegalArgumentException If the budget is negative.
+     */
+    public CourseDBCatalog(long memoryBudget, CourseDBStructureType structureType) {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("Memory budget must not be negative: " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+        this.structureType = structureType;
+    }
+
+    /**
+     * Registers a term without loading it.
+     *
+     * @param term   The term's name, such as "2024FA".
+     * @param source The course file or snapshot holding the term.
+     * @throws IllegalArgumentException If a term with that name is already registered.
+     */
+    public synchronized void addTerm(String term, Path source) {
+        if (terms.containsKey(term)) {
+            throw new IllegalArgumentException("Term is already registered: " + term);
+        }
+        terms.put(term, new Term(term, source));
+    }
+
+    /**
+     * Unregisters a term, evicting it if it is resident.
+     *
+     * @param term The term's name.
+     * @return Whether the term was registered.
+     */
+    public synchronized boolean removeTerm(String term) {
+        Term removed = terms.remove(term);
+        if (removed == null) {
+            return false;
+        }
+        unload(removed);
+        return true;
+    }
+
+    /**
+     * Returns the manager of a term, loading the term if it is not resident, and marks it as the
+     * most recently used. Loading may evict other terms. If the term's structure holds resources,
+     * as OFF_HEAP does, the manager stops working once the term is evicted; get and findResident
+     * are safe however long the lookup takes.
+     *
+     * @param term The term's name.
+     * @return The term's manager.
+     * @throws IllegalArgumentException If the term is not registered.
+     * @throws IOException If the term's source cannot be read.
+     */
+    public CourseDBManager getTerm(String term) throws IOException {
+        return acquire(term, false).manager;
+    }
+
+    /**
+     * Looks a course up in one term, loading the term if it is not resident.
+     *
+     * @param term The term's name.
+     * @param crn  The CRN of the course.
+     * @return The course, or null if the term does not hold the CRN.
+     * @throws IllegalArgumentException If the term is not registered.
+     * @throws IOException If the term's source cannot be read.
+     */
+    public CourseDBElement get(String term, int crn) throws IOException {
+        Loaded loaded = acquire(term, true);
+        try {
+            return loaded.manager.get(crn);
+        } finally {
+            release(loaded);
+        }
+    }
+
+    /**
+     * Looks a course up in every resident term. Terms that are not resident are not loaded, and
+     * the lookup does not change which terms are the most recently used.
+     *
+     * @param crn The CRN of the course.
+     * @return The course held by each resident term that holds the CRN, by term name, in
+     *         registration order.
+     */
+    public Map<String, CourseDBElement> findResident(int crn) {
+        Map<String, Loaded> searched = new LinkedHashMap<>();
+        synchronized (this) {
+            for (Term term : terms.values()) {
+                if (term.loaded != null) {
+                    term.loaded.readers++;
+                    searched.put(term.name, term.loaded);
+                }
+            }
+        }
+        // Search outside the lock; a term evicted meanwhile is still searched, and closed afterwards.
+        Map<String, CourseDBElement> found = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Loaded> term : searched.entrySet()) {
+                CourseDBElement course = term.getValue().manager.get(crn);
+                if (course != null) {
+                    found.put(term.getKey(), course);
+                }
+            }
+        } finally {
+            for (Loaded loaded : searched.values()) {
+                release(loaded);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Evicts a term now. Its next access loads it again.
+     *
+     * @param term The term's name.
+     * @return Whether the term was resident.
+     * @throws IllegalArgumentException If the term is not registered.
+     */
+    public synchronized boolean evict(String term) {
+        Term entry = registered(term);
+        boolean wasResident = entry.loaded != null;
+        unload(entry);
+        return wasResident;
+    }
+
+    /**
+     * Returns the names of the registered terms.
+     *
+     * @return The names, in registration order.
+     */
+    public synchronized List<String> getTerms() {
+        return new ArrayList<>(terms.keySet());
+    }
+
+    /**
+     * Returns the names of the resident terms.
+     *
+     * @return The names, least recently used first.
+     */
+    public synchronized List<String> getResidentTerms() {
+        return new ArrayList<>(resident.keySet());
+    }
+
+    /**
+     * Returns the estimated memory of the resident terms.
+     *
+     * @return The estimate in bytes.
+     */
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    /**
+     * Returns the estimated memory the resident terms may use.
+     *
+     * @return The budget in bytes.
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Returns the number of times a term was loaded, counting reloads after eviction.
+     *
+     * @return The load count.
+     */
+    public synchronized long getLoadCount() {
+        return loads;
+    }
+
+    /**
+     * Returns the number of terms evicted to stay within the memory budget.
+     *
+     * @return The eviction count.
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Returns a registered term.
+     *
+     * @param term The term's name.
+     * @return The term.
+     * @throws IllegalArgumentException If the term is not registered.
+     */
+    private Term registered(String term) {
+        Term entry = terms.get(term);
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown term: " + term);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns a term's load, loading the term if it is not resident, and marks it as the most
+     * recently used. Loading may evict other terms.
+     *
+     * @param term   The term's name.
+     * @param reader Whether to count the caller as a reader, who must then call release.
+     * @return The term's load.
+     * @throws IllegalArgumentException If the term is not registered.
+     * @throws IOException If the term's source cannot be read.
+     */
+    private Loaded acquire(String term, boolean reader) throws IOException {
+        Term entry;
+        synchronized (this) {
+            entry = registered(term);
+            if (entry.loaded != null) {
+                resident.get(term); // Touch it.
+                return use(entry.loaded, reader);
+            }
+        }
+        synchronized (entry) {
+            synchronized (this) {
+                if (entry.loaded != null) {
+                    resident.get(term); // Loaded by another thread while this one waited.
+                    return use(entry.loaded, reader);
+                }
+            }
+            Loaded loaded = load(entry.source);
+            synchronized (this) {
+                if (terms.get(term) != entry) {
+                    loaded.evicted = true; // Removed while loading: serve this caller without keeping it.
+                    return use(loaded, reader);
+                }
+                entry.loaded = loaded;
+                resident.put(term, entry);
+                residentBytes += loaded.bytes;
+                loads++;
+                use(loaded, reader);
+                evictOver(entry);
+                return loaded;
+            }
+        }
+    }
+
+    /**
+     * Counts a reader of a load if asked to; the caller holds the catalog's lock.
+     */
+    private static Loaded use(Loaded loaded, boolean reader) {
+        if (reader) {
+            loaded.readers++;
+        }
+        return loaded;
+    }
+
+    /**
+     * Ends a read of a load, closing its structure if the term was evicted meanwhile and this was
+     * the last reader.
+     *
+     * @param loaded The load that was read.
+     */
+    private synchronized void release(Loaded loaded) {
+        if (--loaded.readers == 0 && loaded.evicted) {
+            close(loaded);
+        }
+    }
+
+    /**
+     * Evicts the least recently used terms until the resident terms fit the budget. The term just
+     * loaded is kept even if it alone is over the budget, since its caller is about to use it.
+     *
+     * @param loaded The term just loaded.
+     */
+    private void evictOver(Term loaded) {
+        List<Term> victims = new ArrayList<>();
+        long remaining = residentBytes;
+        for (Term term : resident.values()) {
+            if (remaining <= memoryBudget) {
+                break;
+            }
+            if (term != loaded) {
+                victims.add(term);
+                remaining -= term.loaded.bytes;
+            }
+        }
+        for (Term victim : victims) {
+            unload(victim);
+            evictions++;
+        }
+    }
+
+    /**
+     * Unloads a term. Catalog lookups still reading it can finish with it; its structure is closed
+     * once they have, or now if there are none.
+     *
+     * @param term The term to unload.
+     */
+    private void unload(Term term) {
+        Loaded loaded = term.loaded;
+        if (loaded != null) {
+            resident.remove(term.name);
+            residentBytes -= loaded.bytes;
+            term.loaded = null;
+            loaded.evicted = true;
+            if (loaded.readers == 0) {
+                close(loaded);
+            }
+        }
+    }
+
+    /**
+     * Closes the structure of an evicted load if it holds resources, such as direct memory.
+     *
+     * @param loaded The load, with no readers left.
+     */
+    private static void close(Loaded loaded) {
+        CourseDBStoreInterface store = loaded.manager.getStructure();
+        if (store instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) store).close();
+            } catch (Exception e) {
+                // Eviction has no caller to report to; the resources are reclaimed when collected.
+            }
+        }
+    }
+
+    /**
+     * Loads a term from its source and estimates its memory.
+     *
+     * @param source The course file or snapshot.
+     * @return The term's load.
+     * @throws IOException If the source cannot be read.
+     */
+    private Loaded load(Path source) throws IOException {
+        if (source.getFileName().toString().endsWith(SNAPSHOT_SUFFIX)) {
+            MappedCourseDBStructure mapped = CourseDBSnapshot.open(source);
+            long bytes = mapped.cacheCrnIndex() + (long) MAPPED_BYTES_PER_COURSE * mapped.size();
+            return new Loaded(new CourseDBManager(mapped), bytes);
+        }
+        long estimatedCourses = Files.size(source) / BYTES_PER_COURSE_LINE + 16;
+        CourseDBStoreInterface store = structureType.create((int) Math.min(Integer.MAX_VALUE, estimatedCourses));
+        CourseDBManager manager = new CourseDBManager(store);
+        manager.setMembershipFilterEnabled(true); // A cross-term lookup misses in every term but one.
+        try {
+            manager.load(source.toFile());
+        } catch (IOException | RuntimeException e) {
+            close(new Loaded(manager, 0));
+            throw e;
+        }
+        return new Loaded(manager, estimateBytes(store));
+    }
+
+    /**
+     * Estimates the memory a structure of courses read from a file uses, by structure type.
+     *
+     * @param store The loaded structure.
+     * @return The estimate in bytes.
+     */
+    private static long estimateBytes(CourseDBStoreInterface store) {
+        if (store instanceof OffHeapCourseDBStructure) {
+            // Courses and strings are in direct memory, which is reserved rather than estimated.
+            return OFF_HEAP_BYTES_ON_HEAP + ((OffHeapCourseDBStructure) store).getOffHeapBytes();
+        }
+        if (store instanceof ColumnarCourseDBStructure) {
+            HashSet<String> ids = new HashSet<>();
+            HashSet<String> rooms = new HashSet<>();
+            HashSet<String> instructors = new HashSet<>();
+            for (CourseDBElement course : store) {
+                ids.add(course.getID());
+                rooms.add(course.getRoomNum());
+                instructors.add(course.getInstructorName());
+            }
+            long estimate = (long) COLUMNAR_BYTES_PER_COURSE * store.size();
+            for (HashSet<String> dictionary : List.of(ids, rooms, instructors)) {
+                for (String value : dictionary) {
+                    estimate += BYTES_PER_DICTIONARY_ENTRY + stringBytes(value);
+                }
+            }
+            return estimate;
+        }
+        long estimate = 0;
+        for (CourseDBElement course : store) {
+            estimate += BYTES_PER_COURSE + stringBytes(course.getID()) + stringBytes(course.getRoomNum())
+                    + stringBytes(course.getInstructorName());
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimates the heap of one String, assuming one byte per character as compact strings store
+     * Latin-1 text.
+     */
+    private static long stringBytes(String value) {
+        return value == null ? 0 : BYTES_PER_STRING + value.length();
+    }
+}
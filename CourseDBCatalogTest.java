@@ -0,0 +1,150 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * This class contains JUnit tests for CourseDBCatalog. It tests that terms load on first access
+ * from course files and snapshots, that the least recently used terms are evicted to stay within
+ * the memory budget and reload on demand, that memory is estimated per structure type, and that
+ * cross-term lookups search only resident terms.
+ */
+public class CourseDBCatalogTest {
+
+    /**
+     * Writes a course file holding courses with CRNs first, first + 1, and so on, all taught in
+     * the given room, and deletes it when the JVM exits.
+     */
+    private static Path courseFile(int first, int count, String room) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            lines.append("CMSC204 ").append(first + i).append(" 4 ").append(room).append(" Jane Doe\n");
+        }
+        Path file = Files.createTempFile("coursedb-term", ".txt");
+        file.toFile().deleteOnExit();
+        Files.write(file, lines.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Test that terms load lazily, that loading past the budget evicts the least recently used
+     * term, and that an evicted term reloads on its next access.
+     */
+    @Test
+    public void testLazyLoadAndEviction() throws IOException {
+        CourseDBCatalog unlimited = new CourseDBCatalog(Long.MAX_VALUE, CourseDBStructureType.CHAINED);
+        unlimited.addTerm("2023FA", courseFile(30000, 100, "SC450"));
+        assertTrue(unlimited.getResidentTerms().isEmpty());
+        assertEquals("SC450", unlimited.get("2023FA", 30007).getRoomNum());
+        long termBytes = unlimited.getResidentBytes();
+        assertTrue(termBytes > 0);
+
+        // Room for two terms of this size but not three.
+        CourseDBCatalog catalog = new CourseDBCatalog(termBytes * 2 + termBytes / 2, CourseDBStructureType.CHAINED);
+        catalog.addTerm("2023FA", courseFile(30000, 100, "SC450"));
+        catalog.addTerm("2024SP", courseFile(40000, 100, "SC451"));
+        catalog.addTerm("2024FA", courseFile(50000, 100, "SC452"));
+        assertThrows(IllegalArgumentException.class, () -> catalog.addTerm("2024FA", courseFile(1, 1, "X")));
+        assertThrows(IllegalArgumentException.class, () -> catalog.getTerm("1999FA"));
+
+        assertNotNull(catalog.get("2023FA", 30000));
+        assertNotNull(catalog.get("2024SP", 40000));
+        assertNotNull(catalog.get("2023FA", 30001)); // 2023FA is now the most recently used.
+        assertEquals(Arrays.asList("2024SP", "2023FA"), catalog.getResidentTerms());
+        assertNotNull(catalog.get("2024FA", 50000));
+        assertEquals(Arrays.asList("2023FA", "2024FA"), catalog.getResidentTerms());
+        assertEquals(1, catalog.getEvictionCount());
+        assertTrue(catalog.getResidentBytes() <= catalog.getMemoryBudget());
+
+        assertEquals("SC451", catalog.get("2024SP", 40099).getRoomNum());
+        assertEquals(4, catalog.getLoadCount());
+        assertEquals(Arrays.asList("2024FA", "2024SP"), catalog.getResidentTerms());
+        assertNull(catalog.get("2024SP", 50000));
+
+        assertTrue(catalog.evict("2024FA"));
+        assertFalse(catalog.evict("2024FA"));
+        assertTrue(catalog.removeTerm("2024SP"));
+        assertTrue(catalog.getResidentTerms().isEmpty());
+        assertEquals(0, catalog.getResidentBytes());
+        assertEquals(Arrays.asList("2023FA", "2024FA"), catalog.getTerms());
+    }
+
+    /**
+     * Test that a term larger than the whole budget still loads and is kept until another loads.
+     */
+    @Test
+    public void testTermOverBudget() throws IOException {
+        CourseDBCatalog catalog = new CourseDBCatalog(0, CourseDBStructureType.CHAINED);
+        catalog.addTerm("2023FA", courseFile(30000, 10, "SC450"));
+        catalog.addTerm("2024SP", courseFile(40000, 10, "SC451"));
+        assertNotNull(catalog.get("2023FA", 30000));
+        assertEquals(Collections.singletonList("2023FA"), catalog.getResidentTerms());
+        assertNotNull(catalog.get("2024SP", 40000));
+        assertEquals(Collections.singletonList("2024SP"), catalog.getResidentTerms());
+    }
+
+    /**
+     * Test that COLUMNAR is charged for each distinct string once, that OFF_HEAP is charged its
+     * direct memory, and that an evicted OFF_HEAP term releases that memory.
+     */
+    @Test
+    public void testEstimatePerStructureTypeAndCloseOnEviction() throws IOException {
+        Path term = courseFile(30000, 500, "SC450");
+        CourseDBCatalog chained = new CourseDBCatalog(Long.MAX_VALUE, CourseDBStructureType.CHAINED);
+        chained.addTerm("2023FA", term);
+        assertNotNull(chained.get("2023FA", 30000));
+        CourseDBCatalog columnar = new CourseDBCatalog(Long.MAX_VALUE, CourseDBStructureType.COLUMNAR);
+        columnar.addTerm("2023FA", term);
+        assertNotNull(columnar.get("2023FA", 30000));
+        assertTrue(columnar.getResidentBytes() < chained.getResidentBytes() / 2);
+
+        CourseDBCatalog offHeap = new CourseDBCatalog(Long.MAX_VALUE, CourseDBStructureType.OFF_HEAP);
+        offHeap.addTerm("2023FA", term);
+        assertEquals("SC450", offHeap.get("2023FA", 30499).getRoomNum());
+        OffHeapCourseDBStructure store = (OffHeapCourseDBStructure) offHeap.getTerm("2023FA").getStructure();
+        assertTrue(store.getOffHeapBytes() > 0);
+        assertTrue(offHeap.getResidentBytes() >= store.getOffHeapBytes());
+        assertEquals(1, offHeap.findResident(30001).size());
+        assertTrue(offHeap.evict("2023FA"));
+        assertEquals(0, store.getOffHeapBytes());
+        assertEquals("SC450", offHeap.get("2023FA", 30499).getRoomNum()); // Reloaded into a new store.
+    }
+
+    /**
+     * Test that snapshot terms are mapped and that cross-term lookups search only resident terms,
+     * without loading or touching any.
+     */
+    @Test
+    public void testSnapshotTermsAndResidentLookup() throws IOException {
+        CourseDBManager archived = new CourseDBManager();
+        archived.add("CMSC140", 20000, 3, "HT100", "Al Gore");
+        archived.add("CMSC204", 30504, 4, "HT101", "Al Gore");
+        Path snapshot = Files.createTempFile("coursedb-term", CourseDBCatalog.SNAPSHOT_SUFFIX);
+        snapshot.toFile().deleteOnExit();
+        archived.saveSnapshot(snapshot.toFile());
+
+        CourseDBCatalog catalog = new CourseDBCatalog(1L << 30, CourseDBStructureType.CHAINED);
+        catalog.addTerm("2015FA", snapshot);
+        catalog.addTerm("2024FA", courseFile(30500, 10, "SC450"));
+        catalog.addTerm("2025SP", courseFile(30500, 10, "SC451"));
+        assertTrue(catalog.findResident(30504).isEmpty());
+
+        assertEquals("HT100", catalog.get("2015FA", 20000).getRoomNum());
+        assertNotNull(catalog.getTerm("2024FA"));
+        Map<String, CourseDBElement> found = catalog.findResident(30504);
+        assertEquals(Arrays.asList("2015FA", "2024FA"), Arrays.asList(found.keySet().toArray()));
+        assertEquals("HT101", found.get("2015FA").getRoomNum());
+        assertEquals("SC450", found.get("2024FA").getRoomNum());
+        assertTrue(catalog.findResident(99999).isEmpty());
+        assertEquals(Arrays.asList("2015FA", "2024FA"), catalog.getResidentTerms());
+        assertEquals(2, catalog.getLoadCount());
+    }
+}
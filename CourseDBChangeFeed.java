@@ -0,0 +1,350 @@
+package Default;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * The CourseDBChangeFeed class keeps a CourseDBManager up to date from delta files dropped into a
+ * directory, instead of reloading the whole catalog. Each delta file holds one change per line:
+ * a course line in the course-file format stores that course, replacing any course with its CRN,
+ * and a line holding only "-" and a CRN, with or without whitespace between them, removes that
+ * course. A later line for a CRN overrides an earlier one in the same file.
+ *
+ * <p>Each file is diffed against the manager by CRN: upserts identical to the stored course are
+ * dropped. Removals of CRNs that are not stored are reported as unchanged but still applied,
+ * since another writer could store the CRN before the batch lands. The changes are applied as one
+ * change batch (see CourseDBManager.applyChanges), so the work is proportional to the size of the
+ * delta, not of the catalog. The file is then renamed with the suffix ".applied".</p>
+ *
+ * <p>Only files named "*.delta" are read, in name order. Producers should write a delta under
+ * another name and rename it into place, so a file is never read half written. Once started, the
+ * feed applies changes from its own thread, so other threads reading the manager need a structure
+ * that allows it; with the persistent structure they also never see part of a file.</p>
+ */
+public class CourseDBChangeFeed implements AutoCloseable {
+    /** The suffix of the delta files the feed reads. */
+    public static final String DELTA_SUFFIX = ".delta";
+    /** The suffix a delta file is renamed to once it has been applied. */
+    public static final String APPLIED_SUFFIX = ".applied";
+
+    private final CourseDBManager manager;
+    private final Path directory;
+    private final Consumer<Report> listener;       // Receives the report of every file the watcher applies.
+    private WatchService watchService;             // Watches the directory once started, or null.
+    private Thread watcher;                        // Applies delta files as they arrive, or null.
+    private volatile Exception failure;            // The last error the watcher hit, or null.
+
+    /**
+     * The outcome of applying one delta file.
+     */
+    public static class Report {
+        private final Path file;                   // The delta file.
+        private int upserts;                       // Courses stored because they were new or changed.
+        private int removals;                      // Courses removed.
+        private int unchanged;                     // Lines that would not have changed anything.
+        private final List<CourseDBLoadReport.Reject> rejects = new ArrayList<>(); // Lines that could not be parsed.
+
+        private Report(Path file) {
+            this.file = file;
+        }
+
+        /**
+         * Gets the delta file this report is for.
+         *
+         * @return The file, under its name before it was renamed.
+         */
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * Gets the number of courses stored because they were new or differed from the stored course.
+         *
+         * @return The number of upserts applied.
+         */
+        public int getUpserts() {
+            return upserts;
+        }
+
+        /**
+         * Gets the number of courses removed.
+         *
+         * @return The number of removals applied.
+         */
+        public int getRemovals() {
+            return removals;
+        }
+
+        /**
+         * Gets the number of changes dropped because the manager already held their result.
+         *
+         * @return The number of unchanged CRNs.
+         */
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        /**
+         * Gets the lines that could not be parsed, which were skipped.
+         *
+         * @return An unmodifiable list of rejects.
+         */
+        public List<CourseDBLoadReport.Reject> getRejects() {
+            return Collections.unmodifiableList(rejects);
+        }
+
+        /**
+         * Returns a one-line summary of the file.
+         *
+         * @return The summary.
+         */
+        @Override
+        public String toString() {
+            return file.getFileName() + ": " + upserts + " upserts, " + removals + " removals, "
+                    + unchanged + " unchanged, " + rejects.size() + " rejected";
+        }
+    }
+
+    /**
+     * Creates a CourseDBChangeFeed that reports nothing while watching.
+     *
+     * @param manager   The manager to keep up to date.
+     * @param directory The directory delta files are dropped into.
+     */
+    public CourseDBChangeFeed(CourseDBManager manager, Path directory) {
+        this(manager, directory, report -> { });
+    }
+
+    /**
+     * Creates a CourseDBChangeFeed.
+     *
+     * @param manager   The manager to keep up to date.
+     * @param directory The directory delta files are dropped into.
+     * @param listener  Receives the report of every file applied by the watcher.
+     */
+    public CourseDBChangeFeed(CourseDBManager manager, Path directory, Consumer<Report> listener) {
+        this.manager = manager;
+        this.directory = directory;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts watching the directory on a daemon thread. Delta files already in the directory are
+     * applied first, then each new one as it appears.
+     *
+     * @throws IOException If the directory cannot be watched.
+     * @throws IllegalStateException If the feed is already started.
+     */
+    public synchronized void start() throws IOException {
+        if (watcher != null) {
+            throw new IllegalStateException("Change feed is already started");
+        }
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watcher = new Thread(this::watch, "CourseDBChangeFeed " + directory);
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Applies every delta file in the directory, in name order.
+     *
+     * @return The report of each file applied.
+     * @throws IOException If the directory or a file cannot be read, or a file cannot be renamed.
+     */
+    public synchronized List<Report> applyPending() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + DELTA_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        List<Report> reports = new ArrayList<>(files.size());
+        for (Path file : files) {
+            reports.add(applyFile(file));
+        }
+        return reports;
+    }
+
+    /**
+     * Diffs one delta file against the manager, applies the result as one batch, and renames the
+     * file with the ".applied" suffix.
+     *
+     * @param file The delta file.
+     * @return The report of the file.
+     * @throws IOException If the file cannot be read or renamed.
+     */
+    public synchronized Report applyFile(Path file) throws IOException {
+        Report report = new Report(file);
+        Map<Integer, CourseDBElement> changes = new LinkedHashMap<>(); // null values are removals.
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            long lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                parseLine(line.trim(), lineNumber, changes, report);
+            }
+        }
+
+        List<CourseDBElement> upserts = new ArrayList<>();
+        int[] removals = new int[changes.size()];
+        int removalCount = 0;
+        for (Map.Entry<Integer, CourseDBElement> change : changes.entrySet()) {
+            CourseDBElement stored = manager.peek(change.getKey());
+            CourseDBElement course = change.getValue();
+            if (course == null) {
+                // Sent even when not stored: a concurrent add could land before the batch does.
+                removals[removalCount++] = change.getKey();
+                if (stored == null) {
+                    report.unchanged++;
+                } else {
+                    report.removals++;
+                }
+            } else if (sameCourse(stored, course)) {
+                report.unchanged++;
+            } else {
+                upserts.add(course);
+            }
+        }
+        report.upserts = upserts.size();
+        int[] applied = new int[removalCount];
+        System.arraycopy(removals, 0, applied, 0, applied.length);
+        manager.applyChanges(upserts, applied);
+
+        String name = file.getFileName().toString();
+        if (name.endsWith(DELTA_SUFFIX)) {
+            name = name.substring(0, name.length() - DELTA_SUFFIX.length());
+        }
+        Files.move(file, file.resolveSibling(name + APPLIED_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+        return report;
+    }
+
+    /**
+     * Returns the last error the watcher hit applying a file, which it then retries on the next
+     * directory event. Besides an IOException reading or renaming a file, this can be a
+     * RuntimeException from the manager, such as the UncheckedIOException of a durable manager
+     * whose log failed.
+     *
+     * @return The error, or null if the last attempt succeeded.
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    /**
+     * Stops watching the directory. Files being applied are finished first.
+     *
+     * @throws IOException If the watch service cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        Thread running;
+        synchronized (this) {
+            if (watcher == null) {
+                return;
+            }
+            running = watcher;
+            watcher = null;
+            watchService.close();
+        }
+        try {
+            running.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Applies the files already present, then waits for directory events and applies the
+     * pending files after each one, until the watch service is closed.
+     */
+    private void watch() {
+        WatchService service = watchService;
+        try {
+            while (true) {
+                try {
+                    for (Report report : applyPending()) {
+                        listener.accept(report);
+                    }
+                    failure = null;
+                } catch (IOException | RuntimeException e) {
+                    failure = e; // Keep watching: the file stays in place and is retried on the next event.
+                }
+                WatchKey key = service.take();
+                key.pollEvents(); // Which file changed does not matter: every pending file is applied in order.
+                if (!key.reset()) {
+                    return; // The directory is gone.
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Closed: stop watching.
+        }
+    }
+
+    /**
+     * Parses one line of a delta file into changes, or records why it was rejected.
+     */
+    private static void parseLine(String line, long lineNumber, Map<Integer, CourseDBElement> changes, Report report) {
+        if (line.isEmpty()) {
+            return; // Blank lines are ignored
+        }
+        String[] fields = line.split("\\s+", 5);
+        if (fields.length <= 2 && line.charAt(0) == '-') {
+            long crn = parse(line.substring(1).trim());
+            if (crn == Long.MIN_VALUE) {
+                report.rejects.add(new CourseDBLoadReport.Reject(lineNumber, line, "CRN is not an integer"));
+                return;
+            }
+            changes.remove((int) crn); // Keep the CRN in file order of its last change.
+            changes.put((int) crn, null);
+            return;
+        }
+        if (fields.length < 5) {
+            report.rejects.add(new CourseDBLoadReport.Reject(lineNumber, line, "expected 5 fields"));
+            return;
+        }
+        long crn = parse(fields[1]);
+        if (crn == Long.MIN_VALUE) {
+            report.rejects.add(new CourseDBLoadReport.Reject(lineNumber, line, "CRN is not an integer"));
+            return;
+        }
+        long credits = parse(fields[2]);
+        if (credits == Long.MIN_VALUE) {
+            report.rejects.add(new CourseDBLoadReport.Reject(lineNumber, line, "credits is not an integer"));
+            return;
+        }
+        changes.remove((int) crn);
+        changes.put((int) crn, new CourseDBElement(fields[0], (int) crn, (int) credits, fields[3], fields[4]));
+    }
+
+    private static long parse(String field) {
+        byte[] bytes = field.getBytes(StandardCharsets.US_ASCII);
+        return CourseDBLoader.parseInt(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Tells whether two courses with the same CRN hold the same values.
+     */
+    private static boolean sameCourse(CourseDBElement stored, CourseDBElement course) {
+        return stored != null && stored.getCredits() == course.getCredits()
+                && Objects.equals(stored.getID(), course.getID())
+                && Objects.equals(stored.getRoomNum(), course.getRoomNum())
+                && Objects.equals(stored.getInstructorName(), course.getInstructorName());
+    }
+}
@@ -0,0 +1,147 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * This class contains JUnit tests for CourseDBChangeFeed. It tests that a delta file is diffed
+ * against the manager and applied with its indexes kept up to date, and that the watcher applies
+ * files renamed into the directory and survives failures in the manager.
+ */
+public class CourseDBChangeFeedTest {
+
+    /**
+     * Creates a fresh temporary directory that is deleted when the JVM exits.
+     */
+    private static Path tempDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("coursedb-feed");
+        directory.toFile().deleteOnExit();
+        return directory;
+    }
+
+    /**
+     * Writes a delta file under a temporary name and renames it into place, as producers should.
+     */
+    private static Path drop(Path directory, String name, String contents) throws IOException {
+        Path temporary = directory.resolve(name + ".tmp");
+        Files.write(temporary, contents.getBytes(StandardCharsets.UTF_8));
+        Path file = directory.resolve(name + CourseDBChangeFeed.DELTA_SUFFIX);
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        file.toFile().deleteOnExit();
+        directory.resolve(name + CourseDBChangeFeed.APPLIED_SUFFIX).toFile().deleteOnExit();
+        return file;
+    }
+
+    /**
+     * Test that upserts and removals are diffed by CRN, that the last line for a CRN wins, that
+     * bad lines are reported, and that indexes see the changes.
+     */
+    @Test
+    public void testApplyFile() throws IOException {
+        CourseDBManager manager = new CourseDBManager();
+        manager.add("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts");
+        manager.add("CMSC203", 30503, 3, "SC451", "Jane Doe");
+        manager.add("CMSC140", 20000, 3, "HT100", "Al Gore");
+        assertEquals(1, manager.getByInstructor("Jane Doe").size());
+        assertEquals(3, manager.range(0, 99999).size());
+
+        Path directory = tempDirectory();
+        Path file = drop(directory, "0001", "CMSC204 30504 4 SC450 Joey Bag-O-Donuts\n"
+                + "CMSC203 30503 3 SC451 Jane Q. Doe\n"
+                + "-20000\n"
+                + "- 11111\n"
+                + "MATH202 54321 4 456 Jane Smith\n"
+                + "MATH203 54322 4 456\n"
+                + "-54321\n"
+                + "MATH202 54321 4 457 Jane Smith\n");
+        CourseDBChangeFeed.Report report;
+        try (CourseDBChangeFeed feed = new CourseDBChangeFeed(manager, directory)) {
+            report = feed.applyFile(file);
+        }
+
+        assertEquals(2, report.getUpserts());
+        assertEquals(1, report.getRejects().size());
+        assertEquals(1, report.getRemovals());
+        assertEquals(2, report.getUnchanged());
+        assertEquals(6, report.getRejects().get(0).getLineNumber());
+        assertFalse(Files.exists(file));
+        assertTrue(Files.exists(directory.resolve("0001" + CourseDBChangeFeed.APPLIED_SUFFIX)));
+
+        assertEquals("Jane Q. Doe", manager.get(30503).getInstructorName());
+        assertNull(manager.get(20000));
+        assertEquals("457", manager.get(54321).getRoomNum());
+        assertTrue(manager.getByInstructor("Jane Doe").isEmpty());
+        assertEquals(1, manager.getByInstructor("Jane Q. Doe").size());
+        assertTrue(manager.getByRoom("HT100").isEmpty());
+        List<CourseDBElement> ordered = manager.range(0, 99999);
+        assertEquals(3, ordered.size());
+        assertEquals(30503, ordered.get(0).getCRN());
+        assertEquals(54321, ordered.get(2).getCRN());
+    }
+
+    /**
+     * Test that the watcher applies files already present and files dropped later, in name order.
+     */
+    @Test
+    public void testWatcherAppliesDroppedFiles() throws Exception {
+        // The watcher writes from its own thread, so readers need a structure that allows it.
+        CourseDBManager manager = new CourseDBManager(CourseDBStructureType.PERSISTENT.create(16));
+        manager.add("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts");
+        Path directory = tempDirectory();
+        drop(directory, "0001", "CMSC203 30503 3 SC451 Jane Doe\n");
+
+        try (CourseDBChangeFeed feed = new CourseDBChangeFeed(manager, directory)) {
+            feed.start();
+            drop(directory, "0002", "-30504\nCMSC203 30503 3 SC452 Jane Doe\n");
+            long deadline = System.currentTimeMillis() + 30000;
+            CourseDBElement course;
+            while ((course = manager.get(30503)) == null || !"SC452".equals(course.getRoomNum())) {
+                assertTrue(System.currentTimeMillis() < deadline, "Delta files were not applied");
+                Thread.sleep(20);
+            }
+            assertNull(feed.getFailure());
+        }
+        assertNull(manager.get(30504));
+        assertEquals(1, manager.showAll().size());
+    }
+
+    /**
+     * Test that a runtime failure in the manager is recorded rather than ending the watcher, and
+     * that the file is left in place to be retried.
+     */
+    @Test
+    public void testWatcherRecordsRuntimeFailures() throws Exception {
+        Path directory = tempDirectory();
+        File snapshot = directory.resolve("courses.snapshot").toFile();
+        File logFile = directory.resolve("courses.wal").toFile();
+        snapshot.deleteOnExit();
+        logFile.deleteOnExit();
+        CourseDBManager manager = CourseDBManager.openDurable(snapshot, logFile);
+        manager.closeLog(); // Every durable change now fails with an UncheckedIOException.
+
+        try (CourseDBChangeFeed feed = new CourseDBChangeFeed(manager, directory)) {
+            feed.start();
+            Path file = drop(directory, "0001", "CMSC203 30503 3 SC451 Jane Doe\n");
+            long deadline = System.currentTimeMillis() + 30000;
+            while (feed.getFailure() == null) {
+                assertTrue(System.currentTimeMillis() < deadline, "The failure was not recorded");
+                Thread.sleep(20);
+            }
+            assertTrue(feed.getFailure() instanceof UncheckedIOException, feed.getFailure().toString());
+            assertTrue(Files.exists(file));
+            drop(directory, "0002", "- 30503\n");
+            Thread.sleep(200);
+            assertTrue(Files.exists(directory.resolve("0002" + CourseDBChangeFeed.DELTA_SUFFIX)));
+            assertNotNull(feed.getFailure());
+        }
+    }
+}
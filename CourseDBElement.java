@@ -1,4 +1,5 @@
 package Default;
+import java.io.IOException;
 import java.util.Objects;
 
 /**
@@ -108,6 +109,38 @@ public class CourseDBElement implements Comparable<CourseDBElement> {
         return Objects.hash(crn);
     }
 
+    /**
+     * Returns the course as a single line, for example
+     * "Course:CMSC204 CRN:30504 Credits:4 Instructor:Joey Bag-O-Donuts Room:SC450".
+     *
+     * @return The course information as a string.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(64);
+        try {
+            appendTo(builder);
+        } catch (IOException e) {
+            throw new AssertionError(e); // StringBuilder never throws
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes the same text as toString directly to an Appendable, such as a Writer,
+     * without building an intermediate String.
+     *
+     * @param out The destination.
+     * @throws IOException If the destination throws.
+     */
+    public void appendTo(Appendable out) throws IOException {
+        out.append("Course:").append(courseId)
+                .append(" CRN:").append(Integer.toString(crn))
+                .append(" Credits:").append(Integer.toString(credits))
+                .append(" Instructor:").append(instructorName)
+                .append(" Room:").append(roomNumber);
+    }
+
     /**
      * Sets the CRN (Course Registration Number) for the CourseDBElement.
      *
@@ -69,5 +69,13 @@ public class CourseDBElementStudentTest {
         assertNotEquals(course1.hashCode(), course2.hashCode());
         assertEquals(course1.hashCode(), course1.hashCode());  // Hash code is consistent
     }
-}
 
+    /**
+     * Test the toString method of CourseDBElement.
+     */
+    @Test
+    public void testToString() {
+        CourseDBElement course = new CourseDBElement("CS101", 12345, 3, "Room 101", "John Doe");
+        assertEquals("Course:CS101 CRN:12345 Credits:3 Instructor:John Doe Room:Room 101", course.toString());
+    }
+}
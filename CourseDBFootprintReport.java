@@ -0,0 +1,65 @@
+package Default;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Locale;
+
+/**
+ * The CourseDBFootprintReport class measures how much heap each structure type retains for the same
+ * catalog. Courses are generated the way CourseDBLoader produces them, with a fresh String for every
+ * field of every line, and with the repetition of a real catalog: a few hundred course IDs, a few
+ * hundred rooms, and a couple of thousand instructors shared by all sections.
+ *
+ * <p>Usage: java -Xmx4g Default.CourseDBFootprintReport [courses] [structures], for example
+ * {@code java -Xmx4g Default.CourseDBFootprintReport 1000000 chained,open_addressing,columnar}.
+ * Retained heap is the used heap after a full collection with the structure reachable, minus the
+ * same measurement before it was built.</p>
+ */
+public class CourseDBFootprintReport {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private static Object retained; // Keeps the measured structure reachable during measurement.
+
+    /**
+     * Prints the retained heap of each structure type.
+     *
+     * @param args Optional course count and comma-separated structure types.
+     */
+    public static void main(String[] args) {
+        int courses = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        String structures = args.length > 1 ? args[1] : "chained,open_addressing,concurrent,columnar";
+
+        System.out.printf("%-18s %10s %14s %12s%n", "structure", "courses", "retained MB", "bytes/course");
+        for (String name : structures.split(",")) {
+            CourseDBStructureType type = CourseDBStructureType.valueOf(name.trim().toUpperCase(Locale.ROOT));
+            long before = usedAfterGc();
+            CourseDBStoreInterface structure = type.create(courses);
+            for (int i = 0; i < courses; i++) {
+                // new String(...) gives every field its own copy, as parsing a file line does.
+                structure.add(new CourseDBElement(new String("CMSC" + (100 + i % 400)), 10000 + i, 1 + i % 4,
+                        new String("SC" + (i % 300)), new String("Instructor " + (i % 2000))));
+            }
+            retained = structure;
+            long bytes = usedAfterGc() - before;
+            System.out.printf("%-18s %10d %14.1f %12.1f%n", type, structure.size(), bytes / 1048576.0,
+                    (double) bytes / courses);
+            retained = null;
+        }
+    }
+
+    /**
+     * Returns the used heap after asking for full collections until it stops shrinking.
+     */
+    private static long usedAfterGc() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            long now = MEMORY.getHeapMemoryUsage().getUsed();
+            if (now >= used) {
+                break;
+            }
+            used = now;
+        }
+        return used;
+    }
+}
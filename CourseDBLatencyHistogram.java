@@ -0,0 +1,155 @@
+package Default;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The CourseDBLatencyHistogram class records latencies in nanoseconds into log-linear buckets, in
+ * the style of HdrHistogram: every power of two is split into SUB_BUCKETS / 2 equal sub-buckets,
+ * so any recorded value is reported within about 3% of its true value, from one nanosecond up to
+ * MAX_VALUE, in a fixed array of about a thousand counters.
+ *
+ * <p>Recording is a shift, a bit count, and one atomic increment, and is safe from any number of
+ * threads. Percentiles are read from a copy taken with snapshot, so readers never block recorders.</p>
+ */
+public class CourseDBLatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;                 // log2 of SUB_BUCKETS.
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;  // Values below this get one bucket each.
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS >> 1; // Sub-buckets per power of two above that.
+    private static final int MAX_MAGNITUDE = 40;                  // Values are clamped below 2^40 ns, about 18 minutes.
+
+    /** The largest value that is recorded exactly; larger values are recorded as this. */
+    public static final long MAX_VALUE = (1L << MAX_MAGNITUDE) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(bucketIndex(MAX_VALUE) + 1);
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos The latency in nanoseconds. Negative values are recorded as 0.
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketIndex(Math.min(Math.max(nanos, 0), MAX_VALUE)));
+    }
+
+    /**
+     * Returns an independent copy of the current counts.
+     *
+     * @return A snapshot of this histogram.
+     */
+    public CourseDBLatencyHistogram snapshot() {
+        CourseDBLatencyHistogram copy = new CourseDBLatencyHistogram();
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            if (count != 0) {
+                copy.counts.set(i, count);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the value below which the given percentage of recorded values fall.
+     *
+     * @param percentile The percentile, from 0 to 100, for example 99.9.
+     * @return The highest value in the bucket holding that percentile, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return highestValueIn(i);
+            }
+        }
+        return MAX_VALUE;
+    }
+
+    /**
+     * Gets the largest recorded value, to the histogram's precision.
+     *
+     * @return The maximum, or 0 if nothing was recorded.
+     */
+    public long getMax() {
+        for (int i = counts.length() - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) {
+                return highestValueIn(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the mean of the recorded values, taking each value as the midpoint of its bucket.
+     *
+     * @return The mean in nanoseconds, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long total = 0;
+        double sum = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            if (count != 0) {
+                total += count;
+                sum += count * ((lowestValueIn(i) + highestValueIn(i)) / 2.0);
+            }
+        }
+        return total == 0 ? 0.0 : sum / total;
+    }
+
+    /**
+     * Returns a one-line summary of the count and the main percentiles.
+     *
+     * @return The summary.
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.0fns p50=%dns p99=%dns p99.9=%dns max=%dns", getCount(), getMean(),
+                getValueAtPercentile(50), getValueAtPercentile(99), getValueAtPercentile(99.9), getMax());
+    }
+
+    /**
+     * Maps a value to its bucket. Values below SUB_BUCKETS map to themselves; above that, each
+     * power of two 2^m maps onto HALF_SUB_BUCKETS buckets by dropping its low m - 5 bits.
+     */
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return (shift << (SUB_BUCKET_BITS - 1)) + (int) (value >>> shift);
+    }
+
+    private static long lowestValueIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >> (SUB_BUCKET_BITS - 1)) - 1;
+        return (long) (index - (shift << (SUB_BUCKET_BITS - 1))) << shift;
+    }
+
+    private static long highestValueIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >> (SUB_BUCKET_BITS - 1)) - 1;
+        return lowestValueIn(index) + (1L << shift) - 1;
+    }
+}
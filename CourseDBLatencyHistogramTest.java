@@ -0,0 +1,57 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * This class contains JUnit tests for the CourseDBLatencyHistogram class. It tests that
+ * percentiles stay within the histogram's precision and that snapshots are independent copies.
+ */
+public class CourseDBLatencyHistogramTest {
+
+    /**
+     * Test that small values are exact and that every percentile of a uniform spread is within 4%.
+     */
+    @Test
+    public void testPercentilePrecision() {
+        CourseDBLatencyHistogram histogram = new CourseDBLatencyHistogram();
+        for (int value = 1; value <= 40; value++) {
+            histogram.record(value);
+        }
+        assertEquals(20, histogram.getValueAtPercentile(50));
+        assertEquals(40, histogram.getMax());
+
+        histogram = new CourseDBLatencyHistogram();
+        for (long value = 1; value <= 1000000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(1000000, histogram.getCount());
+        for (double percentile : new double[] {10, 50, 90, 99, 99.9}) {
+            double expected = percentile * 10000;
+            assertEquals(expected, histogram.getValueAtPercentile(percentile), expected * 0.04);
+        }
+        assertEquals(500000, histogram.getMean(), 500000 * 0.04);
+    }
+
+    /**
+     * Test that out-of-range values are clamped and that a snapshot does not see later records.
+     */
+    @Test
+    public void testClampAndSnapshot() {
+        CourseDBLatencyHistogram histogram = new CourseDBLatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        CourseDBLatencyHistogram snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+        assertEquals(CourseDBLatencyHistogram.MAX_VALUE, snapshot.getMax());
+
+        Random random = new Random(204);
+        for (int i = 0; i < 1000; i++) {
+            histogram.record(random.nextInt(1000000));
+        }
+        assertEquals(2, snapshot.getCount());
+        assertEquals(1002, histogram.getCount());
+    }
+}
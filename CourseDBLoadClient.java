@@ -0,0 +1,153 @@
+package Default;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The CourseDBLoadClient class generates GET load against a CourseDBServer and reports throughput
+ * and latency percentiles. Each connection sends pipelined batches of requests and waits for the
+ * whole batch to be answered before sending the next. A request's latency runs from the write of
+ * its batch to the arrival of its answer, so it includes the time spent queued behind the rest of
+ * the batch.
+ *
+ * <p>Usage: java Default.CourseDBLoadClient [host] [port] [connections] [seconds] [pipelineDepth].
+ * Without a host and port, a server holding 100,000 courses is started in this process on a free
+ * loopback port, for example {@code java Default.CourseDBLoadClient local 0 1000 10 16}.</p>
+ */
+public class CourseDBLoadClient {
+    private static final int LOCAL_COURSES = 100000; // Courses loaded into an in-process server.
+
+    /**
+     * Runs the load and prints the report.
+     *
+     * @param args Optional host ("local" for an in-process server), port, connection count, run time in
+     *             seconds, and pipeline depth.
+     * @throws IOException If the in-process server cannot start.
+     * @throws InterruptedException If interrupted while waiting for the connections.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String host = args.length > 0 ? args[0] : "local";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int depth = args.length > 4 ? Integer.parseInt(args[4]) : 16;
+
+        CourseDBServer server = null;
+        if (host.equals("local")) {
+            CourseDBManager manager = new CourseDBManager(CourseDBStructureType.fromSystemProperty().create(LOCAL_COURSES));
+            for (int crn = 0; crn < LOCAL_COURSES; crn++) {
+                manager.add("CMSC204", crn, 4, "SC450", "Joey Bag-O-Donuts");
+            }
+            server = new CourseDBServer(manager, port);
+            host = "127.0.0.1";
+            port = server.getPort();
+        }
+        try {
+            System.out.printf("%d connections, pipeline depth %d, %d s against %s:%d%n",
+                    connections, depth, seconds, host, port);
+            System.out.println(run(host, port, connections, seconds * 1000L, depth));
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    /**
+     * Runs the load and returns a one-line report of throughput and latency percentiles.
+     *
+     * @param host        The server's host.
+     * @param port        The server's port.
+     * @param connections The number of concurrent connections.
+     * @param millis      How long to run.
+     * @param depth       The number of requests pipelined per batch.
+     * @return The report.
+     * @throws IOException If a connection fails.
+     * @throws InterruptedException If interrupted while waiting for the connections.
+     */
+    public static String run(String host, int port, int connections, long millis, int depth)
+            throws IOException, InterruptedException {
+        CourseDBLatencyHistogram latency = new CourseDBLatencyHistogram();
+        LongAdder misses = new LongAdder();
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        CountDownLatch connected = new CountDownLatch(connections);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(connections);
+        ExecutorService executor = CourseDBServer.newThreadPerTaskExecutor();
+        long[] deadline = new long[1];
+        for (int c = 0; c < connections; c++) {
+            executor.execute(() -> {
+                try (Socket socket = new Socket(host, port)) {
+                    socket.setTcpNoDelay(true);
+                    connected.countDown();
+                    start.await();
+                    runConnection(socket, depth, deadline[0], latency, misses);
+                } catch (IOException e) {
+                    failure.compareAndSet(null, e);
+                    connected.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        connected.await();
+        long begin = System.nanoTime();
+        deadline[0] = begin + TimeUnit.MILLISECONDS.toNanos(millis);
+        start.countDown(); // Publishes the deadline to the connections.
+        finished.await();
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        CourseDBLatencyHistogram result = latency.snapshot();
+        return String.format("requests=%d throughput=%.0f/s misses=%d p50=%.1fus p99=%.1fus p999=%.1fus max=%.1fus",
+                result.getCount(), result.getCount() * 1e9 / elapsed, misses.sum(),
+                result.getValueAtPercentile(50) / 1e3, result.getValueAtPercentile(99) / 1e3,
+                result.getValueAtPercentile(99.9) / 1e3, result.getMax() / 1e3);
+    }
+
+    /**
+     * Sends pipelined batches of random GETs on one connection until the deadline.
+     */
+    private static void runConnection(Socket socket, int depth, long deadline, CourseDBLatencyHistogram latency,
+                                      LongAdder misses) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < depth; i++) {
+                out.write("GET " + random.nextInt(LOCAL_COURSES) + "\n");
+            }
+            out.flush();
+            long sent = System.nanoTime();
+            for (int i = 0; i < depth; i++) {
+                String answer = in.readLine();
+                if (answer == null) {
+                    throw new IOException("Server closed the connection");
+                }
+                latency.record(System.nanoTime() - sent);
+                if (answer.equals("NONE")) {
+                    misses.increment();
+                }
+            }
+        }
+        out.write("QUIT\n");
+        out.flush();
+    }
+}
@@ -0,0 +1,193 @@
+package Default;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The CourseDBLoadReport class summarizes one bulk load: how many lines and bytes were read, how
+ * many courses were parsed, how long it took, and which lines were rejected and why. Only the
+ * first MAX_RECORDED_REJECTS rejected lines are kept, but every reject is counted.
+ */
+public class CourseDBLoadReport {
+    /** The maximum number of rejected lines kept in the report. */
+    public static final int MAX_RECORDED_REJECTS = 1000;
+
+    private long lines;                                    // Non-blank lines read.
+    private long courses;                                  // Lines parsed into courses.
+    private long rejectCount;                              // Lines rejected.
+    private long bytes;                                    // Bytes read from the file.
+    private long elapsedNanos;                             // Wall-clock time of the load.
+    private final List<Reject> rejects = new ArrayList<>(); // The first rejected lines, in file order.
+
+    /**
+     * A line that could not be parsed into a course.
+     */
+    public static class Reject {
+        private final long lineNumber; // The 1-based line number in the file.
+        private final String line;     // The text of the line.
+        private final String reason;   // Why the line was rejected.
+
+        /**
+         * Constructs a Reject.
+         *
+         * @param lineNumber The 1-based line number in the file.
+         * @param line       The text of the line.
+         * @param reason     Why the line was rejected.
+         */
+        public Reject(long lineNumber, String line, String reason) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.reason = reason;
+        }
+
+        /**
+         * Gets the 1-based line number of the rejected line.
+         *
+         * @return The line number.
+         */
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * Gets the text of the rejected line.
+         *
+         * @return The line.
+         */
+        public String getLine() {
+            return line;
+        }
+
+        /**
+         * Gets the reason the line was rejected.
+         *
+         * @return The reason.
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        /**
+         * Returns the reject as "line N: reason: text".
+         *
+         * @return The reject as a string.
+         */
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + reason + ": " + line;
+        }
+    }
+
+    /**
+     * Records a parsed course.
+     */
+    void addCourses(long count) {
+        courses += count;
+    }
+
+    /**
+     * Records lines read.
+     */
+    void addLines(long count) {
+        lines += count;
+    }
+
+    /**
+     * Records bytes read.
+     */
+    void addBytes(long count) {
+        bytes += count;
+    }
+
+    /**
+     * Records a rejected line, keeping it only while fewer than MAX_RECORDED_REJECTS are held.
+     */
+    void addReject(Reject reject) {
+        rejectCount++;
+        if (rejects.size() < MAX_RECORDED_REJECTS) {
+            rejects.add(reject);
+        }
+    }
+
+    /**
+     * Records how long the load took.
+     */
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the number of non-blank lines read.
+     *
+     * @return The number of lines.
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    /**
+     * Gets the number of lines parsed into courses, including duplicates the structure ignored.
+     *
+     * @return The number of courses parsed.
+     */
+    public long getCourses() {
+        return courses;
+    }
+
+    /**
+     * Gets the number of rejected lines.
+     *
+     * @return The number of rejects.
+     */
+    public long getRejectCount() {
+        return rejectCount;
+    }
+
+    /**
+     * Gets the first rejected lines, in file order.
+     *
+     * @return An unmodifiable list of rejects.
+     */
+    public List<Reject> getRejects() {
+        return Collections.unmodifiableList(rejects);
+    }
+
+    /**
+     * Gets the number of bytes read.
+     *
+     * @return The number of bytes.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets the wall-clock time of the load.
+     *
+     * @return The elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets the load throughput.
+     *
+     * @return The throughput in megabytes (2^20 bytes) per second.
+     */
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : (bytes / 1048576.0) / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Returns a one-line summary of the load.
+     *
+     * @return The summary.
+     */
+    @Override
+    public String toString() {
+        return String.format("%d lines, %d courses, %d rejected, %.1f MB in %.3f s (%.1f MB/s)",
+                lines, courses, rejectCount, bytes / 1048576.0, elapsedNanos / 1e9, getMegabytesPerSecond());
+    }
+}
@@ -0,0 +1,291 @@
+package Default;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * The CourseDBLoader class bulk-loads course files. The file is memory-mapped in large windows,
+ * each window is cut into chunks on line boundaries, and the chunks are parsed in parallel on a
+ * fork/join pool. Parsed courses are handed to the caller in file order, one batch per chunk, so
+ * the first course with a given CRN still wins. Lines that cannot be parsed are recorded in a
+ * CourseDBLoadReport instead of aborting the load.
+ *
+ * <p>Each line holds a course ID, CRN, credits, and room number separated by spaces, followed by
+ * the instructor's name, which is the rest of the line and may itself contain spaces.</p>
+ */
+public class CourseDBLoader {
+    private static final int DEFAULT_WINDOW_BYTES = 256 << 20; // Bytes mapped at a time.
+    private static final int DEFAULT_CHUNK_BYTES = 4 << 20;    // Target bytes parsed by one task.
+
+    private final ForkJoinPool pool;  // The pool that parses chunks.
+    private final int windowBytes;    // Bytes mapped at a time.
+    private final int chunkBytes;     // Target bytes parsed by one task.
+
+    /**
+     * Creates a CourseDBLoader that parses on the common fork/join pool.
+     */
+    public CourseDBLoader() {
+        this(ForkJoinPool.commonPool(), DEFAULT_WINDOW_BYTES, DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * Creates a CourseDBLoader with an explicit pool and buffer sizes.
+     *
+     * @param pool        The pool that parses chunks.
+     * @param windowBytes The number of bytes mapped at a time.
+     * @param chunkBytes  The target number of bytes parsed by one task.
+     */
+    public CourseDBLoader(ForkJoinPool pool, int windowBytes, int chunkBytes) {
+        if (chunkBytes <= 0 || windowBytes < chunkBytes) {
+            throw new IllegalArgumentException("Window must be at least one chunk and chunks must be positive");
+        }
+        this.pool = pool;
+        this.windowBytes = windowBytes;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Loads a course file, passing each parsed batch of courses to the consumer in file order.
+     *
+     * @param input The file to read.
+     * @param batches Receives the parsed courses, one list per chunk.
+     * @return A report of the load, including rejected lines.
+     * @throws FileNotFoundException If the input file does not exist.
+     * @throws IOException If the file cannot be read.
+     */
+    public CourseDBLoadReport load(File input, Consumer<List<CourseDBElement>> batches) throws IOException {
+        if (!input.isFile()) {
+            throw new FileNotFoundException(input.getPath() + " (No such file)");
+        }
+        CourseDBLoadReport report = new CourseDBLoadReport();
+        long start = System.nanoTime();
+        long lineNumber = 0;
+        try (FileChannel channel = FileChannel.open(input.toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long position = 0;
+            while (position < fileSize) {
+                long length = Math.min(windowBytes, fileSize - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int usable = (int) length;
+                if (position + length < fileSize) {
+                    // Stop the window after its last newline; the partial line starts the next window.
+                    int lastNewline = lastIndexOf(window, (byte) '\n', usable);
+                    if (lastNewline < 0) {
+                        throw new IOException("Line at byte " + position + " is longer than the " + windowBytes + "-byte window");
+                    }
+                    usable = lastNewline + 1;
+                }
+                List<ParseTask> tasks = split(window, usable);
+                for (ParseTask task : tasks) {
+                    pool.execute(task);
+                }
+                for (ParseTask task : tasks) {
+                    ParsedChunk chunk = task.join();
+                    for (CourseDBLoadReport.Reject reject : chunk.rejects) {
+                        report.addReject(new CourseDBLoadReport.Reject(lineNumber + reject.getLineNumber(),
+                                reject.getLine(), reject.getReason()));
+                    }
+                    lineNumber += chunk.lineCount;
+                    report.addLines(chunk.nonBlankLines);
+                    report.addCourses(chunk.courses.size());
+                    if (!chunk.courses.isEmpty()) {
+                        batches.accept(chunk.courses);
+                    }
+                }
+                report.addBytes(usable);
+                position += usable;
+            }
+        }
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Cuts the first usable bytes of a window into parse tasks of about chunkBytes each,
+     * moving every cut forward to just after the next newline.
+     */
+    private List<ParseTask> split(MappedByteBuffer window, int usable) {
+        List<ParseTask> tasks = new ArrayList<>();
+        int from = 0;
+        while (from < usable) {
+            int to = Math.min(from + chunkBytes, usable);
+            while (to < usable && window.get(to - 1) != '\n') {
+                to++;
+            }
+            tasks.add(new ParseTask(window, from, to));
+            from = to;
+        }
+        return tasks;
+    }
+
+    /**
+     * Finds the last occurrence of a byte before the given limit.
+     */
+    private static int lastIndexOf(MappedByteBuffer buffer, byte value, int limit) {
+        for (int i = limit - 1; i >= 0; i--) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The courses and rejects parsed from one chunk. Reject line numbers are relative to the chunk.
+     */
+    private static class ParsedChunk {
+        private final List<CourseDBElement> courses = new ArrayList<>();
+        private final List<CourseDBLoadReport.Reject> rejects = new ArrayList<>();
+        private long lineCount;     // Every line in the chunk, including blank ones.
+        private long nonBlankLines; // Lines that held any text.
+    }
+
+    /**
+     * Parses one chunk of a mapped window.
+     */
+    private static class ParseTask extends RecursiveTask<ParsedChunk> {
+        private static final long serialVersionUID = 1L; // Tasks are never serialized; this silences the lint.
+        private final MappedByteBuffer window;
+        private final int from;
+        private final int to;
+        private final int[] bounds = new int[8]; // Start and end of the first four fields of the current line
+
+        private ParseTask(MappedByteBuffer window, int from, int to) {
+            this.window = window;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ParsedChunk compute() {
+            byte[] bytes = new byte[to - from];
+            window.get(from, bytes);
+            ParsedChunk chunk = new ParsedChunk();
+            int lineStart = 0;
+            while (lineStart < bytes.length) {
+                int lineEnd = lineStart;
+                while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                chunk.lineCount++;
+                parseLine(bytes, lineStart, lineEnd, chunk);
+                lineStart = lineEnd + 1;
+            }
+            return chunk;
+        }
+
+        /**
+         * Parses the line bytes[start, end) into a course, or records why it was rejected.
+         */
+        private void parseLine(byte[] bytes, int start, int end, ParsedChunk chunk) {
+            while (end > start && isSpace(bytes[end - 1])) {
+                end--; // Trailing spaces and the '\r' of CRLF files
+            }
+            start = skipSpaces(bytes, start, end);
+            if (start == end) {
+                return; // Blank lines are ignored
+            }
+            chunk.nonBlankLines++;
+            int position = start;
+            for (int field = 0; field < 4; field++) {
+                bounds[field * 2] = position;
+                while (position < end && !isSpace(bytes[position])) {
+                    position++;
+                }
+                bounds[field * 2 + 1] = position;
+                position = skipSpaces(bytes, position, end);
+                if (position == end) {
+                    reject(bytes, start, end, chunk, "expected 5 fields");
+                    return;
+                }
+            }
+            long crn = parseInt(bytes, bounds[2], bounds[3]);
+            if (crn == Long.MIN_VALUE) {
+                reject(bytes, start, end, chunk, "CRN is not an integer");
+                return;
+            }
+            long credits = parseInt(bytes, bounds[4], bounds[5]);
+            if (credits == Long.MIN_VALUE) {
+                reject(bytes, start, end, chunk, "credits is not an integer");
+                return;
+            }
+            chunk.courses.add(new CourseDBElement(
+                    new String(bytes, bounds[0], bounds[1] - bounds[0], StandardCharsets.UTF_8),
+                    (int) crn,
+                    (int) credits,
+                    new String(bytes, bounds[6], bounds[7] - bounds[6], StandardCharsets.UTF_8),
+                    new String(bytes, position, end - position, StandardCharsets.UTF_8)));
+        }
+
+        private void reject(byte[] bytes, int start, int end, ParsedChunk chunk, String reason) {
+            chunk.rejects.add(new CourseDBLoadReport.Reject(chunk.lineCount,
+                    new String(bytes, start, end - start, StandardCharsets.UTF_8), reason));
+        }
+    }
+
+    /**
+     * Parses a decimal int from bytes[start, end) without allocating.
+     *
+     * @return The value, or Long.MIN_VALUE if the bytes are not a valid int.
+     */
+    static long parseInt(byte[] bytes, int start, int end) {
+        boolean negative = start < end && bytes[start] == '-';
+        int position = negative ? start + 1 : start;
+        if (position == end || end - position > 10) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = bytes[position] - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+    }
+
+    private static int skipSpaces(byte[] bytes, int position, int end) {
+        while (position < end && isSpace(bytes[position])) {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean isSpace(byte value) {
+        return value == ' ' || value == '\t' || value == '\r';
+    }
+
+    /**
+     * Loads one or more course files into a fresh structure and prints a report for each.
+     *
+     * @param args The files to load.
+     * @throws IOException If a file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        CourseDBLoader loader = new CourseDBLoader();
+        for (String path : args) {
+            CourseDBStructureInterface structure = CourseDBStructureType.fromSystemProperty().create(1 << 16);
+            CourseDBLoadReport report = loader.load(new File(path), batch -> {
+                for (CourseDBElement element : batch) {
+                    structure.add(element);
+                }
+            });
+            System.out.println(path + ": " + report);
+            for (CourseDBLoadReport.Reject reject : report.getRejects()) {
+                System.out.println("  " + reject);
+            }
+        }
+    }
+}
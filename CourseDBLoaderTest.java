@@ -0,0 +1,126 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class contains JUnit tests for the CourseDBLoader class. It tests field parsing, rejected
+ * lines, and that chunk and window boundaries neither split nor reorder lines.
+ */
+public class CourseDBLoaderTest {
+
+    /**
+     * Writes the given lines to a temporary file.
+     */
+    private static File writeLines(String... lines) throws IOException {
+        File file = File.createTempFile("courses", ".txt");
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(file)) {
+            for (String line : lines) {
+                writer.print(line);
+                writer.print('\n');
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Loads a file and collects every parsed course in the order the loader delivered them.
+     */
+    private static List<CourseDBElement> loadAll(CourseDBLoader loader, File file, CourseDBLoadReport[] report)
+            throws IOException {
+        List<CourseDBElement> courses = new ArrayList<>();
+        report[0] = loader.load(file, courses::addAll);
+        return courses;
+    }
+
+    /**
+     * Test that fields are parsed and the instructor name keeps its spaces.
+     */
+    @Test
+    public void testParsesFields() throws IOException {
+        File file = writeLines("CMSC204 30504 4 SC450 Joey Bag-O-Donuts", "MATH101 11111 4 202 Jane  Smith\r");
+        CourseDBLoadReport[] report = new CourseDBLoadReport[1];
+        List<CourseDBElement> courses = loadAll(new CourseDBLoader(), file, report);
+
+        assertEquals(2, courses.size());
+        assertEquals("CMSC204", courses.get(0).getID());
+        assertEquals(30504, courses.get(0).getCRN());
+        assertEquals(4, courses.get(0).getCredits());
+        assertEquals("SC450", courses.get(0).getRoomNum());
+        assertEquals("Joey Bag-O-Donuts", courses.get(0).getInstructorName());
+        assertEquals("Jane  Smith", courses.get(1).getInstructorName());
+        assertEquals(0, report[0].getRejectCount());
+        assertEquals(file.length(), report[0].getBytes());
+    }
+
+    /**
+     * Test that malformed lines are reported with their line numbers and do not stop the load.
+     */
+    @Test
+    public void testRejectsBadLines() throws IOException {
+        File file = writeLines(
+                "CMSC204 30504 4 SC450 Joey",
+                "CMSC204 3O504 4 SC450 Letter O in CRN",
+                "",
+                "CMSC204 30505 four SC450 Words for credits",
+                "CMSC204 30506 4",
+                "CMSC204 99999999999 4 SC450 Too big",
+                "CMSC204 30507 3 SC451 Jane Doe");
+        CourseDBLoadReport[] report = new CourseDBLoadReport[1];
+        List<CourseDBElement> courses = loadAll(new CourseDBLoader(), file, report);
+
+        assertEquals(2, courses.size());
+        assertEquals(30507, courses.get(1).getCRN());
+        assertEquals(4, report[0].getRejectCount());
+        assertEquals(6, report[0].getLines());
+        assertEquals(2, report[0].getRejects().get(0).getLineNumber());
+        assertEquals(4, report[0].getRejects().get(1).getLineNumber());
+        assertEquals(5, report[0].getRejects().get(2).getLineNumber());
+        assertEquals(6, report[0].getRejects().get(3).getLineNumber());
+    }
+
+    /**
+     * Test that tiny windows and chunks keep every line whole and deliver courses in file order.
+     */
+    @Test
+    public void testSmallWindowsKeepOrder() throws IOException {
+        String[] lines = new String[2000];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = (i == 777 ? "BAD LINE" : "CMSC" + i + " " + (10000 + i) + " 3 SC" + i + " Instructor Number " + i);
+        }
+        File file = writeLines(lines);
+        CourseDBLoader loader = new CourseDBLoader(ForkJoinPool.commonPool(), 1024, 100);
+        CourseDBLoadReport[] report = new CourseDBLoadReport[1];
+        List<CourseDBElement> courses = loadAll(loader, file, report);
+
+        assertEquals(1999, courses.size());
+        int expected = 0;
+        for (CourseDBElement course : courses) {
+            if (expected == 777) {
+                expected++;
+            }
+            assertEquals(10000 + expected, course.getCRN());
+            assertEquals("Instructor Number " + expected, course.getInstructorName());
+            expected++;
+        }
+        assertEquals(778, report[0].getRejects().get(0).getLineNumber());
+    }
+
+    /**
+     * Test that a missing file raises FileNotFoundException.
+     */
+    @Test
+    public void testMissingFile() {
+        assertThrows(FileNotFoundException.class,
+                () -> new CourseDBLoader().load(new File("no-such-course-file.txt"), batch -> { }));
+    }
+}
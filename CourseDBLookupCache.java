@@ -0,0 +1,262 @@
+package Default;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * The CourseDBLookupCache class is a bounded, read-through cache of CRN lookups. It also caches
+ * negative results, so repeated lookups of CRNs that do not exist skip the structure too.
+ *
+ * <p>The cache is split into segments, each a ConcurrentHashMap read without locking, so concurrent
+ * readers never contend, not even on one hot CRN. Recency is approximated with the CLOCK (second
+ * chance) policy instead of a strict LRU order: a hit only sets its entry's referenced flag, and
+ * eviction, done under the segment's lock when a miss is cached, skips and clears flagged entries
+ * before evicting the oldest unflagged one. Hits, misses, evictions, and the time spent loading
+ * misses are counted for sizing the cache.</p>
+ */
+public class CourseDBLookupCache {
+    private static final int SEGMENTS = 16; // Must be a power of two.
+    private static final CourseDBElement MISSING = new CourseDBElement(); // Cached value for "no such CRN".
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    /**
+     * One segment: a map read without locking, and the CLOCK queue of its entries in insertion
+     * order. Changes to either are made under the segment's lock.
+     */
+    private static final class Segment {
+        private final int capacity;
+        private final ConcurrentHashMap<Integer, Entry> map;
+        private final ArrayDeque<Entry> clock = new ArrayDeque<>(); // Entries oldest first, with stale ones not yet skipped.
+        private volatile long generation; // Bumped by every invalidation, so a load that raced one is not cached.
+
+        private Segment(int capacity) {
+            this.capacity = capacity;
+            this.map = new ConcurrentHashMap<>(Math.min(capacity, 1024));
+        }
+    }
+
+    /**
+     * A cached lookup result.
+     */
+    private static final class Entry {
+        private final int crn;
+        private final CourseDBElement value;   // The course, or MISSING.
+        private volatile boolean referenced;   // Set by hits since the clock last passed this entry.
+
+        private Entry(int crn, CourseDBElement value) {
+            this.crn = crn;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A point-in-time view of the cache counters.
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long loadNanos;
+        private final int size;
+
+        private Stats(long hits, long misses, long evictions, long loadNanos, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.loadNanos = loadNanos;
+            this.size = size;
+        }
+
+        /**
+         * Gets the number of lookups answered from the cache, including cached misses.
+         *
+         * @return The hit count.
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * Gets the number of lookups that had to load from the structure.
+         *
+         * @return The miss count.
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * Gets the fraction of lookups answered from the cache.
+         *
+         * @return The hit rate between 0 and 1, or 0 if there were no lookups.
+         */
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        /**
+         * Gets the number of entries evicted to stay within capacity.
+         *
+         * @return The eviction count.
+         */
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * Gets the average time spent loading a miss from the structure.
+         *
+         * @return The average load time in nanoseconds, or 0 if nothing was loaded.
+         */
+        public double getAverageLoadNanos() {
+            return misses == 0 ? 0.0 : (double) loadNanos / misses;
+        }
+
+        /**
+         * Gets the number of cached entries.
+         *
+         * @return The cache size.
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Returns a one-line summary of the statistics.
+         *
+         * @return The statistics as a string.
+         */
+        @Override
+        public String toString() {
+            return String.format("size=%d hits=%d misses=%d hitRate=%.3f evictions=%d avgLoadNanos=%.0f",
+                    size, hits, misses, getHitRate(), evictions, getAverageLoadNanos());
+        }
+    }
+
+    /**
+     * Creates a CourseDBLookupCache holding at most about capacity entries.
+     *
+     * @param capacity The maximum number of cached CRNs, spread evenly over the segments.
+     */
+    public CourseDBLookupCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        int perSegment = Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * Returns the course for a CRN, loading and caching it on a miss.
+     *
+     * @param crn    The CRN to look up.
+     * @param loader Loads the course from the structure, returning null if it does not exist.
+     * @return The course, or null if it does not exist.
+     */
+    public CourseDBElement get(int crn, IntFunction<CourseDBElement> loader) {
+        Segment segment = segmentFor(crn);
+        Entry cached = segment.map.get(crn);
+        if (cached != null) {
+            if (!cached.referenced) {
+                cached.referenced = true; // Only written when clear, so hot entries are not written on every hit.
+            }
+            hits.increment();
+            return cached.value == MISSING ? null : cached.value;
+        }
+        // Read after the miss but before loading: an invalidation after this read stops the load
+        // from being cached, and one before it happened before the load.
+        long generation = segment.generation;
+        misses.increment();
+        long start = System.nanoTime();
+        CourseDBElement loaded = loader.apply(crn);
+        loadNanos.add(System.nanoTime() - start);
+        synchronized (segment) {
+            if (segment.generation == generation) {
+                Entry entry = new Entry(crn, loaded == null ? MISSING : loaded);
+                segment.map.put(crn, entry);
+                segment.clock.addLast(entry);
+                evictOver(segment);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Evicts entries until a segment is within its capacity, giving referenced entries a second
+     * chance. Called with the segment's lock held.
+     *
+     * @param segment The segment.
+     */
+    private void evictOver(Segment segment) {
+        while (segment.map.size() > segment.capacity) {
+            Entry candidate = segment.clock.pollFirst();
+            if (segment.map.get(candidate.crn) != candidate) {
+                continue; // Replaced or invalidated since it was queued.
+            }
+            if (candidate.referenced) {
+                candidate.referenced = false;
+                segment.clock.addLast(candidate);
+            } else {
+                segment.map.remove(candidate.crn);
+                evictions.increment();
+            }
+        }
+        if (segment.clock.size() > 2 * segment.capacity + 16) {
+            // Invalidations leave stale entries in the queue; drop them before they pile up.
+            segment.clock.removeIf(entry -> segment.map.get(entry.crn) != entry);
+        }
+    }
+
+    /**
+     * Removes a CRN from the cache, for example after a course with that CRN is added.
+     *
+     * @param crn The CRN to forget.
+     */
+    public void invalidate(int crn) {
+        Segment segment = segmentFor(crn);
+        synchronized (segment) {
+            segment.generation++;
+            segment.map.remove(crn);
+        }
+    }
+
+    /**
+     * Removes every entry from the cache. The counters are kept.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.generation++;
+                segment.map.clear();
+                segment.clock.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the current cache counters.
+     *
+     * @return A snapshot of the statistics.
+     */
+    public Stats getStats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.map.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), loadNanos.sum(), size);
+    }
+
+    private Segment segmentFor(int crn) {
+        return segments[CrnHashStrategy.MURMUR3.hash(crn) & (SEGMENTS - 1)];
+    }
+}
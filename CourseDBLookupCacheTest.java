@@ -0,0 +1,91 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains JUnit tests for the CourseDBLookupCache class. It tests hits and misses,
+ * caching of missing CRNs, eviction at capacity with a second chance for hot entries, and invalidation when a course is added.
+ */
+public class CourseDBLookupCacheTest {
+
+    /**
+     * Test that a second lookup is a hit and does not call the loader again.
+     */
+    @Test
+    public void testHitAndMiss() {
+        CourseDBLookupCache cache = new CourseDBLookupCache(100);
+        CourseDBElement course = new CourseDBElement("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts");
+        int[] loads = new int[1];
+
+        assertSame(course, cache.get(30504, crn -> { loads[0]++; return course; }));
+        assertSame(course, cache.get(30504, crn -> { loads[0]++; return course; }));
+        assertEquals(1, loads[0]);
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+        assertEquals(0.5, cache.getStats().getHitRate(), 1e-9);
+    }
+
+    /**
+     * Test that a CRN that does not exist is cached as missing until it is invalidated.
+     */
+    @Test
+    public void testNegativeCaching() {
+        CourseDBLookupCache cache = new CourseDBLookupCache(100);
+        int[] loads = new int[1];
+
+        assertNull(cache.get(12345, crn -> { loads[0]++; return null; }));
+        assertNull(cache.get(12345, crn -> { loads[0]++; return null; }));
+        assertEquals(1, loads[0]);
+
+        cache.invalidate(12345);
+        assertNull(cache.get(12345, crn -> { loads[0]++; return null; }));
+        assertEquals(2, loads[0]);
+    }
+
+    /**
+     * Test that the cache stays within its capacity and counts evictions.
+     */
+    @Test
+    public void testEviction() {
+        CourseDBLookupCache cache = new CourseDBLookupCache(64);
+        for (int i = 0; i < 10000; i++) {
+            cache.get(i, crn -> new CourseDBElement("CMSC" + crn, crn, 3, "SC1", "Instructor"));
+        }
+        CourseDBLookupCache.Stats stats = cache.getStats();
+        assertTrue(stats.getSize() <= 64);
+        assertEquals(10000 - stats.getSize(), stats.getEvictions());
+    }
+
+    /**
+     * Test that an entry hit between misses gets a second chance and survives a scan of new CRNs.
+     */
+    @Test
+    public void testHotEntrySurvivesScan() {
+        CourseDBLookupCache cache = new CourseDBLookupCache(64);
+        int[] hotLoads = new int[1];
+        for (int i = 1; i < 10000; i++) {
+            cache.get(0, crn -> { hotLoads[0]++; return new CourseDBElement("CMSC204", 0, 4, "SC450", "Hot"); });
+            cache.get(i, crn -> new CourseDBElement("CMSC" + crn, crn, 3, "SC1", "Instructor"));
+        }
+        assertEquals(1, hotLoads[0]);
+        assertTrue(cache.getStats().getSize() <= 64);
+    }
+
+    /**
+     * Test that a course added through the manager is found even after its CRN was cached as missing.
+     */
+    @Test
+    public void testManagerInvalidatesOnAdd() {
+        CourseDBManager manager = new CourseDBManager();
+        manager.enableCache(100);
+        assertNull(manager.get(30504));
+        manager.add("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts");
+        assertEquals("CMSC204", manager.get(30504).getID());
+        assertEquals("CMSC204", manager.get(30504).getID());
+        assertEquals(1, manager.getCacheStats().getHits());
+
+        manager.disableCache();
+        assertNull(manager.getCacheStats());
+    }
+}
@@ -1,21 +1,66 @@
 package Default;
 import java.io.*;
+import java.lang.management.ManagementFactory;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 /**
  * The CourseDBManager class manages a course database and provides functionality
- * to add, retrieve, and display course information. It also supports reading
+ * to add, update, remove, retrieve, and display course information. It also supports reading
  * course data from a file.
  */
 public class CourseDBManager implements CourseDBManagerInterface {
-    private CourseDBStructure courseDB;
+    /** The system property that turns on membership filters for new managers (see setMembershipFilterEnabled). */
+    public static final String MEMBERSHIP_FILTER_PROPERTY = "coursedb.membershipFilter";
+
+    private static final int DEFAULT_ESTIMATED_COURSES = 500; // Initial sizing for the default structure.
+    private static final CourseDBLoader LOADER = new CourseDBLoader(); // Shared, stateless bulk loader.
+    private static final int PARALLEL_BATCH_CHUNK = 8192; // getAll batches of more than one chunk are split across cores.
+    private static final int[] NO_REMOVALS = new int[0];  // The removals of a change batch that only upserts.
+
+    private CourseDBStoreInterface courseDB;
+    private volatile CourseDBSecondaryIndex secondaryIndex; // Built on the first secondary query, then kept up to date by changes.
+    private volatile CourseDBOrderedIndex orderedIndex;     // Built on the first ordered query, then kept up to date by changes.
+    private final ReentrantReadWriteLock indexLock = new ReentrantReadWriteLock(); // Guards the indexes (see lockForChange).
+    private volatile CourseDBLookupCache cache;    // Optional read-through cache in front of get, or null.
+    private final LongAdder missCount = new LongAdder(); // Lookups of CRNs that are not stored.
+    private volatile CourseDBMetrics metrics;      // Optional counters and latency histograms, or null.
+    private CourseDBWriteAheadLog log;             // Logs every change before it is applied, or null if not durable.
+    private File snapshotFile;                     // Where compaction writes the full snapshot, if durable.
+    private long compactionBytes;                  // Log size that triggers compaction, if durable.
+    private final ReentrantReadWriteLock compactionLock = new ReentrantReadWriteLock(); // Changes share it; compaction excludes them.
+    private final Object compactionMonitor = new Object(); // Lets one writer at a time decide to compact.
+    private final Object applyOrder = new Object(); // Durable changes are applied in log order, waiting on this.
+    private long appliedSequence;                  // The last log sequence number applied, guarded by applyOrder.
+    private volatile Lock applyLock;               // Held around each in-memory change, or null (see setApplyLock).
+    private volatile boolean membershipFilter;     // Whether the structure's membership filter is on and rebuilt after loads.
 
     /**
-     * Initializes the CourseDBManager with an empty course database.
+     * Initializes the CourseDBManager with an empty course database. The structure type is
+     * taken from the "coursedb.structure" system property (see CourseDBStructureType).
      */
     public CourseDBManager() {
-        // Initialize the course database structure
-        courseDB = new CourseDBStructure(500); // You can adjust the size as needed
+        this(CourseDBStructureType.fromSystemProperty().create(DEFAULT_ESTIMATED_COURSES));
+    }
+
+    /**
+     * Initializes the CourseDBManager with the given course database structure.
+     *
+     * @param courseDB The structure used to store courses.
+     */
+    public CourseDBManager(CourseDBStoreInterface courseDB) {
+        this.courseDB = courseDB;
+        if (Boolean.getBoolean(MEMBERSHIP_FILTER_PROPERTY)) {
+            setMembershipFilterEnabled(true);
+        }
     }
 
     /**
@@ -29,50 +74,1025 @@ public class CourseDBManager implements CourseDBManagerInterface {
      */
     @Override
     public void add(String id, int crn, int credits, String roomNum, String instructor) {
+        CourseDBMetrics currentMetrics = metrics;
+        long start = currentMetrics == null ? 0 : currentMetrics.startAdd();
+        CourseDBElement course = new CourseDBElement(id, crn, credits, roomNum, instructor);
+        if (log == null) {
+            applying(() -> {
+                addCourse(course);
+                return null;
+            });
+        } else {
+            logAndApply(Collections.singletonList(course));
+        }
+        if (currentMetrics != null) {
+            currentMetrics.recordAdd(start);
+        }
+    }
+
+    /**
+     * Adds a course to the structure and, if it was not a duplicate, to any indexes that have been built.
+     *
+     * @param course The course to add.
+     */
+    private void addCourse(CourseDBElement course) {
+        Lock lock = lockForChange();
+        try {
+            if (secondaryIndex == null && orderedIndex == null) {
+                courseDB.add(course);
+            } else {
+                int sizeBefore = courseDB.size();
+                courseDB.add(course);
+                if (courseDB.size() > sizeBefore) {
+                    if (secondaryIndex != null) {
+                        secondaryIndex.add(course);
+                    }
+                    if (orderedIndex != null) {
+                        orderedIndex.add(course);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Invalidate after the add, so a concurrent lookup cannot re-cache the CRN as missing.
+        CourseDBLookupCache currentCache = cache;
+        if (currentCache != null) {
+            currentCache.invalidate(course.getCRN());
+        }
+    }
+
+    /**
+     * Stores a course, replacing the course with the same CRN if there is one.
+     *
+     * @param id         The course ID.
+     * @param crn        The Course Registration Number (CRN).
+     * @param credits    The number of credits for the course.
+     * @param roomNum    The room number where the course is held.
+     * @param instructor The name of the instructor for the course.
+     * @return The course it replaced, or null if the CRN was not stored.
+     */
+    public CourseDBElement update(String id, int crn, int credits, String roomNum, String instructor) {
         CourseDBElement course = new CourseDBElement(id, crn, credits, roomNum, instructor);
-        courseDB.add(course);
+        return durably(wal -> wal.appendChanges(Collections.singletonList(course), NO_REMOVALS),
+                () -> updateCourse(course));
+    }
+
+    /**
+     * Removes the course with the given CRN.
+     *
+     * @param crn The CRN of the course to remove.
+     * @return The course removed, or null if the CRN was not stored.
+     */
+    public CourseDBElement remove(int crn) {
+        return durably(wal -> wal.appendChanges(Collections.emptyList(), new int[] {crn}), () -> removeCourse(crn));
+    }
+
+    /**
+     * Applies a batch of upserts and removals. With a write-ahead log the batch is one record, so
+     * a crash keeps all of it or none of it; with the persistent structure it is also published as
+     * one version, so readers never see part of it. Work is proportional to the size of the batch.
+     *
+     * @param upserts  The courses to store, replacing any stored under the same CRN.
+     * @param removals The CRNs of the courses to remove.
+     * @throws IllegalArgumentException If a CRN appears more than once in the batch.
+     */
+    public void applyChanges(Collection<? extends CourseDBElement> upserts, int[] removals) {
+        HashSet<Integer> crns = new HashSet<>();
+        for (CourseDBElement course : upserts) {
+            if (!crns.add(course.getCRN())) {
+                throw new IllegalArgumentException("CRN appears more than once in the batch: " + course.getCRN());
+            }
+        }
+        for (int crn : removals) {
+            if (!crns.add(crn)) {
+                throw new IllegalArgumentException("CRN appears more than once in the batch: " + crn);
+            }
+        }
+        durably(wal -> wal.appendChanges(upserts, removals), () -> {
+            applyChangeBatch(upserts, removals);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the stored course with the given CRN, bypassing the cache, metrics, and miss count.
+     *
+     * @param crn The CRN of the course.
+     * @return The course, or null if it is not stored.
+     */
+    CourseDBElement peek(int crn) {
+        return courseDB.find(crn);
+    }
+
+    /**
+     * Stores a course in the structure and brings the indexes and cache up to date, without logging it.
+     *
+     * @param course The course to store.
+     * @return The course it replaced, or null if the CRN was not stored.
+     */
+    private CourseDBElement updateCourse(CourseDBElement course) {
+        Lock lock = lockForChange();
+        try {
+            CourseDBElement previous = courseDB.update(course);
+            reindex(course.getCRN(), previous, course);
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a course from the structure, indexes, and cache, without logging it.
+     *
+     * @param crn The CRN of the course to remove.
+     * @return The course removed, or null if the CRN was not stored.
+     */
+    private CourseDBElement removeCourse(int crn) {
+        Lock lock = lockForChange();
+        try {
+            CourseDBElement previous = courseDB.remove(crn);
+            reindex(crn, previous, null);
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies a batch of upserts and removals to the structure in one call, then brings the
+     * indexes and cache up to date, without logging it. The courses being replaced are looked up
+     * first only when there are indexes to correct.
+     *
+     * @param upserts  The courses to store.
+     * @param removals The CRNs to remove.
+     */
+    private void applyChangeBatch(Collection<? extends CourseDBElement> upserts, int[] removals) {
+        Lock lock = lockForChange();
+        try {
+            boolean indexed = secondaryIndex != null || orderedIndex != null;
+            CourseDBElement[] replaced = new CourseDBElement[upserts.size()];
+            CourseDBElement[] removed = new CourseDBElement[removals.length];
+            if (indexed) {
+                int i = 0;
+                for (CourseDBElement course : upserts) {
+                    replaced[i++] = courseDB.find(course.getCRN());
+                }
+                for (i = 0; i < removals.length; i++) {
+                    removed[i] = courseDB.find(removals[i]);
+                }
+            }
+            courseDB.applyChanges(upserts, removals);
+            int i = 0;
+            for (CourseDBElement course : upserts) {
+                reindex(course.getCRN(), replaced[i++], course);
+            }
+            for (i = 0; i < removals.length; i++) {
+                reindex(removals[i], removed[i], null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Locks the indexes for a change. While no index has been built, changes share the read side
+     * of indexLock and run as concurrently as the structure allows; an index build takes the write
+     * side, so it never misses a change that is half applied. Once an index exists, changes take
+     * the write side, since the indexes are not thread-safe, and queries of them take the read side.
+     *
+     * @return The lock taken, to be released by the caller.
+     */
+    private Lock lockForChange() {
+        while (true) {
+            if (secondaryIndex != null || orderedIndex != null) {
+                Lock exclusive = indexLock.writeLock();
+                exclusive.lock();
+                return exclusive;
+            }
+            Lock shared = indexLock.readLock();
+            shared.lock();
+            if (secondaryIndex == null && orderedIndex == null) {
+                return shared;
+            }
+            shared.unlock(); // An index was built while this change waited: lock exclusively instead.
+        }
+    }
+
+    /**
+     * Moves a CRN in any indexes that have been built from its old course to its new one, and
+     * invalidates it in the cache.
+     *
+     * @param crn      The CRN that changed.
+     * @param previous The course stored before, or null if there was none.
+     * @param course   The course stored now, or null if it was removed.
+     */
+    private void reindex(int crn, CourseDBElement previous, CourseDBElement course) {
+        if (secondaryIndex != null) {
+            if (previous != null) {
+                secondaryIndex.remove(previous);
+            }
+            if (course != null) {
+                secondaryIndex.add(course);
+            }
+        }
+        if (orderedIndex != null) {
+            if (course != null) {
+                orderedIndex.update(course);
+            } else if (previous != null) {
+                orderedIndex.remove(crn);
+            }
+        }
+        // Invalidate after the change, so a concurrent lookup cannot re-cache the old course.
+        CourseDBLookupCache currentCache = cache;
+        if (currentCache != null) {
+            currentCache.invalidate(crn);
+        }
     }
 
     /**
      * Retrieves a course by its Course Registration Number (CRN).
      *
      * @param crn The CRN of the course to retrieve.
-     * @return The course information as a CourseDBElement object.
-     *         If the course is not found, an error message is printed, and null is returned.
+     * @return The course information as a CourseDBElement object, or null if the course is not
+     *         found. Misses are counted (see getMissCount) rather than logged.
      */
     @Override
     public CourseDBElement get(int crn) {
+        CourseDBMetrics currentMetrics = metrics;
+        if (currentMetrics == null) {
+            return cachedLookup(crn);
+        }
+        long start = currentMetrics.startGet();
+        CourseDBElement course = cachedLookup(crn);
+        currentMetrics.recordGet(start, course != null);
+        return course;
+    }
+
+    /**
+     * Looks a course up through the cache if one is enabled.
+     *
+     * @param crn The CRN of the course to retrieve.
+     * @return The course, or null if it is not found.
+     */
+    private CourseDBElement cachedLookup(int crn) {
+        CourseDBLookupCache currentCache = cache;
+        if (currentCache != null) {
+            return currentCache.get(crn, this::lookup);
+        }
+        return lookup(crn);
+    }
+
+    /**
+     * Looks a course up in the structure, bypassing the cache.
+     *
+     * @param crn The CRN of the course to retrieve.
+     * @return The course, or null if it is not found.
+     */
+    private CourseDBElement lookup(int crn) {
+        CourseDBElement course = courseDB.find(crn);
+        if (course == null) {
+            missCount.increment();
+        }
+        return course;
+    }
+
+    /**
+     * Returns the number of lookups of CRNs that were not in the structure. With a cache enabled,
+     * repeated misses answered from the cache are counted by the cache rather than here.
+     *
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Adds a batch of courses given as parallel arrays, one course per position.
+     *
+     * @param ids         The course IDs.
+     * @param crns        The Course Registration Numbers (CRNs).
+     * @param credits     The number of credits of each course.
+     * @param roomNums    The room numbers.
+     * @param instructors The instructor names.
+     * @throws IllegalArgumentException If the arrays do not all have the same length.
+     */
+    public void addAll(String[] ids, int[] crns, int[] credits, String[] roomNums, String[] instructors) {
+        int count = crns.length;
+        if (ids.length != count || credits.length != count || roomNums.length != count || instructors.length != count) {
+            throw new IllegalArgumentException("Batch arrays must all have the same length");
+        }
+        List<CourseDBElement> courses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            courses.add(new CourseDBElement(ids[i], crns[i], credits[i], roomNums[i], instructors[i]));
+        }
+        addAll(courses);
+    }
+
+    /**
+     * Adds a batch of courses. The structure sizes itself once for the batch and, if it is
+     * concurrent, takes each lock once. With secondary or ordered indexes built, the courses are
+     * added one at a time so that only courses the structure actually stored are indexed.
+     *
+     * @param courses The courses to add.
+     */
+    public void addAll(Collection<? extends CourseDBElement> courses) {
+        CourseDBMetrics currentMetrics = metrics;
+        if (currentMetrics != null) {
+            currentMetrics.recordAdds(courses.size());
+        }
+        if (log == null) {
+            applying(() -> {
+                applyAll(courses);
+                return null;
+            });
+        } else {
+            logAndApply(courses);
+        }
+    }
+
+    /**
+     * Adds a batch of courses to the structure, indexes, and cache, without logging them.
+     *
+     * @param courses The courses to add.
+     */
+    private void applyAll(Collection<? extends CourseDBElement> courses) {
+        Lock lock = lockForChange();
         try {
-            return courseDB.get(crn);
-        } catch (Exception e) {
-            // Handle the exception as needed
-            System.err.println("Error: " + e.getMessage());
-            return null; // or throw a custom exception, log, or handle the error appropriately
+            if (secondaryIndex != null || orderedIndex != null) {
+                for (CourseDBElement course : courses) {
+                    addCourse(course);
+                }
+                return;
+            }
+            courseDB.addAll(courses);
+        } finally {
+            lock.unlock();
+        }
+        CourseDBLookupCache currentCache = cache;
+        if (currentCache != null) {
+            for (CourseDBElement course : courses) {
+                currentCache.invalidate(course.getCRN());
+            }
+        }
+    }
+
+    /**
+     * Looks up a batch of CRNs, storing each course at the same position in results, or null for
+     * a miss. Without a cache the lookups go straight to the structure in one batch, and batches
+     * of more than PARALLEL_BATCH_CHUNK CRNs are split across the common fork/join pool. Reads
+     * running alongside adds are only safe with the concurrent structure.
+     *
+     * @param crns    The CRNs to look up.
+     * @param results Receives the course for each CRN; must be at least as long as crns.
+     * @return The number of CRNs found.
+     * @throws IllegalArgumentException If results is shorter than crns.
+     */
+    public int getAll(int[] crns, CourseDBElement[] results) {
+        if (results.length < crns.length) {
+            throw new IllegalArgumentException("Result array is shorter than the CRN array");
+        }
+        CourseDBLookupCache currentCache = cache;
+        if (currentCache != null) {
+            for (int i = 0; i < crns.length; i++) {
+                results[i] = currentCache.get(crns[i], this::lookup);
+            }
+        } else if (crns.length <= PARALLEL_BATCH_CHUNK) {
+            courseDB.findAll(crns, results, 0, crns.length);
+        } else {
+            int chunks = (crns.length + PARALLEL_BATCH_CHUNK - 1) / PARALLEL_BATCH_CHUNK;
+            IntStream.range(0, chunks).parallel().forEach(chunk -> courseDB.findAll(crns, results,
+                    chunk * PARALLEL_BATCH_CHUNK, Math.min(crns.length, (chunk + 1) * PARALLEL_BATCH_CHUNK)));
         }
+        int found = 0;
+        for (int i = 0; i < crns.length; i++) {
+            if (results[i] != null) {
+                found++;
+            }
+        }
+        if (currentCache == null) {
+            missCount.add(crns.length - found); // The cache path counts its misses in lookup.
+        }
+        CourseDBMetrics currentMetrics = metrics;
+        if (currentMetrics != null) {
+            currentMetrics.recordGets(crns.length, found);
+        }
+        return found;
+    }
+
+    /**
+     * Looks up a batch of CRNs.
+     *
+     * @param crns The CRNs to look up.
+     * @return The course for each CRN, or null at the positions of CRNs that were not found.
+     */
+    public CourseDBElement[] getAll(int[] crns) {
+        CourseDBElement[] results = new CourseDBElement[crns.length];
+        getAll(crns, results);
+        return results;
+    }
+
+    /**
+     * Puts a bounded cache in front of get, replacing any existing cache. Known-missing CRNs
+     * are cached too, and every add invalidates its CRN, so the cache never hides a new course.
+     *
+     * @param capacity The maximum number of CRNs to cache.
+     */
+    public void enableCache(int capacity) {
+        cache = new CourseDBLookupCache(capacity);
+    }
+
+    /**
+     * Removes the cache, so every get goes to the structure again.
+     */
+    public void disableCache() {
+        cache = null;
+    }
+
+    /**
+     * Returns the cache's hit rate, eviction count, and load latency.
+     *
+     * @return The cache statistics, or null if no cache is enabled.
+     */
+    public CourseDBLookupCache.Stats getCacheStats() {
+        CourseDBLookupCache currentCache = cache;
+        return currentCache == null ? null : currentCache.getStats();
+    }
+
+    /**
+     * Turns the structure's membership filter on or off, for managers that are mostly asked for
+     * CRNs they do not hold, such as one term among many searched in turn. While it is on, adds
+     * update the filter and every load or readFile rebuilds it for the loaded courses. Only
+     * CourseDBStructure has a filter; for other structures this records the setting and does
+     * nothing else. New managers start with it on when the "coursedb.membershipFilter" system
+     * property is true.
+     *
+     * @param enabled Whether lookups check a membership filter before the buckets.
+     */
+    public void setMembershipFilterEnabled(boolean enabled) {
+        membershipFilter = enabled;
+        if (courseDB instanceof CourseDBStructure) {
+            CourseDBStructure structure = (CourseDBStructure) courseDB;
+            applying(() -> {
+                Lock lock = lockForChange();
+                try {
+                    structure.setMembershipFilterEnabled(enabled);
+                } finally {
+                    lock.unlock();
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Returns whether the membership filter is on (see setMembershipFilterEnabled).
+     *
+     * @return true if the filter is on.
+     */
+    public boolean isMembershipFilterEnabled() {
+        return membershipFilter;
     }
 
     /**
      * Reads course information from a file and populates the course database.
+     * Lines that cannot be parsed are skipped; use load to see which lines were rejected.
      *
      * @param input The file containing course data to be read.
      * @throws FileNotFoundException If the input file is not found.
      */
     @Override
     public void readFile(File input) throws FileNotFoundException {
-        try (Scanner scanner = new Scanner(input)) {
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                String[] data = line.split(" ");
-                if (data.length >= 5) {
-                    String id = data[0];
-                    int crn = Integer.parseInt(data[1]);
-                    int credits = Integer.parseInt(data[2]);
-                    String roomNum = data[3];
-                    String instructor = data[4];
-                    add(id, crn, credits, roomNum, instructor);
+        try {
+            load(input);
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads course information from a file with the parallel bulk loader and populates the course database.
+     * Each line holds a course ID, CRN, credits, room number, and the instructor's name, which is the
+     * rest of the line. Malformed lines are recorded in the returned report instead of stopping the load.
+     *
+     * @param input The file containing course data to be read.
+     * @return A report of the load, including its throughput and any rejected lines.
+     * @throws FileNotFoundException If the input file is not found.
+     * @throws IOException If the file cannot be read.
+     */
+    public CourseDBLoadReport load(File input) throws IOException {
+        long start = System.nanoTime();
+        CourseDBLoadReport report = LOADER.load(input, batch -> {
+            if (log == null) {
+                applying(() -> {
+                    for (CourseDBElement course : batch) {
+                        addCourse(course);
+                    }
+                    return null;
+                });
+            } else {
+                logAndApply(batch);
+            }
+        });
+        if (membershipFilter) {
+            setMembershipFilterEnabled(true); // Rebuilt for the loaded courses.
+        }
+        CourseDBMetrics currentMetrics = metrics;
+        if (currentMetrics != null) {
+            currentMetrics.recordLoad(System.nanoTime() - start, report.getCourses());
+        }
+        return report;
+    }
+
+    /**
+     * Opens a durable CourseDBManager with the default compaction threshold of 64 MB of log.
+     *
+     * @param snapshot The snapshot file holding the last compacted state; it need not exist yet.
+     * @param logFile  The write-ahead log of changes made since that snapshot; it need not exist yet.
+     * @return The recovered manager.
+     * @throws IOException If the snapshot or the log cannot be read.
+     */
+    public static CourseDBManager openDurable(File snapshot, File logFile) throws IOException {
+        return openDurable(snapshot, logFile, 64L << 20);
+    }
+
+    /**
+     * Opens a durable CourseDBManager whose structure type is taken from the "coursedb.structure"
+     * system property (see CourseDBStructureType).
+     *
+     * @param snapshot        The snapshot file holding the last compacted state; it need not exist yet.
+     * @param logFile         The write-ahead log of changes made since that snapshot; it need not exist yet.
+     * @param compactionBytes The log size that triggers compaction.
+     * @return The recovered manager.
+     * @throws IOException If the snapshot or the log cannot be read.
+     */
+    public static CourseDBManager openDurable(File snapshot, File logFile, long compactionBytes) throws IOException {
+        return openDurable(snapshot, logFile, compactionBytes, CourseDBStructureType.fromSystemProperty());
+    }
+
+    /**
+     * Opens a durable CourseDBManager. The state is recovered by loading the snapshot, if there
+     * is one, into a new structure of the given type and replaying the write-ahead log over it.
+     * The snapshot is mapped only while it is read, so the manager keeps the structure it was
+     * configured with, and its thread safety, across compactions and restarts. From then on every add, addAll, file
+     * load, update, remove, and change batch is written to the log and forced to disk, with group
+     * commit, before it is applied, so a change that has returned survives a crash. Once the log passes compactionBytes, the whole
+     * database is compacted into a new snapshot and the log is emptied, which keeps recovery time
+     * bounded by the snapshot size rather than by the history of changes.
+     *
+     * @param snapshot        The snapshot file holding the last compacted state; it need not exist yet.
+     * @param logFile         The write-ahead log of changes made since that snapshot; it need not exist yet.
+     * @param compactionBytes The log size that triggers compaction.
+     * @param structureType   The structure to hold the courses in.
+     * @return The recovered manager.
+     * @throws IOException If the snapshot or the log cannot be read.
+     */
+    public static CourseDBManager openDurable(File snapshot, File logFile, long compactionBytes,
+            CourseDBStructureType structureType) throws IOException {
+        CourseDBStoreInterface store;
+        if (snapshot.exists()) {
+            MappedCourseDBStructure mapped = CourseDBSnapshot.open(snapshot.toPath());
+            store = structureType.create(Math.max(mapped.size(), DEFAULT_ESTIMATED_COURSES));
+            for (CourseDBElement course : mapped) {
+                store.add(course);
+            }
+        } else {
+            store = structureType.create(DEFAULT_ESTIMATED_COURSES);
+        }
+        CourseDBManager manager = new CourseDBManager(store);
+        manager.log = CourseDBWriteAheadLog.open(logFile.toPath(), new CourseDBWriteAheadLog.Replay() {
+            @Override
+            public void add(CourseDBElement course) {
+                manager.addCourse(course);
+            }
+
+            @Override
+            public void applyChanges(List<CourseDBElement> upserts, int[] removals) {
+                manager.applyChangeBatch(upserts, removals);
+            }
+        });
+        manager.snapshotFile = snapshot;
+        manager.compactionBytes = compactionBytes;
+        return manager;
+    }
+
+    /**
+     * Writes every course to the snapshot file and empties the write-ahead log. Changes wait while
+     * this runs. A crash between the two steps is harmless: replaying the old log over the new
+     * snapshot ends in the same state, since an add of a stored CRN is ignored and the last update
+     * or removal of each CRN is the one the snapshot already reflects.
+     *
+     * @return The number of courses in the new snapshot.
+     * @throws IOException If the snapshot cannot be written or the log cannot be truncated.
+     * @throws IllegalStateException If this manager was not opened with openDurable.
+     */
+    public int compact() throws IOException {
+        if (log == null) {
+            throw new IllegalStateException("Only a manager opened with openDurable can be compacted");
+        }
+        compactionLock.writeLock().lock();
+        try {
+            int courses = saveSnapshot(snapshotFile);
+            log.truncate();
+            return courses;
+        } finally {
+            compactionLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes and closes the write-ahead log of a durable manager. Adds fail afterwards.
+     *
+     * @throws IOException If the final flush fails.
+     */
+    public void closeLog() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    /**
+     * Logs a batch of courses, waits for the log to reach disk, then applies them. Compacts
+     * the log afterwards if it has grown past the threshold.
+     *
+     * @param courses The courses to add.
+     */
+    private void logAndApply(Collection<? extends CourseDBElement> courses) {
+        durably(wal -> wal.appendAll(courses), () -> {
+            applyAll(courses);
+            return null;
+        });
+    }
+
+    /**
+     * Writes a change to the log, if this manager is durable, and waits for it to reach disk,
+     * then applies it. Compacts the log afterwards if it has grown past the threshold.
+     *
+     * <p>Concurrent changes are applied in the order the log holds them, which is the order
+     * recovery replays them in. Otherwise two adds of one CRN could be logged as a then b but
+     * applied as b then a, leaving b in memory while recovery restores a. Group commit still
+     * forces concurrent changes together; only the in-memory applies take turns.</p>
+     *
+     * @param logging Writes the change to the log.
+     * @param change  Applies the change and returns its result.
+     * @return The result of the change.
+     */
+    private <T> T durably(LogWrite logging, Supplier<T> change) {
+        if (log == null) {
+            return applying(change);
+        }
+        T result;
+        compactionLock.readLock().lock();
+        try {
+            result = applyInLogOrder(logging.writeTo(log), change);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            compactionLock.readLock().unlock();
+        }
+        if (log.size() > compactionBytes) {
+            try {
+                synchronized (compactionMonitor) {
+                    if (log.size() > compactionBytes) { // Another writer may have compacted first.
+                        compact();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Applies a logged change once every change logged before it has been applied.
+     *
+     * @param sequence The change's log sequence number, or 0 if nothing was logged.
+     * @param change   Applies the change and returns its result.
+     * @return The result of the change.
+     */
+    private <T> T applyInLogOrder(long sequence, Supplier<T> change) {
+        if (sequence == 0) {
+            return applying(change); // An empty change: nothing to order.
+        }
+        boolean interrupted = false;
+        synchronized (applyOrder) {
+            while (appliedSequence != sequence - 1) {
+                try {
+                    applyOrder.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true; // The change is already durable, so it must still be applied.
+                }
+            }
+        }
+        try {
+            return applying(change);
+        } finally {
+            synchronized (applyOrder) {
+                appliedSequence = sequence;
+                applyOrder.notifyAll();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Applies a change to the structure, indexes, and cache while holding the apply lock, if one
+     * is set.
+     *
+     * @param change Applies the change and returns its result.
+     * @return The result of the change.
+     */
+    private <T> T applying(Supplier<T> change) {
+        Lock currentLock = applyLock;
+        if (currentLock == null) {
+            return change.get();
+        }
+        currentLock.lock();
+        try {
+            return change.get();
+        } finally {
+            currentLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the structure holding the courses.
+     *
+     * @return The structure.
+     */
+    CourseDBStoreInterface getStructure() {
+        return courseDB;
+    }
+
+    /**
+     * Sets a lock that every change holds while it is applied in memory, and only then: a durable
+     * change waits for the log without it. CourseDBServer uses this to keep readers of a structure
+     * that is not thread-safe away from changes without blocking them behind log forces and compaction.
+     *
+     * @param lock The lock to hold, or null to apply changes without one.
+     */
+    void setApplyLock(Lock lock) {
+        applyLock = lock;
+    }
+
+    /**
+     * Returns whether the structure may be read and changed from several threads at once without
+     * outside locking (see CourseDBStoreInterface.isThreadSafe).
+     *
+     * @return true if the structure guards itself against concurrent use.
+     */
+    boolean isThreadSafe() {
+        return courseDB.isThreadSafe();
+    }
+
+    /**
+     * Writes one change to the write-ahead log.
+     */
+    private interface LogWrite {
+        long writeTo(CourseDBWriteAheadLog wal) throws IOException;
+    }
+
+    /**
+     * Starts collecting metrics, timing one get and add in CourseDBMetrics.DEFAULT_SAMPLE_INTERVAL.
+     * Replaces any existing metrics.
+     */
+    public void enableMetrics() {
+        enableMetrics(CourseDBMetrics.DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Starts collecting metrics, timing every sampleInterval-th get and add of each thread. Every
+     * operation is still counted. Replaces any existing metrics.
+     *
+     * @param sampleInterval How many operations share one latency sample; must be a power of two.
+     */
+    public void enableMetrics(int sampleInterval) {
+        metrics = new CourseDBMetrics(sampleInterval);
+    }
+
+    /**
+     * Stops collecting metrics. Without metrics, get and add do no bookkeeping beyond a null check.
+     */
+    public void disableMetrics() {
+        metrics = null;
+    }
+
+    /**
+     * Returns a snapshot of the counters, latency histograms, and structure gauges.
+     *
+     * @return The snapshot, or null if metrics are not enabled.
+     */
+    public CourseDBMetrics.Snapshot getMetrics() {
+        CourseDBMetrics currentMetrics = metrics;
+        return currentMetrics == null ? null : currentMetrics.snapshot(courseDB);
+    }
+
+    /**
+     * Registers the current metrics with the platform MBean server as a CourseDBMetricsMXBean,
+     * under the name "Default:type=CourseDBManager,name=" followed by the given name.
+     *
+     * @param name The name that distinguishes this manager from others in the same JVM.
+     * @return The registered object name.
+     * @throws IllegalStateException If metrics are not enabled or the registration fails.
+     */
+    public ObjectName registerMetricsMBean(String name) {
+        CourseDBMetrics currentMetrics = metrics;
+        if (currentMetrics == null) {
+            throw new IllegalStateException("Metrics are not enabled");
+        }
+        try {
+            ObjectName objectName = new ObjectName("Default:type=CourseDBManager,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    new CourseDBMetrics.MXBean(currentMetrics, courseDB), objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics MBean " + name, e);
+        }
+    }
+
+    /**
+     * Returns every section of a course, for example all sections of "CMSC204".
+     *
+     * @param courseId The course ID.
+     * @return A copy of the matching courses, empty if there are none.
+     */
+    public List<CourseDBElement> getByCourseId(String courseId) {
+        CourseDBSecondaryIndex index = secondaryIndex();
+        indexLock.readLock().lock();
+        try {
+            return index.getByCourseId(courseId);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every course taught by an instructor.
+     *
+     * @param instructorName The instructor's name, matched exactly.
+     * @return A copy of the matching courses, empty if there are none.
+     */
+    public List<CourseDBElement> getByInstructor(String instructorName) {
+        CourseDBSecondaryIndex index = secondaryIndex();
+        indexLock.readLock().lock();
+        try {
+            return index.getByInstructor(instructorName);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every course held in a room.
+     *
+     * @param roomNumber The room number.
+     * @return A copy of the matching courses, empty if there are none.
+     */
+    public List<CourseDBElement> getByRoom(String roomNumber) {
+        CourseDBSecondaryIndex index = secondaryIndex();
+        indexLock.readLock().lock();
+        try {
+            return index.getByRoom(roomNumber);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the secondary indexes, building them from the stored courses on first use.
+     * Managers that never run a secondary query pay nothing for them. The build holds the write
+     * side of indexLock, as for the ordered index.
+     *
+     * @return The secondary indexes.
+     */
+    private CourseDBSecondaryIndex secondaryIndex() {
+        CourseDBSecondaryIndex index = secondaryIndex;
+        if (index == null) {
+            indexLock.writeLock().lock();
+            try {
+                if (secondaryIndex == null) {
+                    CourseDBSecondaryIndex built = new CourseDBSecondaryIndex();
+                    for (CourseDBElement course : courseDB) {
+                        built.add(course);
+                    }
+                    secondaryIndex = built;
                 }
+                index = secondaryIndex;
+            } finally {
+                indexLock.writeLock().unlock();
             }
         }
+        return index;
+    }
+
+    /**
+     * Returns every course whose CRN is between fromCrn and toCrn, inclusive, in CRN order,
+     * for example all CRNs 20000 through 20999.
+     *
+     * @param fromCrn The lowest CRN to include.
+     * @param toCrn   The highest CRN to include.
+     * @return The matching courses, empty if there are none.
+     */
+    public List<CourseDBElement> range(int fromCrn, int toCrn) {
+        CourseDBOrderedIndex index = orderedIndex();
+        indexLock.readLock().lock();
+        try {
+            return index.range(fromCrn, toCrn);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the course with the smallest CRN greater than or equal to crn.
+     *
+     * @param crn The CRN to search from.
+     * @return The matching course, or null if there is none.
+     */
+    public CourseDBElement ceiling(int crn) {
+        CourseDBOrderedIndex index = orderedIndex();
+        indexLock.readLock().lock();
+        try {
+            return index.ceiling(crn);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the course with the largest CRN less than or equal to crn.
+     *
+     * @param crn The CRN to search from.
+     * @return The matching course, or null if there is none.
+     */
+    public CourseDBElement floor(int crn) {
+        CourseDBOrderedIndex index = orderedIndex();
+        indexLock.readLock().lock();
+        try {
+            return index.floor(crn);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every course in CRN order. The manager must not be modified while iterating.
+     *
+     * @return The courses in CRN order.
+     */
+    public Iterable<CourseDBElement> inCrnOrder() {
+        return orderedIndex();
+    }
+
+    /**
+     * Returns the ordered index, building it from the stored courses on first use. The build holds
+     * the write side of indexLock, so no change is in progress while it reads the structure.
+     *
+     * @return The ordered index.
+     */
+    private CourseDBOrderedIndex orderedIndex() {
+        CourseDBOrderedIndex index = orderedIndex;
+        if (index == null) {
+            indexLock.writeLock().lock();
+            try {
+                if (orderedIndex == null) {
+                    orderedIndex = new CourseDBOrderedIndex(courseDB);
+                }
+                index = orderedIndex;
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Writes every course to a binary snapshot file that openSnapshot can map back in without parsing.
+     * The file is replaced atomically.
+     *
+     * @param snapshot The snapshot file to create or replace.
+     * @return The number of courses written.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public int saveSnapshot(File snapshot) throws IOException {
+        return CourseDBSnapshot.write(courseDB, snapshot.toPath());
+    }
+
+    /**
+     * Creates a CourseDBManager that serves courses from a snapshot written by saveSnapshot.
+     * The snapshot is memory-mapped rather than parsed, so lookups are available immediately.
+     *
+     * @param snapshot The snapshot file.
+     * @return A manager backed by the mapped snapshot.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    public static CourseDBManager openSnapshot(File snapshot) throws IOException {
+        return new CourseDBManager(CourseDBSnapshot.open(snapshot.toPath()));
     }
 
     /**
@@ -85,13 +1105,88 @@ public class CourseDBManager implements CourseDBManagerInterface {
         return courseDB.showAll();
     }
 
+    /**
+     * Returns a sequential stream over every course, without formatting or copying them.
+     * Unlike showAll, memory use does not grow with the size of the catalog. With the persistent
+     * structure the stream reads one immutable version, so it is consistent and never blocks adds.
+     *
+     * @return A stream of courses in the structure's iteration order.
+     */
+    public Stream<CourseDBElement> stream() {
+        return StreamSupport.stream(courseDB.spliterator(), false);
+    }
+
+    /**
+     * Returns one page of courses in CRN order. Pages are read from the ordered index, so each
+     * page costs O(log n + pageSize) once the index exists.
+     *
+     * @param continuationToken The token from the previous page, or null for the first page.
+     * @param pageSize          The maximum number of courses on the page.
+     * @return The page, whose token requests the next one.
+     * @throws IllegalArgumentException If the token is invalid or the page size is not positive.
+     */
+    public CourseDBPage page(String continuationToken, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        long after = CourseDBPage.afterCrn(continuationToken);
+        if (after == Integer.MAX_VALUE) {
+            return CourseDBPage.of(new ArrayList<>(), false);
+        }
+        CourseDBOrderedIndex index = orderedIndex();
+        indexLock.readLock().lock();
+        try {
+            Iterator<CourseDBElement> courses = index.iteratorFrom((int) Math.max(after + 1, Integer.MIN_VALUE));
+            ArrayList<CourseDBElement> page = new ArrayList<>(pageSize);
+            while (page.size() < pageSize && courses.hasNext()) {
+                page.add(courses.next());
+            }
+            return CourseDBPage.of(page, courses.hasNext());
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes every course to a Writer, one per line, formatting each course as it is written.
+     * The writer is buffered if it is not already, and flushed but not closed.
+     *
+     * @param out The destination.
+     * @return The number of courses written.
+     * @throws IOException If the writer throws.
+     */
+    public int writeAll(Writer out) throws IOException {
+        Writer buffered = out instanceof BufferedWriter ? out : new BufferedWriter(out, 1 << 16);
+        int written = 0;
+        for (CourseDBElement course : courseDB) {
+            course.appendTo(buffered);
+            buffered.write(System.lineSeparator());
+            written++;
+        }
+        buffered.flush();
+        return written;
+    }
+
     /**
      * The main method that serves as the entry point of the program.
      *
      * @param args Command-line arguments (not used in this program).
      */
     public static void main(String[] args) {
-        CourseDBManager courseDBManager = new CourseDBManager();
+        // With -Dcoursedb.data=<directory>, adds are logged there and recovered on the next start.
+        String dataDirectory = System.getProperty("coursedb.data");
+        CourseDBManager courseDBManager;
+        if (dataDirectory == null) {
+            courseDBManager = new CourseDBManager();
+        } else {
+            try {
+                courseDBManager = openDurable(new File(dataDirectory, "courses.snapshot"),
+                        new File(dataDirectory, "courses.wal"));
+            } catch (IOException e) {
+                System.out.println("Could not open " + dataDirectory + ": " + e.getMessage());
+                return;
+            }
+        }
         Scanner scanner = new Scanner(System.in);
 
         while (true) {
@@ -124,12 +1219,18 @@ public class CourseDBManager implements CourseDBManagerInterface {
                     courseDBManager.add(id, crn, credits, roomNum, instructor);
                     break;
                 case 3:
-                    ArrayList<String> courseList = courseDBManager.showAll();
-                    for (String courseString : courseList) {
-                        System.out.println(courseString);
+                    try {
+                        courseDBManager.writeAll(new OutputStreamWriter(System.out));
+                    } catch (IOException e) {
+                        System.out.println("Could not display courses: " + e.getMessage());
                     }
                     break;
                 case 4:
+                    try {
+                        courseDBManager.closeLog();
+                    } catch (IOException e) {
+                        System.out.println("Could not close the log: " + e.getMessage());
+                    }
                     System.out.println("Exiting program.");
                     System.exit(0);
                     break;
@@ -4,7 +4,13 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -97,4 +103,192 @@ public class CourseDBManagerStudentTest {
         ArrayList<String> courseList = courseDBManager.showAll();
         assertFalse(courseList.isEmpty());
     }
+
+    /**
+     * Tests the secondary index queries of CourseDBManager.
+     * It checks lookups by course ID, instructor, and room, including courses added
+     * after the first query and duplicate CRNs, which must not be indexed twice.
+     */
+    @Test
+    public void testSecondaryIndexes() {
+        courseDBManager.add("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts");
+        courseDBManager.add("CMSC204", 30505, 4, "SC451", "Jane Smith");
+        courseDBManager.add("MATH202", 54321, 4, "SC450", "Jane Smith");
+
+        assertEquals(2, courseDBManager.getByCourseId("CMSC204").size());
+        List<CourseDBElement> bySmith = courseDBManager.getByInstructor("Jane Smith");
+        assertEquals(2, bySmith.size());
+        assertEquals(2, courseDBManager.getByRoom("SC450").size());
+        assertTrue(courseDBManager.getByRoom("SC-202").isEmpty());
+
+        courseDBManager.add("CMSC204", 30506, 4, "SC-202", "Jane Smith");
+        courseDBManager.add("CMSC204", 30504, 4, "SC-202", "Duplicate CRN");
+        assertEquals(3, courseDBManager.getByCourseId("CMSC204").size());
+        assertEquals(1, courseDBManager.getByRoom("SC-202").size());
+        assertEquals(30506, courseDBManager.getByRoom("SC-202").get(0).getCRN());
+        assertTrue(courseDBManager.getByInstructor("Duplicate CRN").isEmpty());
+        assertEquals(2, bySmith.size()); // Earlier results are copies, unchanged by later adds.
+    }
+
+    /**
+     * Tests the secondary indexes of a manager over a thread-safe structure while several threads add.
+     * The first query races the adds, and every course must be indexed once they finish.
+     */
+    @Test
+    public void testSecondaryIndexesWithConcurrentAdds() throws InterruptedException {
+        CourseDBManager manager = new CourseDBManager(new ConcurrentCourseDBStructure(16));
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int first = 10000 + t * 2500;
+            Thread writer = new Thread(() -> {
+                for (int crn = first; crn < first + 2500; crn++) {
+                    manager.add("CMSC" + (crn % 10), crn, 4, "SC" + (crn % 7), "Jane Smith");
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        while (writers.get(0).isAlive()) {
+            manager.getByInstructor("Jane Smith");
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(10000, manager.getByInstructor("Jane Smith").size());
+        assertEquals(1000, manager.getByCourseId("CMSC3").size());
+        int rooms = 0;
+        for (int room = 0; room < 7; room++) {
+            rooms += manager.getByRoom("SC" + room).size();
+        }
+        assertEquals(10000, rooms);
+    }
+
+    /**
+     * Tests the page method of CourseDBManager.
+     * It walks the catalog page by page and checks that every course appears once, in CRN order.
+     */
+    @Test
+    public void testPageInCrnOrder() {
+        for (int i = 0; i < 95; i++) {
+            courseDBManager.add("CMSC" + i, 50000 - i * 7, 3, "SC" + i, "Instructor " + i);
+        }
+        String token = null;
+        int previous = Integer.MIN_VALUE;
+        int seen = 0;
+        int pages = 0;
+        do {
+            CourseDBPage page = courseDBManager.page(token, 10);
+            for (CourseDBElement course : page.getCourses()) {
+                assertTrue(course.getCRN() > previous);
+                previous = course.getCRN();
+                seen++;
+            }
+            token = page.getNextToken();
+            pages++;
+        } while (token != null);
+        assertEquals(95, seen);
+        assertEquals(10, pages);
+        assertEquals(95, courseDBManager.stream().count());
+    }
+
+    /**
+     * Tests the writeAll method of CourseDBManager.
+     * It checks that one line is written per course using the course's string form.
+     */
+    @Test
+    public void testWriteAll() throws IOException {
+        courseDBManager.add("CSCI101", 12345, 3, "123", "John Doe");
+        courseDBManager.add("MATH202", 54321, 4, "456", "Jane Smith");
+        StringWriter out = new StringWriter();
+        assertEquals(2, courseDBManager.writeAll(out));
+        String text = out.toString();
+        assertTrue(text.contains(courseDBManager.get(12345).toString()));
+        assertTrue(text.contains("Course:MATH202 CRN:54321 Credits:4 Instructor:Jane Smith Room:456"));
+        assertEquals(2, text.split(System.lineSeparator()).length);
+    }
+
+    /**
+     * Test that a lookup of a missing CRN returns null and is counted as a miss.
+     */
+    @Test
+    public void testMissCount() {
+        courseDBManager.add("CSCI101", 12345, 3, "123", "John Doe");
+        assertNull(courseDBManager.get(99999));
+        assertNull(courseDBManager.get(88888));
+        assertNotNull(courseDBManager.get(12345));
+        assertEquals(2, courseDBManager.getMissCount());
+    }
+
+    /**
+     * Test that batch adds and batch gets match the single-course calls, including misses and
+     * batches large enough to be split across cores.
+     */
+    @Test
+    public void testBatchAddAndGet() {
+        courseDBManager.addAll(new String[] {"CSCI101", "MATH202"}, new int[] {12345, 54321},
+                new int[] {3, 4}, new String[] {"123", "456"}, new String[] {"John Doe", "Jane Smith"});
+        List<CourseDBElement> courses = new ArrayList<>();
+        for (int crn = 100000; crn < 120000; crn++) {
+            courses.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey Bag-O-Donuts"));
+        }
+        courseDBManager.addAll(courses);
+
+        int[] crns = new int[30000];
+        for (int i = 0; i < crns.length; i++) {
+            crns[i] = 100000 + i;
+        }
+        crns[0] = 54321;
+        CourseDBElement[] results = new CourseDBElement[crns.length];
+        assertEquals(20000, courseDBManager.getAll(crns, results));
+        assertEquals("MATH202", results[0].getID());
+        assertEquals(119999, results[19999].getCRN());
+        assertNull(results[20000]);
+        assertEquals(10000, courseDBManager.getMissCount());
+        assertEquals("John Doe", courseDBManager.getAll(new int[] {12345})[0].getInstructorName());
+    }
+
+    /**
+     * Test that enabled metrics count adds, gets, misses, and loads, and report structure gauges.
+     */
+    @Test
+    public void testMetrics() throws Exception {
+        assertNull(courseDBManager.getMetrics());
+        courseDBManager.enableMetrics(1);
+        courseDBManager.add("CSCI101", 12345, 3, "123", "John Doe");
+        courseDBManager.get(12345);
+        courseDBManager.get(99999);
+        courseDBManager.getAll(new int[] {12345, 88888});
+        File inputFile = File.createTempFile("metrics", ".txt");
+        inputFile.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(inputFile)) {
+            writer.println("MATH202 54321 4 456 Jane Smith");
+        }
+        courseDBManager.readFile(inputFile);
+
+        CourseDBMetrics.Snapshot snapshot = courseDBManager.getMetrics();
+        assertEquals(2, snapshot.getAdds());
+        assertEquals(4, snapshot.getGets());
+        assertEquals(2, snapshot.getMisses());
+        assertEquals(1, snapshot.getLoads());
+        assertEquals(2, snapshot.getGetLatency().getCount());
+        assertEquals(1, snapshot.getLoadLatency().getCount());
+        assertEquals(2, snapshot.getStructureStats().getSize());
+        assertTrue(snapshot.getStructureStats().getLongestChain() >= 1);
+
+        // Short-lived threads, as a server starts per connection: their cells are folded, not lost.
+        for (int i = 0; i < 200; i++) {
+            Thread client = new Thread(() -> courseDBManager.get(12345));
+            client.start();
+            client.join();
+        }
+        assertEquals(204, courseDBManager.getMetrics().getGets());
+        assertEquals(2, courseDBManager.getMetrics().getMisses());
+
+        ObjectName name = courseDBManager.registerMetricsMBean("testMetrics");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(204L, server.getAttribute(name, "GetCount"));
+        server.unregisterMBean(name);
+        courseDBManager.disableMetrics();
+        assertNull(courseDBManager.getMetrics());
+    }
 }
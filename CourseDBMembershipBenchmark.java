@@ -0,0 +1,164 @@
+package Default;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The CourseDBMembershipBenchmark class measures the miss path: lookups of CRNs a term does not
+ * hold, as when a cross-term search probes every term. It reports the measured false-positive rate
+ * and bits per key of CrnMembershipFilter, the cost of CourseDBStructure.find for misses and hits
+ * with the filter on and off, the size and lookup cost of a CompressedCrnSet next to a plain sorted
+ * int array, and miss lookups on a MappedCourseDBStructure before and after cacheCrnIndex.
+ * Random hits in a loop this tight show the filter's worst case: its probes crowd out the overlap
+ * between consecutive bucket searches, which is why filters are off unless a store turns them on.
+ *
+ * <p>Missing CRNs are drawn from the gaps between stored CRNs, so they hash and search like real
+ * CRNs instead of falling outside the range.</p>
+ *
+ * <p>Usage: java Default.CourseDBMembershipBenchmark [catalogSize] [bitsPerKey], for example
+ * {@code java Default.CourseDBMembershipBenchmark 1000000 10}.</p>
+ */
+public class CourseDBMembershipBenchmark {
+    private static final int LOOKUPS = 1 << 20;   // Lookups per measured round.
+    private static final int WARMUP_ROUNDS = 3;   // Rounds run and discarded before measuring.
+    private static final int MEASURED_ROUNDS = 5; // Rounds measured; the fastest is reported.
+
+    private static volatile long sink; // Consumes results so the JIT cannot discard the lookups.
+
+    /**
+     * A lookup to time.
+     */
+    private interface Lookup {
+        /**
+         * Looks up one CRN.
+         *
+         * @param crn The CRN.
+         * @return A value derived from the result, so the lookup is not discarded.
+         */
+        int run(int crn);
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional catalog size and filter bits per key.
+     * @throws IOException If the temporary snapshot cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int bitsPerKey = args.length > 1 ? Integer.parseInt(args[1]) : CrnMembershipFilter.DEFAULT_BITS_PER_KEY;
+        int[] crns = CourseDBBenchmark.Distribution.RANDOM.crns(size);
+        int[] sorted = crns.clone();
+        Arrays.sort(sorted);
+        int[] hits = sample(crns, new Random(1));
+        int[] misses = missing(sorted, new Random(2));
+        System.out.printf("%d courses, %d lookups per round%n%n", size, LOOKUPS);
+
+        CrnMembershipFilter filter = new CrnMembershipFilter(size, bitsPerKey);
+        for (int crn : crns) {
+            filter.add(crn);
+        }
+        int falsePositives = 0;
+        for (int crn : misses) {
+            if (filter.mightContain(crn)) {
+                falsePositives++;
+            }
+        }
+        System.out.printf("filter: %d hashes, %.2f bits/key, false-positive rate %.4f%%%n%n",
+                filter.getHashCount(), filter.getBitsPerKey(), falsePositives * 100.0 / misses.length);
+
+        System.out.printf("%-34s %12s%n", "lookup", "ns/op");
+        CourseDBStructure structure = new CourseDBStructure(size);
+        for (int crn : crns) {
+            structure.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey Bag-O-Donuts"));
+        }
+        structure.setMembershipFilterEnabled(true);
+        Lookup find = crn -> {
+            CourseDBElement element = structure.find(crn);
+            return element == null ? 0 : element.getCredits();
+        };
+        report("structure hit, filter on", find, hits);
+        report("structure miss, filter on", find, misses);
+        structure.setMembershipFilterEnabled(false);
+        report("structure miss, filter off", find, misses);
+        report("structure hit, filter off", find, hits);
+        report("filter alone, miss", crn -> filter.mightContain(crn) ? 1 : 0, misses);
+
+        CompressedCrnSet compressed = new CompressedCrnSet(crns);
+        report("sorted int[] miss", crn -> Arrays.binarySearch(sorted, crn) >= 0 ? 1 : 0, misses);
+        report("compressed set miss", crn -> compressed.contains(crn) ? 1 : 0, misses);
+
+        Path file = Files.createTempFile("coursedb-membership", ".snapshot");
+        try {
+            CourseDBSnapshot.write(structure, file);
+            MappedCourseDBStructure mapped = CourseDBSnapshot.open(file);
+            Lookup mappedFind = crn -> {
+                CourseDBElement element = mapped.find(crn);
+                return element == null ? 0 : element.getCredits();
+            };
+            report("mapped miss, mapped index", mappedFind, misses);
+            long cached = mapped.cacheCrnIndex();
+            report("mapped miss, cached index", mappedFind, misses);
+            report("mapped hit, cached index", mappedFind, hits);
+
+            System.out.printf("%n%-34s %12s%n", "CRN index", "bytes/key");
+            System.out.printf("%-34s %12.2f%n", "mapped snapshot records", (double) CourseDBSnapshot.RECORD_BYTES);
+            System.out.printf("%-34s %12.2f%n", "sorted int[]", (double) Integer.BYTES);
+            System.out.printf("%-34s %12.2f%n", "compressed set", (double) cached / size);
+            System.out.printf("%-34s %12.2f%n", "membership filter", filter.getBitCount() / 8.0 / size);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Times a lookup over the given CRNs and prints the best time per lookup.
+     */
+    private static void report(String label, Lookup lookup, int[] keys) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long sum = 0;
+            long begin = System.nanoTime();
+            for (int crn : keys) {
+                sum += lookup.run(crn);
+            }
+            long elapsed = System.nanoTime() - begin;
+            sink += sum;
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        System.out.printf("%-34s %12.1f%n", label, (double) best / keys.length);
+    }
+
+    /**
+     * Draws LOOKUPS stored CRNs at random.
+     */
+    private static int[] sample(int[] crns, Random random) {
+        int[] keys = new int[LOOKUPS];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = crns[random.nextInt(crns.length)];
+        }
+        return keys;
+    }
+
+    /**
+     * Draws LOOKUPS CRNs that are not stored, from inside the range of the stored ones.
+     */
+    private static int[] missing(int[] sorted, Random random) {
+        int low = sorted[0];
+        int span = sorted[sorted.length - 1] - low + 1;
+        int[] keys = new int[LOOKUPS];
+        int count = 0;
+        while (count < keys.length) {
+            int crn = low + random.nextInt(span);
+            if (Arrays.binarySearch(sorted, crn) < 0) {
+                keys[count++] = crn;
+            }
+        }
+        return keys;
+    }
+}
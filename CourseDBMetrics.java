@@ -0,0 +1,423 @@
+package Default;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The CourseDBMetrics class collects operation counters and latency histograms for a
+ * CourseDBManager. The get, miss, and add counters live in a cell per thread that only its own
+ * thread writes, with plain stores and no atomic instruction, so counting costs a thread-local
+ * lookup and an increment. Reading a counter sums every thread's cell. The cells of threads that
+ * have finished are folded into one retired cell as new threads register, so a server that starts
+ * a thread per connection keeps cells only for about its live threads. Latencies go into
+ * CourseDBLatencyHistograms for get, add, and file loads.
+ *
+ * <p>Reading the clock costs more than the rest of a fast lookup, so latencies can be sampled:
+ * with a sample interval of n, each thread times every n-th get and every n-th add. Counters
+ * always count every operation. A manager without metrics does no bookkeeping at all beyond one
+ * null check per call.</p>
+ */
+public class CourseDBMetrics {
+    private static final long NOT_TIMED = Long.MIN_VALUE; // Start time of an operation that is not sampled.
+    private static final int MIN_PURGE_THRESHOLD = 64;    // Cells registered before finished threads are first folded.
+
+    /** The sample interval used when none is given, which keeps the clock reads to a few ns per operation. */
+    public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+
+    private static final VarHandle GETS;
+    private static final VarHandle MISSES;
+    private static final VarHandle ADDS;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            GETS = lookup.findVarHandle(Cell.class, "gets", long.class);
+            MISSES = lookup.findVarHandle(Cell.class, "misses", long.class);
+            ADDS = lookup.findVarHandle(Cell.class, "adds", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final ArrayList<Cell> cells = new ArrayList<>(); // Cells of threads not yet found finished; guarded by itself.
+    private final Cell retired = new Cell(null);   // Counts folded from finished threads' cells; guarded by cells.
+    private int purgeThreshold = MIN_PURGE_THRESHOLD; // Cell count that triggers the next fold; guarded by cells.
+    private final ThreadLocal<Cell> localCell = ThreadLocal.withInitial(this::newCell);
+    private final LongAdder loads = new LongAdder();
+    private final CourseDBLatencyHistogram getLatency = new CourseDBLatencyHistogram();
+    private final CourseDBLatencyHistogram addLatency = new CourseDBLatencyHistogram();
+    private final CourseDBLatencyHistogram loadLatency = new CourseDBLatencyHistogram();
+    private final int sampleMask; // Sample interval - 1; an operation is timed when the thread's count under it is 0.
+
+    /**
+     * One thread's counters. Only the owning thread writes them, with opaque stores that other
+     * threads are guaranteed to see eventually and that compile to plain moves.
+     */
+    private static final class Cell {
+        private final Thread owner; // The thread that writes the cell, or null for the retired cell.
+        private long gets;          // Lookups made by the owning thread.
+        private long misses;        // Lookups that found nothing.
+        private long adds;          // Courses added.
+
+        private Cell(Thread owner) {
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * A point-in-time copy of the counters, histograms, and structure gauges.
+     */
+    public static class Snapshot {
+        private final long adds;
+        private final long gets;
+        private final long misses;
+        private final long loads;
+        private final CourseDBLatencyHistogram getLatency;
+        private final CourseDBLatencyHistogram addLatency;
+        private final CourseDBLatencyHistogram loadLatency;
+        private final CourseDBStructureStats structureStats;
+
+        private Snapshot(CourseDBMetrics metrics, CourseDBStructureStats structureStats) {
+            adds = metrics.sum(ADDS);
+            gets = metrics.sum(GETS);
+            misses = metrics.sum(MISSES);
+            loads = metrics.loads.sum();
+            getLatency = metrics.getLatency.snapshot();
+            addLatency = metrics.addLatency.snapshot();
+            loadLatency = metrics.loadLatency.snapshot();
+            this.structureStats = structureStats;
+        }
+
+        /**
+         * Gets the number of courses added through add, addAll, or a file load.
+         *
+         * @return The add count.
+         */
+        public long getAdds() {
+            return adds;
+        }
+
+        /**
+         * Gets the number of lookups through get or getAll.
+         *
+         * @return The get count.
+         */
+        public long getGets() {
+            return gets;
+        }
+
+        /**
+         * Gets the number of lookups that found no course.
+         *
+         * @return The miss count.
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * Gets the number of files loaded.
+         *
+         * @return The load count.
+         */
+        public long getLoads() {
+            return loads;
+        }
+
+        /**
+         * Gets the sampled latencies of get.
+         *
+         * @return The get latency histogram.
+         */
+        public CourseDBLatencyHistogram getGetLatency() {
+            return getLatency;
+        }
+
+        /**
+         * Gets the sampled latencies of add.
+         *
+         * @return The add latency histogram.
+         */
+        public CourseDBLatencyHistogram getAddLatency() {
+            return addLatency;
+        }
+
+        /**
+         * Gets the latencies of file loads. Every load is timed.
+         *
+         * @return The load latency histogram.
+         */
+        public CourseDBLatencyHistogram getLoadLatency() {
+            return loadLatency;
+        }
+
+        /**
+         * Gets the structure's size, table size, load factor, and longest chain.
+         *
+         * @return The structure gauges.
+         */
+        public CourseDBStructureStats getStructureStats() {
+            return structureStats;
+        }
+
+        /**
+         * Returns a multi-line summary of the snapshot.
+         *
+         * @return The summary.
+         */
+        @Override
+        public String toString() {
+            return "adds=" + adds + " gets=" + gets + " misses=" + misses + " loads=" + loads + System.lineSeparator()
+                    + "get:  " + getLatency + System.lineSeparator()
+                    + "add:  " + addLatency + System.lineSeparator()
+                    + "load: " + loadLatency + System.lineSeparator()
+                    + "structure: " + structureStats;
+        }
+    }
+
+    /**
+     * Creates a CourseDBMetrics instance that times one get and add in DEFAULT_SAMPLE_INTERVAL.
+     */
+    public CourseDBMetrics() {
+        this(DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Creates a CourseDBMetrics instance that times every sampleInterval-th get and add of each thread.
+     *
+     * @param sampleInterval How many operations share one latency sample; must be a power of two.
+     * @throws IllegalArgumentException If sampleInterval is not a positive power of two.
+     */
+    public CourseDBMetrics(int sampleInterval) {
+        if (sampleInterval <= 0 || Integer.bitCount(sampleInterval) != 1) {
+            throw new IllegalArgumentException("Sample interval must be a power of two: " + sampleInterval);
+        }
+        sampleMask = sampleInterval - 1;
+    }
+
+    /**
+     * Counts one lookup and starts timing it if it is sampled.
+     *
+     * @return The start time to pass to recordGet.
+     */
+    long startGet() {
+        Cell cell = localCell.get();
+        long count = cell.gets;
+        GETS.setOpaque(cell, count + 1);
+        return (count & sampleMask) == 0 ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Finishes recording one lookup.
+     *
+     * @param start The value returned by startGet.
+     * @param found Whether the lookup found a course.
+     */
+    void recordGet(long start, boolean found) {
+        if (!found) {
+            Cell cell = localCell.get();
+            MISSES.setOpaque(cell, cell.misses + 1);
+        }
+        if (start != NOT_TIMED) {
+            getLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records a batch of lookups, which are counted but not timed.
+     *
+     * @param lookups The number of CRNs looked up.
+     * @param found   The number found.
+     */
+    void recordGets(int lookups, int found) {
+        Cell cell = localCell.get();
+        GETS.setOpaque(cell, cell.gets + lookups);
+        MISSES.setOpaque(cell, cell.misses + lookups - found);
+    }
+
+    /**
+     * Counts one add and starts timing it if it is sampled.
+     *
+     * @return The start time to pass to recordAdd.
+     */
+    long startAdd() {
+        Cell cell = localCell.get();
+        long count = cell.adds;
+        ADDS.setOpaque(cell, count + 1);
+        return (count & sampleMask) == 0 ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Finishes recording one add.
+     *
+     * @param start The value returned by startAdd.
+     */
+    void recordAdd(long start) {
+        if (start != NOT_TIMED) {
+            addLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records a batch of adds, which are counted but not timed.
+     *
+     * @param courses The number of courses in the batch.
+     */
+    void recordAdds(long courses) {
+        Cell cell = localCell.get();
+        ADDS.setOpaque(cell, cell.adds + courses);
+    }
+
+    /**
+     * Records one file load. Loads are always timed.
+     *
+     * @param nanos   How long the load took.
+     * @param courses The number of courses the file held.
+     */
+    void recordLoad(long nanos, long courses) {
+        loads.increment();
+        recordAdds(courses);
+        loadLatency.record(nanos);
+    }
+
+    /**
+     * Creates and registers the calling thread's cell. Once the number of cells doubles since the
+     * last fold, the cells of finished threads are folded into the retired cell and dropped, so
+     * registering costs amortized constant time.
+     */
+    private Cell newCell() {
+        Cell cell = new Cell(Thread.currentThread());
+        synchronized (cells) {
+            cells.add(cell);
+            if (cells.size() >= purgeThreshold) {
+                foldFinished();
+                purgeThreshold = Math.max(MIN_PURGE_THRESHOLD, cells.size() * 2);
+            }
+        }
+        return cell;
+    }
+
+    /**
+     * Moves the counts of finished threads into the retired cell and drops their cells. A thread
+     * seen as not alive has finished every write to its cell, so nothing is lost. Called with the
+     * cells lock held.
+     */
+    private void foldFinished() {
+        int kept = 0;
+        for (int i = 0; i < cells.size(); i++) {
+            Cell cell = cells.get(i);
+            if (cell.owner.isAlive()) {
+                cells.set(kept++, cell);
+            } else {
+                retired.gets += cell.gets;
+                retired.misses += cell.misses;
+                retired.adds += cell.adds;
+            }
+        }
+        cells.subList(kept, cells.size()).clear();
+    }
+
+    /**
+     * Sums one counter over the retired cell and every live thread's cell.
+     */
+    private long sum(VarHandle counter) {
+        synchronized (cells) {
+            long total = (long) counter.getOpaque(retired);
+            for (Cell cell : cells) {
+                total += (long) counter.getOpaque(cell);
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Takes a snapshot of the counters and histograms, with gauges from the given structure.
+     *
+     * @param store The structure whose size and occupancy to report.
+     * @return The snapshot.
+     */
+    public Snapshot snapshot(CourseDBStoreInterface store) {
+        return new Snapshot(this, store.getStats());
+    }
+
+    /**
+     * The JMX view of a metrics instance and the structure it measures. Every attribute is read live.
+     */
+    static final class MXBean implements CourseDBMetricsMXBean {
+        private final CourseDBMetrics metrics;
+        private final CourseDBStoreInterface store;
+
+        MXBean(CourseDBMetrics metrics, CourseDBStoreInterface store) {
+            this.metrics = metrics;
+            this.store = store;
+        }
+
+        @Override
+        public long getAddCount() {
+            return metrics.sum(ADDS);
+        }
+
+        @Override
+        public long getGetCount() {
+            return metrics.sum(GETS);
+        }
+
+        @Override
+        public long getMissCount() {
+            return metrics.sum(MISSES);
+        }
+
+        @Override
+        public long getLoadCount() {
+            return metrics.loads.sum();
+        }
+
+        @Override
+        public long getGetLatencyP50Nanos() {
+            return metrics.getLatency.getValueAtPercentile(50);
+        }
+
+        @Override
+        public long getGetLatencyP99Nanos() {
+            return metrics.getLatency.getValueAtPercentile(99);
+        }
+
+        @Override
+        public long getGetLatencyP999Nanos() {
+            return metrics.getLatency.getValueAtPercentile(99.9);
+        }
+
+        @Override
+        public long getAddLatencyP99Nanos() {
+            return metrics.addLatency.getValueAtPercentile(99);
+        }
+
+        @Override
+        public long getLoadLatencyMaxNanos() {
+            return metrics.loadLatency.getMax();
+        }
+
+        @Override
+        public int getSize() {
+            return store.size();
+        }
+
+        @Override
+        public int getTableSize() {
+            return store.getTableSize();
+        }
+
+        @Override
+        public double getLoadFactor() {
+            int tableSize = store.getTableSize();
+            return tableSize == 0 ? 0.0 : (double) store.size() / tableSize;
+        }
+
+        @Override
+        public int getLongestChain() {
+            return store.getStats().getLongestChain();
+        }
+    }
+}
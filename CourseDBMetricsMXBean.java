@@ -0,0 +1,100 @@
+package Default;
+
+/**
+ * The CourseDBMetricsMXBean interface is the JMX view of a CourseDBManager's metrics: operation
+ * counters, latency percentiles, and gauges of the underlying structure. Register it with
+ * CourseDBManager.registerMetricsMBean and read it from any JMX console, such as JConsole.
+ */
+public interface CourseDBMetricsMXBean {
+
+    /**
+     * Gets the number of courses added through add, addAll, or a file load.
+     *
+     * @return The add count.
+     */
+    long getAddCount();
+
+    /**
+     * Gets the number of lookups through get or getAll.
+     *
+     * @return The get count.
+     */
+    long getGetCount();
+
+    /**
+     * Gets the number of lookups that found no course.
+     *
+     * @return The miss count.
+     */
+    long getMissCount();
+
+    /**
+     * Gets the number of files loaded.
+     *
+     * @return The load count.
+     */
+    long getLoadCount();
+
+    /**
+     * Gets the median get latency.
+     *
+     * @return The latency in nanoseconds.
+     */
+    long getGetLatencyP50Nanos();
+
+    /**
+     * Gets the 99th percentile get latency.
+     *
+     * @return The latency in nanoseconds.
+     */
+    long getGetLatencyP99Nanos();
+
+    /**
+     * Gets the 99.9th percentile get latency.
+     *
+     * @return The latency in nanoseconds.
+     */
+    long getGetLatencyP999Nanos();
+
+    /**
+     * Gets the 99th percentile add latency.
+     *
+     * @return The latency in nanoseconds.
+     */
+    long getAddLatencyP99Nanos();
+
+    /**
+     * Gets the longest file load.
+     *
+     * @return The latency in nanoseconds.
+     */
+    long getLoadLatencyMaxNanos();
+
+    /**
+     * Gets the number of courses stored.
+     *
+     * @return The number of courses.
+     */
+    int getSize();
+
+    /**
+     * Gets the number of buckets or slots in the structure's table.
+     *
+     * @return The table size.
+     */
+    int getTableSize();
+
+    /**
+     * Gets the number of courses per bucket or slot.
+     *
+     * @return The load factor.
+     */
+    double getLoadFactor();
+
+    /**
+     * Gets the length of the longest bucket chain or probe run. Computing it scans the table.
+     *
+     * @return The longest chain, or -1 if the structure does not report one.
+     */
+    int getLongestChain();
+}
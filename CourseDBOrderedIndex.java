@@ -0,0 +1,284 @@
+package Default;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The CourseDBOrderedIndex class keeps courses sorted by CRN, using the same ordering as
+ * CourseDBElement.compareTo, to answer range, ceiling, and floor queries in O(log n + k).
+ *
+ * <p>Courses live in a large sorted primitive array plus a small sorted insert buffer. An add only
+ * shifts part of the buffer; when the buffer fills it is merged into the main array in one linear
+ * pass. The buffer grows with the square root of the index size, so an add costs O(sqrt n)
+ * amortized while queries only have to binary-search two arrays.</p>
+ *
+ * <p>A removal shifts the course out of the buffer, or leaves a null in the main run that queries
+ * step over and the next merge drops. Each CRN is expected to be added once until it is removed;
+ * the manager only indexes courses the structure stored.</p>
+ */
+public class CourseDBOrderedIndex implements Iterable<CourseDBElement> {
+    private static final int MIN_BUFFER = 64; // Smallest insert buffer.
+
+    private int[] crns = new int[0];                           // Main run: sorted CRNs.
+    private CourseDBElement[] elements = new CourseDBElement[0]; // Main run: courses, parallel to crns.
+    private int[] bufferCrns = new int[MIN_BUFFER];            // Insert buffer: sorted CRNs.
+    private CourseDBElement[] bufferElements = new CourseDBElement[MIN_BUFFER];
+    private int bufferSize;                                    // Courses in the insert buffer.
+    private int removed;                                       // Nulls left in the main run by removals.
+
+    /**
+     * Creates an empty CourseDBOrderedIndex.
+     */
+    public CourseDBOrderedIndex() {
+    }
+
+    /**
+     * Creates a CourseDBOrderedIndex holding the given courses, sorting them once.
+     *
+     * @param courses The courses to index, each with a distinct CRN.
+     */
+    public CourseDBOrderedIndex(Iterable<CourseDBElement> courses) {
+        ArrayList<CourseDBElement> sorted = new ArrayList<>();
+        for (CourseDBElement course : courses) {
+            sorted.add(course);
+        }
+        sorted.sort(null);
+        crns = new int[sorted.size()];
+        elements = sorted.toArray(new CourseDBElement[0]);
+        for (int i = 0; i < elements.length; i++) {
+            crns[i] = elements[i].getCRN();
+        }
+    }
+
+    /**
+     * Adds a course to the index.
+     *
+     * @param element The course to add.
+     */
+    public void add(CourseDBElement element) {
+        if (bufferSize == bufferCrns.length) {
+            mergeBuffer();
+        }
+        int position = insertionPoint(bufferCrns, bufferSize, element.getCRN());
+        System.arraycopy(bufferCrns, position, bufferCrns, position + 1, bufferSize - position);
+        System.arraycopy(bufferElements, position, bufferElements, position + 1, bufferSize - position);
+        bufferCrns[position] = element.getCRN();
+        bufferElements[position] = element;
+        bufferSize++;
+    }
+
+    /**
+     * Replaces the indexed course with the same CRN, or adds the course if there is none.
+     *
+     * @param element The course to store.
+     */
+    public void update(CourseDBElement element) {
+        int crn = element.getCRN();
+        int buffer = Arrays.binarySearch(bufferCrns, 0, bufferSize, crn);
+        if (buffer >= 0) {
+            bufferElements[buffer] = element;
+            return;
+        }
+        int main = Arrays.binarySearch(crns, crn);
+        if (main >= 0 && elements[main] != null) {
+            elements[main] = element;
+            return;
+        }
+        add(element);
+    }
+
+    /**
+     * Removes the course with the given CRN from the index.
+     *
+     * @param crn The CRN of the course to remove.
+     * @return Whether a course was removed.
+     */
+    public boolean remove(int crn) {
+        int buffer = Arrays.binarySearch(bufferCrns, 0, bufferSize, crn);
+        if (buffer >= 0) {
+            bufferSize--;
+            System.arraycopy(bufferCrns, buffer + 1, bufferCrns, buffer, bufferSize - buffer);
+            System.arraycopy(bufferElements, buffer + 1, bufferElements, buffer, bufferSize - buffer);
+            bufferElements[bufferSize] = null;
+            return true;
+        }
+        int main = Arrays.binarySearch(crns, crn);
+        if (main < 0 || elements[main] == null) {
+            return false;
+        }
+        elements[main] = null;
+        if (++removed > crns.length >> 1) {
+            mergeBuffer(); // Mostly nulls: compact so queries stop stepping over them.
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of courses in the index.
+     *
+     * @return The number of courses.
+     */
+    public int size() {
+        return crns.length - removed + bufferSize;
+    }
+
+    /**
+     * Returns every course whose CRN is between fromCrn and toCrn, inclusive, in CRN order.
+     *
+     * @param fromCrn The lowest CRN to include.
+     * @param toCrn   The highest CRN to include.
+     * @return The matching courses, empty if fromCrn is greater than toCrn.
+     */
+    public List<CourseDBElement> range(int fromCrn, int toCrn) {
+        ArrayList<CourseDBElement> matches = new ArrayList<>();
+        if (fromCrn > toCrn) {
+            return matches;
+        }
+        Iterator<CourseDBElement> iterator = iteratorFrom(fromCrn);
+        while (iterator.hasNext()) {
+            CourseDBElement element = iterator.next();
+            if (element.getCRN() > toCrn) {
+                break;
+            }
+            matches.add(element);
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the course with the smallest CRN greater than or equal to crn.
+     *
+     * @param crn The CRN to search from.
+     * @return The matching course, or null if there is none.
+     */
+    public CourseDBElement ceiling(int crn) {
+        int main = nextLive(insertionPoint(crns, crns.length, crn));
+        int buffer = insertionPoint(bufferCrns, bufferSize, crn);
+        CourseDBElement fromMain = main < crns.length ? elements[main] : null;
+        CourseDBElement fromBuffer = buffer < bufferSize ? bufferElements[buffer] : null;
+        if (fromMain == null || (fromBuffer != null && fromBuffer.getCRN() < fromMain.getCRN())) {
+            return fromBuffer;
+        }
+        return fromMain;
+    }
+
+    /**
+     * Returns the course with the largest CRN less than or equal to crn.
+     *
+     * @param crn The CRN to search from.
+     * @return The matching course, or null if there is none.
+     */
+    public CourseDBElement floor(int crn) {
+        int main = upperBound(crns, crns.length, crn) - 1;
+        while (main >= 0 && elements[main] == null) {
+            main--;
+        }
+        int buffer = upperBound(bufferCrns, bufferSize, crn) - 1;
+        CourseDBElement fromMain = main >= 0 ? elements[main] : null;
+        CourseDBElement fromBuffer = buffer >= 0 ? bufferElements[buffer] : null;
+        if (fromMain == null || (fromBuffer != null && fromBuffer.getCRN() > fromMain.getCRN())) {
+            return fromBuffer;
+        }
+        return fromMain;
+    }
+
+    /**
+     * Returns an iterator over every course in CRN order.
+     *
+     * @return An ordered iterator.
+     */
+    @Override
+    public Iterator<CourseDBElement> iterator() {
+        return iteratorFrom(Integer.MIN_VALUE);
+    }
+
+    /**
+     * Returns an iterator over the courses whose CRN is greater than or equal to fromCrn, in CRN order.
+     * The index must not be modified while the iterator is in use.
+     *
+     * @param fromCrn The lowest CRN to return.
+     * @return An ordered iterator.
+     */
+    public Iterator<CourseDBElement> iteratorFrom(int fromCrn) {
+        return new Iterator<CourseDBElement>() {
+            private int main = nextLive(insertionPoint(crns, crns.length, fromCrn));
+            private int buffer = insertionPoint(bufferCrns, bufferSize, fromCrn);
+
+            @Override
+            public boolean hasNext() {
+                return main < crns.length || buffer < bufferSize;
+            }
+
+            @Override
+            public CourseDBElement next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (buffer == bufferSize || (main < crns.length && crns[main] < bufferCrns[buffer])) {
+                    CourseDBElement element = elements[main];
+                    main = nextLive(main + 1);
+                    return element;
+                }
+                return bufferElements[buffer++];
+            }
+        };
+    }
+
+    /**
+     * Merges the insert buffer into the main run, dropping the nulls left by removals, and resizes
+     * the buffer for the new index size.
+     */
+    private void mergeBuffer() {
+        int total = crns.length - removed + bufferSize;
+        int[] mergedCrns = new int[total];
+        CourseDBElement[] mergedElements = new CourseDBElement[total];
+        int main = nextLive(0);
+        int buffer = 0;
+        for (int i = 0; i < total; i++) {
+            if (buffer == bufferSize || (main < crns.length && crns[main] < bufferCrns[buffer])) {
+                mergedCrns[i] = crns[main];
+                mergedElements[i] = elements[main];
+                main = nextLive(main + 1);
+            } else {
+                mergedCrns[i] = bufferCrns[buffer];
+                mergedElements[i] = bufferElements[buffer++];
+            }
+        }
+        crns = mergedCrns;
+        elements = mergedElements;
+        removed = 0;
+        int capacity = Math.max(MIN_BUFFER, (int) Math.sqrt(total) * 4);
+        bufferCrns = new int[capacity];
+        bufferElements = new CourseDBElement[capacity];
+        bufferSize = 0;
+    }
+
+    /**
+     * Returns the first position at or after from in the main run that holds a course.
+     */
+    private int nextLive(int from) {
+        while (from < elements.length && elements[from] == null) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Returns the first position in sorted[0, length) whose value is greater than or equal to key.
+     */
+    private static int insertionPoint(int[] sorted, int length, int key) {
+        int position = Arrays.binarySearch(sorted, 0, length, key);
+        return position >= 0 ? position : -(position + 1);
+    }
+
+    /**
+     * Returns the first position in sorted[0, length) whose value is greater than key.
+     */
+    private static int upperBound(int[] sorted, int length, int key) {
+        int position = Arrays.binarySearch(sorted, 0, length, key);
+        return position >= 0 ? position + 1 : -(position + 1);
+    }
+}
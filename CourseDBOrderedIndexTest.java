@@ -0,0 +1,173 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * This class contains JUnit tests for the CourseDBOrderedIndex class. Its range, ceiling, floor,
+ * and iteration results are compared against a TreeMap while courses are added in random order,
+ * and removed or replaced, so both the insert buffer and merged main run are exercised. It also
+ * tests that a manager's index keeps up with adds from several threads.
+ */
+public class CourseDBOrderedIndexTest {
+
+    /**
+     * Test that queries match a TreeMap after every batch of random inserts.
+     */
+    @Test
+    public void testMatchesTreeMap() {
+        Random random = new Random(204);
+        CourseDBOrderedIndex index = new CourseDBOrderedIndex();
+        TreeMap<Integer, CourseDBElement> expected = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int crn = 10000 + random.nextInt(80000);
+            if (expected.containsKey(crn)) {
+                continue;
+            }
+            CourseDBElement course = new CourseDBElement("CMSC" + i, crn, 3, "SC1", "Instructor");
+            expected.put(crn, course);
+            index.add(course);
+            if (i % 997 == 0) {
+                checkQueries(index, expected, random);
+            }
+        }
+        checkQueries(index, expected, random);
+
+        List<CourseDBElement> ordered = new ArrayList<>();
+        index.forEach(ordered::add);
+        assertEquals(new ArrayList<>(expected.values()), ordered);
+    }
+
+    /**
+     * Test that queries still match a TreeMap while courses are removed and replaced, both in the
+     * insert buffer and in the main run.
+     */
+    @Test
+    public void testRemoveAndUpdate() {
+        Random random = new Random(203);
+        List<CourseDBElement> courses = new ArrayList<>();
+        TreeMap<Integer, CourseDBElement> expected = new TreeMap<>();
+        for (int crn = 10000; crn < 90000; crn += 8) {
+            CourseDBElement course = new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey");
+            courses.add(course);
+            expected.put(crn, course);
+        }
+        CourseDBOrderedIndex index = new CourseDBOrderedIndex(courses);
+        for (int i = 0; i < 30000; i++) {
+            int crn = 10000 + random.nextInt(80000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.remove(crn) != null, index.remove(crn));
+            } else {
+                CourseDBElement course = new CourseDBElement("CMSC" + i, crn, 3, "SC1", "Instructor");
+                expected.put(crn, course);
+                index.update(course);
+            }
+            if (i % 1999 == 0) {
+                checkQueries(index, expected, random);
+            }
+        }
+        checkQueries(index, expected, random);
+        List<CourseDBElement> ordered = new ArrayList<>();
+        index.forEach(ordered::add);
+        assertEquals(new ArrayList<>(expected.values()), ordered);
+    }
+
+    /**
+     * Test that an index built from existing courses sorts them and accepts later adds.
+     */
+    @Test
+    public void testBulkConstructor() {
+        List<CourseDBElement> courses = new ArrayList<>();
+        for (int crn = 300; crn > 0; crn -= 3) {
+            courses.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey"));
+        }
+        CourseDBOrderedIndex index = new CourseDBOrderedIndex(courses);
+        index.add(new CourseDBElement("NEW", 2, 4, "SC450", "Joey"));
+        assertEquals(101, index.size());
+        assertEquals(2, index.ceiling(2).getCRN());
+        assertEquals(3, index.ceiling(3).getCRN());
+        assertEquals(6, index.ceiling(4).getCRN());
+        assertEquals(300, index.floor(1000).getCRN());
+        assertNull(index.floor(1));
+        assertNull(index.ceiling(301));
+        assertEquals(4, index.range(2, 10).size());
+        assertTrue(index.range(10, 2).isEmpty());
+    }
+
+    /**
+     * Test the CRN range queries exposed by CourseDBManager.
+     */
+    @Test
+    public void testManagerRangeQueries() {
+        CourseDBManager manager = new CourseDBManager();
+        manager.add("CMSC204", 20500, 4, "SC450", "Joey");
+        manager.add("CMSC203", 20999, 4, "SC450", "Joey");
+        manager.add("MATH101", 21000, 4, "SC450", "Joey");
+        assertEquals(2, manager.range(20000, 20999).size());
+
+        manager.add("CMSC140", 20000, 3, "SC450", "Joey");
+        List<CourseDBElement> department = manager.range(20000, 20999);
+        assertEquals(3, department.size());
+        assertEquals(20000, department.get(0).getCRN());
+        assertEquals(21000, manager.ceiling(20999 + 1).getCRN());
+        assertEquals(20500, manager.floor(20998).getCRN());
+    }
+
+    /**
+     * Compares range, ceiling, and floor at random points against the TreeMap.
+     */
+    private static void checkQueries(CourseDBOrderedIndex index, TreeMap<Integer, CourseDBElement> expected,
+                                     Random random) {
+        assertEquals(expected.size(), index.size());
+        for (int i = 0; i < 50; i++) {
+            int from = 10000 + random.nextInt(80000);
+            int to = from + random.nextInt(2000);
+            assertEquals(new ArrayList<>(expected.subMap(from, true, to, true).values()), index.range(from, to));
+            Map.Entry<Integer, CourseDBElement> ceiling = expected.ceilingEntry(from);
+            Map.Entry<Integer, CourseDBElement> floor = expected.floorEntry(from);
+            assertSame(ceiling == null ? null : ceiling.getValue(), index.ceiling(from));
+            assertSame(floor == null ? null : floor.getValue(), index.floor(from));
+        }
+    }
+
+    /**
+     * Test that adds from many threads on a thread-safe structure, racing the build of the ordered
+     * index and continuing after it, all reach the index.
+     */
+    @Test
+    public void testConcurrentAddsAfterRange() throws InterruptedException {
+        CourseDBManager manager = new CourseDBManager(new ConcurrentCourseDBStructure(16));
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int first = 10000 + t * 5000;
+            Thread writer = new Thread(() -> {
+                for (int crn = first; crn < first + 5000; crn++) {
+                    manager.add("CMSC204", crn, 4, "SC450", "Jane Doe");
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        while (writers.get(0).isAlive()) {
+            List<CourseDBElement> courses = manager.range(10000, 29999);
+            for (int i = 1; i < courses.size(); i++) {
+                assertTrue(courses.get(i - 1).getCRN() < courses.get(i).getCRN());
+            }
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        List<CourseDBElement> courses = manager.range(10000, 29999);
+        assertEquals(20000, courses.size());
+        for (int i = 0; i < courses.size(); i++) {
+            assertEquals(10000 + i, courses.get(i).getCRN());
+        }
+        assertEquals(12345, manager.ceiling(12345).getCRN());
+    }
+}
@@ -0,0 +1,81 @@
+package Default;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The CourseDBPage class is one page of courses in CRN order, together with the continuation
+ * token that requests the next page. Tokens are opaque to callers; pass null for the first page.
+ */
+public class CourseDBPage {
+    private final List<CourseDBElement> courses; // The courses on this page, in CRN order.
+    private final String nextToken;              // The token for the next page, or null if this is the last.
+
+    /**
+     * Constructs a CourseDBPage.
+     *
+     * @param courses   The courses on this page, in CRN order.
+     * @param nextToken The token for the next page, or null if this is the last page.
+     */
+    public CourseDBPage(List<CourseDBElement> courses, String nextToken) {
+        this.courses = Collections.unmodifiableList(courses);
+        this.nextToken = nextToken;
+    }
+
+    /**
+     * Gets the courses on this page.
+     *
+     * @return An unmodifiable list of courses in CRN order.
+     */
+    public List<CourseDBElement> getCourses() {
+        return courses;
+    }
+
+    /**
+     * Gets the token that requests the next page.
+     *
+     * @return The continuation token, or null if this is the last page.
+     */
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    /**
+     * Tells whether another page follows this one.
+     *
+     * @return True if getNextToken is not null.
+     */
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+
+    /**
+     * Builds a page from courses already in CRN order.
+     *
+     * @param page The courses on the page, in CRN order.
+     * @param more Whether any course follows the last one on the page.
+     * @return The page.
+     */
+    static CourseDBPage of(List<CourseDBElement> page, boolean more) {
+        String next = more && !page.isEmpty() ? Integer.toString(page.get(page.size() - 1).getCRN()) : null;
+        return new CourseDBPage(page, next);
+    }
+
+    /**
+     * Decodes a continuation token into the last CRN already returned.
+     *
+     * @param token The token, or null for the first page.
+     * @return The last CRN returned, or a value below every CRN for the first page.
+     * @throws IllegalArgumentException If the token was not produced by a page.
+     */
+    static long afterCrn(String token) {
+        if (token == null) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid continuation token: " + token, e);
+        }
+    }
+}
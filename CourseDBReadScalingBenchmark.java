@@ -0,0 +1,120 @@
+package Default;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The CourseDBReadScalingBenchmark class measures how get throughput on a shared structure scales
+ * with the number of reader threads, optionally with one writer adding new courses at the same time.
+ *
+ * <p>Usage: java Default.CourseDBReadScalingBenchmark [structure] [catalogSize] [maxThreads] [withWriter],
+ * for example {@code java Default.CourseDBReadScalingBenchmark concurrent 1000000 64 true}.
+ * Only thread-safe structure types should be run with a writer.</p>
+ */
+public class CourseDBReadScalingBenchmark {
+    private static final long RUN_MILLIS = 2000; // How long each thread count is measured.
+
+    private static volatile long sink; // Consumes results so the JIT cannot discard the lookups.
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional structure type, catalog size, maximum thread count, and whether to run a writer.
+     * @throws InterruptedException If interrupted while waiting for the threads.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        CourseDBStructureType type = CourseDBStructureType.valueOf(
+                args.length > 0 ? args[0].trim().toUpperCase(Locale.ROOT) : "CONCURRENT");
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2])
+                : Math.max(32, Runtime.getRuntime().availableProcessors());
+        boolean withWriter = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        CourseDBStructureInterface structure = type.create(size);
+        int[] crns = CourseDBBenchmark.Distribution.RANDOM.crns(size);
+        for (int crn : crns) {
+            structure.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey Bag-O-Donuts"));
+        }
+
+        System.out.printf("%s, %d courses, writer=%b, %d cores%n", type, size, withWriter,
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("%8s %16s %16s %10s%n", "threads", "gets/s", "gets/s/thread", "speedup");
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads <<= 1) {
+            double opsPerSecond = run(structure, crns, threads, withWriter);
+            if (threads == 1) {
+                baseline = opsPerSecond;
+            }
+            System.out.printf("%8d %16.0f %16.0f %9.2fx%n", threads, opsPerSecond, opsPerSecond / threads,
+                    opsPerSecond / baseline);
+        }
+    }
+
+    /**
+     * Runs the given number of reader threads for RUN_MILLIS and returns their combined throughput.
+     */
+    private static double run(CourseDBStructureInterface structure, int[] crns, int threads, boolean withWriter)
+            throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.currentTimeMillis() + RUN_MILLIS;
+        Thread[] readers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * 7919;
+            readers[t] = new Thread(() -> {
+                awaitQuietly(start);
+                long sum = 0;
+                long count = 0;
+                int i = offset % crns.length;
+                try {
+                    while ((count & 1023) != 0 || System.currentTimeMillis() < deadline) {
+                        sum += structure.get(crns[i]).getCredits();
+                        if (++i == crns.length) {
+                            i = 0;
+                        }
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                operations.add(count);
+                sink += sum;
+            });
+            readers[t].start();
+        }
+        Thread writer = null;
+        if (withWriter) {
+            writer = new Thread(() -> {
+                awaitQuietly(start);
+                int crn = Integer.MAX_VALUE / 2;
+                while (System.currentTimeMillis() < deadline) {
+                    structure.add(new CourseDBElement("CMSC204", crn++, 4, "SC450", "Writer"));
+                }
+            });
+            writer.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        if (writer != null) {
+            writer.join();
+        }
+        return operations.sum() * 1e9 / elapsed;
+    }
+
+    /**
+     * Waits for the start signal, restoring the interrupt flag if interrupted.
+     */
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
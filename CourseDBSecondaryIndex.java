@@ -0,0 +1,101 @@
+package Default;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The CourseDBSecondaryIndex class indexes courses by course ID, instructor name, and room number,
+ * so questions like "all sections of CMSC204" are answered in time proportional to the number of
+ * matching sections instead of by scanning the whole catalog. Each key maps to its courses in the
+ * order they were added. Courses with a null field are not indexed under that field. Removing a
+ * course costs time proportional to the number of courses sharing its keys. The index is not
+ * thread-safe; CourseDBManager guards it with its index lock.
+ */
+public class CourseDBSecondaryIndex {
+    private final HashMap<String, ArrayList<CourseDBElement>> byCourseId = new HashMap<>();
+    private final HashMap<String, ArrayList<CourseDBElement>> byInstructor = new HashMap<>();
+    private final HashMap<String, ArrayList<CourseDBElement>> byRoom = new HashMap<>();
+
+    /**
+     * Indexes a course under its course ID, instructor name, and room number.
+     *
+     * @param element The course to index.
+     */
+    public void add(CourseDBElement element) {
+        put(byCourseId, element.getID(), element);
+        put(byInstructor, element.getInstructorName(), element);
+        put(byRoom, element.getRoomNum(), element);
+    }
+
+    /**
+     * Removes a course from the lists of its course ID, instructor name, and room number. The
+     * course is matched by CRN, so the element passed must hold the indexed values of those fields.
+     *
+     * @param element The course to remove.
+     */
+    public void remove(CourseDBElement element) {
+        drop(byCourseId, element.getID(), element);
+        drop(byInstructor, element.getInstructorName(), element);
+        drop(byRoom, element.getRoomNum(), element);
+    }
+
+    /**
+     * Returns every section of a course.
+     *
+     * @param courseId The course ID, for example "CMSC204".
+     * @return A copy of the matching courses, empty if there are none.
+     */
+    public List<CourseDBElement> getByCourseId(String courseId) {
+        return lookup(byCourseId, courseId);
+    }
+
+    /**
+     * Returns every course taught by an instructor.
+     *
+     * @param instructorName The instructor's name, matched exactly.
+     * @return A copy of the matching courses, empty if there are none.
+     */
+    public List<CourseDBElement> getByInstructor(String instructorName) {
+        return lookup(byInstructor, instructorName);
+    }
+
+    /**
+     * Returns every course held in a room.
+     *
+     * @param roomNumber The room number, for example "SC202".
+     * @return A copy of the matching courses, empty if there are none.
+     */
+    public List<CourseDBElement> getByRoom(String roomNumber) {
+        return lookup(byRoom, roomNumber);
+    }
+
+    /**
+     * Appends a course to the list of a key, unless the key is null.
+     */
+    private static void put(HashMap<String, ArrayList<CourseDBElement>> index, String key, CourseDBElement element) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new ArrayList<>(2)).add(element);
+        }
+    }
+
+    /**
+     * Removes the course with the element's CRN from the list of a key, dropping the list once empty.
+     */
+    private static void drop(HashMap<String, ArrayList<CourseDBElement>> index, String key, CourseDBElement element) {
+        ArrayList<CourseDBElement> matches = key == null ? null : index.get(key);
+        if (matches != null && matches.removeIf(match -> match.getCRN() == element.getCRN()) && matches.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Returns a copy of the list of a key, or an empty list.
+     */
+    private static List<CourseDBElement> lookup(HashMap<String, ArrayList<CourseDBElement>> index, String key) {
+        ArrayList<CourseDBElement> matches = index.get(key);
+        // A copy, so later changes to the index never reach a caller still iterating the result.
+        return matches == null ? Collections.emptyList() : new ArrayList<>(matches);
+    }
+}
@@ -0,0 +1,351 @@
+package Default;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The CourseDBServer class serves a CourseDBManager over TCP with a line protocol, so other
+ * services can query the database without embedding it. Each request and each response is one
+ * line of UTF-8 text:
+ *
+ * <ul>
+ * <li>{@code GET <crn>} answers with the course, formatted as by toString, or {@code NONE}.</li>
+ * <li>{@code ADD <id> <crn> <credits> <room> <instructor>} answers {@code OK}. The fields are
+ * those of a course file line, so the instructor is the rest of the line.</li>
+ * <li>{@code ALL} answers with one line per course, then {@code END}.</li>
+ * <li>{@code QUIT} closes the connection.</li>
+ * </ul>
+ *
+ * A malformed request is answered with {@code ERR <reason>} and the connection stays open.
+ *
+ * <p>Every connection has its own thread: a virtual thread when the JVM supports them, otherwise
+ * a pooled platform thread. Clients may pipeline, sending many requests before reading the
+ * answers. Responses are buffered and written when no further request is already waiting, so a
+ * pipelined batch is answered with one write.</p>
+ *
+ * <p>A structure that is thread-safe (see CourseDBStoreInterface.isThreadSafe) is served without
+ * any server lock. Any other structure gets a read-write lock: gets share the read lock, and the
+ * manager holds the write lock only while it applies a change in memory (see
+ * CourseDBManager.setApplyLock), never while a durable add waits for the log or compacts it.</p>
+ */
+public class CourseDBServer implements AutoCloseable {
+    private static final int BACKLOG = 4096;          // Pending connections the OS queues before refusing.
+    private static final int BUFFER_CHARS = 8192;     // Per-connection read and write buffer size.
+    private static final long ACCEPT_RETRY_MIN_MILLIS = 10;   // First wait after a failed accept.
+    private static final long ACCEPT_RETRY_MAX_MILLIS = 1000; // Longest wait while accepts keep failing.
+
+    private final CourseDBManager manager;
+    private final ReentrantReadWriteLock lock;                                 // Gets share it; applies exclude them. Null if not needed.
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;                                 // Runs one task per connection.
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();     // Closed by close to end the tasks.
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    /**
+     * Starts a server for a manager on a loopback port.
+     *
+     * @param manager The database to serve.
+     * @param port    The port to listen on, or 0 for any free port (see getPort).
+     * @throws IOException If the port cannot be bound.
+     */
+    public CourseDBServer(CourseDBManager manager, int port) throws IOException {
+        this(manager, port, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Starts a server for a manager on the given address and port.
+     *
+     * @param manager     The database to serve.
+     * @param port        The port to listen on, or 0 for any free port (see getPort).
+     * @param bindAddress The local address to listen on.
+     * @throws IOException If the port cannot be bound.
+     */
+    public CourseDBServer(CourseDBManager manager, int port, InetAddress bindAddress) throws IOException {
+        this.manager = manager;
+        serverSocket = new ServerSocket(port, BACKLOG, bindAddress);
+        lock = manager.isThreadSafe() ? null : new ReentrantReadWriteLock();
+        if (lock != null) {
+            manager.setApplyLock(lock.writeLock());
+        }
+        connections = newThreadPerTaskExecutor();
+        acceptor = new Thread(this::acceptConnections, "CourseDBServer acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return The local port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the number of open client connections.
+     *
+     * @return The connection count.
+     */
+    public int getConnectionCount() {
+        return openSockets.size();
+    }
+
+    /**
+     * Returns whether the server guards the manager with its own lock, which it does only for
+     * structures that are not thread-safe.
+     *
+     * @return true if gets and changes are serialized by the server.
+     */
+    public boolean isLocking() {
+        return lock != null;
+    }
+
+    /**
+     * Stops accepting connections and closes every open one. The manager no longer takes the
+     * server's lock afterwards.
+     *
+     * @throws IOException If the listening socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket socket : openSockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already failing; the connection task ends either way.
+            }
+        }
+        connections.shutdown();
+        if (lock != null) {
+            manager.setApplyLock(null);
+        }
+    }
+
+    /**
+     * Returns an executor that runs each task on a new virtual thread, or on a cached pool of
+     * daemon platform threads on JVMs without virtual threads. It is looked up reflectively so the
+     * server still runs on Java 17.
+     *
+     * @return The executor.
+     */
+    static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "CourseDBServer connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Accepts connections until the server is closed, handing each to its own thread. While
+     * accepts keep failing, for example because the process is out of file descriptors, it waits
+     * between attempts, doubling the wait up to ACCEPT_RETRY_MAX_MILLIS, and reports only the
+     * first failure of each run.
+     */
+    private void acceptConnections() {
+        long retryMillis = 0;
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                retryMillis = 0;
+                openSockets.add(socket);
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+                if (retryMillis == 0) {
+                    System.err.println("CourseDBServer accept failed, retrying: " + e.getMessage());
+                    retryMillis = ACCEPT_RETRY_MIN_MILLIS;
+                } else {
+                    retryMillis = Math.min(retryMillis * 2, ACCEPT_RETRY_MAX_MILLIS);
+                }
+                try {
+                    Thread.sleep(retryMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Answers one connection's requests until the client disconnects or sends QUIT.
+     */
+    private void serve(Socket socket) {
+        try (Socket client = socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8), BUFFER_CHARS);
+             Writer out = new BufferedWriter(
+                     new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8), BUFFER_CHARS)) {
+            client.setTcpNoDelay(true);
+            String request;
+            while ((request = in.readLine()) != null && execute(request, out)) {
+                if (!in.ready()) {
+                    out.flush(); // Nothing more is pipelined, so send the batch of answers.
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            // The client went away or the server closed; either way the connection is done.
+        } finally {
+            openSockets.remove(socket);
+        }
+    }
+
+    /**
+     * Executes one request and buffers its answer.
+     *
+     * @param request The request line.
+     * @param out     Where to write the answer.
+     * @return false if the client asked to close the connection.
+     * @throws IOException If writing the answer fails.
+     */
+    private boolean execute(String request, Writer out) throws IOException {
+        int space = request.indexOf(' ');
+        String command = space < 0 ? request.trim() : request.substring(0, space);
+        String argument = space < 0 ? "" : request.substring(space + 1).trim();
+        switch (command.toUpperCase(Locale.ROOT)) {
+            case "GET":
+                executeGet(argument, out);
+                break;
+            case "ADD":
+                executeAdd(argument, out);
+                break;
+            case "ALL":
+                executeAll(out);
+                break;
+            case "QUIT":
+                return false;
+            default:
+                out.write("ERR unknown command: " + command + "\n");
+                break;
+        }
+        return true;
+    }
+
+    private void executeGet(String argument, Writer out) throws IOException {
+        int crn;
+        try {
+            crn = Integer.parseInt(argument);
+        } catch (NumberFormatException e) {
+            out.write("ERR invalid CRN: " + argument + "\n");
+            return;
+        }
+        CourseDBElement course;
+        if (lock == null) {
+            course = manager.get(crn);
+        } else {
+            lock.readLock().lock();
+            try {
+                course = manager.get(crn);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        if (course == null) {
+            out.write("NONE\n");
+        } else {
+            course.appendTo(out);
+            out.write('\n');
+        }
+    }
+
+    private void executeAdd(String argument, Writer out) throws IOException {
+        String[] fields = argument.split(" +", 5);
+        if (fields.length < 5) {
+            out.write("ERR expected: ADD <id> <crn> <credits> <room> <instructor>\n");
+            return;
+        }
+        int crn;
+        int credits;
+        try {
+            crn = Integer.parseInt(fields[1]);
+            credits = Integer.parseInt(fields[2]);
+        } catch (NumberFormatException e) {
+            out.write("ERR invalid number: " + e.getMessage() + "\n");
+            return;
+        }
+        manager.add(fields[0], crn, credits, fields[3], fields[4]); // Takes the write lock itself, if there is one.
+        out.write("OK\n");
+    }
+
+    /**
+     * Copies the courses, under the read lock if there is one, then formats them without it, so a
+     * slow client cannot hold up adds.
+     */
+    private void executeAll(Writer out) throws IOException {
+        Object[] courses;
+        if (lock == null) {
+            courses = manager.stream().toArray();
+        } else {
+            lock.readLock().lock();
+            try {
+                courses = manager.stream().toArray();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        for (Object course : courses) {
+            ((CourseDBElement) course).appendTo(out);
+            out.write('\n');
+        }
+        out.write("END\n");
+    }
+
+    /**
+     * Starts a server and runs until the process is stopped.
+     *
+     * <p>Usage: java Default.CourseDBServer [port] [courseFile]. The structure type is taken from
+     * -Dcoursedb.structure, and with -Dcoursedb.data=&lt;directory&gt; adds are logged there and
+     * recovered on the next start, as in CourseDBManager.main.</p>
+     *
+     * @param args Optional port (default 7204) and a course file to load first.
+     * @throws IOException If the database or the port cannot be opened.
+     * @throws InterruptedException If interrupted while serving.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7204;
+        String dataDirectory = System.getProperty("coursedb.data");
+        CourseDBManager manager = dataDirectory == null ? new CourseDBManager()
+                : CourseDBManager.openDurable(new File(dataDirectory, "courses.snapshot"),
+                        new File(dataDirectory, "courses.wal"));
+        if (args.length > 1) {
+            System.out.println(manager.load(new File(args[1])));
+        }
+        CourseDBServer server = new CourseDBServer(manager, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+                manager.closeLog();
+            } catch (IOException e) {
+                System.err.println("Could not shut down cleanly: " + e.getMessage());
+            }
+        }));
+        System.out.println("CourseDBServer listening on port " + server.getPort());
+        server.acceptor.join();
+    }
+}
@@ -0,0 +1,148 @@
+package Default;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class contains JUnit tests for CourseDBServer. It tests each command of the line protocol,
+ * pipelined requests, errors that leave the connection open, many clients at once, and that
+ * thread-safe structures are served without the server's lock.
+ */
+public class CourseDBServerTest {
+    private CourseDBManager manager;
+    private CourseDBServer server;
+
+    /**
+     * Start a server over a manager holding one course.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        manager = new CourseDBManager();
+        manager.add("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts");
+        server = new CourseDBServer(manager, 0);
+    }
+
+    /**
+     * Stop the server.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    /**
+     * Test GET, ADD, ALL, and errors sent as one pipelined write.
+     */
+    @Test
+    public void testPipelinedCommands() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            BufferedReader in = reader(socket);
+            send(socket, "GET 30504\nGET 1\nADD CMSC203 30503 3 SC451 Jane Doe\nGET 30503\n"
+                    + "ADD CMSC203 x 3 SC451 Jane Doe\nADD CMSC203\nGET abc\nFETCH 1\nALL\nQUIT\n");
+
+            assertEquals("Course:CMSC204 CRN:30504 Credits:4 Instructor:Joey Bag-O-Donuts Room:SC450", in.readLine());
+            assertEquals("NONE", in.readLine());
+            assertEquals("OK", in.readLine());
+            assertEquals("Course:CMSC203 CRN:30503 Credits:3 Instructor:Jane Doe Room:SC451", in.readLine());
+            assertTrue(in.readLine().startsWith("ERR"));
+            assertTrue(in.readLine().startsWith("ERR"));
+            assertTrue(in.readLine().startsWith("ERR"));
+            assertEquals("ERR unknown command: FETCH", in.readLine());
+            List<String> all = new ArrayList<>();
+            for (String line = in.readLine(); !line.equals("END"); line = in.readLine()) {
+                all.add(line);
+            }
+            assertEquals(2, all.size());
+            assertNull(in.readLine());
+        }
+        assertEquals("Jane Doe", manager.get(30503).getInstructorName());
+    }
+
+    /**
+     * Test that many clients adding and reading at once all get their answers.
+     */
+    @Test
+    public void testConcurrentClients() throws Exception {
+        List<Thread> clients = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int c = 0; c < 50; c++) {
+            final int first = c * 100;
+            Thread client = new Thread(() -> {
+                try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+                    BufferedReader in = reader(socket);
+                    StringBuilder requests = new StringBuilder();
+                    for (int crn = first; crn < first + 100; crn++) {
+                        requests.append("ADD CMSC").append(crn).append(' ').append(crn).append(" 3 SC1 Pat\n");
+                        requests.append("GET ").append(crn).append('\n');
+                    }
+                    send(socket, requests.toString());
+                    for (int crn = first; crn < first + 100; crn++) {
+                        assertEquals("OK", in.readLine());
+                        assertTrue(in.readLine().contains("CRN:" + crn + " "));
+                    }
+                } catch (Throwable t) {
+                    synchronized (failures) {
+                        failures.add(t);
+                    }
+                }
+            });
+            clients.add(client);
+            client.start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        assertTrue(failures.isEmpty(), failures.toString());
+        assertEquals(5001, manager.showAll().size());
+    }
+
+    /**
+     * Test that only structures that are not thread-safe are served under the server's lock, and
+     * that a thread-safe one answers gets and adds without it.
+     */
+    @Test
+    public void testLocksOnlyUnsafeStructures() throws IOException {
+        assertEquals(!manager.isThreadSafe(), server.isLocking());
+        CourseDBManager concurrent = new CourseDBManager(new ConcurrentCourseDBStructure(16));
+        try (CourseDBServer unlocked = new CourseDBServer(concurrent, 0);
+             Socket socket = new Socket("127.0.0.1", unlocked.getPort())) {
+            assertFalse(unlocked.isLocking());
+            BufferedReader in = reader(socket);
+            send(socket, "add CMSC203 30503 3 SC451 Jane Doe\nget 30503\nquit\n");
+            assertEquals("OK", in.readLine());
+            assertEquals("Course:CMSC203 CRN:30503 Credits:3 Instructor:Jane Doe Room:SC451", in.readLine());
+            assertNull(in.readLine());
+        }
+    }
+
+    /**
+     * Test that the load client reports every request it sent.
+     */
+    @Test
+    public void testLoadClient() throws Exception {
+        String report = CourseDBLoadClient.run("127.0.0.1", server.getPort(), 4, 200, 8);
+        assertTrue(report.startsWith("requests="), report);
+        assertTrue(report.contains("p999="), report);
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static void send(Socket socket, String requests) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(requests.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
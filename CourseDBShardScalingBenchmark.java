@@ -0,0 +1,102 @@
+package Default;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The CourseDBShardScalingBenchmark class measures how the throughput of a ShardedCourseDBStructure
+ * grows with its shard count. For each shard count it runs one client thread per shard against a
+ * mix of gets and adds, so with enough cores the ideal is linear scaling: each shard's lock is
+ * shared by about one thread. Adds take a shard's write lock, so the more adds in the mix, the
+ * more throughput depends on having many shards.
+ *
+ * <p>Usage: java Default.CourseDBShardScalingBenchmark [catalogSize] [maxShards] [addPercent],
+ * for example {@code java Default.CourseDBShardScalingBenchmark 1000000 16 20}.</p>
+ */
+public class CourseDBShardScalingBenchmark {
+    private static final long RUN_MILLIS = 2000; // How long each shard count is measured.
+
+    private static volatile long sink; // Consumes results so the JIT cannot discard the lookups.
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional catalog size, maximum shard count, and percentage of operations that are adds.
+     * @throws InterruptedException If interrupted while waiting for the threads.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int maxShards = args.length > 1 ? Integer.parseInt(args[1])
+                : Math.max(8, Runtime.getRuntime().availableProcessors());
+        int addPercent = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int[] crns = CourseDBBenchmark.Distribution.RANDOM.crns(size);
+
+        System.out.printf("%d courses, %d%% adds, %d cores%n", size, addPercent,
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("%8s %16s %16s %10s%n", "shards", "ops/s", "ops/s/shard", "speedup");
+        double baseline = 0;
+        for (int shards = 1; shards <= maxShards; shards <<= 1) {
+            ShardedCourseDBStructure structure = new ShardedCourseDBStructure(shards, size * 2);
+            for (int crn : crns) {
+                structure.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey Bag-O-Donuts"));
+            }
+            double opsPerSecond = run(structure, crns, shards, addPercent);
+            if (shards == 1) {
+                baseline = opsPerSecond;
+            }
+            System.out.printf("%8d %16.0f %16.0f %9.2fx%n", shards, opsPerSecond, opsPerSecond / shards,
+                    opsPerSecond / baseline);
+        }
+    }
+
+    /**
+     * Runs the given number of client threads for RUN_MILLIS and returns their combined throughput.
+     */
+    private static double run(ShardedCourseDBStructure structure, int[] crns, int threads, int addPercent)
+            throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.currentTimeMillis() + RUN_MILLIS;
+        Thread[] clients = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int firstNewCrn = Integer.MIN_VALUE + t * (1 << 24); // Each client adds its own new CRNs.
+            clients[t] = new Thread(() -> {
+                awaitQuietly(start);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long sum = 0;
+                long count = 0;
+                int newCrn = firstNewCrn;
+                while ((count & 1023) != 0 || System.currentTimeMillis() < deadline) {
+                    if (random.nextInt(100) < addPercent) {
+                        structure.add(new CourseDBElement("CMSC204", newCrn++, 4, "SC450", "Client"));
+                    } else {
+                        CourseDBElement element = structure.find(crns[random.nextInt(crns.length)]);
+                        sum += element == null ? 0 : element.getCredits();
+                    }
+                    count++;
+                }
+                operations.add(count);
+                sink += sum;
+            });
+            clients[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread client : clients) {
+            client.join();
+        }
+        return operations.sum() * 1e9 / (System.nanoTime() - begin);
+    }
+
+    /**
+     * Waits for the start signal, restoring the interrupt flag if interrupted.
+     */
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package Default;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The CourseDBSnapshot class writes and opens binary snapshots of a course database. A snapshot
+ * can be memory-mapped and queried directly, so a restart serves lookups without parsing the
+ * course file or creating an object per course.
+ *
+ * <p>Layout (all integers big-endian):</p>
+ * <pre>
+ *   header   magic "CDBS", version, course count, string count, string data length (long), CRC32 (long)
+ *   index    one fixed-width record per course, sorted by CRN:
+ *            CRN, credits, course ID ref, room ref, instructor ref (5 ints; a ref of -1 means null)
+ *   offsets  string count + 1 ints; string i is data[offsets[i], offsets[i + 1])
+ *   data     the distinct course IDs, rooms, and instructor names, UTF-8 encoded, each stored once
+ * </pre>
+ * The CRC32 covers everything after the header. A snapshot is written to a temporary file,
+ * forced to disk, and then atomically renamed over the target, so readers never see a partial file.
+ */
+public class CourseDBSnapshot {
+    static final int MAGIC = 0x43444253;   // "CDBS"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 20;    // Five ints per course.
+
+    private CourseDBSnapshot() {
+    }
+
+    /**
+     * Writes every course to a snapshot file, replacing the file atomically.
+     *
+     * @param courses The courses to write. Courses with duplicate CRNs keep only the first.
+     * @param target  The snapshot file to create or replace.
+     * @return The number of courses written.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public static int write(Iterable<CourseDBElement> courses, Path target) throws IOException {
+        List<CourseDBElement> sorted = new ArrayList<>();
+        for (CourseDBElement course : courses) {
+            sorted.add(course);
+        }
+        sorted.sort(null); // CourseDBElement is Comparable by CRN; the sort is stable, so the first duplicate stays first.
+
+        HashMap<String, Integer> stringIds = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[] records = new int[sorted.size() * 5];
+        int count = 0;
+        for (CourseDBElement course : sorted) {
+            if (count > 0 && records[(count - 1) * 5] == course.getCRN()) {
+                continue;
+            }
+            int base = count * 5;
+            records[base] = course.getCRN();
+            records[base + 1] = course.getCredits();
+            records[base + 2] = intern(course.getID(), stringIds, strings);
+            records[base + 3] = intern(course.getRoomNum(), stringIds, strings);
+            records[base + 4] = intern(course.getInstructorName(), stringIds, strings);
+            count++;
+        }
+
+        Path absolute = target.toAbsolutePath();
+        Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+                 DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc))) {
+                file.getChannel().position(HEADER_BYTES);
+                for (int i = 0; i < count * 5; i++) {
+                    out.writeInt(records[i]);
+                }
+                int offset = 0;
+                for (byte[] string : strings) {
+                    out.writeInt(offset);
+                    offset += string.length;
+                }
+                out.writeInt(offset);
+                for (byte[] string : strings) {
+                    out.write(string);
+                }
+                out.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(strings.size())
+                        .putLong(offset).putLong(crc.getValue()).flip();
+                file.getChannel().write(header, 0);
+                file.getChannel().force(true);
+            }
+            Files.move(temporary, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return count;
+    }
+
+    /**
+     * Opens a snapshot file and verifies its checksum.
+     *
+     * @param source The snapshot file.
+     * @return A structure that serves lookups from the mapped file.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    public static MappedCourseDBStructure open(Path source) throws IOException {
+        return open(source, true);
+    }
+
+    /**
+     * Opens a snapshot file. Skipping checksum verification makes opening a large snapshot
+     * independent of its size, at the cost of not detecting a corrupted file.
+     *
+     * @param source         The snapshot file.
+     * @param verifyChecksum Whether to verify the CRC32 of the file contents.
+     * @return A structure that serves lookups from the mapped file.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    public static MappedCourseDBStructure open(Path source, boolean verifyChecksum) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot larger than 2 GB: " + source);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a course snapshot: " + source);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported snapshot version " + buffer.getInt(4) + ": " + source);
+        }
+        int count = buffer.getInt(8);
+        int stringCount = buffer.getInt(12);
+        long expectedLength = HEADER_BYTES + (long) count * RECORD_BYTES + (stringCount + 1L) * 4 + buffer.getLong(16);
+        if (count < 0 || stringCount < 0 || expectedLength != buffer.capacity()) {
+            throw new IOException("Truncated or corrupt snapshot: " + source);
+        }
+        if (verifyChecksum) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(HEADER_BYTES, buffer.capacity() - HEADER_BYTES));
+            if (crc.getValue() != buffer.getLong(24)) {
+                throw new IOException("Snapshot checksum mismatch: " + source);
+            }
+        }
+        return new MappedCourseDBStructure(buffer, count, stringCount);
+    }
+
+    /**
+     * Returns the id of a string in the string table, adding it if it is new.
+     */
+    private static int intern(String value, HashMap<String, Integer> stringIds, List<byte[]> strings) {
+        if (value == null) {
+            return -1;
+        }
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = strings.size();
+            stringIds.put(value, id);
+            strings.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return id;
+    }
+
+    /**
+     * Decodes string i of a mapped snapshot.
+     */
+    static String decodeString(ByteBuffer buffer, int offsetsStart, int dataStart, int id) {
+        int from = buffer.getInt(offsetsStart + id * 4);
+        int to = buffer.getInt(offsetsStart + id * 4 + 4);
+        byte[] bytes = new byte[to - from];
+        buffer.get(dataStart + from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Binary-searches the sorted CRN index of a mapped snapshot.
+     *
+     * @return The record number, or -(insertion point) - 1 if the CRN is absent, as Arrays.binarySearch does.
+     */
+    static int search(ByteBuffer buffer, int count, int crn) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midCrn = buffer.getInt(HEADER_BYTES + mid * RECORD_BYTES);
+            if (midCrn < crn) {
+                low = mid + 1;
+            } else if (midCrn > crn) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
@@ -0,0 +1,132 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class contains JUnit tests for CourseDBSnapshot and MappedCourseDBStructure. It tests that a
+ * snapshot round-trips every course, that adds after opening go to the overlay, and that damaged
+ * files are rejected.
+ */
+public class CourseDBSnapshotTest {
+
+    /**
+     * Builds a structure holding n courses with repeated course IDs, rooms, and instructors.
+     */
+    private static CourseDBStructure catalog(int n) {
+        CourseDBStructure structure = new CourseDBStructure(n);
+        for (int i = 0; i < n; i++) {
+            String instructor = i % 10 == 0 ? null : "Instructor " + (i % 37);
+            structure.add(new CourseDBElement("CMSC" + (i % 50), 90000 - i * 3, 1 + i % 4, "SC" + (i % 20), instructor));
+        }
+        return structure;
+    }
+
+    /**
+     * Creates an empty temporary snapshot path.
+     */
+    private static Path tempSnapshot() throws IOException {
+        File file = File.createTempFile("courses", ".snapshot");
+        file.deleteOnExit();
+        return file.toPath();
+    }
+
+    /**
+     * Test that every course is read back with the same fields and that misses throw.
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        CourseDBStructure original = catalog(1000);
+        Path path = tempSnapshot();
+        assertEquals(1000, CourseDBSnapshot.write(original, path));
+
+        MappedCourseDBStructure mapped = CourseDBSnapshot.open(path);
+        assertEquals(1000, mapped.size());
+        for (CourseDBElement expected : original) {
+            CourseDBElement actual = mapped.get(expected.getCRN());
+            assertEquals(expected.getID(), actual.getID());
+            assertEquals(expected.getCredits(), actual.getCredits());
+            assertEquals(expected.getRoomNum(), actual.getRoomNum());
+            assertEquals(expected.getInstructorName(), actual.getInstructorName());
+        }
+        assertThrows(IOException.class, () -> mapped.get(90001));
+
+        int previous = Integer.MIN_VALUE;
+        for (CourseDBElement element : mapped) {
+            assertTrue(element.getCRN() > previous);
+            previous = element.getCRN();
+        }
+    }
+
+    /**
+     * Test that lookups give the same answers after the CRN index is cached on the heap, including
+     * for dropped records and CRNs between and beyond the stored ones.
+     */
+    @Test
+    public void testCachedCrnIndex() throws IOException {
+        CourseDBStructure original = catalog(500);
+        Path path = tempSnapshot();
+        CourseDBSnapshot.write(original, path);
+        MappedCourseDBStructure mapped = CourseDBSnapshot.open(path);
+        mapped.remove(90000 - 3 * 7);
+
+        assertTrue(mapped.cacheCrnIndex() < 500 * 4);
+        for (int crn = 90000 - 3 * 500; crn <= 90003; crn++) {
+            CourseDBElement expected = crn == 90000 - 3 * 7 ? null : original.find(crn);
+            CourseDBElement actual = mapped.find(crn);
+            if (expected == null) {
+                assertNull(actual, "CRN " + crn);
+            } else {
+                assertEquals(expected.getRoomNum(), actual.getRoomNum());
+            }
+        }
+        mapped.update(new CourseDBElement("CMSC204", 90000, 4, "SC999", "Jane Doe"));
+        assertEquals("SC999", mapped.find(90000).getRoomNum());
+        assertEquals(499, mapped.size());
+    }
+
+    /**
+     * Test that courses added after opening are served from the overlay and duplicates are ignored.
+     */
+    @Test
+    public void testOverlayAdds() throws IOException {
+        Path path = tempSnapshot();
+        CourseDBSnapshot.write(catalog(10), path);
+        CourseDBManager manager = CourseDBManager.openSnapshot(path.toFile());
+
+        manager.add("NEW101", 5, 3, "R1", "New Instructor");
+        manager.add("DUP101", 90000, 3, "R1", "Duplicate");
+        assertEquals("NEW101", manager.get(5).getID());
+        assertEquals("CMSC0", manager.get(90000).getID());
+        assertEquals(11, manager.showAll().size());
+
+        Path copy = tempSnapshot();
+        assertEquals(11, manager.saveSnapshot(copy.toFile()));
+        assertEquals("NEW101", CourseDBSnapshot.open(copy).get(5).getID());
+    }
+
+    /**
+     * Test that a corrupted or truncated file is rejected when opened.
+     */
+    @Test
+    public void testDamagedFilesRejected() throws IOException {
+        Path path = tempSnapshot();
+        CourseDBSnapshot.write(catalog(100), path);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xFF);
+        }
+        assertThrows(IOException.class, () -> CourseDBSnapshot.open(path));
+
+        Files.write(path, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> CourseDBSnapshot.open(path));
+    }
+}
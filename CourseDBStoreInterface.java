@@ -0,0 +1,119 @@
+package Default;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * The CourseDBStoreInterface extends CourseDBStructureInterface with what the manager needs beyond
+ * add, get, and showAll: the number of courses stored, iteration over the stored elements
+ * themselves, so that callers can copy, export, or index a structure without formatting strings,
+ * and update and remove, so that a catalog can change without being rebuilt.
+ */
+public interface CourseDBStoreInterface extends CourseDBStructureInterface, Iterable<CourseDBElement> {
+
+    /**
+     * Returns the number of courses stored.
+     *
+     * @return The number of courses.
+     */
+    int size();
+
+    /**
+     * Stores a course, replacing the course with the same CRN if there is one. Where add keeps the
+     * first course stored under a CRN, update keeps the latest.
+     *
+     * @param element The course to store.
+     * @return The course it replaced, or null if the CRN was not stored.
+     */
+    CourseDBElement update(CourseDBElement element);
+
+    /**
+     * Removes the course with the given CRN.
+     *
+     * @param crn The CRN of the course to remove.
+     * @return The course removed, or null if the CRN was not stored.
+     */
+    CourseDBElement remove(int crn);
+
+    /**
+     * Looks up a course without treating a missing CRN as an error. Unlike get, a miss costs no
+     * exception, message, or stack trace, so scans for CRNs that do not exist stay as cheap as hits.
+     * Structures should override this with a direct lookup; the default falls back to get.
+     *
+     * @param crn The CRN of the course to find.
+     * @return The course, or null if no course has that CRN.
+     */
+    default CourseDBElement find(int crn) {
+        try {
+            return get(crn);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the structure's size and occupancy for monitoring. Structures that
+     * can measure their longest bucket chain or probe run override this to report it, which may
+     * visit the whole table, so it is not meant for the lookup path.
+     *
+     * @return The current statistics; the longest chain is -1 unless the structure reports one.
+     */
+    default CourseDBStructureStats getStats() {
+        return new CourseDBStructureStats(size(), getTableSize(), -1, false);
+    }
+
+    /**
+     * Adds a batch of courses. Courses whose CRN is already stored are skipped, as with add.
+     * Structures can override this to size themselves once and lock once for the whole batch.
+     *
+     * @param courses The courses to add.
+     */
+    default void addAll(Collection<? extends CourseDBElement> courses) {
+        for (CourseDBElement course : courses) {
+            add(course);
+        }
+    }
+
+    /**
+     * Applies a batch of changes: every upsert is stored as by update, then every removal is
+     * applied as by remove. A CRN should appear at most once in the batch. Structures that publish
+     * versions override this so readers see either none or all of the batch.
+     *
+     * @param upserts  The courses to store, replacing any with the same CRN.
+     * @param removals The CRNs to remove.
+     */
+    default void applyChanges(Collection<? extends CourseDBElement> upserts, int[] removals) {
+        for (CourseDBElement course : upserts) {
+            update(course);
+        }
+        for (int crn : removals) {
+            remove(crn);
+        }
+    }
+
+    /**
+     * Looks up a range of a batch of CRNs, storing each result at the same position in results,
+     * or null for a miss. CourseDBManager.getAll splits large batches into ranges and calls this
+     * from several threads at once, so it must only read.
+     *
+     * @param crns    The CRNs to find.
+     * @param results Receives the course for each CRN; must be at least as long as crns.
+     * @param from    The first position to look up, inclusive.
+     * @param to      The last position to look up, exclusive.
+     */
+    default void findAll(int[] crns, CourseDBElement[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            results[i] = find(crns[i]);
+        }
+    }
+
+    /**
+     * Returns whether adds, updates, and removals may run alongside each other and alongside
+     * lookups and iteration without outside locking. The default is false.
+     *
+     * @return true if the structure guards itself against concurrent use.
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+}
@@ -0,0 +1,56 @@
+package Default;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The CourseDBStringDictionary class assigns a small integer code to each distinct string, so a
+ * column of heavily repeated values such as course IDs, rooms, or instructor names can be stored
+ * as an int array with every distinct string kept exactly once. The code for null is -1.
+ */
+public class CourseDBStringDictionary {
+    private final HashMap<String, Integer> codes = new HashMap<>(); // String to code.
+    private String[] values = new String[16];                      // Code to string.
+    private int size;                                               // The number of distinct strings.
+
+    /**
+     * Returns the code for a string, assigning the next code if the string is new.
+     *
+     * @param value The string to encode, or null.
+     * @return The string's code, or -1 for null.
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = size;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    /**
+     * Returns the string for a code.
+     *
+     * @param code A code returned by encode, or -1.
+     * @return The string, or null for -1.
+     */
+    public String decode(int code) {
+        return code < 0 ? null : values[code];
+    }
+
+    /**
+     * Returns the number of distinct strings.
+     *
+     * @return The dictionary size.
+     */
+    public int size() {
+        return size;
+    }
+}
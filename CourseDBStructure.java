@@ -2,14 +2,36 @@ package Default;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
 
 /**
  * The CourseDBStructure class represents a data structure for storing course information using a hash table.
+ * The table grows automatically once the load factor passes MAX_LOAD_FACTOR. Growth is incremental: a larger
+ * table is allocated and each add moves a few buckets from the old table, so no single add pays for a full rehash.
+ *
+ * <p>For stores that are mostly asked for CRNs they do not hold, setMembershipFilterEnabled gives
+ * each table a CrnMembershipFilter sized for the courses it holds before it grows, checked before
+ * its buckets, so a miss usually skips the chains entirely. The new table's filter is filled as
+ * courses are added and migrated, so it is rebuilt with every growth and forgets removed CRNs then.
+ * Filters are off by default: a hit pays for the filter check on top of the bucket search.
+ * CourseDBManager.setMembershipFilterEnabled, or -Dcoursedb.membershipFilter=true, turns them on
+ * for a manager's structure.</p>
  */
-public class CourseDBStructure implements CourseDBStructureInterface {
+public class CourseDBStructure implements CourseDBStoreInterface {
+    private static final double MAX_LOAD_FACTOR = 1.0; // Start growing once there is more than one course per bucket.
+    private static final int REHASH_STEP = 8;           // Old buckets migrated on each add while rehashing.
+
     private int tableSize;
     private LinkedList<CourseDBElement>[] hashTable;
+    private LinkedList<CourseDBElement>[] oldTable; // The table being drained while rehashing, otherwise null.
+    private int rehashIndex;                        // The next old bucket to migrate.
+    private int size;                               // The number of courses stored in both tables.
+    private final CrnHashStrategy hashStrategy;     // The hash function used to place CRNs.
+    private CrnMembershipFilter filter;             // CRNs in hashTable, or null if filters are disabled.
+    private CrnMembershipFilter oldFilter;          // CRNs in oldTable while rehashing, otherwise null.
 
     /**
      * Constructor 1 - Creates a CourseDBStructure instance with an estimated number of courses.
@@ -17,12 +39,20 @@ public class CourseDBStructure implements CourseDBStructureInterface {
      * @param estimatedNumCourses The estimated number of courses to initialize the hash table size.
      */
     public CourseDBStructure(int estimatedNumCourses) {
+        this(estimatedNumCourses, CrnHashStrategy.DECIMAL_STRING);
+    }
+
+    /**
+     * Creates a CourseDBStructure instance with an estimated number of courses and a hash strategy.
+     *
+     * @param estimatedNumCourses The estimated number of courses to initialize the hash table size.
+     * @param hashStrategy        The hash function used to place CRNs in the table.
+     */
+    public CourseDBStructure(int estimatedNumCourses, CrnHashStrategy hashStrategy) {
+        this.hashStrategy = hashStrategy;
         // Initialize the hash table size to the next prime number greater than or equal to estimatedNumCourses.
         tableSize = getNextPrime(estimatedNumCourses);
         hashTable = new LinkedList[tableSize];
-        for (int i = 0; i < tableSize; i++) {
-            hashTable[i] = new LinkedList<>();
-        }
     }
 
     /**
@@ -33,11 +63,9 @@ public class CourseDBStructure implements CourseDBStructureInterface {
      */
     public CourseDBStructure(String testing, int size) {
         // Initialize the hash table with the specified size for testing purposes.
+        hashStrategy = CrnHashStrategy.DECIMAL_STRING;
         tableSize = size;
         hashTable = new LinkedList[tableSize];
-        for (int i = 0; i < tableSize; i++) {
-            hashTable[i] = new LinkedList<>();
-        }
     }
 
     /**
@@ -47,20 +75,70 @@ public class CourseDBStructure implements CourseDBStructureInterface {
      */
     @Override
     public void add(CourseDBElement element) {
+        if (oldTable != null) {
+            rehashStep();
+        }
         // Calculate the hash code for the CRN, determine the index, and add the element to the linked list.
         int hashCode = getHashCode(element.getCRN());
+        if (oldTable != null && mayHold(oldFilter, element.getCRN())
+                && findInBucket(oldTable[hashCode % oldTable.length], element.getCRN()) != null) {
+            return; // Element already exists in a bucket that has not been migrated yet
+        }
         int index = hashCode % tableSize;
         LinkedList<CourseDBElement> list = hashTable[index];
-        if (list.isEmpty()) {
-            list.add(element);
-        } else {
-            for (CourseDBElement existingElement : list) {
-                if (existingElement.getCRN() == element.getCRN()) {
-                    return; // Element already exists, exit quietly
-                }
-            }
-            list.add(element);
+        if (list == null) {
+            list = new LinkedList<>();
+            hashTable[index] = list;
+        } else if (findInBucket(list, element.getCRN()) != null) {
+            return; // Element already exists, exit quietly
+        }
+        list.add(element);
+        if (filter != null) {
+            filter.add(element.getCRN());
+        }
+        size++;
+        if (size > tableSize * MAX_LOAD_FACTOR) {
+            startRehash();
+        }
+    }
+
+    /**
+     * Stores a CourseDBElement, replacing the element with the same CRN if there is one. A replaced
+     * element keeps its place in its bucket.
+     *
+     * @param element The CourseDBElement to store.
+     * @return The element it replaced, or null if the CRN was not in the hash table.
+     */
+    @Override
+    public CourseDBElement update(CourseDBElement element) {
+        int hashCode = getHashCode(element.getCRN());
+        CourseDBElement previous = replaceInBucket(hashTable[hashCode % tableSize], element);
+        if (previous == null && oldTable != null) {
+            previous = replaceInBucket(oldTable[hashCode % oldTable.length], element);
+        }
+        if (previous == null) {
+            add(element);
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the CourseDBElement with the given CRN. The table does not shrink.
+     *
+     * @param crn The CRN of the course to remove.
+     * @return The element removed, or null if the CRN was not in the hash table.
+     */
+    @Override
+    public CourseDBElement remove(int crn) {
+        int hashCode = getHashCode(crn);
+        CourseDBElement removed = removeFromBucket(hashTable[hashCode % tableSize], crn);
+        if (removed == null && oldTable != null) {
+            removed = removeFromBucket(oldTable[hashCode % oldTable.length], crn);
+        }
+        if (removed != null) {
+            size--;
         }
+        return removed;
     }
 
     /**
@@ -72,18 +150,32 @@ public class CourseDBStructure implements CourseDBStructureInterface {
      */
     @Override
     public CourseDBElement get(int crn) throws IOException {
-        // Calculate the hash code for the CRN, determine the index, and search for the element.
-        int hashCode = getHashCode(crn);
-        int index = hashCode % tableSize;
-        LinkedList<CourseDBElement> list = hashTable[index];
-        for (CourseDBElement element : list) {
-            if (element.getCRN() == crn) {
-                return element;
-            }
+        CourseDBElement element = find(crn);
+        if (element != null) {
+            return element;
         }
         throw new IOException("Course not found with CRN: " + crn);
     }
 
+    /**
+     * Finds a CourseDBElement based on the provided CRN without throwing on a miss.
+     *
+     * @param crn The CRN of the course to find.
+     * @return The CourseDBElement associated with the given CRN, or null if it is not in the hash table.
+     */
+    @Override
+    public CourseDBElement find(int crn) {
+        // Calculate the hash code for the CRN, determine the index, and search for the element.
+        CourseDBElement element = null;
+        if (mayHold(filter, crn)) {
+            element = findInBucket(hashTable[getHashCode(crn) % tableSize], crn);
+        }
+        if (element == null && oldTable != null && mayHold(oldFilter, crn)) {
+            element = findInBucket(oldTable[getHashCode(crn) % oldTable.length], crn);
+        }
+        return element;
+    }
+
     /**
      * Returns an ArrayList of string representations of all course elements in the hash table.
      *
@@ -91,17 +183,16 @@ public class CourseDBStructure implements CourseDBStructureInterface {
      */
     @Override
     public ArrayList<String> showAll() {
-        ArrayList<String> courseStrings = new ArrayList<>();
-        for (LinkedList<CourseDBElement> list : hashTable) {
-            for (CourseDBElement element : list) {
-                courseStrings.add(element.toString());
-            }
+        ArrayList<String> courseStrings = new ArrayList<>(size);
+        appendAll(hashTable, courseStrings);
+        if (oldTable != null) {
+            appendAll(oldTable, courseStrings);
         }
         return courseStrings;
     }
 
     /**
-     * Returns the size of the hash table.
+     * Returns the size of the hash table. While a rehash is in progress this is the size of the new table.
      *
      * @return The size of the hash table.
      */
@@ -111,13 +202,294 @@ public class CourseDBStructure implements CourseDBStructureInterface {
     }
 
     /**
-     * Calculates the hash code for a given CRN.
+     * Returns the number of courses stored in the hash table.
+     *
+     * @return The number of courses.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns an iterator over every course in the hash table, in bucket order.
+     *
+     * @return An iterator over the stored courses.
+     */
+    @Override
+    public Iterator<CourseDBElement> iterator() {
+        return new Iterator<CourseDBElement>() {
+            @SuppressWarnings("unchecked") // Generic arrays cannot be created, only cast to.
+            private final LinkedList<CourseDBElement>[][] tables = (LinkedList<CourseDBElement>[][])
+                    (oldTable == null ? new LinkedList<?>[][] {hashTable} : new LinkedList<?>[][] {hashTable, oldTable});
+            private int tableIndex;                      // The table being read.
+            private int bucketIndex;                     // The next bucket to read in that table.
+            private Iterator<CourseDBElement> bucket;    // The bucket being read, or null.
+
+            @Override
+            public boolean hasNext() {
+                while (bucket == null || !bucket.hasNext()) {
+                    if (tableIndex == tables.length) {
+                        return false;
+                    }
+                    LinkedList<CourseDBElement>[] table = tables[tableIndex];
+                    if (bucketIndex == table.length) {
+                        tableIndex++;
+                        bucketIndex = 0;
+                        continue;
+                    }
+                    LinkedList<CourseDBElement> list = table[bucketIndex++];
+                    bucket = list == null ? null : list.iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public CourseDBElement next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return bucket.next();
+            }
+        };
+    }
+
+    /**
+     * Returns a snapshot of the table's size, load factor, and longest chain. Finding the longest
+     * chain visits every bucket, so this is meant for monitoring rather than the lookup path.
+     *
+     * @return The current statistics for this hash table.
+     */
+    @Override
+    public CourseDBStructureStats getStats() {
+        int longestChain = longestChain(hashTable);
+        if (oldTable != null) {
+            longestChain = Math.max(longestChain, longestChain(oldTable));
+        }
+        return new CourseDBStructureStats(size, tableSize, longestChain, oldTable != null);
+    }
+
+    /**
+     * Turns the membership filters on or off. Turning them on builds a filter from the stored
+     * courses, which is also a way to drop removed CRNs from it without waiting for the table to grow.
+     *
+     * @param enabled Whether lookups check a membership filter before the buckets.
+     */
+    public void setMembershipFilterEnabled(boolean enabled) {
+        oldFilter = null;
+        filter = null;
+        if (enabled) {
+            CrnMembershipFilter rebuilt = newFilter();
+            for (CourseDBElement element : this) {
+                rebuilt.add(element.getCRN());
+            }
+            filter = rebuilt;
+            // The rebuilt filter covers both tables, so oldTable's lookups may use it too.
+            oldFilter = oldTable == null ? null : rebuilt;
+        }
+    }
+
+    /**
+     * Returns the membership filter of the live table.
+     *
+     * @return The filter, or null if filters are disabled.
+     */
+    public CrnMembershipFilter getMembershipFilter() {
+        return filter;
+    }
+
+    /**
+     * Tells whether a table whose filter is given may hold a CRN.
+     *
+     * @param tableFilter The table's filter, or null if filters are disabled.
+     * @param crn         The CRN to look for.
+     * @return False only if the table certainly does not hold the CRN.
+     */
+    private static boolean mayHold(CrnMembershipFilter tableFilter, int crn) {
+        return tableFilter == null || tableFilter.mightContain(crn);
+    }
+
+    /**
+     * Creates an empty filter sized for the courses the live table holds before it grows.
+     *
+     * @return The filter.
+     */
+    private CrnMembershipFilter newFilter() {
+        return new CrnMembershipFilter((int) Math.min(Integer.MAX_VALUE, (long) (tableSize * MAX_LOAD_FACTOR) + 1));
+    }
+
+    /**
+     * Searches one bucket for the course with the given CRN.
+     *
+     * @param list The bucket to search, which may be null if it was never used.
+     * @param crn  The CRN to look for.
+     * @return The matching course, or null if the bucket does not contain it.
+     */
+    private CourseDBElement findInBucket(LinkedList<CourseDBElement> list, int crn) {
+        if (list != null) {
+            for (CourseDBElement element : list) {
+                if (element.getCRN() == crn) {
+                    return element;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the course with the same CRN as element in one bucket.
+     *
+     * @param list    The bucket to search, which may be null if it was never used.
+     * @param element The replacement.
+     * @return The replaced course, or null if the bucket does not contain the CRN.
+     */
+    private CourseDBElement replaceInBucket(LinkedList<CourseDBElement> list, CourseDBElement element) {
+        if (list != null) {
+            ListIterator<CourseDBElement> iterator = list.listIterator();
+            while (iterator.hasNext()) {
+                CourseDBElement existing = iterator.next();
+                if (existing.getCRN() == element.getCRN()) {
+                    iterator.set(element);
+                    return existing;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the course with the given CRN from one bucket.
+     *
+     * @param list The bucket to search, which may be null if it was never used.
+     * @param crn  The CRN to remove.
+     * @return The removed course, or null if the bucket does not contain it.
+     */
+    private CourseDBElement removeFromBucket(LinkedList<CourseDBElement> list, int crn) {
+        if (list != null) {
+            Iterator<CourseDBElement> iterator = list.iterator();
+            while (iterator.hasNext()) {
+                CourseDBElement existing = iterator.next();
+                if (existing.getCRN() == crn) {
+                    iterator.remove();
+                    return existing;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the string form of every course in a table to the given list.
+     *
+     * @param table         The table to read.
+     * @param courseStrings The list to add to.
+     */
+    private void appendAll(LinkedList<CourseDBElement>[] table, ArrayList<String> courseStrings) {
+        for (LinkedList<CourseDBElement> list : table) {
+            if (list != null) {
+                for (CourseDBElement element : list) {
+                    courseStrings.add(element.toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the longest bucket in a table.
+     *
+     * @param table The table to inspect.
+     * @return The number of courses in the fullest bucket.
+     */
+    private int longestChain(LinkedList<CourseDBElement>[] table) {
+        int longest = 0;
+        for (LinkedList<CourseDBElement> list : table) {
+            if (list != null && list.size() > longest) {
+                longest = list.size();
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Begins growing the table. A table roughly twice as large becomes the live table and the
+     * current one is drained a few buckets at a time by later adds. If a previous rehash is
+     * still running it is finished first.
+     */
+    private void startRehash() {
+        while (oldTable != null) {
+            rehashStep();
+        }
+        oldTable = hashTable;
+        rehashIndex = 0;
+        tableSize = getNextPrime(tableSize * 2);
+        hashTable = newTable(tableSize);
+        if (filter != null) {
+            oldFilter = filter;
+            filter = newFilter();
+        }
+    }
+
+    /**
+     * Moves up to REHASH_STEP buckets from the old table into the live table. Empty buckets are
+     * skipped cheaply but still bounded, so one step never scans an unbounded run of the old table.
+     */
+    private void rehashStep() {
+        int migrated = 0;
+        int visited = 0;
+        while (rehashIndex < oldTable.length && migrated < REHASH_STEP && visited < REHASH_STEP * 10) {
+            LinkedList<CourseDBElement> list = oldTable[rehashIndex];
+            oldTable[rehashIndex++] = null;
+            visited++;
+            if (list != null) {
+                for (CourseDBElement element : list) {
+                    int index = getHashCode(element.getCRN()) % tableSize;
+                    if (hashTable[index] == null) {
+                        hashTable[index] = new LinkedList<>();
+                    }
+                    hashTable[index].add(element);
+                    if (filter != null) {
+                        filter.add(element.getCRN());
+                    }
+                }
+                migrated++;
+            }
+        }
+        if (rehashIndex == oldTable.length) {
+            oldTable = null; // Every bucket has been moved
+            oldFilter = null;
+        }
+    }
+
+    /**
+     * Returns the hash strategy used to place CRNs in this table.
+     *
+     * @return The hash strategy.
+     */
+    public CrnHashStrategy getHashStrategy() {
+        return hashStrategy;
+    }
+
+    /**
+     * Calculates the hash code for a given CRN. The sign bit is cleared so that the
+     * code can be reduced modulo the table size without producing a negative index.
      *
      * @param crn The CRN for which to calculate the hash code.
-     * @return The hash code for the CRN.
+     * @return The non-negative hash code for the CRN.
      */
     private int getHashCode(int crn) {
-        return Integer.toString(crn).hashCode();
+        return hashStrategy.hash(crn) & 0x7FFFFFFF;
+    }
+
+    /**
+     * Allocates an empty bucket array. Java cannot create an array of a generic type, so the
+     * wildcard array is cast once here.
+     *
+     * @param size The number of buckets.
+     * @return The bucket array.
+     */
+    @SuppressWarnings("unchecked")
+    private static LinkedList<CourseDBElement>[] newTable(int size) {
+        return (LinkedList<CourseDBElement>[]) new LinkedList<?>[size];
     }
 
     /**
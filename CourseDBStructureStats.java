@@ -0,0 +1,83 @@
+package Default;
+
+/**
+ * The CourseDBStructureStats class is an immutable snapshot of a hash table's occupancy:
+ * how many courses it holds, how many buckets it has, and how long its longest chain is.
+ */
+public class CourseDBStructureStats {
+    private final int size;          // The number of courses stored.
+    private final int tableSize;     // The number of buckets in the live table.
+    private final int longestChain;  // The number of courses in the fullest bucket or probe run.
+    private final boolean rehashing; // Whether an incremental rehash was in progress.
+
+    /**
+     * Constructs a CourseDBStructureStats snapshot.
+     *
+     * @param size         The number of courses stored.
+     * @param tableSize    The number of buckets in the live table.
+     * @param longestChain The number of courses in the fullest bucket or probe run.
+     * @param rehashing    Whether an incremental rehash was in progress.
+     */
+    public CourseDBStructureStats(int size, int tableSize, int longestChain, boolean rehashing) {
+        this.size = size;
+        this.tableSize = tableSize;
+        this.longestChain = longestChain;
+        this.rehashing = rehashing;
+    }
+
+    /**
+     * Gets the number of courses stored.
+     *
+     * @return The number of courses.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of buckets in the live table.
+     *
+     * @return The table size.
+     */
+    public int getTableSize() {
+        return tableSize;
+    }
+
+    /**
+     * Gets the load factor, which is the number of courses per bucket.
+     *
+     * @return The load factor.
+     */
+    public double getLoadFactor() {
+        return tableSize == 0 ? 0.0 : (double) size / tableSize;
+    }
+
+    /**
+     * Gets the number of courses in the fullest bucket or probe run.
+     *
+     * @return The longest chain length.
+     */
+    public int getLongestChain() {
+        return longestChain;
+    }
+
+    /**
+     * Tells whether an incremental rehash was in progress.
+     *
+     * @return True if the table was being rehashed, false otherwise.
+     */
+    public boolean isRehashing() {
+        return rehashing;
+    }
+
+    /**
+     * Returns a one-line summary of the statistics.
+     *
+     * @return The statistics as a string.
+     */
+    @Override
+    public String toString() {
+        return String.format("size=%d tableSize=%d loadFactor=%.3f longestChain=%d rehashing=%b",
+                size, tableSize, getLoadFactor(), longestChain, rehashing);
+    }
+}
@@ -0,0 +1,137 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This class contains JUnit tests for the CourseDBStructure class. It tests the testing constructor,
+ * incremental growth of the hash table, and the statistics it reports, and checks update and
+ * remove on every structure type against a HashMap.
+ */
+public class CourseDBStructureTest {
+
+    /**
+     * Test that the testing constructor uses the exact table size it is given.
+     */
+    @Test
+    public void testTestingConstructor() {
+        CourseDBStructure structure = new CourseDBStructure("Testing", 20);
+        assertEquals(20, structure.getTableSize());
+        structure.add(new CourseDBElement("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts"));
+        assertEquals(20, structure.getTableSize());
+    }
+
+    /**
+     * Test that the table grows past its estimate and that every course stays reachable
+     * while buckets are being migrated.
+     */
+    @Test
+    public void testIncrementalGrowth() throws IOException {
+        CourseDBStructure structure = new CourseDBStructure(10);
+        int initialSize = structure.getTableSize();
+        for (int crn = 20000; crn < 25000; crn++) {
+            structure.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey Bag-O-Donuts"));
+            assertEquals(crn, structure.get(crn).getCRN());
+            assertEquals(20000, structure.get(20000).getCRN());
+        }
+        structure.add(new CourseDBElement("DUPLICATE", 20000, 1, "X", "Y"));
+
+        assertEquals(5000, structure.size());
+        assertEquals(5000, structure.showAll().size());
+        assertEquals("CMSC204", structure.get(20000).getID());
+        assertTrue(structure.getTableSize() > initialSize);
+        for (int crn = 20000; crn < 25000; crn++) {
+            assertEquals(crn, structure.get(crn).getCRN());
+        }
+    }
+
+    /**
+     * Test that the statistics report the live table size and a load factor within the growth limit.
+     */
+    @Test
+    public void testStats() {
+        CourseDBStructure structure = new CourseDBStructure(50);
+        for (int crn = 1; crn <= 1000; crn++) {
+            structure.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey Bag-O-Donuts"));
+        }
+        CourseDBStructureStats stats = structure.getStats();
+        assertEquals(1000, stats.getSize());
+        assertEquals(structure.getTableSize(), stats.getTableSize());
+        assertTrue(stats.getLoadFactor() <= 1.0);
+        assertTrue(stats.getLongestChain() >= 1);
+    }
+
+    /**
+     * Test that random adds, updates, and removals leave every structure type, and a mapped
+     * snapshot, holding exactly what a HashMap holds.
+     */
+    @Test
+    public void testEveryTypeUpdatesAndRemoves() throws IOException {
+        List<CourseDBStoreInterface> structures = new ArrayList<>();
+        for (CourseDBStructureType type : CourseDBStructureType.values()) {
+            structures.add(type.create(16));
+        }
+        CourseDBStructure seed = new CourseDBStructure(100);
+        for (int crn = 0; crn < 400; crn += 2) {
+            seed.add(new CourseDBElement("SEED", crn, 1, "R0", "Seed"));
+        }
+        Path snapshot = Files.createTempFile("coursedb-structure", ".snapshot");
+        snapshot.toFile().deleteOnExit();
+        CourseDBSnapshot.write(seed, snapshot);
+        structures.add(CourseDBSnapshot.open(snapshot));
+
+        for (CourseDBStoreInterface structure : structures) {
+            Map<Integer, CourseDBElement> expected = new HashMap<>();
+            for (CourseDBElement course : structure) {
+                expected.put(course.getCRN(), course);
+            }
+            Random random = new Random(204);
+            for (int i = 0; i < 6000; i++) {
+                int crn = random.nextInt(400);
+                CourseDBElement course = new CourseDBElement("CMSC" + i, crn, i % 5, "R" + (i % 7), "Instructor " + i);
+                String name = structure.getClass().getSimpleName();
+                switch (random.nextInt(3)) {
+                    case 0:
+                        structure.add(course);
+                        expected.putIfAbsent(crn, course);
+                        break;
+                    case 1:
+                        CourseDBElement replaced = structure.update(course);
+                        CourseDBElement previous = expected.put(crn, course);
+                        assertEquals(previous == null ? null : previous.getID(),
+                                replaced == null ? null : replaced.getID(), name);
+                        break;
+                    default:
+                        CourseDBElement removed = structure.remove(crn);
+                        previous = expected.remove(crn);
+                        assertEquals(previous == null ? null : previous.getID(),
+                                removed == null ? null : removed.getID(), name);
+                        break;
+                }
+            }
+            String name = structure.getClass().getSimpleName();
+            assertEquals(expected.size(), structure.size(), name);
+            for (int crn = 0; crn < 400; crn++) {
+                CourseDBElement found = structure.find(crn);
+                CourseDBElement course = expected.get(crn);
+                assertEquals(course == null ? null : course.getInstructorName(),
+                        found == null ? null : found.getInstructorName(), name + " CRN " + crn);
+            }
+            int iterated = 0;
+            for (CourseDBElement course : structure) {
+                assertEquals(expected.get(course.getCRN()).getID(), course.getID(), name);
+                iterated++;
+            }
+            assertEquals(expected.size(), iterated, name);
+        }
+    }
+}
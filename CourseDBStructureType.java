@@ -0,0 +1,95 @@
+package Default;
+
+import java.util.Locale;
+
+/**
+ * The CourseDBStructureType enum lists the CourseDBStoreInterface implementations that a
+ * CourseDBManager can be configured to use. The choice is read from the "coursedb.structure"
+ * system property, for example -Dcoursedb.structure=open_addressing.
+ */
+public enum CourseDBStructureType {
+    /** Separate chaining with a LinkedList per bucket (the original CourseDBStructure). */
+    CHAINED {
+        @Override
+        public CourseDBStoreInterface create(int estimatedNumCourses) {
+            return new CourseDBStructure(estimatedNumCourses);
+        }
+    },
+
+    /** Open addressing over a primitive CRN array (OpenAddressingCourseDBStructure). */
+    OPEN_ADDRESSING {
+        @Override
+        public CourseDBStoreInterface create(int estimatedNumCourses) {
+            return new OpenAddressingCourseDBStructure(estimatedNumCourses);
+        }
+    },
+
+    /** Thread-safe chaining with lock-free reads and striped write locks (ConcurrentCourseDBStructure). */
+    CONCURRENT {
+        @Override
+        public CourseDBStoreInterface create(int estimatedNumCourses) {
+            return new ConcurrentCourseDBStructure(estimatedNumCourses);
+        }
+    },
+
+    /** Primitive columns with dictionary-encoded strings (ColumnarCourseDBStructure). */
+    COLUMNAR {
+        @Override
+        public CourseDBStoreInterface create(int estimatedNumCourses) {
+            return new ColumnarCourseDBStructure(estimatedNumCourses);
+        }
+    },
+
+    /** Fixed-size slots and a string arena in direct memory (OffHeapCourseDBStructure). */
+    OFF_HEAP {
+        @Override
+        public CourseDBStoreInterface create(int estimatedNumCourses) {
+            return new OffHeapCourseDBStructure(estimatedNumCourses);
+        }
+    },
+
+    /** A persistent trie publishing immutable versions, for lock-free consistent scans (PersistentCourseDBStructure). */
+    PERSISTENT {
+        @Override
+        public CourseDBStoreInterface create(int estimatedNumCourses) {
+            return new PersistentCourseDBStructure();
+        }
+    },
+
+    /** Consistent-hash partitions of locked CourseDBStructure shards, SHARDS_PROPERTY of them (ShardedCourseDBStructure). */
+    SHARDED {
+        @Override
+        public CourseDBStoreInterface create(int estimatedNumCourses) {
+            return new ShardedCourseDBStructure(Integer.getInteger(SHARDS_PROPERTY,
+                    Runtime.getRuntime().availableProcessors()), estimatedNumCourses);
+        }
+    };
+
+    /** The system property used to choose a structure type. */
+    public static final String PROPERTY = "coursedb.structure";
+
+    /** The system property giving the shard count of SHARDED, which defaults to the number of cores. */
+    public static final String SHARDS_PROPERTY = "coursedb.shards";
+
+    /**
+     * Creates an empty structure of this type.
+     *
+     * @param estimatedNumCourses The estimated number of courses used to size the structure.
+     * @return A new, empty structure.
+     */
+    public abstract CourseDBStoreInterface create(int estimatedNumCourses);
+
+    /**
+     * Returns the structure type named by the "coursedb.structure" system property, or CHAINED if it is not set.
+     *
+     * @return The configured structure type.
+     * @throws IllegalArgumentException If the property names an unknown structure type.
+     */
+    public static CourseDBStructureType fromSystemProperty() {
+        String name = System.getProperty(PROPERTY);
+        if (name == null || name.isBlank()) {
+            return CHAINED;
+        }
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
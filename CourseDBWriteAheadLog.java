@@ -0,0 +1,591 @@
+package Default;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * The CourseDBWriteAheadLog class is an append-only log of course adds and change batches that
+ * makes them survive a crash. append returns only once its record is forced to disk, but appends are group-committed:
+ * a background thread writes and forces every pending record together, so concurrent writers
+ * share one fsync instead of queueing for their own. Records appended while a force is in progress
+ * form the next group, so groups grow with the load on their own; an optional flush interval makes
+ * the flusher also wait for more records, up to a byte threshold, before each force.
+ *
+ * <p>Layout (all integers big-endian):</p>
+ * <pre>
+ *   header   magic "CDBW", version
+ *   record   payload length, CRC32 of the payload (int), payload:
+ *            type (byte, 1 = add), course
+ *         or type (byte, 2 = changes), upsert count, courses, removal count, removed CRNs
+ *   course   CRN, credits, course ID, room, instructor;
+ *            each string is a byte length (-1 for null) followed by UTF-8 bytes
+ * </pre>
+ * A crash can leave a torn record at the end of the file. Opening the log replays every complete
+ * record, then truncates the file after the last one, so new records always follow valid data.
+ * Only a bad length or CRC marks a torn write; a record whose CRC matches but that cannot be
+ * decoded, or whose type is unknown, fails the open and leaves the file as it is.
+ * A change batch is one record, so a crash keeps all of it or none of it. Version 1 logs hold only
+ * adds; opening one rewrites its header as version 2.
+ */
+public class CourseDBWriteAheadLog implements AutoCloseable {
+    static final int MAGIC = 0x43444257;    // "CDBW"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 8;
+    static final byte ADD = 1;              // Record type of an added course.
+    static final byte CHANGES = 2;          // Record type of a batch of upserts and removals.
+    private static final int RECORD_HEADER_BYTES = 8; // Payload length and CRC32.
+
+    /** The default time a flush waits to gather more records: none, since groups form during each force. */
+    public static final long DEFAULT_FLUSH_INTERVAL_MICROS = 0;
+    /** The default number of pending bytes that triggers a flush without waiting. */
+    public static final int DEFAULT_FLUSH_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final long flushIntervalNanos;   // How long a flush waits for more records.
+    private final int flushBytes;            // Pending bytes that cut the wait short.
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingChanged = lock.newCondition(); // Signalled when records arrive or on close.
+    private final Condition durable = lock.newCondition();        // Signalled after every flush.
+    private final Thread flusher;
+
+    private ByteBuffer pending = ByteBuffer.allocate(1 << 16); // Records not yet written, guarded by lock.
+    private ByteBuffer spare = ByteBuffer.allocate(1 << 16);   // Swapped with pending by the flusher.
+    private long appendedSequence; // Number of appends made since the log was opened, guarded by lock.
+    private long durableSequence;  // Number of those appends forced to disk, guarded by lock.
+    private long logBytes;         // The size of the log file including pending records, guarded by lock.
+    private IOException failure;   // The error that stopped the flusher, or null.
+    private boolean closed;
+
+    /**
+     * Receives the records of a log as it is opened. Adds-only callers can pass a lambda or a
+     * method reference for add; a log holding change batches needs applyChanges as well.
+     */
+    @FunctionalInterface
+    public interface Replay {
+        /**
+         * Applies a logged add.
+         *
+         * @param course The course added.
+         */
+        void add(CourseDBElement course);
+
+        /**
+         * Applies a logged change batch. By default the batch is refused, since treating it as adds
+         * would bring back removed courses.
+         *
+         * @param upserts  The courses stored, replacing any with the same CRN.
+         * @param removals The CRNs removed.
+         * @throws IOException If this receiver cannot apply change batches.
+         */
+        default void applyChanges(List<CourseDBElement> upserts, int[] removals) throws IOException {
+            throw new IOException("Write-ahead log holds changes this replay cannot apply");
+        }
+    }
+
+    /**
+     * Opens a log with the default flush interval and threshold, replaying its records first.
+     *
+     * @param path   The log file, created if it does not exist.
+     * @param replay Receives every record in the log, in append order.
+     * @return The open log, positioned after the last complete record.
+     * @throws IOException If the file cannot be opened, is not a course log, or holds a record
+     *                     that matches its CRC but cannot be decoded.
+     */
+    public static CourseDBWriteAheadLog open(Path path, Replay replay) throws IOException {
+        return open(path, replay, DEFAULT_FLUSH_INTERVAL_MICROS, DEFAULT_FLUSH_BYTES);
+    }
+
+    /**
+     * Opens a log, replaying its records first.
+     *
+     * @param path                The log file, created if it does not exist.
+     * @param replay              Receives every record in the log, in append order.
+     * @param flushIntervalMicros How long a flush waits to gather more records; 0 flushes at once.
+     * @param flushBytes          Pending bytes that start a flush without waiting out the interval.
+     * @return The open log, positioned after the last complete record.
+     * @throws IOException If the file cannot be opened, is not a course log, or holds a record
+     *                     that matches its CRC but cannot be decoded.
+     */
+    public static CourseDBWriteAheadLog open(Path path, Replay replay, long flushIntervalMicros,
+                                             int flushBytes) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long end = replay(channel, replay);
+            channel.truncate(end);
+            channel.position(end);
+            return new CourseDBWriteAheadLog(channel, end, TimeUnit.MICROSECONDS.toNanos(flushIntervalMicros), flushBytes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private CourseDBWriteAheadLog(FileChannel channel, long logBytes, long flushIntervalNanos, int flushBytes) {
+        this.channel = channel;
+        this.logBytes = logBytes;
+        this.flushIntervalNanos = flushIntervalNanos;
+        this.flushBytes = flushBytes;
+        flusher = new Thread(this::runFlusher, "CourseDBWriteAheadLog flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Appends one course and waits until it is on disk.
+     *
+     * @param course The course to log.
+     * @return The sequence number of the append (see appendAll).
+     * @throws IOException If the log has failed or is closed.
+     */
+    public long append(CourseDBElement course) throws IOException {
+        return appendAll(Collections.singletonList(course));
+    }
+
+    /**
+     * Appends a batch of courses and waits until all of them are on disk. A crash may keep any
+     * prefix of the batch, which is harmless because adding a course twice keeps the first.
+     *
+     * <p>Appends are numbered 1, 2, 3, and so on from when the log is opened, in the order they are
+     * written to the file, which is the order replay applies them in. Callers applying appends in
+     * memory concurrently must apply them in this order too, or recovery may not match memory.</p>
+     *
+     * @param courses The courses to log.
+     * @return The sequence number of the append, or 0 if the batch was empty and nothing was logged.
+     * @throws IOException If the log has failed or is closed.
+     */
+    public long appendAll(Collection<? extends CourseDBElement> courses) throws IOException {
+        if (courses.isEmpty()) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            checkUsable();
+            int before = pending.position();
+            for (CourseDBElement course : courses) {
+                encode(course);
+            }
+            logBytes += pending.position() - before;
+            long sequence = ++appendedSequence;
+            pendingChanged.signal();
+            awaitDurable(sequence);
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a batch of upserts and removals as one record and waits until it is on disk. Replay
+     * applies all of the batch or, if the record was torn by a crash, none of it.
+     *
+     * @param upserts  The courses stored, replacing any with the same CRN.
+     * @param removals The CRNs removed.
+     * @return The sequence number of the append (see appendAll), or 0 if the batch was empty.
+     * @throws IOException If the log has failed or is closed.
+     */
+    public long appendChanges(Collection<? extends CourseDBElement> upserts, int[] removals) throws IOException {
+        if (upserts.isEmpty() && removals.length == 0) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            checkUsable();
+            int before = pending.position();
+            encodeChanges(upserts, removals);
+            logBytes += pending.position() - before;
+            long sequence = ++appendedSequence;
+            pendingChanged.signal();
+            awaitDurable(sequence);
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the size of the log, including records that are still being flushed.
+     *
+     * @return The size in bytes.
+     */
+    public long size() {
+        lock.lock();
+        try {
+            return logBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Empties the log after its courses have been saved elsewhere, such as in a snapshot. The
+     * caller must make sure no append runs concurrently, or the appended course may be lost.
+     *
+     * @throws IOException If the log cannot be truncated.
+     */
+    public void truncate() throws IOException {
+        lock.lock();
+        try {
+            checkUsable();
+            awaitDurable(appendedSequence); // Let any in-flight flush finish before cutting the file.
+            channel.truncate(HEADER_BYTES);
+            channel.position(HEADER_BYTES);
+            channel.force(true);
+            logBytes = HEADER_BYTES;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes any pending records, stops the flusher, and closes the file.
+     *
+     * @throws IOException If the final flush or the close fails.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pendingChanged.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Throws if the log can no longer make appends durable. Must be called with the lock held.
+     */
+    private void checkUsable() throws IOException {
+        if (failure != null) {
+            throw new IOException("Write-ahead log failed", failure);
+        }
+        if (closed) {
+            throw new IOException("Write-ahead log is closed");
+        }
+    }
+
+    /**
+     * Waits until the given number of appends is on disk. A close still flushes every pending
+     * record, so only a failed flush ends the wait early. Must be called with the lock held.
+     */
+    private void awaitDurable(long sequence) throws IOException {
+        while (durableSequence < sequence) {
+            if (failure != null) {
+                throw new IOException("Write-ahead log failed", failure);
+            }
+            durable.awaitUninterruptibly();
+        }
+    }
+
+    /**
+     * Waits for records, gives other writers the flush interval to join the group, then writes
+     * and forces the whole group at once.
+     */
+    private void runFlusher() {
+        while (true) {
+            ByteBuffer group;
+            long sequence;
+            lock.lock();
+            try {
+                while (pending.position() == 0 && !closed) {
+                    pendingChanged.awaitUninterruptibly();
+                }
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                long remaining;
+                while (!closed && pending.position() < flushBytes && (remaining = deadline - System.nanoTime()) > 0) {
+                    try {
+                        pendingChanged.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                if (pending.position() == 0) {
+                    return; // Closed with nothing left to write.
+                }
+                group = pending;
+                pending = spare;
+                spare = group;
+                sequence = appendedSequence;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                group.flip();
+                while (group.hasRemaining()) {
+                    channel.write(group);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                error = e;
+            }
+            group.clear();
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durableSequence = sequence;
+                }
+                durable.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Encodes one add record into the pending buffer. Must be called with the lock held.
+     */
+    private void encode(CourseDBElement course) {
+        byte[][] strings = strings(course);
+        int payload = 1 + courseLength(strings);
+        ensurePending(RECORD_HEADER_BYTES + payload);
+
+        int start = pending.position();
+        pending.position(start + RECORD_HEADER_BYTES);
+        pending.put(ADD);
+        putCourse(pending, course, strings);
+        seal(start, payload);
+    }
+
+    /**
+     * Encodes one change batch record into the pending buffer. Must be called with the lock held.
+     */
+    private void encodeChanges(Collection<? extends CourseDBElement> upserts, int[] removals) {
+        List<byte[][]> strings = new ArrayList<>(upserts.size());
+        int payload = 1 + 4 + 4 + 4 * removals.length;
+        for (CourseDBElement course : upserts) {
+            byte[][] fields = strings(course);
+            strings.add(fields);
+            payload += courseLength(fields);
+        }
+        ensurePending(RECORD_HEADER_BYTES + payload);
+
+        int start = pending.position();
+        pending.position(start + RECORD_HEADER_BYTES);
+        pending.put(CHANGES).putInt(upserts.size());
+        int i = 0;
+        for (CourseDBElement course : upserts) {
+            putCourse(pending, course, strings.get(i++));
+        }
+        pending.putInt(removals.length);
+        for (int crn : removals) {
+            pending.putInt(crn);
+        }
+        seal(start, payload);
+    }
+
+    /**
+     * Writes the length and CRC32 of the record whose payload was just encoded at start.
+     */
+    private void seal(int start, int payload) {
+        CRC32 crc = new CRC32();
+        crc.update(pending.array(), start + RECORD_HEADER_BYTES, payload);
+        pending.putInt(start, payload).putInt(start + 4, (int) crc.getValue());
+    }
+
+    /**
+     * Grows the pending buffer so that it can take the given number of extra bytes.
+     */
+    private void ensurePending(int extra) {
+        if (pending.remaining() < extra) {
+            int capacity = pending.capacity();
+            while (capacity - pending.position() < extra) {
+                capacity <<= 1;
+            }
+            ByteBuffer larger = ByteBuffer.allocate(capacity);
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+    }
+
+    /**
+     * Reads every complete record of a log file, writing the header first if the file is new.
+     *
+     * @return The position just after the last complete record.
+     */
+    private static long replay(FileChannel channel, Replay replay) throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            channel.truncate(0);
+            channel.write(header, 0);
+            channel.force(true);
+            return HEADER_BYTES;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, 0);
+        if (header.getInt(0) != MAGIC || (header.getInt(4) != 1 && header.getInt(4) != VERSION)) {
+            throw new IOException("Not a course write-ahead log");
+        }
+        if (header.getInt(4) != VERSION) {
+            // Change records follow: stop older readers from skipping them as unknown types.
+            channel.write(ByteBuffer.allocate(4).putInt(0, VERSION), 4);
+            channel.force(true);
+        }
+
+        long position = HEADER_BYTES;
+        long size = channel.size();
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        while (position + RECORD_HEADER_BYTES <= size) {
+            recordHeader.clear();
+            readFully(channel, recordHeader, position);
+            int payload = recordHeader.getInt(0);
+            if (payload <= 0 || position + RECORD_HEADER_BYTES + payload > size) {
+                break; // Torn or garbage length: the log ends here.
+            }
+            ByteBuffer record = ByteBuffer.allocate(payload);
+            readFully(channel, record, position + RECORD_HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(record.array());
+            if ((int) crc.getValue() != recordHeader.getInt(4)) {
+                break; // Torn write: the log ends here.
+            }
+            record.flip();
+            try {
+                replayRecord(record, replay);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                // The CRC matched, so this is not a torn write; dropping it would drop every later record too.
+                throw new IOException("Corrupt write-ahead log record at offset " + position + ": " + e, e);
+            }
+            position += RECORD_HEADER_BYTES + payload;
+        }
+        return position;
+    }
+
+    /**
+     * Decodes one record whose CRC matched and passes it to a replay.
+     *
+     * @param record The record payload, positioned at its type.
+     * @param replay Receives the record.
+     * @throws IOException If the record type is unknown or the replay refuses it.
+     * @throws BufferUnderflowException If the payload ends before the record does.
+     * @throws IllegalArgumentException If a count or string length runs past the payload.
+     */
+    private static void replayRecord(ByteBuffer record, Replay replay) throws IOException {
+        byte type = record.get();
+        if (type == ADD) {
+            replay.add(getCourse(record));
+        } else if (type == CHANGES) {
+            int count = record.getInt();
+            if (count < 0 || count > record.remaining()) {
+                throw new IllegalArgumentException("Bad upsert count " + count);
+            }
+            List<CourseDBElement> upserts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                upserts.add(getCourse(record));
+            }
+            int removed = record.getInt();
+            if (removed < 0 || removed > record.remaining() / 4) {
+                throw new IllegalArgumentException("Bad removal count " + removed);
+            }
+            int[] removals = new int[removed];
+            for (int i = 0; i < removals.length; i++) {
+                removals[i] = record.getInt();
+            }
+            replay.applyChanges(upserts, removals);
+        } else {
+            throw new IOException("Unknown write-ahead log record type " + type);
+        }
+    }
+
+    /**
+     * Reads the strings of a course's fields as UTF-8 bytes, or null for null fields.
+     */
+    private static byte[][] strings(CourseDBElement course) {
+        return new byte[][] {bytes(course.getID()), bytes(course.getRoomNum()), bytes(course.getInstructorName())};
+    }
+
+    private static int courseLength(byte[][] strings) {
+        return 4 + 4 + length(strings[0]) + length(strings[1]) + length(strings[2]);
+    }
+
+    private static void putCourse(ByteBuffer buffer, CourseDBElement course, byte[][] strings) {
+        buffer.putInt(course.getCRN()).putInt(course.getCredits());
+        putString(buffer, strings[0]);
+        putString(buffer, strings[1]);
+        putString(buffer, strings[2]);
+    }
+
+    /**
+     * Decodes one course from a record payload.
+     */
+    private static CourseDBElement getCourse(ByteBuffer record) {
+        int crn = record.getInt();
+        int credits = record.getInt();
+        String id = getString(record);
+        String room = getString(record);
+        String instructor = getString(record);
+        return new CourseDBElement(id, crn, credits, room, instructor);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of write-ahead log");
+            }
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] string) {
+        return 4 + (string == null ? 0 : string.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] string) {
+        if (string == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(string.length).put(string);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("String runs past the record");
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
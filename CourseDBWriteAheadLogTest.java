@@ -0,0 +1,323 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * This class contains JUnit tests for CourseDBWriteAheadLog and durable CourseDBManagers. It tests
+ * that logged courses are replayed, that a torn tail is dropped but a corrupt record fails the
+ * open, that concurrent appends are all kept, that change batches are replayed whole, and that
+ * compaction moves the log into a snapshot without losing changes.
+ */
+public class CourseDBWriteAheadLogTest {
+
+    /**
+     * Creates a fresh temporary directory that is deleted when the JVM exits.
+     */
+    private static Path tempDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("coursedb-wal");
+        directory.toFile().deleteOnExit();
+        return directory;
+    }
+
+    /**
+     * Opens a log and returns every course it replays.
+     */
+    private static List<CourseDBElement> replay(Path path) throws IOException {
+        List<CourseDBElement> courses = new ArrayList<>();
+        CourseDBWriteAheadLog.open(path, courses::add).close();
+        return courses;
+    }
+
+    /**
+     * Test that appended courses, including null fields, are replayed in order, and that a torn
+     * record at the end is dropped and overwritten by the next append.
+     */
+    @Test
+    public void testReplayAndTornTail() throws IOException {
+        Path path = tempDirectory().resolve("courses.wal");
+        try (CourseDBWriteAheadLog log = CourseDBWriteAheadLog.open(path, course -> fail("Log should be empty"), 0, 1)) {
+            log.append(new CourseDBElement("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts"));
+            log.append(new CourseDBElement("CMSC203", 30503, 3, null, "Jane Doe"));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(file.length());
+            file.writeInt(200); // The length of a record whose payload never made it to disk.
+            file.writeInt(0);
+            file.write(new byte[] {1, 2, 3});
+        }
+
+        List<CourseDBElement> courses = replay(path);
+        assertEquals(2, courses.size());
+        assertEquals("Joey Bag-O-Donuts", courses.get(0).getInstructorName());
+        assertNull(courses.get(1).getRoomNum());
+
+        try (CourseDBWriteAheadLog log = CourseDBWriteAheadLog.open(path, course -> { })) {
+            log.append(new CourseDBElement("CMSC140", 20000, 3, "HT100", "Al Gore"));
+        }
+        courses = replay(path);
+        assertEquals(3, courses.size());
+        assertEquals(20000, courses.get(2).getCRN());
+    }
+
+    /**
+     * Test that a record whose CRC matches but whose contents cannot be decoded, or whose type is
+     * unknown, fails the open without truncating the records after it.
+     */
+    @Test
+    public void testCorruptRecordFailsOpen() throws IOException {
+        for (byte[] payload : new byte[][] {{9, 0, 0}, {CourseDBWriteAheadLog.CHANGES, 0x7f, 0, 0, 0}}) {
+            Path path = tempDirectory().resolve("courses.wal");
+            try (CourseDBWriteAheadLog log = CourseDBWriteAheadLog.open(path, course -> { })) {
+                log.append(new CourseDBElement("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts"));
+                log.append(new CourseDBElement("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts"));
+            }
+            // Put the corrupt record between the two identical valid ones.
+            byte[] valid = Files.readAllBytes(path);
+            int recordBytes = (valid.length - CourseDBWriteAheadLog.HEADER_BYTES) / 2;
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                file.seek(valid.length - recordBytes);
+                file.writeInt(payload.length);
+                file.writeInt((int) crc.getValue());
+                file.write(payload);
+                file.write(valid, valid.length - recordBytes, recordBytes);
+            }
+            long length = path.toFile().length();
+            assertThrows(IOException.class, () -> replay(path));
+            assertEquals(length, path.toFile().length());
+        }
+    }
+
+    /**
+     * Test that every append from many concurrent writers is on disk once the appends return.
+     */
+    @Test
+    public void testConcurrentAppends() throws Exception {
+        Path path = tempDirectory().resolve("courses.wal");
+        int writers = 8;
+        int perWriter = 200;
+        try (CourseDBWriteAheadLog log = CourseDBWriteAheadLog.open(path, course -> { }, 1000, 1 << 20)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                final int writer = w;
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < perWriter; i++) {
+                        try {
+                            log.append(new CourseDBElement("CMSC204", writer * perWriter + i, 4, "SC450", "Writer " + writer));
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        boolean[] seen = new boolean[writers * perWriter];
+        for (CourseDBElement course : replay(path)) {
+            seen[course.getCRN()] = true;
+        }
+        for (boolean crnSeen : seen) {
+            assertTrue(crnSeen);
+        }
+    }
+
+    /**
+     * Test that a durable manager recovers its adds, and that compaction empties the log into a
+     * snapshot that the next recovery starts from.
+     */
+    @Test
+    public void testDurableManagerRecoversAndCompacts() throws IOException {
+        Path directory = tempDirectory();
+        File snapshot = directory.resolve("courses.snapshot").toFile();
+        File logFile = directory.resolve("courses.wal").toFile();
+        snapshot.deleteOnExit();
+        logFile.deleteOnExit();
+
+        CourseDBManager manager = CourseDBManager.openDurable(snapshot, logFile);
+        manager.add("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts");
+        manager.addAll(new String[] {"CMSC203", "CMSC140"}, new int[] {30503, 20000}, new int[] {3, 3},
+                new String[] {"SC451", "HT100"}, new String[] {"Jane Doe", "Al Gore"});
+        manager.closeLog();
+
+        manager = CourseDBManager.openDurable(snapshot, logFile);
+        assertEquals("Jane Doe", manager.get(30503).getInstructorName());
+        assertEquals(3, manager.compact());
+        assertTrue(snapshot.exists());
+        assertEquals(CourseDBWriteAheadLog.HEADER_BYTES, logFile.length());
+        manager.add("MATH202", 54321, 4, "456", "Jane Smith");
+        manager.closeLog();
+
+        manager = CourseDBManager.openDurable(snapshot, logFile);
+        assertEquals("Joey Bag-O-Donuts", manager.get(30504).getInstructorName());
+        assertEquals("Jane Smith", manager.get(54321).getInstructorName());
+        assertEquals(4, manager.showAll().size());
+        manager.closeLog();
+    }
+
+    /**
+     * Test that a compacted manager reopens on the structure type it was configured with, rather
+     * than on the mapped snapshot, so a thread-safe type stays thread-safe across restarts.
+     */
+    @Test
+    public void testReopenKeepsStructureType() throws IOException {
+        Path directory = tempDirectory();
+        File snapshot = directory.resolve("courses.snapshot").toFile();
+        File logFile = directory.resolve("courses.wal").toFile();
+        snapshot.deleteOnExit();
+        logFile.deleteOnExit();
+
+        CourseDBManager manager = CourseDBManager.openDurable(snapshot, logFile, 64L << 20,
+                CourseDBStructureType.CONCURRENT);
+        manager.add("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts");
+        manager.add("CMSC203", 30503, 3, "SC451", "Jane Doe");
+        manager.compact();
+        assertTrue(manager.getStructure() instanceof ConcurrentCourseDBStructure);
+        manager.remove(30503);
+        manager.closeLog();
+
+        manager = CourseDBManager.openDurable(snapshot, logFile, 64L << 20, CourseDBStructureType.CONCURRENT);
+        assertTrue(manager.getStructure() instanceof ConcurrentCourseDBStructure);
+        assertTrue(manager.isThreadSafe());
+        assertEquals("Joey Bag-O-Donuts", manager.get(30504).getInstructorName());
+        assertNull(manager.get(30503));
+        assertEquals(1, manager.showAll().size());
+        manager.closeLog();
+
+        manager = CourseDBManager.openDurable(snapshot, logFile, 64L << 20, CourseDBStructureType.SHARDED);
+        assertTrue(manager.getStructure() instanceof ShardedCourseDBStructure);
+        assertEquals(1, manager.showAll().size());
+        manager.closeLog();
+    }
+
+    /**
+     * Test that a log past the compaction threshold is compacted automatically.
+     */
+    @Test
+    public void testAutomaticCompaction() throws IOException {
+        Path directory = tempDirectory();
+        File snapshot = directory.resolve("courses.snapshot").toFile();
+        File logFile = directory.resolve("courses.wal").toFile();
+        snapshot.deleteOnExit();
+        logFile.deleteOnExit();
+
+        CourseDBManager manager = CourseDBManager.openDurable(snapshot, logFile, 4096);
+        for (int crn = 0; crn < 500; crn++) {
+            List<CourseDBElement> batch = new ArrayList<>();
+            batch.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey Bag-O-Donuts"));
+            manager.addAll(batch);
+        }
+        manager.closeLog();
+        assertTrue(snapshot.exists());
+        assertTrue(logFile.length() <= 4096);
+
+        manager = CourseDBManager.openDurable(snapshot, logFile, 4096);
+        assertEquals(500, manager.showAll().size());
+        manager.closeLog();
+    }
+
+    /**
+     * Test that updates, removals, and change batches are recovered, over a snapshot too, that an
+     * adds-only replay refuses a log holding changes, and that a version 1 log is upgraded.
+     */
+    @Test
+    public void testDurableChangesRecover() throws IOException {
+        Path directory = tempDirectory();
+        File snapshot = directory.resolve("courses.snapshot").toFile();
+        File logFile = directory.resolve("courses.wal").toFile();
+        snapshot.deleteOnExit();
+        logFile.deleteOnExit();
+
+        CourseDBManager manager = CourseDBManager.openDurable(snapshot, logFile);
+        manager.add("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts");
+        manager.add("CMSC203", 30503, 3, "SC451", "Jane Doe");
+        manager.compact();
+        manager.add("CMSC140", 20000, 3, "HT100", "Al Gore");
+        assertEquals("Joey Bag-O-Donuts", manager.update("CMSC204", 30504, 4, "SC452", "Joey").getInstructorName());
+        assertEquals("Al Gore", manager.remove(20000).getInstructorName());
+        List<CourseDBElement> upserts = new ArrayList<>();
+        upserts.add(new CourseDBElement("MATH202", 54321, 4, "456", "Jane Smith"));
+        manager.applyChanges(upserts, new int[] {30503});
+        assertThrows(IllegalArgumentException.class, () -> manager.applyChanges(upserts, new int[] {54321}));
+        manager.closeLog();
+
+        assertThrows(IOException.class, () -> CourseDBWriteAheadLog.open(logFile.toPath(), course -> { }).close());
+
+        CourseDBManager recovered = CourseDBManager.openDurable(snapshot, logFile);
+        assertEquals("SC452", recovered.get(30504).getRoomNum());
+        assertNull(recovered.get(20000));
+        assertNull(recovered.get(30503));
+        assertEquals("Jane Smith", recovered.get(54321).getInstructorName());
+        assertEquals(2, recovered.showAll().size());
+        recovered.closeLog();
+
+        Path oldLog = directory.resolve("old.wal");
+        oldLog.toFile().deleteOnExit();
+        try (RandomAccessFile file = new RandomAccessFile(oldLog.toFile(), "rw")) {
+            file.writeInt(CourseDBWriteAheadLog.MAGIC);
+            file.writeInt(1);
+        }
+        CourseDBWriteAheadLog.open(oldLog, course -> { }).close();
+        try (RandomAccessFile file = new RandomAccessFile(oldLog.toFile(), "r")) {
+            file.seek(4);
+            assertEquals(CourseDBWriteAheadLog.VERSION, file.readInt());
+        }
+    }
+
+    /**
+     * Test that concurrent writers racing on the same CRNs leave memory matching what recovery
+     * replays, so changes are applied in the order they were logged.
+     */
+    @Test
+    public void testConcurrentChangesRecoverAsApplied() throws Exception {
+        Path directory = tempDirectory();
+        File snapshot = directory.resolve("courses.snapshot").toFile();
+        File logFile = directory.resolve("courses.wal").toFile();
+        snapshot.deleteOnExit();
+        logFile.deleteOnExit();
+
+        CourseDBManager manager = CourseDBManager.openDurable(snapshot, logFile);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            final String room = "SC" + w;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    manager.add("CMSC204", 10000 + i, 4, room, "First adder");
+                    manager.update("CMSC203", 20000 + i % 5, 3, room, "Last updater");
+                    if (i % 7 == 0) {
+                        manager.remove(20000 + i % 5);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        manager.closeLog();
+
+        CourseDBManager recovered = CourseDBManager.openDurable(snapshot, logFile);
+        assertEquals(manager.showAll().size(), recovered.showAll().size());
+        for (CourseDBElement course : manager.stream().toArray(CourseDBElement[]::new)) {
+            assertEquals(course.getRoomNum(), recovered.get(course.getCRN()).getRoomNum(), "CRN " + course.getCRN());
+        }
+        recovered.closeLog();
+    }
+}
@@ -0,0 +1,131 @@
+package Default;
+
+import java.util.Random;
+
+/**
+ * The CrnHashReport class prints how evenly each CrnHashStrategy spreads typical CRN ranges over a
+ * hash table. For every strategy and range it reports the fraction of buckets used, the longest
+ * chain, and the average number of probes a successful lookup needs under separate chaining.
+ */
+public class CrnHashReport {
+
+    /**
+     * Prints the collision-distribution report.
+     *
+     * @param args Optional: the number of CRNs per range (default 10000).
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int primeSize = nextPrime(count);
+        int powerOfTwoSize = Integer.highestOneBit(count - 1) << 1;
+
+        System.out.printf("%-16s %-14s %8s %8s %8s %8s%n", "range", "strategy", "table", "used%", "longest", "probes");
+        printRange("sequential", sequentialCrns(count), primeSize, powerOfTwoSize);
+        printRange("dept-blocks", departmentBlockCrns(count), primeSize, powerOfTwoSize);
+        printRange("stride-5", stridedCrns(count, 5), primeSize, powerOfTwoSize);
+        printRange("random", randomCrns(count), primeSize, powerOfTwoSize);
+    }
+
+    /**
+     * Prints one line per strategy and table size for a CRN range.
+     */
+    private static void printRange(String name, int[] crns, int primeSize, int powerOfTwoSize) {
+        for (CrnHashStrategy strategy : CrnHashStrategy.values()) {
+            printLine(name, strategy, crns, primeSize);
+            printLine(name, strategy, crns, powerOfTwoSize);
+        }
+    }
+
+    /**
+     * Places the CRNs into buckets with the given strategy and prints the resulting distribution.
+     */
+    private static void printLine(String name, CrnHashStrategy strategy, int[] crns, int tableSize) {
+        int[] chainLengths = new int[tableSize];
+        for (int crn : crns) {
+            chainLengths[strategy.indexFor(crn, tableSize)]++;
+        }
+        int used = 0;
+        int longest = 0;
+        long probes = 0;
+        for (int length : chainLengths) {
+            if (length > 0) {
+                used++;
+            }
+            longest = Math.max(longest, length);
+            probes += (long) length * (length + 1) / 2; // The k-th course in a chain needs k probes.
+        }
+        System.out.printf("%-16s %-14s %8d %7.1f%% %8d %8.3f%n", name, strategy, tableSize,
+                100.0 * used / tableSize, longest, (double) probes / crns.length);
+    }
+
+    /**
+     * Returns CRNs 10000, 10001, 10002, and so on.
+     */
+    private static int[] sequentialCrns(int count) {
+        int[] crns = new int[count];
+        for (int i = 0; i < count; i++) {
+            crns[i] = 10000 + i;
+        }
+        return crns;
+    }
+
+    /**
+     * Returns CRNs allocated the way departments do: blocks of 1000 numbers, each block partly filled.
+     */
+    private static int[] departmentBlockCrns(int count) {
+        int[] crns = new int[count];
+        for (int i = 0; i < count; i++) {
+            crns[i] = 20000 + (i / 150) * 1000 + i % 150;
+        }
+        return crns;
+    }
+
+    /**
+     * Returns CRNs spaced a fixed distance apart.
+     */
+    private static int[] stridedCrns(int count, int stride) {
+        int[] crns = new int[count];
+        for (int i = 0; i < count; i++) {
+            crns[i] = 10000 + i * stride;
+        }
+        return crns;
+    }
+
+    /**
+     * Returns distinct random five-digit CRNs.
+     */
+    private static int[] randomCrns(int count) {
+        Random random = new Random(204);
+        boolean[] taken = new boolean[90000];
+        int[] crns = new int[Math.min(count, taken.length)];
+        for (int i = 0; i < crns.length; i++) {
+            int offset;
+            do {
+                offset = random.nextInt(taken.length);
+            } while (taken[offset]);
+            taken[offset] = true;
+            crns[i] = 10000 + offset;
+        }
+        return crns;
+    }
+
+    /**
+     * Finds the smallest prime greater than or equal to n.
+     */
+    private static int nextPrime(int n) {
+        int candidate = Math.max(n, 2);
+        while (true) {
+            boolean prime = true;
+            for (int i = 2; (long) i * i <= candidate; i++) {
+                if (candidate % i == 0) {
+                    prime = false;
+                    break;
+                }
+            }
+            if (prime) {
+                return candidate;
+            }
+            candidate++;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package Default;
+
+/**
+ * The CrnHashStrategy enum provides integer hash functions for CRNs. None of them allocate, and
+ * indexFor always maps a hash to a non-negative bucket index, even when the hash is negative.
+ */
+public enum CrnHashStrategy {
+    /**
+     * The same value as Integer.toString(crn).hashCode(), computed arithmetically without building a String.
+     * Tables using this strategy keep the bucket layout of the original string-based hash.
+     */
+    DECIMAL_STRING {
+        @Override
+        public int hash(int crn) {
+            int hash = 0;
+            int power = 1;
+            int remaining = crn;
+            // Walk the decimal digits from right to left, weighting each by 31^position like String.hashCode().
+            do {
+                hash += ('0' + Math.abs(remaining % 10)) * power;
+                power *= 31;
+                remaining /= 10;
+            } while (remaining != 0);
+            if (crn < 0) {
+                hash += '-' * power;
+            }
+            return hash;
+        }
+    },
+
+    /** The CRN itself. Cheapest, and spreads dense CRN runs evenly over a prime-sized table. */
+    IDENTITY {
+        @Override
+        public int hash(int crn) {
+            return crn;
+        }
+    },
+
+    /** Fibonacci (multiplicative) hashing: multiply by 2^32 / golden ratio and fold the high bits down. */
+    FIBONACCI {
+        @Override
+        public int hash(int crn) {
+            int hash = crn * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    },
+
+    /** The 32-bit finalizer from MurmurHash3, which mixes every input bit into every output bit. */
+    MURMUR3 {
+        @Override
+        public int hash(int crn) {
+            int hash = crn;
+            hash ^= hash >>> 16;
+            hash *= 0x85EBCA6B;
+            hash ^= hash >>> 13;
+            hash *= 0xC2B2AE35;
+            hash ^= hash >>> 16;
+            return hash;
+        }
+    };
+
+    /**
+     * Hashes a CRN.
+     *
+     * @param crn The CRN to hash.
+     * @return The hash, which may be negative.
+     */
+    public abstract int hash(int crn);
+
+    /**
+     * Maps a CRN to a bucket of a table of the given size.
+     *
+     * @param crn       The CRN to place.
+     * @param tableSize The number of buckets in the table.
+     * @return A bucket index between 0 and tableSize - 1.
+     */
+    public int indexFor(int crn, int tableSize) {
+        return (hash(crn) & 0x7FFFFFFF) % tableSize;
+    }
+}
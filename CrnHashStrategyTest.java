@@ -0,0 +1,58 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+
+/**
+ * This class contains JUnit tests for the CrnHashStrategy enum. It checks that the decimal strategy
+ * matches the original string-based hash and that every strategy produces non-negative indexes.
+ */
+public class CrnHashStrategyTest {
+    private static final int[] EDGE_CRNS = {0, 1, 9, 10, -1, -10, 30504, 99999, 123456789,
+            Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE + 1};
+
+    /**
+     * Test that DECIMAL_STRING computes the same value as Integer.toString(crn).hashCode().
+     */
+    @Test
+    public void testDecimalStringMatchesStringHash() {
+        for (int crn : EDGE_CRNS) {
+            assertEquals(Integer.toString(crn).hashCode(), CrnHashStrategy.DECIMAL_STRING.hash(crn));
+        }
+        for (int crn = -5000; crn < 100000; crn += 7) {
+            assertEquals(Integer.toString(crn).hashCode(), CrnHashStrategy.DECIMAL_STRING.hash(crn));
+        }
+    }
+
+    /**
+     * Test that indexFor stays inside the table for every strategy, including CRNs whose hash is negative.
+     */
+    @Test
+    public void testIndexForIsNonNegative() {
+        for (CrnHashStrategy strategy : CrnHashStrategy.values()) {
+            for (int crn : EDGE_CRNS) {
+                int index = strategy.indexFor(crn, 503);
+                assertTrue(index >= 0 && index < 503, strategy + " placed " + crn + " at " + index);
+            }
+        }
+    }
+
+    /**
+     * Test that a CourseDBStructure stores CRNs whose string hash is negative, for every strategy.
+     */
+    @Test
+    public void testStructureWithLargeCrns() throws IOException {
+        for (CrnHashStrategy strategy : CrnHashStrategy.values()) {
+            CourseDBStructure structure = new CourseDBStructure(20, strategy);
+            for (int crn : EDGE_CRNS) {
+                structure.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey Bag-O-Donuts"));
+            }
+            for (int crn : EDGE_CRNS) {
+                assertEquals(crn, structure.get(crn).getCRN());
+            }
+            assertEquals(EDGE_CRNS.length, structure.size());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package Default;
+
+/**
+ * The CrnMembershipFilter class is a blocked Bloom filter over CRNs. mightContain never returns
+ * false for a CRN that was added, and returns true for a CRN that was not added only with a small
+ * false-positive probability, so a lookup can skip the table entirely when it says false.
+ *
+ * <p>The bits are split into 512-bit blocks, the size of a cache line, and all of a CRN's bits
+ * are set in one block, so a query touches one cache line instead of one per hash function. This
+ * costs slightly more false positives than a classic Bloom filter of the same size. Bloom filters
+ * cannot forget a CRN; the owner rebuilds the filter to drop removed CRNs.</p>
+ */
+public class CrnMembershipFilter {
+    /** The default bits per expected CRN, which gives about a 1% false-positive rate when full. */
+    public static final int DEFAULT_BITS_PER_KEY = 10;
+    private static final int BLOCK_WORDS = 8;     // Longs per block: 512 bits, one cache line.
+    private static final int BLOCK_BITS_MASK = 511;
+
+    private final long[] words;      // The filter bits, BLOCK_WORDS longs per block.
+    private final int blockMask;     // Block count - 1; the block count is a power of two.
+    private final int hashCount;     // Bits set per CRN.
+    private int keyCount;            // CRNs added, counting repeats.
+
+    /**
+     * Creates an empty filter with the default bits per key.
+     *
+     * @param expectedKeys The number of CRNs the filter is sized for.
+     */
+    public CrnMembershipFilter(int expectedKeys) {
+        this(expectedKeys, DEFAULT_BITS_PER_KEY);
+    }
+
+    /**
+     * Creates an empty filter. The bit count is rounded up to a power-of-two number of blocks.
+     *
+     * @param expectedKeys The number of CRNs the filter is sized for.
+     * @param bitsPerKey   The bits to allocate per expected CRN; more bits mean fewer false positives.
+     * @throws IllegalArgumentException If bitsPerKey is not positive.
+     */
+    public CrnMembershipFilter(int expectedKeys, int bitsPerKey) {
+        if (bitsPerKey <= 0) {
+            throw new IllegalArgumentException("Bits per key must be positive: " + bitsPerKey);
+        }
+        long bits = Math.max(1, (long) expectedKeys) * bitsPerKey;
+        int blocks = 1;
+        while ((long) blocks * BLOCK_WORDS * 64 < bits && blocks < (1 << 26)) {
+            blocks <<= 1;
+        }
+        words = new long[blocks * BLOCK_WORDS];
+        blockMask = blocks - 1;
+        // The optimal count for a classic Bloom filter is bitsPerKey * ln 2.
+        hashCount = Math.max(1, Math.min(16, (int) Math.round(bitsPerKey * Math.log(2))));
+    }
+
+    /**
+     * Creates a filter holding the CRNs of the given courses, sized for them.
+     *
+     * @param courses      The courses whose CRNs to add.
+     * @param expectedKeys The number of CRNs the filter is sized for, at least the number of courses.
+     * @param bitsPerKey   The bits to allocate per expected CRN.
+     * @return The filled filter.
+     */
+    public static CrnMembershipFilter of(Iterable<CourseDBElement> courses, int expectedKeys, int bitsPerKey) {
+        CrnMembershipFilter filter = new CrnMembershipFilter(expectedKeys, bitsPerKey);
+        for (CourseDBElement course : courses) {
+            filter.add(course.getCRN());
+        }
+        return filter;
+    }
+
+    /**
+     * Adds a CRN to the filter.
+     *
+     * @param crn The CRN to add.
+     */
+    public void add(int crn) {
+        long hash = mix(crn);
+        int base = ((int) (hash >>> 32) & blockMask) * BLOCK_WORDS;
+        int position = (int) hash;
+        int step = (int) (hash >>> 23) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            int bit = position & BLOCK_BITS_MASK;
+            words[base + (bit >>> 6)] |= 1L << bit;
+            position += step;
+        }
+        keyCount++;
+    }
+
+    /**
+     * Tells whether a CRN may have been added.
+     *
+     * @param crn The CRN to test.
+     * @return False if the CRN was certainly never added; true if it probably was.
+     */
+    public boolean mightContain(int crn) {
+        long hash = mix(crn);
+        int base = ((int) (hash >>> 32) & blockMask) * BLOCK_WORDS;
+        int position = (int) hash;
+        int step = (int) (hash >>> 23) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            int bit = position & BLOCK_BITS_MASK;
+            if ((words[base + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+            position += step;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the size of the filter.
+     *
+     * @return The number of bits.
+     */
+    public long getBitCount() {
+        return (long) words.length * 64;
+    }
+
+    /**
+     * Returns the number of adds made, counting repeated CRNs each time.
+     *
+     * @return The number of adds.
+     */
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    /**
+     * Returns the number of bits set per CRN.
+     *
+     * @return The hash count.
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Returns the bits the filter spends per CRN added so far.
+     *
+     * @return The bits per key, or the whole bit count if nothing was added.
+     */
+    public double getBitsPerKey() {
+        return (double) getBitCount() / Math.max(1, keyCount);
+    }
+
+    /**
+     * Spreads a CRN over 64 bits with the SplitMix64 finalizer: the high half picks the block and
+     * the low bits drive the positions inside it.
+     */
+    private static long mix(int crn) {
+        long hash = crn + 0x9E3779B97F4A7C15L;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+}
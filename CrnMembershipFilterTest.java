@@ -0,0 +1,123 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class contains JUnit tests for CrnMembershipFilter. It tests that added CRNs are never
+ * reported missing, that the false-positive rate stays near its target, and that CourseDBStructure
+ * answers lookups the same with its filters on and off across growth, updates, and removals, also
+ * when the filter is turned on through CourseDBManager.
+ */
+public class CrnMembershipFilterTest {
+
+    /**
+     * Test that no added CRN is missed and that few absent CRNs are reported present.
+     */
+    @Test
+    public void testNoFalseNegativesAndFewFalsePositives() {
+        CrnMembershipFilter filter = new CrnMembershipFilter(100000);
+        for (int i = 0; i < 100000; i++) {
+            filter.add(10000 + i * 2);
+        }
+        filter.add(Integer.MIN_VALUE);
+        filter.add(-1);
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(filter.mightContain(10000 + i * 2));
+        }
+        assertTrue(filter.mightContain(Integer.MIN_VALUE));
+        assertTrue(filter.mightContain(-1));
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain(10001 + i * 2)) {
+                falsePositives++;
+            }
+        }
+        // About 1% is expected at 10 bits per key; the power-of-two rounding only adds bits.
+        assertTrue(falsePositives < 2000, "False positives: " + falsePositives);
+        assertEquals(100002, filter.getKeyCount());
+        assertTrue(filter.getBitsPerKey() >= CrnMembershipFilter.DEFAULT_BITS_PER_KEY);
+        assertThrows(IllegalArgumentException.class, () -> new CrnMembershipFilter(10, 0));
+    }
+
+    /**
+     * Test that finds agree with the filter on and off while the table grows, and after courses
+     * are updated and removed.
+     */
+    @Test
+    public void testStructureLookupsWithFilter() {
+        CourseDBStructure filtered = new CourseDBStructure(4);
+        filtered.setMembershipFilterEnabled(true);
+        CourseDBStructure plain = new CourseDBStructure(4);
+        assertNull(plain.getMembershipFilter());
+        for (int i = 0; i < 5000; i++) {
+            CourseDBElement element = new CourseDBElement("CMSC204", 20000 + i * 3, 4, "SC450", "Jane Doe");
+            filtered.add(element);
+            plain.add(element);
+            if (i % 97 == 0) {
+                // Check in the middle of incremental growth too.
+                for (int crn = 19990; crn < 20000 + i * 3 + 10; crn++) {
+                    assertEquals(plain.find(crn) == null, filtered.find(crn) == null, "CRN " + crn);
+                }
+            }
+        }
+        for (int i = 0; i < 5000; i += 5) {
+            filtered.remove(20000 + i * 3);
+            plain.remove(20000 + i * 3);
+        }
+        filtered.update(new CourseDBElement("CMSC204", 20001, 4, "SC451", "Jane Doe"));
+        plain.update(new CourseDBElement("CMSC204", 20001, 4, "SC451", "Jane Doe"));
+        filtered.setMembershipFilterEnabled(true); // Rebuilt without the removed CRNs.
+        for (int crn = 19990; crn < 35010; crn++) {
+            assertEquals(plain.find(crn) == null, filtered.find(crn) == null, "CRN " + crn);
+        }
+        assertEquals("SC451", filtered.find(20001).getRoomNum());
+        assertEquals(plain.size(), filtered.size());
+    }
+
+    /**
+     * Test the manager's switch: the system property turns the filter on for a new manager, a load
+     * rebuilds it for the loaded courses, and gets through the manager answer hits and misses as
+     * they would without it.
+     */
+    @Test
+    public void testManagerMembershipFilter() throws IOException {
+        Path file = Files.createTempFile("coursedb-filter", ".txt");
+        file.toFile().deleteOnExit();
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            lines.append("CMSC204 ").append(30000 + i * 2).append(" 4 SC450 Jane Doe\n");
+        }
+        Files.write(file, lines.toString().getBytes(StandardCharsets.UTF_8));
+
+        CourseDBManager manager;
+        System.setProperty(CourseDBManager.MEMBERSHIP_FILTER_PROPERTY, "true");
+        try {
+            manager = new CourseDBManager(new CourseDBStructure(16));
+        } finally {
+            System.clearProperty(CourseDBManager.MEMBERSHIP_FILTER_PROPERTY);
+        }
+        assertTrue(manager.isMembershipFilterEnabled());
+        assertFalse(new CourseDBManager(new CourseDBStructure(16)).isMembershipFilterEnabled());
+        manager.readFile(file.toFile());
+        manager.add("CMSC203", 30001, 3, "SC451", "Jane Doe");
+
+        CrnMembershipFilter filter = ((CourseDBStructure) manager.getStructure()).getMembershipFilter();
+        assertNotNull(filter);
+        assertTrue(filter.getKeyCount() >= 2001);
+        for (int crn = 29990; crn < 34010; crn++) {
+            boolean stored = crn == 30001 || (crn >= 30000 && crn < 34000 && crn % 2 == 0);
+            assertEquals(stored, manager.get(crn) != null, "CRN " + crn);
+        }
+
+        manager.setMembershipFilterEnabled(false);
+        assertNull(((CourseDBStructure) manager.getStructure()).getMembershipFilter());
+        assertNotNull(manager.get(30001));
+    }
+}
@@ -0,0 +1,260 @@
+package Default;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The MappedCourseDBStructure class serves courses straight from a memory-mapped snapshot written
+ * by CourseDBSnapshot. Lookups binary-search the fixed-width CRN index in the mapped file and build
+ * a CourseDBElement only for the course being returned; strings are decoded once and then reused.
+ * Courses added after the snapshot was opened are kept in a small on-heap CourseDBStructure overlay.
+ * The mapped file is never written: removing or updating a snapshot course marks its record as
+ * dropped, and an update stores the new course in the overlay.
+ *
+ * <p>For archived terms that are mostly probed for CRNs they do not hold, cacheCrnIndex copies the
+ * CRN index into a CompressedCrnSet on the heap, about one byte per course, so lookups, and misses
+ * in particular, no longer fault in pages of the mapped index.</p>
+ */
+public class MappedCourseDBStructure implements CourseDBStoreInterface {
+    private final MappedByteBuffer buffer;   // The mapped snapshot file.
+    private final int count;                 // The number of courses in the snapshot.
+    private final int offsetsStart;          // Byte position of the string offset table.
+    private final int dataStart;             // Byte position of the string data.
+    private final String[] strings;          // Decoded strings, filled in on first use.
+    private final CourseDBStructure overlay; // Courses added since the snapshot was opened.
+    private final BitSet dropped = new BitSet(); // Snapshot records removed or replaced since it was opened.
+    private int droppedCount;                // The number of records set in dropped.
+    private volatile CompressedCrnSet crnIndex;  // The CRN index copied onto the heap, or null.
+
+    /**
+     * Creates a MappedCourseDBStructure over a validated snapshot buffer. Use CourseDBSnapshot.open.
+     *
+     * @param buffer      The mapped snapshot file.
+     * @param count       The number of courses in the snapshot.
+     * @param stringCount The number of distinct strings in the snapshot.
+     */
+    MappedCourseDBStructure(MappedByteBuffer buffer, int count, int stringCount) {
+        this.buffer = buffer;
+        this.count = count;
+        this.offsetsStart = CourseDBSnapshot.HEADER_BYTES + count * CourseDBSnapshot.RECORD_BYTES;
+        this.dataStart = offsetsStart + (stringCount + 1) * 4;
+        this.strings = new String[stringCount];
+        this.overlay = new CourseDBStructure(16);
+    }
+
+    /**
+     * Adds a CourseDBElement to the overlay. If a course with the same CRN already exists in the
+     * snapshot or the overlay, it is not added again.
+     *
+     * @param element The CourseDBElement to add.
+     */
+    @Override
+    public void add(CourseDBElement element) {
+        if (liveRecord(element.getCRN()) < 0) {
+            overlay.add(element);
+        }
+    }
+
+    /**
+     * Stores a CourseDBElement in the overlay, dropping the snapshot record with the same CRN or
+     * replacing the overlay course if there is one.
+     *
+     * @param element The CourseDBElement to store.
+     * @return The course it replaced, or null if the CRN was not stored.
+     */
+    @Override
+    public CourseDBElement update(CourseDBElement element) {
+        int record = liveRecord(element.getCRN());
+        if (record < 0) {
+            return overlay.update(element);
+        }
+        dropped.set(record);
+        droppedCount++;
+        overlay.add(element);
+        return element(record);
+    }
+
+    /**
+     * Removes the course with the given CRN from the overlay, or drops its snapshot record.
+     *
+     * @param crn The CRN of the course to remove.
+     * @return The course removed, or null if the CRN was not stored.
+     */
+    @Override
+    public CourseDBElement remove(int crn) {
+        int record = liveRecord(crn);
+        if (record < 0) {
+            return overlay.remove(crn);
+        }
+        dropped.set(record);
+        droppedCount++;
+        return element(record);
+    }
+
+    /**
+     * Retrieves a CourseDBElement based on the provided CRN.
+     *
+     * @param crn The CRN of the course to retrieve.
+     * @return The CourseDBElement associated with the given CRN.
+     * @throws IOException If the course with the specified CRN is not found.
+     */
+    @Override
+    public CourseDBElement get(int crn) throws IOException {
+        int record = liveRecord(crn);
+        if (record >= 0) {
+            return element(record);
+        }
+        return overlay.get(crn);
+    }
+
+    /**
+     * Finds a CourseDBElement based on the provided CRN without throwing on a miss.
+     *
+     * @param crn The CRN of the course to find.
+     * @return The CourseDBElement associated with the given CRN, or null if it is not stored.
+     */
+    @Override
+    public CourseDBElement find(int crn) {
+        int record = liveRecord(crn);
+        if (record >= 0) {
+            return element(record);
+        }
+        return overlay.find(crn);
+    }
+
+    /**
+     * Returns an ArrayList of string representations of all courses, snapshot courses first in CRN order.
+     *
+     * @return An ArrayList of strings representing all courses.
+     */
+    @Override
+    public ArrayList<String> showAll() {
+        ArrayList<String> courseStrings = new ArrayList<>(size());
+        for (CourseDBElement element : this) {
+            courseStrings.add(element.toString());
+        }
+        return courseStrings;
+    }
+
+    /**
+     * Returns the number of index slots: one per snapshot course plus the overlay's table size.
+     *
+     * @return The size of the table.
+     */
+    @Override
+    public int getTableSize() {
+        return count + overlay.getTableSize();
+    }
+
+    /**
+     * Returns the number of courses in the snapshot, less those dropped, and the overlay.
+     *
+     * @return The number of courses.
+     */
+    @Override
+    public int size() {
+        return count - droppedCount + overlay.size();
+    }
+
+    /**
+     * Returns an iterator over the remaining snapshot courses in CRN order followed by the overlay courses.
+     *
+     * @return An iterator over every course.
+     */
+    @Override
+    public Iterator<CourseDBElement> iterator() {
+        return new Iterator<CourseDBElement>() {
+            private int record = dropped.nextClearBit(0); // The next snapshot record.
+            private final Iterator<CourseDBElement> added = overlay.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return record < count || added.hasNext();
+            }
+
+            @Override
+            public CourseDBElement next() {
+                if (record < count) {
+                    CourseDBElement element = element(record);
+                    record = dropped.nextClearBit(record + 1);
+                    return element;
+                }
+                if (!added.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return added.next();
+            }
+        };
+    }
+
+    /**
+     * Copies the snapshot's CRN index into a compressed on-heap set, which lookups then search
+     * instead of the mapped file. Snapshot records are sorted by CRN, so the rank of a CRN in the
+     * set is its record number. Calling it again does nothing.
+     *
+     * @return The number of bytes the cached index takes.
+     */
+    public long cacheCrnIndex() {
+        CompressedCrnSet index = crnIndex;
+        if (index == null) {
+            int[] crns = new int[count];
+            for (int record = 0; record < count; record++) {
+                crns[record] = buffer.getInt(CourseDBSnapshot.HEADER_BYTES + record * CourseDBSnapshot.RECORD_BYTES);
+            }
+            index = CompressedCrnSet.ofSorted(crns, count);
+            crnIndex = index;
+        }
+        return index.getSizeInBytes();
+    }
+
+    /**
+     * Finds the snapshot record of a CRN, unless it has been dropped.
+     *
+     * @param crn The CRN to find.
+     * @return The record number, or -1 if the snapshot does not hold the CRN or it was dropped.
+     */
+    private int liveRecord(int crn) {
+        CompressedCrnSet index = crnIndex;
+        int record = index != null ? index.indexOf(crn) : CourseDBSnapshot.search(buffer, count, crn);
+        return record >= 0 && !dropped.get(record) ? record : -1;
+    }
+
+    /**
+     * Builds the CourseDBElement for a snapshot record.
+     *
+     * @param record The record number.
+     * @return The course stored in that record.
+     */
+    private CourseDBElement element(int record) {
+        int position = CourseDBSnapshot.HEADER_BYTES + record * CourseDBSnapshot.RECORD_BYTES;
+        return new CourseDBElement(
+                string(buffer.getInt(position + 8)),
+                buffer.getInt(position),
+                buffer.getInt(position + 4),
+                string(buffer.getInt(position + 12)),
+                string(buffer.getInt(position + 16)));
+    }
+
+    /**
+     * Returns string id of the snapshot, decoding it on first use. Concurrent callers may both
+     * decode the same string, which is harmless because Strings are immutable.
+     *
+     * @param id The string id, or -1 for null.
+     * @return The string.
+     */
+    private String string(int id) {
+        if (id < 0) {
+            return null;
+        }
+        String value = strings[id];
+        if (value == null) {
+            value = CourseDBSnapshot.decodeString(buffer, offsetsStart, dataStart, id);
+            strings[id] = value;
+        }
+        return value;
+    }
+}
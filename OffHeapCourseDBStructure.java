@@ -0,0 +1,480 @@
+package Default;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The OffHeapCourseDBStructure class keeps the whole course table outside the Java heap, so tens of
+ * millions of courses add almost nothing for the garbage collector to trace. Courses live in
+ * fixed-size slots of an open-addressing table in a direct ByteBuffer. Their strings live in a
+ * separate off-heap arena, where each distinct string is stored once and found through an
+ * off-heap intern table.
+ *
+ * <p>Slot layout (24 bytes): CRN, credits, course ID ref, room ref, instructor ref, occupied flag.
+ * A ref is the string's offset in the arena, or -1 for null. Arena entries are a length followed by
+ * UTF-8 bytes.</p>
+ *
+ * <p>Removing a course shifts the rest of its probe run back, so the table needs no tombstones.
+ * The strings of updated and removed courses stay in the arena until the structure is closed.</p>
+ *
+ * <p>Call close to release the off-heap memory as soon as the structure is no longer needed;
+ * any use after close throws IllegalStateException. Each buffer is limited to 2 GB, which bounds
+ * the table at about 89 million courses.</p>
+ */
+public class OffHeapCourseDBStructure implements CourseDBStoreInterface, AutoCloseable {
+    private static final int SLOT_BYTES = 24;
+    private static final int CREDITS = 4;
+    private static final int ID = 8;
+    private static final int ROOM = 12;
+    private static final int INSTRUCTOR = 16;
+    private static final int OCCUPIED = 20;
+    private static final double MAX_LOAD_FACTOR = 0.75; // Grow a table once it is this full.
+    private static final int MIN_CAPACITY = 16;
+
+    private static final Object UNSAFE;           // sun.misc.Unsafe, if the JDK exposes it.
+    private static final Method INVOKE_CLEANER;   // Unsafe.invokeCleaner, used to free direct buffers early.
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private ByteBuffer slots;      // The course table.
+    private int capacity;          // The number of slots; a power of two.
+    private int size;              // The number of courses.
+
+    private ByteBuffer arena;      // String bytes, appended in order.
+    private int arenaUsed;         // Bytes of the arena in use.
+    private ByteBuffer internTable; // Arena offset + 1 for each distinct string, 0 for an empty slot.
+    private int internCapacity;    // The number of intern slots; a power of two.
+    private int internSize;        // The number of distinct strings.
+
+    /**
+     * Creates an OffHeapCourseDBStructure instance with an estimated number of courses.
+     *
+     * @param estimatedNumCourses The estimated number of courses used to size the table.
+     */
+    public OffHeapCourseDBStructure(int estimatedNumCourses) {
+        capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD_FACTOR < estimatedNumCourses) {
+            capacity <<= 1;
+        }
+        if ((long) capacity * SLOT_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many courses for one off-heap table: " + estimatedNumCourses);
+        }
+        slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES);
+        arena = ByteBuffer.allocateDirect(1 << 16);
+        internCapacity = MIN_CAPACITY * 16;
+        internTable = ByteBuffer.allocateDirect(internCapacity * 4);
+    }
+
+    /**
+     * Adds a course to the table. If a course with the same CRN already exists, it is not added again.
+     *
+     * @param element The CourseDBElement to add.
+     */
+    @Override
+    public void add(CourseDBElement element) {
+        checkOpen();
+        int crn = element.getCRN();
+        int slot = homeSlot(crn, capacity);
+        while (slots.getInt(slot * SLOT_BYTES + OCCUPIED) != 0) {
+            if (slots.getInt(slot * SLOT_BYTES) == crn) {
+                return; // Element already exists, exit quietly
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+        int base = slot * SLOT_BYTES;
+        slots.putInt(base, crn);
+        slots.putInt(base + CREDITS, element.getCredits());
+        slots.putInt(base + ID, intern(element.getID()));
+        slots.putInt(base + ROOM, intern(element.getRoomNum()));
+        slots.putInt(base + INSTRUCTOR, intern(element.getInstructorName()));
+        slots.putInt(base + OCCUPIED, 1);
+        if (++size > capacity * MAX_LOAD_FACTOR) {
+            growSlots();
+        }
+    }
+
+    /**
+     * Stores a course, overwriting the slot of the course with the same CRN if there is one.
+     *
+     * @param element The CourseDBElement to store.
+     * @return A heap copy of the course it replaced, or null if the CRN was not stored.
+     */
+    @Override
+    public CourseDBElement update(CourseDBElement element) {
+        checkOpen();
+        int slot = slotOf(element.getCRN());
+        if (slot < 0) {
+            add(element);
+            return null;
+        }
+        CourseDBElement previous = element(slot);
+        int base = slot * SLOT_BYTES;
+        slots.putInt(base + CREDITS, element.getCredits());
+        slots.putInt(base + ID, intern(element.getID()));
+        slots.putInt(base + ROOM, intern(element.getRoomNum()));
+        slots.putInt(base + INSTRUCTOR, intern(element.getInstructorName()));
+        return previous;
+    }
+
+    /**
+     * Removes the course with the given CRN.
+     *
+     * @param crn The CRN of the course to remove.
+     * @return A heap copy of the course removed, or null if the CRN was not stored.
+     */
+    @Override
+    public CourseDBElement remove(int crn) {
+        checkOpen();
+        int slot = slotOf(crn);
+        if (slot < 0) {
+            return null;
+        }
+        CourseDBElement removed = element(slot);
+        deleteSlot(slot);
+        size--;
+        return removed;
+    }
+
+    /**
+     * Retrieves a course based on the provided CRN, copying it onto the heap as a CourseDBElement.
+     *
+     * @param crn The CRN of the course to retrieve.
+     * @return A CourseDBElement holding the course's values.
+     * @throws IOException If the course with the specified CRN is not found.
+     */
+    @Override
+    public CourseDBElement get(int crn) throws IOException {
+        CourseDBElement element = find(crn);
+        if (element == null) {
+            throw new IOException("Course not found with CRN: " + crn);
+        }
+        return element;
+    }
+
+    /**
+     * Finds a course based on the provided CRN without throwing on a miss.
+     *
+     * @param crn The CRN of the course to find.
+     * @return A CourseDBElement holding the course's values, or null if it is not stored.
+     */
+    @Override
+    public CourseDBElement find(int crn) {
+        checkOpen();
+        int slot = slotOf(crn);
+        return slot < 0 ? null : element(slot);
+    }
+
+    /**
+     * Returns an ArrayList of string representations of all courses, in slot order.
+     *
+     * @return An ArrayList of strings representing all courses.
+     */
+    @Override
+    public ArrayList<String> showAll() {
+        ArrayList<String> courseStrings = new ArrayList<>(size);
+        for (CourseDBElement element : this) {
+            courseStrings.add(element.toString());
+        }
+        return courseStrings;
+    }
+
+    /**
+     * Returns the number of slots in the table.
+     *
+     * @return The table capacity.
+     */
+    @Override
+    public int getTableSize() {
+        checkOpen();
+        return capacity;
+    }
+
+    /**
+     * Returns the number of courses stored.
+     *
+     * @return The number of courses.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of off-heap bytes currently reserved by the table, arena, and intern table.
+     *
+     * @return The reserved off-heap bytes, or 0 after close.
+     */
+    public long getOffHeapBytes() {
+        return slots == null ? 0 : (long) slots.capacity() + arena.capacity() + internTable.capacity();
+    }
+
+    /**
+     * Returns an iterator over every course in slot order, copying each onto the heap as it is reached.
+     *
+     * @return An iterator over the stored courses.
+     */
+    @Override
+    public Iterator<CourseDBElement> iterator() {
+        checkOpen();
+        return new Iterator<CourseDBElement>() {
+            private int slot = advance(0); // The next occupied slot, or capacity.
+
+            private int advance(int from) {
+                while (from < capacity && slots.getInt(from * SLOT_BYTES + OCCUPIED) == 0) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return slot < capacity;
+            }
+
+            @Override
+            public CourseDBElement next() {
+                if (slot >= capacity) {
+                    throw new NoSuchElementException();
+                }
+                checkOpen();
+                CourseDBElement element = element(slot);
+                slot = advance(slot + 1);
+                return element;
+            }
+        };
+    }
+
+    /**
+     * Releases the off-heap memory immediately instead of waiting for the buffers to be collected.
+     * Calling close more than once has no further effect.
+     */
+    @Override
+    public void close() {
+        if (slots == null) {
+            return;
+        }
+        free(slots);
+        free(arena);
+        free(internTable);
+        slots = null;
+        arena = null;
+        internTable = null;
+        size = 0;
+    }
+
+    /**
+     * Returns the slot holding a CRN.
+     *
+     * @param crn The CRN to find.
+     * @return The slot, or -1 if the CRN is not stored.
+     */
+    private int slotOf(int crn) {
+        int slot = homeSlot(crn, capacity);
+        while (slots.getInt(slot * SLOT_BYTES + OCCUPIED) != 0) {
+            if (slots.getInt(slot * SLOT_BYTES) == crn) {
+                return slot;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Empties a slot and moves each later member of its probe run that may live there back into
+     * the gap, so lookups never stop early at it.
+     *
+     * @param gap The slot to empty.
+     */
+    private void deleteSlot(int gap) {
+        int mask = capacity - 1;
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (slots.getInt(slot * SLOT_BYTES + OCCUPIED) == 0) {
+                break;
+            }
+            int home = homeSlot(slots.getInt(slot * SLOT_BYTES), capacity);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                slots.put(gap * SLOT_BYTES, slots, slot * SLOT_BYTES, SLOT_BYTES);
+                gap = slot;
+            }
+        }
+        slots.putInt(gap * SLOT_BYTES + OCCUPIED, 0);
+    }
+
+    /**
+     * Copies the course in a slot onto the heap.
+     */
+    private CourseDBElement element(int slot) {
+        int base = slot * SLOT_BYTES;
+        return new CourseDBElement(string(slots.getInt(base + ID)), slots.getInt(base),
+                slots.getInt(base + CREDITS), string(slots.getInt(base + ROOM)),
+                string(slots.getInt(base + INSTRUCTOR)));
+    }
+
+    /**
+     * Returns the arena offset of a string, appending it to the arena if it has not been seen before.
+     *
+     * @param value The string, or null.
+     * @return The string's arena offset, or -1 for null.
+     */
+    private int intern(String value) {
+        if (value == null) {
+            return -1;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int slot = CrnHashStrategy.MURMUR3.hash(value.hashCode()) & (internCapacity - 1);
+        int entry;
+        while ((entry = internTable.getInt(slot * 4)) != 0) {
+            if (arenaEquals(entry - 1, bytes)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & (internCapacity - 1);
+        }
+        int offset = append(bytes);
+        internTable.putInt(slot * 4, offset + 1);
+        if (++internSize > internCapacity * MAX_LOAD_FACTOR) {
+            growInternTable();
+        }
+        return offset;
+    }
+
+    /**
+     * Appends a length-prefixed string to the arena, growing it if needed.
+     */
+    private int append(byte[] bytes) {
+        long needed = (long) arenaUsed + 4 + bytes.length;
+        if (needed > arena.capacity()) {
+            long grown = Math.max(needed, (long) arena.capacity() * 2);
+            if (grown > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Off-heap string arena is full");
+            }
+            ByteBuffer larger = ByteBuffer.allocateDirect((int) grown);
+            larger.put(0, arena, 0, arenaUsed);
+            free(arena);
+            arena = larger;
+        }
+        int offset = arenaUsed;
+        arena.putInt(offset, bytes.length);
+        arena.put(offset + 4, bytes);
+        arenaUsed += 4 + bytes.length;
+        return offset;
+    }
+
+    /**
+     * Tells whether the arena string at offset has exactly the given bytes.
+     */
+    private boolean arenaEquals(int offset, byte[] bytes) {
+        if (arena.getInt(offset) != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (arena.get(offset + 4 + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the arena string at offset onto the heap.
+     */
+    private String string(int offset) {
+        if (offset < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[arena.getInt(offset)];
+        arena.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Doubles the course table and reinserts every slot.
+     */
+    private void growSlots() {
+        if ((long) capacity * 2 * SLOT_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Off-heap course table is full at " + size + " courses");
+        }
+        ByteBuffer old = slots;
+        int oldCapacity = capacity;
+        capacity <<= 1;
+        slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES);
+        for (int i = 0; i < oldCapacity; i++) {
+            if (old.getInt(i * SLOT_BYTES + OCCUPIED) != 0) {
+                int slot = homeSlot(old.getInt(i * SLOT_BYTES), capacity);
+                while (slots.getInt(slot * SLOT_BYTES + OCCUPIED) != 0) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                slots.put(slot * SLOT_BYTES, old, i * SLOT_BYTES, SLOT_BYTES);
+            }
+        }
+        free(old);
+    }
+
+    /**
+     * Doubles the intern table and reinserts every string offset.
+     */
+    private void growInternTable() {
+        ByteBuffer old = internTable;
+        int oldCapacity = internCapacity;
+        internCapacity <<= 1;
+        internTable = ByteBuffer.allocateDirect(internCapacity * 4);
+        for (int i = 0; i < oldCapacity; i++) {
+            int entry = old.getInt(i * 4);
+            if (entry != 0) {
+                String value = string(entry - 1);
+                int slot = CrnHashStrategy.MURMUR3.hash(value.hashCode()) & (internCapacity - 1);
+                while (internTable.getInt(slot * 4) != 0) {
+                    slot = (slot + 1) & (internCapacity - 1);
+                }
+                internTable.putInt(slot * 4, entry);
+            }
+        }
+        free(old);
+    }
+
+    private static int homeSlot(int crn, int capacity) {
+        return CrnHashStrategy.FIBONACCI.hash(crn) & (capacity - 1);
+    }
+
+    private void checkOpen() {
+        if (slots == null) {
+            throw new IllegalStateException("OffHeapCourseDBStructure has been closed");
+        }
+    }
+
+    /**
+     * Releases a direct buffer's memory now through sun.misc.Unsafe.invokeCleaner when the JDK
+     * provides it; otherwise the memory is released when the buffer is garbage collected.
+     */
+    private static void free(ByteBuffer buffer) {
+        if (INVOKE_CLEANER != null) {
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Fall back to the buffer's own cleaner, which runs when it becomes unreachable
+            }
+        }
+    }
+}
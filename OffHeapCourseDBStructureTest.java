@@ -0,0 +1,55 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+
+/**
+ * This class contains JUnit tests for the OffHeapCourseDBStructure class. It tests that courses
+ * survive the round trip through direct memory, that growth keeps them reachable, and that close
+ * releases the structure.
+ */
+public class OffHeapCourseDBStructureTest {
+
+    /**
+     * Test add, duplicate handling, get, and miss behavior across several table and arena resizes.
+     */
+    @Test
+    public void testAddAndGet() throws IOException {
+        try (OffHeapCourseDBStructure structure = new OffHeapCourseDBStructure(4)) {
+            for (int i = 0; i < 5000; i++) {
+                structure.add(new CourseDBElement("CMSC" + (i % 40), 30000 + i, 1 + i % 4,
+                        i % 9 == 0 ? null : "SC" + (i % 25), "Instructor \u00d1ame " + i));
+            }
+            structure.add(new CourseDBElement("DUPLICATE", 30000, 9, "X", "Y"));
+
+            assertEquals(5000, structure.size());
+            assertEquals(5000, structure.showAll().size());
+            for (int i = 0; i < 5000; i++) {
+                CourseDBElement course = structure.get(30000 + i);
+                assertEquals("CMSC" + (i % 40), course.getID());
+                assertEquals(1 + i % 4, course.getCredits());
+                assertEquals(i % 9 == 0 ? null : "SC" + (i % 25), course.getRoomNum());
+                assertEquals("Instructor \u00d1ame " + i, course.getInstructorName());
+            }
+            assertThrows(IOException.class, () -> structure.get(29999));
+            assertTrue(structure.getOffHeapBytes() > 0);
+        }
+    }
+
+    /**
+     * Test that the structure cannot be used after close and that closing twice is harmless.
+     */
+    @Test
+    public void testClose() {
+        OffHeapCourseDBStructure structure = new OffHeapCourseDBStructure(10);
+        structure.add(new CourseDBElement("CMSC204", 30504, 4, "SC450", "Joey"));
+        structure.close();
+        structure.close();
+        assertEquals(0, structure.getOffHeapBytes());
+        assertThrows(IllegalStateException.class, () -> structure.get(30504));
+        assertThrows(IllegalStateException.class,
+                () -> structure.add(new CourseDBElement("CMSC204", 1, 4, "SC450", "Joey")));
+    }
+}
@@ -0,0 +1,330 @@
+package Default;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The OpenAddressingCourseDBStructure class stores course information in an open-addressing hash table.
+ * CRNs live in a primitive int array and the matching elements live in a parallel array, so lookups
+ * probe contiguous memory instead of walking linked nodes and never allocate.
+ */
+public class OpenAddressingCourseDBStructure implements CourseDBStoreInterface {
+    private static final double MAX_LOAD_FACTOR = 0.75; // Grow the table once it is this full.
+    private static final int MIN_CAPACITY = 16;         // Smallest table ever allocated.
+
+    private int[] keys;                   // The CRN stored in each slot.
+    private CourseDBElement[] elements;   // The element stored in each slot, or null if the slot is empty.
+    private int mask;                     // Capacity - 1, used to wrap probe positions.
+    private int size;                     // The number of elements in the table.
+    private int resizeThreshold;          // The size at which the table is grown.
+    private final CrnHashStrategy hashStrategy; // The hash function used to place CRNs.
+
+    /**
+     * Creates an OpenAddressingCourseDBStructure instance with an estimated number of courses.
+     *
+     * @param estimatedNumCourses The estimated number of courses used to size the table.
+     */
+    public OpenAddressingCourseDBStructure(int estimatedNumCourses) {
+        this(estimatedNumCourses, CrnHashStrategy.FIBONACCI);
+    }
+
+    /**
+     * Creates an OpenAddressingCourseDBStructure instance with an estimated number of courses and a hash strategy.
+     *
+     * @param estimatedNumCourses The estimated number of courses used to size the table.
+     * @param hashStrategy        The hash function used to place CRNs in the table.
+     */
+    public OpenAddressingCourseDBStructure(int estimatedNumCourses, CrnHashStrategy hashStrategy) {
+        this.hashStrategy = hashStrategy;
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD_FACTOR < estimatedNumCourses) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Adds a CourseDBElement to the table. If an element with the same CRN already exists, it is not added again.
+     *
+     * @param element The CourseDBElement to add to the table.
+     */
+    @Override
+    public void add(CourseDBElement element) {
+        put(element, false);
+    }
+
+    /**
+     * Stores a CourseDBElement, replacing the element with the same CRN in its slot if there is one.
+     *
+     * @param element The CourseDBElement to store.
+     * @return The element it replaced, or null if the CRN was not in the table.
+     */
+    @Override
+    public CourseDBElement update(CourseDBElement element) {
+        return put(element, true);
+    }
+
+    /**
+     * Removes the CourseDBElement with the given CRN. Later members of its probe run are shifted
+     * back into the gap, so the table never holds tombstones and lookups stay as short as before.
+     *
+     * @param crn The CRN of the course to remove.
+     * @return The element removed, or null if the CRN was not in the table.
+     */
+    @Override
+    public CourseDBElement remove(int crn) {
+        int index = indexFor(crn);
+        CourseDBElement element;
+        while ((element = elements[index]) != null) {
+            if (keys[index] == crn) {
+                deleteSlot(index);
+                size--;
+                return element;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves a CourseDBElement based on the provided CRN.
+     *
+     * @param crn The CRN of the course to retrieve.
+     * @return The CourseDBElement associated with the given CRN.
+     * @throws IOException If the course with the specified CRN is not found in the table.
+     */
+    @Override
+    public CourseDBElement get(int crn) throws IOException {
+        CourseDBElement element = find(crn);
+        if (element == null) {
+            throw new IOException("Course not found with CRN: " + crn);
+        }
+        return element;
+    }
+
+    /**
+     * Finds a CourseDBElement based on the provided CRN without throwing on a miss.
+     *
+     * @param crn The CRN of the course to find.
+     * @return The CourseDBElement associated with the given CRN, or null if it is not in the table.
+     */
+    @Override
+    public CourseDBElement find(int crn) {
+        int index = indexFor(crn);
+        CourseDBElement element;
+        while ((element = elements[index]) != null) {
+            if (keys[index] == crn) {
+                return element;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Returns an ArrayList of string representations of all course elements in the table.
+     *
+     * @return An ArrayList of strings representing all course elements in the table.
+     */
+    @Override
+    public ArrayList<String> showAll() {
+        ArrayList<String> courseStrings = new ArrayList<>(size);
+        for (CourseDBElement element : elements) {
+            if (element != null) {
+                courseStrings.add(element.toString());
+            }
+        }
+        return courseStrings;
+    }
+
+    /**
+     * Returns the capacity of the table.
+     *
+     * @return The number of slots in the table.
+     */
+    @Override
+    public int getTableSize() {
+        return elements.length;
+    }
+
+    /**
+     * Returns the number of elements stored in the table.
+     *
+     * @return The number of elements.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a snapshot of the table's size, load factor, and longest probe run, which is the
+     * longest stretch of occupied slots. Finding it visits every slot.
+     *
+     * @return The current statistics for this table.
+     */
+    @Override
+    public CourseDBStructureStats getStats() {
+        int longestRun = 0;
+        int run = 0;
+        for (CourseDBElement element : elements) {
+            run = element == null ? 0 : run + 1;
+            longestRun = Math.max(longestRun, run);
+        }
+        return new CourseDBStructureStats(size, elements.length, longestRun, false);
+    }
+
+    /**
+     * Returns an iterator over every element in the table, in slot order.
+     *
+     * @return An iterator over the stored elements.
+     */
+    @Override
+    public Iterator<CourseDBElement> iterator() {
+        return new Iterator<CourseDBElement>() {
+            private final CourseDBElement[] slots = elements;
+            private int index = advance(0); // The next occupied slot, or slots.length.
+
+            private int advance(int from) {
+                while (from < slots.length && slots[from] == null) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return index < slots.length;
+            }
+
+            @Override
+            public CourseDBElement next() {
+                if (index >= slots.length) {
+                    throw new NoSuchElementException();
+                }
+                CourseDBElement element = slots[index];
+                index = advance(index + 1);
+                return element;
+            }
+        };
+    }
+
+    /**
+     * Adds a batch of courses, growing the table once up front instead of doubling repeatedly.
+     *
+     * @param courses The courses to add.
+     */
+    @Override
+    public void addAll(Collection<? extends CourseDBElement> courses) {
+        long needed = (long) size + courses.size();
+        if (needed > resizeThreshold) {
+            int capacity = elements.length;
+            while (capacity * MAX_LOAD_FACTOR < needed) {
+                capacity <<= 1;
+            }
+            resize(capacity);
+        }
+        for (CourseDBElement course : courses) {
+            add(course);
+        }
+    }
+
+    /**
+     * Stores an element in its probe run.
+     *
+     * @param element The element to store.
+     * @param replace Whether an element with the same CRN is replaced or kept.
+     * @return The element already stored under the CRN, or null if there was none.
+     */
+    private CourseDBElement put(CourseDBElement element, boolean replace) {
+        int crn = element.getCRN();
+        int index = indexFor(crn);
+        // Linear probing: stop at the matching CRN or at the first empty slot.
+        CourseDBElement existing;
+        while ((existing = elements[index]) != null) {
+            if (keys[index] == crn) {
+                if (replace) {
+                    elements[index] = element;
+                }
+                return existing;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = crn;
+        elements[index] = element;
+        if (++size > resizeThreshold) {
+            resize(elements.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Empties a slot and moves each later member of its probe run that may live there back into
+     * the gap: an element may move back unless its home slot lies between the gap and itself.
+     *
+     * @param gap The slot to empty.
+     */
+    private void deleteSlot(int gap) {
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            if (elements[index] == null) {
+                break;
+            }
+            int home = indexFor(keys[index]);
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                elements[gap] = elements[index];
+                gap = index;
+            }
+        }
+        elements[gap] = null;
+    }
+
+    /**
+     * Computes the home slot for a CRN. The table size is a power of two, so the slot comes from
+     * the low bits of the hash; the default Fibonacci strategy keeps dense CRN runs from clustering.
+     *
+     * @param crn The CRN to place.
+     * @return The home slot index for the CRN.
+     */
+    private int indexFor(int crn) {
+        return hashStrategy.hash(crn) & mask;
+    }
+
+    /**
+     * Allocates empty key and element arrays of the given capacity.
+     *
+     * @param capacity The new capacity, which must be a power of two.
+     */
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        elements = new CourseDBElement[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * Moves every element into a new table of the given capacity.
+     *
+     * @param capacity The new capacity, which must be a power of two.
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        CourseDBElement[] oldElements = elements;
+        allocate(capacity);
+        for (int i = 0; i < oldElements.length; i++) {
+            if (oldElements[i] != null) {
+                int index = indexFor(oldKeys[i]);
+                while (elements[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                elements[index] = oldElements[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package Default;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class contains JUnit tests that check OpenAddressingCourseDBStructure behaves the same as
+ * CourseDBStructure for add, duplicate handling, lookup misses, and showAll.
+ */
+public class OpenAddressingCourseDBStructureTest {
+    private CourseDBStructure chained;
+    private OpenAddressingCourseDBStructure open;
+
+    /**
+     * Creates one empty structure of each kind before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        chained = new CourseDBStructure(20);
+        open = new OpenAddressingCourseDBStructure(20);
+    }
+
+    /**
+     * Adds the same element to both structures.
+     */
+    private void addToBoth(CourseDBElement element) {
+        chained.add(element);
+        open.add(element);
+    }
+
+    /**
+     * Test that added elements can be retrieved from both structures.
+     */
+    @Test
+    public void testAddAndGet() throws IOException {
+        CourseDBElement course = new CourseDBElement("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts");
+        addToBoth(course);
+        assertSame(chained.get(30504), open.get(30504));
+    }
+
+    /**
+     * Test that a duplicate CRN is ignored and the first element is kept.
+     */
+    @Test
+    public void testDuplicateIgnored() throws IOException {
+        CourseDBElement first = new CourseDBElement("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts");
+        CourseDBElement second = new CourseDBElement("CMSC203", 30504, 3, "SC451", "Jane Doe");
+        addToBoth(first);
+        addToBoth(second);
+        assertSame(first, chained.get(30504));
+        assertSame(first, open.get(30504));
+        assertEquals(chained.showAll().size(), open.showAll().size());
+    }
+
+    /**
+     * Test that both structures throw an IOException for a CRN that was never added.
+     */
+    @Test
+    public void testGetMiss() {
+        addToBoth(new CourseDBElement("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts"));
+        assertThrows(IOException.class, () -> chained.get(30505));
+        assertThrows(IOException.class, () -> open.get(30505));
+    }
+
+    /**
+     * Test that find returns the course on a hit and null instead of throwing on a miss.
+     */
+    @Test
+    public void testFind() {
+        CourseDBElement course = new CourseDBElement("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts");
+        addToBoth(course);
+        assertSame(course, chained.find(30504));
+        assertSame(course, open.find(30504));
+        assertNull(chained.find(30505));
+        assertNull(open.find(30505));
+    }
+
+    /**
+     * Test that a batch added and looked up in one call returns each result at its own position.
+     */
+    @Test
+    public void testAddAllAndFindAll() {
+        List<CourseDBElement> courses = new ArrayList<>();
+        for (int crn = 0; crn < 10000; crn += 2) {
+            courses.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey Bag-O-Donuts"));
+        }
+        open.addAll(courses);
+        int[] crns = new int[10000];
+        for (int i = 0; i < crns.length; i++) {
+            crns[i] = crns.length - 1 - i;
+        }
+        CourseDBElement[] results = new CourseDBElement[crns.length];
+        open.findAll(crns, results, 0, crns.length);
+        for (int i = 0; i < crns.length; i++) {
+            if (crns[i] % 2 == 0) {
+                assertEquals(crns[i], results[i].getCRN());
+            } else {
+                assertNull(results[i]);
+            }
+        }
+    }
+
+    /**
+     * Test that both structures report the same set of courses after many random adds,
+     * including adds that force the open-addressing table to grow.
+     */
+    @Test
+    public void testShowAllMatchesAfterGrowth() throws IOException {
+        Random random = new Random(204);
+        for (int i = 0; i < 5000; i++) {
+            int crn = 10000 + random.nextInt(20000);
+            addToBoth(new CourseDBElement("CMSC" + (i % 300), crn, 1 + i % 4, "SC" + (i % 50), "Instructor " + i));
+        }
+        ArrayList<String> expected = chained.showAll();
+        ArrayList<String> actual = open.showAll();
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), open.size());
+        assertTrue(open.getTableSize() > 20);
+
+        for (int crn = 10000; crn < 30000; crn++) {
+            CourseDBElement expectedElement = null;
+            try {
+                expectedElement = chained.get(crn);
+            } catch (IOException e) {
+                final int missing = crn;
+                assertThrows(IOException.class, () -> open.get(missing));
+                continue;
+            }
+            assertSame(expectedElement, open.get(crn));
+        }
+    }
+
+    /**
+     * Test that negative and zero CRNs are stored like any other key.
+     */
+    @Test
+    public void testUnusualCrns() throws IOException {
+        CourseDBElement zero = new CourseDBElement("ZERO", 0, 1, "R0", "Nobody");
+        CourseDBElement negative = new CourseDBElement("NEG", -42, 1, "R1", "Nobody");
+        addToBoth(zero);
+        addToBoth(negative);
+        assertSame(zero, open.get(0));
+        assertSame(negative, open.get(-42));
+        assertEquals(2, open.size());
+    }
+}
@@ -0,0 +1,544 @@
+package Default;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The PersistentCourseDBStructure class stores courses in a persistent hash array mapped trie and
+ * publishes every change as a new immutable Version. Readers take no locks and never see a change
+ * half made: get, showAll, and iteration each read one Version, and snapshot hands out a Version
+ * that stays consistent for as long as the caller keeps it, however many changes happen meanwhile.
+ *
+ * <p>An add, update, or remove copies only the path from the root to the course, at most seven small
+ * nodes, and shares everything else with the previous Version, so a full export running on an old
+ * Version costs writers nothing. applyChanges publishes a whole batch of updates and removals as one
+ * Version. Writers are serialized by one lock and publish through an AtomicReference.
+ * The trie is keyed by the CRN's Fibonacci hash, which is a bijection on 32-bit ints, so two
+ * different CRNs never have the same hash and no collision nodes are needed.</p>
+ */
+public class PersistentCourseDBStructure implements CourseDBStoreInterface {
+    private static final int BITS = 5;                    // Hash bits consumed per trie level.
+    private static final int BRANCHING = 1 << BITS;       // Children per node.
+    private static final int MAX_DEPTH = (32 + BITS - 1) / BITS; // Levels needed to consume all 32 hash bits.
+
+    private final AtomicReference<Version> current = new AtomicReference<>(new Version(Node.EMPTY, 0, 0));
+    private final ReentrantLock writeLock = new ReentrantLock(); // Serializes writers; readers never take it.
+
+    /**
+     * One trie node: a bitmap of which of the 32 children exist, and the existing children packed
+     * in order. Each child is a CourseDBElement or a deeper Node. Nodes are never changed after
+     * they are published; the only in-place edits are to nodes created by the same unpublished
+     * batch, identified by its edit token.
+     */
+    private static final class Node {
+        private static final Node EMPTY = new Node(null, 0, new Object[0]);
+
+        private final Object edit; // The batch that may still modify this node, or null.
+        private int bitmap;        // Bit i is set when child i exists.
+        private Object[] children; // The existing children, in bit order.
+
+        private Node(Object edit, int bitmap, Object[] children) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        /**
+         * Returns this node if the batch owns it, otherwise a copy that the batch owns.
+         */
+        private Node editable(Object batch) {
+            return batch != null && edit == batch ? this : new Node(batch, bitmap, children.clone());
+        }
+    }
+
+    /**
+     * An immutable, point-in-time view of the courses. A Version never changes, so it can be read
+     * from any number of threads, for as long as needed, while newer Versions are published.
+     */
+    public static final class Version implements Iterable<CourseDBElement> {
+        private final Node root;
+        private final int size;
+        private final long number;
+
+        private Version(Node root, int size, long number) {
+            this.root = root;
+            this.size = size;
+            this.number = number;
+        }
+
+        /**
+         * Finds a course in this Version.
+         *
+         * @param crn The CRN of the course to find.
+         * @return The course, or null if this Version does not hold it.
+         */
+        public CourseDBElement find(int crn) {
+            int hash = hash(crn);
+            Node node = root;
+            for (int shift = 0; ; shift += BITS) {
+                int bit = 1 << ((hash >>> shift) & (BRANCHING - 1));
+                if ((node.bitmap & bit) == 0) {
+                    return null;
+                }
+                Object child = node.children[Integer.bitCount(node.bitmap & (bit - 1))];
+                if (child instanceof Node) {
+                    node = (Node) child;
+                } else {
+                    CourseDBElement element = (CourseDBElement) child;
+                    return element.getCRN() == crn ? element : null;
+                }
+            }
+        }
+
+        /**
+         * Gets the number of courses in this Version.
+         *
+         * @return The number of courses.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Gets this Version's number, which increases by one with every published change.
+         *
+         * @return The version number.
+         */
+        public long getNumber() {
+            return number;
+        }
+
+        /**
+         * Returns a stream over the courses of this Version.
+         *
+         * @return A sequential stream of courses.
+         */
+        public Stream<CourseDBElement> stream() {
+            return StreamSupport.stream(Spliterators.spliterator(iterator(), size,
+                    Spliterator.DISTINCT | Spliterator.IMMUTABLE | Spliterator.NONNULL), false);
+        }
+
+        /**
+         * Returns an ArrayList of string representations of the courses of this Version.
+         *
+         * @return An ArrayList of strings representing the courses.
+         */
+        public ArrayList<String> showAll() {
+            ArrayList<String> courseStrings = new ArrayList<>(size);
+            for (CourseDBElement element : this) {
+                courseStrings.add(element.toString());
+            }
+            return courseStrings;
+        }
+
+        /**
+         * Returns an iterator over the courses of this Version, depth first through the trie.
+         *
+         * @return An iterator over the courses.
+         */
+        @Override
+        public Iterator<CourseDBElement> iterator() {
+            return new Iterator<CourseDBElement>() {
+                private final Node[] nodes = new Node[MAX_DEPTH + 1]; // The path from the root.
+                private final int[] positions = new int[MAX_DEPTH + 1]; // The next child at each level.
+                private int depth;                                      // The level being read.
+                private CourseDBElement next = root.children.length == 0 ? null : advance(root);
+
+                private CourseDBElement advance(Node start) {
+                    if (start != null) {
+                        nodes[0] = start;
+                    }
+                    while (depth >= 0) {
+                        Node node = nodes[depth];
+                        if (positions[depth] == node.children.length) {
+                            positions[depth] = 0;
+                            depth--;
+                            continue;
+                        }
+                        Object child = node.children[positions[depth]++];
+                        if (child instanceof Node) {
+                            nodes[++depth] = (Node) child;
+                        } else {
+                            return (CourseDBElement) child;
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public CourseDBElement next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    CourseDBElement element = next;
+                    next = advance(null);
+                    return element;
+                }
+            };
+        }
+    }
+
+    /**
+     * Returns true: readers see published Versions and writers take turns on one lock.
+     *
+     * @return true.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Creates an empty PersistentCourseDBStructure. A trie grows one node at a time, so it needs
+     * no estimate of the number of courses.
+     */
+    public PersistentCourseDBStructure() {
+    }
+
+    /**
+     * Adds a CourseDBElement and publishes the new Version. If an element with the same CRN
+     * already exists, it is not added again and no Version is published.
+     *
+     * @param element The CourseDBElement to add.
+     */
+    @Override
+    public void add(CourseDBElement element) {
+        writeLock.lock();
+        try {
+            Version version = current.get();
+            CourseDBElement[] existing = new CourseDBElement[1];
+            Node root = insert(version.root, hash(element.getCRN()), 0, element, false, null, existing);
+            if (existing[0] == null) {
+                current.set(new Version(root, version.size + 1, version.number + 1));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Stores a CourseDBElement, replacing the element with the same CRN if there is one, and
+     * publishes the new Version.
+     *
+     * @param element The CourseDBElement to store.
+     * @return The element it replaced, or null if the CRN was not stored.
+     */
+    @Override
+    public CourseDBElement update(CourseDBElement element) {
+        writeLock.lock();
+        try {
+            Version version = current.get();
+            CourseDBElement[] existing = new CourseDBElement[1];
+            Node root = insert(version.root, hash(element.getCRN()), 0, element, true, null, existing);
+            current.set(new Version(root, existing[0] == null ? version.size + 1 : version.size, version.number + 1));
+            return existing[0];
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the CourseDBElement with the given CRN and publishes the new Version. If the CRN is
+     * not stored, no Version is published.
+     *
+     * @param crn The CRN of the course to remove.
+     * @return The element removed, or null if the CRN was not stored.
+     */
+    @Override
+    public CourseDBElement remove(int crn) {
+        writeLock.lock();
+        try {
+            Version version = current.get();
+            CourseDBElement[] removed = new CourseDBElement[1];
+            Node root = delete(version.root, hash(crn), 0, crn, null, removed);
+            if (removed[0] != null) {
+                current.set(new Version(root, version.size - 1, version.number + 1));
+            }
+            return removed[0];
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a batch of courses and publishes them together as one Version, so readers see either
+     * none or all of the batch. Nodes created within the batch are updated in place instead of
+     * being copied again by each later course.
+     *
+     * @param courses The courses to add.
+     */
+    @Override
+    public void addAll(Collection<? extends CourseDBElement> courses) {
+        writeLock.lock();
+        try {
+            Version version = current.get();
+            Object batch = new Object();
+            Node root = version.root;
+            int size = version.size;
+            CourseDBElement[] existing = new CourseDBElement[1];
+            for (CourseDBElement element : courses) {
+                existing[0] = null;
+                root = insert(root, hash(element.getCRN()), 0, element, false, batch, existing);
+                if (existing[0] == null) {
+                    size++;
+                }
+            }
+            if (size != version.size) {
+                current.set(new Version(root, size, version.number + 1));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Applies a batch of updates and removals and publishes them together as one Version, so
+     * readers see either none or all of the batch. Like addAll, nodes created within the batch are
+     * edited in place.
+     *
+     * @param upserts  The courses to store, replacing any stored under the same CRN.
+     * @param removals The CRNs of the courses to remove.
+     */
+    @Override
+    public void applyChanges(Collection<? extends CourseDBElement> upserts, int[] removals) {
+        writeLock.lock();
+        try {
+            Version version = current.get();
+            Object batch = new Object();
+            Node root = version.root;
+            int size = version.size;
+            CourseDBElement[] found = new CourseDBElement[1];
+            for (CourseDBElement element : upserts) {
+                found[0] = null;
+                root = insert(root, hash(element.getCRN()), 0, element, true, batch, found);
+                if (found[0] == null) {
+                    size++;
+                }
+            }
+            for (int crn : removals) {
+                found[0] = null;
+                root = delete(root, hash(crn), 0, crn, batch, found);
+                if (found[0] != null) {
+                    size--;
+                }
+            }
+            if (root != version.root) {
+                current.set(new Version(root, size, version.number + 1));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves a CourseDBElement based on the provided CRN from the latest Version.
+     *
+     * @param crn The CRN of the course to retrieve.
+     * @return The CourseDBElement associated with the given CRN.
+     * @throws IOException If the course with the specified CRN is not found.
+     */
+    @Override
+    public CourseDBElement get(int crn) throws IOException {
+        CourseDBElement element = find(crn);
+        if (element == null) {
+            throw new IOException("Course not found with CRN: " + crn);
+        }
+        return element;
+    }
+
+    /**
+     * Finds a CourseDBElement in the latest Version without taking any lock or throwing on a miss.
+     *
+     * @param crn The CRN of the course to find.
+     * @return The CourseDBElement associated with the given CRN, or null if it is not stored.
+     */
+    @Override
+    public CourseDBElement find(int crn) {
+        return current.get().find(crn);
+    }
+
+    /**
+     * Returns an ArrayList of string representations of every course in the latest Version. The
+     * list is consistent: it reflects exactly the changes published before the call began.
+     *
+     * @return An ArrayList of strings representing all courses.
+     */
+    @Override
+    public ArrayList<String> showAll() {
+        return current.get().showAll();
+    }
+
+    /**
+     * Returns the fan-out of each trie node. A trie has no single table to report.
+     *
+     * @return The number of children per node.
+     */
+    @Override
+    public int getTableSize() {
+        return BRANCHING;
+    }
+
+    /**
+     * Returns the number of courses in the latest Version.
+     *
+     * @return The number of courses.
+     */
+    @Override
+    public int size() {
+        return current.get().size;
+    }
+
+    /**
+     * Returns an iterator over the latest Version. It is unaffected by changes made while it runs.
+     *
+     * @return An iterator over the stored courses.
+     */
+    @Override
+    public Iterator<CourseDBElement> iterator() {
+        return current.get().iterator();
+    }
+
+    /**
+     * Returns the latest Version, a consistent view that later changes do not change.
+     *
+     * @return The current Version.
+     */
+    public Version snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Returns a node with the element added below it.
+     *
+     * @param node     The node to add under.
+     * @param hash     The element's CRN hash.
+     * @param shift    The hash bits already consumed above this node.
+     * @param element  The element to add.
+     * @param replace  Whether an element with the same CRN is replaced or kept.
+     * @param batch    The edit token of the current batch, or null to copy every changed node.
+     * @param existing Set to the element already stored under the CRN, if there was one.
+     * @return The node with the element, which is node itself if nothing had to be copied.
+     */
+    private static Node insert(Node node, int hash, int shift, CourseDBElement element, boolean replace,
+                               Object batch, CourseDBElement[] existing) {
+        int bit = 1 << ((hash >>> shift) & (BRANCHING - 1));
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        if ((node.bitmap & bit) == 0) {
+            Object[] children = new Object[node.children.length + 1];
+            System.arraycopy(node.children, 0, children, 0, index);
+            children[index] = element;
+            System.arraycopy(node.children, index, children, index + 1, node.children.length - index);
+            if (batch != null && node.edit == batch) {
+                node.bitmap |= bit;
+                node.children = children;
+                return node;
+            }
+            return new Node(batch, node.bitmap | bit, children);
+        }
+
+        Object child = node.children[index];
+        Object replacement;
+        if (child instanceof Node) {
+            replacement = insert((Node) child, hash, shift + BITS, element, replace, batch, existing);
+        } else {
+            CourseDBElement stored = (CourseDBElement) child;
+            if (stored.getCRN() == element.getCRN()) {
+                existing[0] = stored;
+                if (!replace) {
+                    return node; // Element already exists, exit quietly
+                }
+                replacement = element;
+            } else {
+                replacement = pair(stored, hash(stored.getCRN()), element, hash, shift + BITS, batch);
+            }
+        }
+        if (replacement == child) {
+            return node;
+        }
+        Node copy = node.editable(batch);
+        copy.children[index] = replacement;
+        return copy;
+    }
+
+    /**
+     * Returns a node with the element for a CRN removed from below it. A node left holding only
+     * one course is replaced by that course, so the trie stays as shallow as if the removed course
+     * had never been added.
+     *
+     * @param node    The node to remove from.
+     * @param hash    The CRN's hash.
+     * @param shift   The hash bits already consumed above this node.
+     * @param crn     The CRN to remove.
+     * @param batch   The edit token of the current batch, or null to copy every changed node.
+     * @param removed Set to the element removed, if the CRN was stored.
+     * @return The node without the element, which is node itself if the CRN was not stored.
+     */
+    private static Node delete(Node node, int hash, int shift, int crn, Object batch, CourseDBElement[] removed) {
+        int bit = 1 << ((hash >>> shift) & (BRANCHING - 1));
+        if ((node.bitmap & bit) == 0) {
+            return node;
+        }
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        Object child = node.children[index];
+        if (child instanceof Node) {
+            Node below = delete((Node) child, hash, shift + BITS, crn, batch, removed);
+            if (below == child) {
+                return node;
+            }
+            Object replacement = below;
+            if (below.children.length == 1 && !(below.children[0] instanceof Node)) {
+                replacement = below.children[0];
+            }
+            Node copy = node.editable(batch);
+            copy.children[index] = replacement;
+            return copy;
+        }
+        CourseDBElement stored = (CourseDBElement) child;
+        if (stored.getCRN() != crn) {
+            return node;
+        }
+        removed[0] = stored;
+        Object[] children = new Object[node.children.length - 1];
+        System.arraycopy(node.children, 0, children, 0, index);
+        System.arraycopy(node.children, index + 1, children, index, children.length - index);
+        if (batch != null && node.edit == batch) {
+            node.bitmap ^= bit;
+            node.children = children;
+            return node;
+        }
+        return new Node(batch, node.bitmap ^ bit, children);
+    }
+
+    /**
+     * Builds the smallest subtree holding two elements whose hashes agree below the given shift.
+     */
+    private static Node pair(CourseDBElement first, int firstHash, CourseDBElement second, int secondHash,
+                             int shift, Object batch) {
+        int firstIndex = (firstHash >>> shift) & (BRANCHING - 1);
+        int secondIndex = (secondHash >>> shift) & (BRANCHING - 1);
+        if (firstIndex == secondIndex) {
+            return new Node(batch, 1 << firstIndex,
+                    new Object[] {pair(first, firstHash, second, secondHash, shift + BITS, batch)});
+        }
+        Object[] children = firstIndex < secondIndex ? new Object[] {first, second} : new Object[] {second, first};
+        return new Node(batch, (1 << firstIndex) | (1 << secondIndex), children);
+    }
+
+    private static int hash(int crn) {
+        return CrnHashStrategy.FIBONACCI.hash(crn);
+    }
+}
@@ -0,0 +1,141 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class contains JUnit tests for PersistentCourseDBStructure. It tests adds and lookups,
+ * that a snapshot is unaffected by later adds, that batches of adds and of changes are published
+ * at once, and that scans running alongside a writer always see a consistent version.
+ */
+public class PersistentCourseDBStructureTest {
+
+    /**
+     * Test that courses are found, duplicates are ignored, and iteration visits each course once.
+     */
+    @Test
+    public void testAddAndFind() throws IOException {
+        PersistentCourseDBStructure structure = new PersistentCourseDBStructure();
+        for (int i = 0; i < 20000; i++) {
+            structure.add(new CourseDBElement("CMSC" + (i % 30), i * 7, 4, "SC450", "Instructor " + i));
+        }
+        structure.add(new CourseDBElement("DUPLICATE", 0, 9, "X", "Y"));
+
+        assertEquals(20000, structure.size());
+        assertEquals("CMSC0", structure.get(0).getID());
+        assertEquals(139993, structure.find(139993).getCRN());
+        assertNull(structure.find(1));
+        assertThrows(IOException.class, () -> structure.get(1));
+        Set<Integer> seen = new HashSet<>();
+        for (CourseDBElement course : structure) {
+            assertTrue(seen.add(course.getCRN()));
+        }
+        assertEquals(20000, seen.size());
+        assertEquals(20000, structure.showAll().size());
+    }
+
+    /**
+     * Test that a snapshot keeps its contents while later adds and batches are published.
+     */
+    @Test
+    public void testSnapshotIsImmutable() {
+        PersistentCourseDBStructure structure = new PersistentCourseDBStructure();
+        structure.add(new CourseDBElement("CMSC204", 30504, 4, "SC450", "Joey Bag-O-Donuts"));
+        PersistentCourseDBStructure.Version before = structure.snapshot();
+
+        List<CourseDBElement> batch = new ArrayList<>();
+        for (int crn = 0; crn < 5000; crn++) {
+            batch.add(new CourseDBElement("CMSC203", crn, 3, "SC451", "Jane Doe"));
+        }
+        structure.addAll(batch);
+        structure.add(new CourseDBElement("CMSC140", 99999, 3, "HT100", "Al Gore"));
+
+        assertEquals(1, before.size());
+        assertEquals(1, before.stream().count());
+        assertNull(before.find(0));
+        assertEquals(5002, structure.size());
+        assertEquals(before.getNumber() + 2, structure.snapshot().getNumber());
+        assertEquals(4999, structure.find(4999).getCRN());
+    }
+
+    /**
+     * Test that scans running while a writer adds batches always see whole batches.
+     */
+    @Test
+    public void testScansSeeWholeBatches() throws InterruptedException {
+        PersistentCourseDBStructure structure = new PersistentCourseDBStructure();
+        int batchSize = 100;
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            for (int b = 0; b < 200; b++) {
+                List<CourseDBElement> batch = new ArrayList<>();
+                for (int i = 0; i < batchSize; i++) {
+                    batch.add(new CourseDBElement("CMSC204", b * batchSize + i, 4, "SC450", "Writer"));
+                }
+                structure.addAll(batch);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            PersistentCourseDBStructure.Version version = structure.snapshot();
+            long count = version.stream().count();
+            if (count != version.size() || count % batchSize != 0) {
+                failure.compareAndSet(null, "Scan saw " + count + " courses of version size " + version.size());
+            }
+        }
+        writer.join();
+        assertNull(failure.get());
+        assertEquals(200 * batchSize, structure.size());
+    }
+
+    /**
+     * Test that a change batch is published as one version, leaves earlier versions untouched,
+     * and that removing courses down to one brings the trie back to its shape before the adds.
+     */
+    @Test
+    public void testChangeBatchIsOneVersion() {
+        PersistentCourseDBStructure structure = new PersistentCourseDBStructure();
+        List<CourseDBElement> courses = new ArrayList<>();
+        for (int crn = 0; crn < 1000; crn++) {
+            courses.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey"));
+        }
+        structure.addAll(courses);
+        PersistentCourseDBStructure.Version before = structure.snapshot();
+
+        List<CourseDBElement> upserts = new ArrayList<>();
+        upserts.add(new CourseDBElement("CMSC204", 5, 3, "SC451", "Jane"));
+        upserts.add(new CourseDBElement("NEW", 2000, 3, "SC451", "Jane"));
+        int[] removals = new int[900];
+        for (int i = 0; i < removals.length; i++) {
+            removals[i] = 100 + i;
+        }
+        removals[0] = 5000; // Not stored.
+        structure.applyChanges(upserts, removals);
+
+        PersistentCourseDBStructure.Version after = structure.snapshot();
+        assertEquals(before.getNumber() + 1, after.getNumber());
+        assertEquals(1000, before.size());
+        assertEquals("Joey", before.find(5).getInstructorName());
+        assertEquals(1000 + 1 - 899, after.size());
+        assertEquals(after.size(), after.stream().count());
+        assertEquals("Jane", after.find(5).getInstructorName());
+        assertNull(after.find(500));
+        assertEquals(100, after.find(100).getCRN());
+
+        for (int crn = 0; crn < 2000; crn++) {
+            structure.remove(crn);
+        }
+        assertEquals(1, structure.size());
+        assertEquals("NEW", structure.find(2000).getID());
+        assertNull(structure.remove(2000 + 1));
+        assertEquals("NEW", structure.update(new CourseDBElement("NEWER", 2000, 3, "SC451", "Jane")).getID());
+        assertEquals("NEWER", structure.iterator().next().getID());
+    }
+}
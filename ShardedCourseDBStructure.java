@@ -0,0 +1,599 @@
+package Default;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The ShardedCourseDBStructure class partitions the CRN key space over several shards, each an
+ * ordinary structure guarded by its own read-write lock, so changes to different shards run in
+ * parallel. CRNs are assigned to shards by consistent hashing: every shard owns VIRTUAL_NODES
+ * points on a hash ring, and a CRN belongs to the first point at or after its hash.
+ *
+ * <p>get, add, update, and remove are routed to the owning shard. showAll, iteration, and scan
+ * gather from every shard in parallel, one shard lock at a time; a gather that overlaps addShard
+ * is redone holding every shard's read lock, so no course is missed or seen twice as it moves.
+ * addShard rebalances online: only the
+ * CRNs the new shard takes over move, one old shard at a time, and while they move, operations on
+ * a moving CRN lock both its previous and its new shard. Every operation checks, once it holds its
+ * locks, that the routing it used is still in force and otherwise retries, so a change can never
+ * land in a shard that has already been drained. Each course is stored in exactly one shard.</p>
+ */
+public class ShardedCourseDBStructure implements CourseDBStoreInterface {
+    private static final int VIRTUAL_NODES = 128; // Ring points per shard; more points spread CRNs more evenly.
+
+    private final Supplier<? extends CourseDBStoreInterface> shardFactory; // Creates the store of each new shard.
+    private final ReentrantLock rebalanceLock = new ReentrantLock();        // Serializes addShard calls.
+    private final LongAdder count = new LongAdder();                         // The number of courses.
+    private volatile State state;                                           // The shards and the routing in force.
+
+    /**
+     * One shard: a store and the lock that makes it safe to share between threads.
+     */
+    private static final class Shard {
+        private final CourseDBStoreInterface store;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private Shard(CourseDBStoreInterface store) {
+            this.store = store;
+        }
+
+        /**
+         * Copies the courses of this shard that match a filter.
+         */
+        private List<CourseDBElement> collect(Predicate<CourseDBElement> filter) {
+            lock.readLock().lock();
+            try {
+                return matching(filter);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Copies the courses of this shard that match a filter; the caller holds the shard's lock.
+         */
+        private List<CourseDBElement> matching(Predicate<CourseDBElement> filter) {
+            List<CourseDBElement> matches = new ArrayList<>();
+            for (CourseDBElement element : store) {
+                if (filter.test(element)) {
+                    matches.add(element);
+                }
+            }
+            return matches;
+        }
+    }
+
+    /**
+     * An immutable consistent-hash ring over a number of shards. Shard s always gets the same
+     * points, so growing the ring from n to n + 1 shards only moves CRNs to the new shard.
+     */
+    private static final class Ring {
+        private final int[] points; // Sorted ring positions.
+        private final int[] owners; // The shard owning each position.
+
+        private Ring(int shardCount) {
+            long[] pairs = new long[shardCount * VIRTUAL_NODES];
+            for (int shard = 0; shard < shardCount; shard++) {
+                for (int v = 0; v < VIRTUAL_NODES; v++) {
+                    // MURMUR3 is a bijection, so distinct inputs give distinct points.
+                    int point = CrnHashStrategy.MURMUR3.hash(~(shard * VIRTUAL_NODES + v));
+                    pairs[shard * VIRTUAL_NODES + v] = (long) point << 32 | shard;
+                }
+            }
+            Arrays.sort(pairs);
+            points = new int[pairs.length];
+            owners = new int[pairs.length];
+            for (int i = 0; i < pairs.length; i++) {
+                points[i] = (int) (pairs[i] >> 32);
+                owners[i] = (int) pairs[i];
+            }
+        }
+
+        private int ownerOf(int crn) {
+            int index = Arrays.binarySearch(points, CrnHashStrategy.MURMUR3.hash(crn));
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return owners[index == points.length ? 0 : index];
+        }
+    }
+
+    /**
+     * The shards and routing in force. While a shard is being added, previous is the ring before
+     * it, and CRNs that have not moved yet are still held by their previous shard.
+     */
+    private static final class State {
+        private final Shard[] shards;
+        private final Ring ring;
+        private final Ring previous; // The ring being migrated away from, or null.
+
+        private State(Shard[] shards, Ring ring, Ring previous) {
+            this.shards = shards;
+            this.ring = ring;
+            this.previous = previous;
+        }
+
+        /**
+         * Returns the shard a CRN may still be waiting in to move to its owner, or null if the
+         * CRN is not moving.
+         */
+        private Shard movingFrom(int crn, int owner) {
+            if (previous == null) {
+                return null;
+            }
+            int previousOwner = previous.ownerOf(crn);
+            return previousOwner == owner ? null : shards[previousOwner];
+        }
+    }
+
+    /**
+     * The shards locked for one operation on one CRN, under the State they were routed by.
+     */
+    private static final class Route {
+        private final Shard owner;  // The shard the CRN belongs to.
+        private final Shard moving; // The shard the CRN is moving from, or null.
+        private final boolean write;
+
+        private Route(Shard owner, Shard moving, boolean write) {
+            this.owner = owner;
+            this.moving = moving;
+            this.write = write;
+        }
+
+        private void unlock() {
+            release(owner, write);
+            if (moving != null) {
+                release(moving, write);
+            }
+        }
+
+        private static void acquire(Shard shard, boolean write) {
+            if (write) {
+                shard.lock.writeLock().lock();
+            } else {
+                shard.lock.readLock().lock();
+            }
+        }
+
+        private static void release(Shard shard, boolean write) {
+            if (write) {
+                shard.lock.writeLock().unlock();
+            } else {
+                shard.lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Creates a ShardedCourseDBStructure of CourseDBStructure shards.
+     *
+     * @param shardCount          The initial number of shards.
+     * @param estimatedNumCourses The estimated total number of courses, spread over the shards.
+     */
+    public ShardedCourseDBStructure(int shardCount, int estimatedNumCourses) {
+        this(shardCount, () -> new CourseDBStructure(Math.max(16, estimatedNumCourses / shardCount)));
+    }
+
+    /**
+     * Creates a ShardedCourseDBStructure whose shards are created by a factory. Any structure can
+     * be a shard, since every shard is guarded by its own lock.
+     *
+     * @param shardCount   The initial number of shards.
+     * @param shardFactory Creates an empty store for each shard, including shards added later.
+     * @throws IllegalArgumentException If shardCount is not positive.
+     */
+    public ShardedCourseDBStructure(int shardCount, Supplier<? extends CourseDBStoreInterface> shardFactory) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        this.shardFactory = shardFactory;
+        Shard[] shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(shardFactory.get());
+        }
+        state = new State(shards, new Ring(shardCount), null);
+    }
+
+    /**
+     * Adds a CourseDBElement to its shard. If an element with the same CRN already exists, it is not added again.
+     *
+     * @param element The CourseDBElement to add.
+     */
+    @Override
+    public void add(CourseDBElement element) {
+        Route route = lock(element.getCRN(), true);
+        try {
+            if (route.moving != null && route.moving.store.find(element.getCRN()) != null) {
+                return; // Element already exists and is waiting to move, exit quietly
+            }
+            int sizeBefore = route.owner.store.size();
+            route.owner.store.add(element);
+            count.add(route.owner.store.size() - sizeBefore);
+        } finally {
+            route.unlock();
+        }
+    }
+
+    /**
+     * Stores a CourseDBElement in its shard, replacing the element with the same CRN if there is
+     * one. A course still waiting to move is moved by the update.
+     *
+     * @param element The CourseDBElement to store.
+     * @return The element it replaced, or null if the CRN was not stored.
+     */
+    @Override
+    public CourseDBElement update(CourseDBElement element) {
+        Route route = lock(element.getCRN(), true);
+        try {
+            CourseDBElement previous = route.moving == null ? null : route.moving.store.remove(element.getCRN());
+            CourseDBElement replaced = route.owner.store.update(element);
+            if (replaced == null) {
+                replaced = previous;
+            }
+            if (replaced == null) {
+                count.increment();
+            }
+            return replaced;
+        } finally {
+            route.unlock();
+        }
+    }
+
+    /**
+     * Removes the CourseDBElement with the given CRN from its shard, or from the shard it is
+     * waiting to move from.
+     *
+     * @param crn The CRN of the course to remove.
+     * @return The element removed, or null if the CRN was not stored.
+     */
+    @Override
+    public CourseDBElement remove(int crn) {
+        Route route = lock(crn, true);
+        try {
+            CourseDBElement removed = route.moving == null ? null : route.moving.store.remove(crn);
+            if (removed == null) {
+                removed = route.owner.store.remove(crn);
+            }
+            if (removed != null) {
+                count.decrement();
+            }
+            return removed;
+        } finally {
+            route.unlock();
+        }
+    }
+
+    /**
+     * Adds a batch of courses, grouped by shard so each shard's lock is taken once, with the
+     * shards filled in parallel.
+     *
+     * @param courses The courses to add.
+     */
+    @Override
+    public void addAll(Collection<? extends CourseDBElement> courses) {
+        State current = state;
+        if (current.previous != null) {
+            for (CourseDBElement element : courses) {
+                add(element); // Mid-migration every add needs the duplicate check against the previous owner.
+            }
+            return;
+        }
+        List<List<CourseDBElement>> groups = new ArrayList<>();
+        for (int i = 0; i < current.shards.length; i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (CourseDBElement element : courses) {
+            groups.get(current.ring.ownerOf(element.getCRN())).add(element);
+        }
+        IntStream.range(0, current.shards.length).parallel().forEach(i -> {
+            Shard shard = current.shards[i];
+            List<CourseDBElement> group = groups.get(i);
+            if (group.isEmpty()) {
+                return;
+            }
+            shard.lock.writeLock().lock();
+            try {
+                if (state == current) {
+                    int sizeBefore = shard.store.size();
+                    shard.store.addAll(group);
+                    count.add(shard.store.size() - sizeBefore);
+                    return;
+                }
+            } finally {
+                shard.lock.writeLock().unlock();
+            }
+            for (CourseDBElement element : group) {
+                add(element); // A shard was added since the batch was grouped.
+            }
+        });
+    }
+
+    /**
+     * Retrieves a CourseDBElement from its shard.
+     *
+     * @param crn The CRN of the course to retrieve.
+     * @return The CourseDBElement associated with the given CRN.
+     * @throws IOException If the course with the specified CRN is not found.
+     */
+    @Override
+    public CourseDBElement get(int crn) throws IOException {
+        CourseDBElement element = find(crn);
+        if (element == null) {
+            throw new IOException("Course not found with CRN: " + crn);
+        }
+        return element;
+    }
+
+    /**
+     * Finds a CourseDBElement in its shard, or during a rebalance in the shard it is moving from.
+     *
+     * @param crn The CRN of the course to find.
+     * @return The CourseDBElement associated with the given CRN, or null if it is not stored.
+     */
+    @Override
+    public CourseDBElement find(int crn) {
+        Route route = lock(crn, false);
+        try {
+            CourseDBElement element = route.owner.store.find(crn);
+            if (element == null && route.moving != null) {
+                element = route.moving.store.find(crn);
+            }
+            return element;
+        } finally {
+            route.unlock();
+        }
+    }
+
+    /**
+     * Returns string representations of every course, gathered from all shards in parallel.
+     *
+     * @return An ArrayList of strings representing all courses, shard by shard.
+     */
+    @Override
+    public ArrayList<String> showAll() {
+        ArrayList<String> courseStrings = new ArrayList<>(size());
+        for (List<CourseDBElement> shardCourses : gather(element -> true)) {
+            for (CourseDBElement element : shardCourses) {
+                courseStrings.add(element.toString());
+            }
+        }
+        return courseStrings;
+    }
+
+    /**
+     * Returns every course that matches a filter, scanning all shards in parallel. Secondary
+     * lookups such as by instructor or room use this to avoid copying the whole catalog.
+     *
+     * @param filter The condition a course must meet.
+     * @return The matching courses, shard by shard.
+     */
+    public List<CourseDBElement> scan(Predicate<CourseDBElement> filter) {
+        List<CourseDBElement> matches = new ArrayList<>();
+        for (List<CourseDBElement> shardCourses : gather(filter)) {
+            matches.addAll(shardCourses);
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the sum of the shards' table sizes.
+     *
+     * @return The total table size.
+     */
+    @Override
+    public int getTableSize() {
+        int tableSize = 0;
+        for (Shard shard : state.shards) {
+            tableSize += shard.store.getTableSize();
+        }
+        return tableSize;
+    }
+
+    /**
+     * Returns the number of distinct courses stored.
+     *
+     * @return The number of courses.
+     */
+    @Override
+    public int size() {
+        return count.intValue();
+    }
+
+    /**
+     * Returns true: every operation locks the shards it touches.
+     *
+     * @return true.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Returns an iterator over every course, shard by shard. The courses are gathered when the
+     * iterator is created, as by scan, so iteration holds no lock and sees each course once even
+     * while a shard is being added.
+     *
+     * @return An iterator over the stored courses.
+     */
+    @Override
+    public Iterator<CourseDBElement> iterator() {
+        Iterator<List<CourseDBElement>> shards = gather(element -> true).iterator();
+        return new Iterator<CourseDBElement>() {
+            private Iterator<CourseDBElement> courses = Collections.emptyIterator(); // The shard being read.
+
+            @Override
+            public boolean hasNext() {
+                while (!courses.hasNext() && shards.hasNext()) {
+                    courses = shards.next().iterator();
+                }
+                return courses.hasNext();
+            }
+
+            @Override
+            public CourseDBElement next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return courses.next();
+            }
+        };
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return The shard count.
+     */
+    public int getShardCount() {
+        return state.shards.length;
+    }
+
+    /**
+     * Returns the number of courses each shard holds, for checking the balance of the ring.
+     *
+     * @return The course count of each shard.
+     */
+    public int[] getShardSizes() {
+        State current = state;
+        int[] sizes = new int[current.shards.length];
+        for (int i = 0; i < sizes.length; i++) {
+            Shard shard = current.shards[i];
+            shard.lock.readLock().lock();
+            try {
+                sizes[i] = shard.store.size();
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * Adds a shard and moves to it the CRNs it now owns, while other operations keep running.
+     * Each old shard is drained under its write lock and the new shard's, so a CRN is always in
+     * exactly one of them; operations on CRNs still waiting to move look in both.
+     */
+    public void addShard() {
+        rebalanceLock.lock();
+        try {
+            State before = state;
+            int newShard = before.shards.length;
+            Shard[] shards = Arrays.copyOf(before.shards, newShard + 1);
+            Shard target = new Shard(shardFactory.get());
+            shards[newShard] = target;
+            Ring ring = new Ring(newShard + 1);
+            state = new State(shards, ring, before.ring);
+
+            for (int i = 0; i < newShard; i++) {
+                Shard source = shards[i];
+                source.lock.writeLock().lock();
+                target.lock.writeLock().lock();
+                try {
+                    List<CourseDBElement> moving = new ArrayList<>();
+                    for (CourseDBElement element : source.store) {
+                        if (ring.ownerOf(element.getCRN()) == newShard) {
+                            moving.add(element);
+                        }
+                    }
+                    for (CourseDBElement element : moving) {
+                        source.store.remove(element.getCRN());
+                        target.store.add(element);
+                    }
+                } finally {
+                    target.lock.writeLock().unlock();
+                    source.lock.writeLock().unlock();
+                }
+            }
+            state = new State(shards, ring, null);
+        } finally {
+            rebalanceLock.unlock();
+        }
+    }
+
+    /**
+     * Locks the shards that may hold a CRN, retrying until the routing they were chosen by is
+     * still in force once they are held. The shard a CRN moves from always has a lower index than
+     * the new shard, and is locked first, the same order addShard uses.
+     *
+     * @param crn   The CRN to route.
+     * @param write Whether to take write locks rather than read locks.
+     * @return The locked shards, to be released with Route.unlock.
+     */
+    private Route lock(int crn, boolean write) {
+        while (true) {
+            State current = state;
+            int owner = current.ring.ownerOf(crn);
+            Route route = new Route(current.shards[owner], current.movingFrom(crn, owner), write);
+            if (route.moving != null) {
+                Route.acquire(route.moving, write);
+            }
+            Route.acquire(route.owner, write);
+            if (state == current) {
+                return route;
+            }
+            route.unlock();
+        }
+    }
+
+    /**
+     * Collects the courses of each shard that match a filter, scanning the shards in parallel and
+     * holding one shard lock at a time. Courses only move between shards while addShard runs, so
+     * if no shard was being added before or during the scan, the result holds every course once;
+     * otherwise the gather is redone with every shard locked.
+     */
+    private List<List<CourseDBElement>> gather(Predicate<CourseDBElement> filter) {
+        State current = state;
+        if (current.previous == null) {
+            List<List<CourseDBElement>> gathered = IntStream.range(0, current.shards.length).parallel()
+                    .mapToObj(i -> current.shards[i].collect(filter))
+                    .collect(Collectors.toList());
+            if (state == current) {
+                return gathered;
+            }
+        }
+        return gatherLocked(filter);
+    }
+
+    /**
+     * Collects the courses of each shard that match a filter while holding the read lock of every
+     * shard, so none can move. The locks are taken in index order, the order addShard and lock
+     * use, and the gather retries if a shard was added before they were all held.
+     */
+    private List<List<CourseDBElement>> gatherLocked(Predicate<CourseDBElement> filter) {
+        while (true) {
+            Shard[] shards = state.shards;
+            int locked = 0;
+            try {
+                for (Shard shard : shards) {
+                    shard.lock.readLock().lock();
+                    locked++;
+                }
+                if (state.shards == shards) {
+                    List<List<CourseDBElement>> gathered = new ArrayList<>(shards.length);
+                    for (Shard shard : shards) {
+                        gathered.add(shard.matching(filter));
+                    }
+                    return gathered;
+                }
+            } finally {
+                for (int i = 0; i < locked; i++) {
+                    shards[i].lock.readLock().unlock();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package Default;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class contains JUnit tests for ShardedCourseDBStructure. It tests routed adds and lookups,
+ * that scans gather every course exactly once, that the ring spreads CRNs evenly, and that adding
+ * a shard keeps every course visible to readers, scans, and writers running alongside it,
+ * including writers that update and remove courses.
+ */
+public class ShardedCourseDBStructureTest {
+
+    /**
+     * Test routed adds and lookups, duplicates, and scatter-gather scans.
+     */
+    @Test
+    public void testAddFindAndScan() throws IOException {
+        ShardedCourseDBStructure structure = new ShardedCourseDBStructure(4, 20000);
+        List<CourseDBElement> batch = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            structure.add(new CourseDBElement("CMSC" + (i % 30), i * 7, 4, "SC450", "Instructor " + (i % 10)));
+            batch.add(new CourseDBElement("MATH", 1000000 + i, 3, "HT100", "Batch"));
+        }
+        structure.addAll(batch);
+        structure.add(new CourseDBElement("DUPLICATE", 0, 9, "X", "Y"));
+        structure.addAll(batch);
+
+        assertEquals(20000, structure.size());
+        assertEquals("CMSC0", structure.get(0).getID());
+        assertEquals("MATH", structure.find(1009999).getID());
+        assertNull(structure.find(1));
+        assertThrows(IOException.class, () -> structure.get(1));
+        assertEquals(20000, structure.showAll().size());
+        assertEquals(1000, structure.scan(course -> course.getInstructorName().equals("Instructor 3")).size());
+        Set<Integer> seen = new HashSet<>();
+        for (CourseDBElement course : structure) {
+            assertTrue(seen.add(course.getCRN()));
+        }
+        assertEquals(20000, seen.size());
+    }
+
+    /**
+     * Test that the ring gives each shard a fair share of sequential CRNs.
+     */
+    @Test
+    public void testBalance() {
+        ShardedCourseDBStructure structure = new ShardedCourseDBStructure(8, 80000);
+        for (int crn = 0; crn < 80000; crn++) {
+            structure.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey Bag-O-Donuts"));
+        }
+        for (int shardSize : structure.getShardSizes()) {
+            assertTrue(shardSize > 10000 * 0.7 && shardSize < 10000 * 1.3, "Unbalanced shard: " + shardSize);
+        }
+    }
+
+    /**
+     * Test that adding a shard moves only a share of the courses, all to the new shard, and keeps
+     * every course reported exactly once.
+     */
+    @Test
+    public void testAddShard() throws IOException {
+        ShardedCourseDBStructure structure = new ShardedCourseDBStructure(3, 30000);
+        for (int crn = 0; crn < 30000; crn++) {
+            structure.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey Bag-O-Donuts"));
+        }
+        int[] before = structure.getShardSizes();
+        structure.addShard();
+        int[] after = structure.getShardSizes();
+
+        assertEquals(4, structure.getShardCount());
+        for (int i = 0; i < before.length; i++) {
+            assertTrue(after[i] <= before[i]);
+        }
+        assertTrue(after[3] > 30000 / 4 * 0.7 && after[3] < 30000 / 4 * 1.3, "Unbalanced new shard: " + after[3]);
+        assertEquals(30000, after[0] + after[1] + after[2] + after[3]);
+        assertEquals(30000, structure.size());
+        assertEquals(30000, structure.showAll().size());
+        for (int crn = 0; crn < 30000; crn++) {
+            assertEquals(crn, structure.get(crn).getCRN());
+        }
+        structure.add(new CourseDBElement("DUPLICATE", 29999, 9, "X", "Y"));
+        assertEquals(30000, structure.size());
+    }
+
+    /**
+     * Test that readers never miss a stored course and that adds are neither lost nor duplicated
+     * while shards are being added.
+     */
+    @Test
+    public void testRebalanceIsOnline() throws InterruptedException {
+        ShardedCourseDBStructure structure = new ShardedCourseDBStructure(2, 200000);
+        for (int crn = 0; crn < 50000; crn++) {
+            structure.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey Bag-O-Donuts"));
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            for (int crn = 0; !done.get(); crn = (crn + 7919) % 50000) {
+                if (structure.find(crn) == null) {
+                    failure.set("Missed CRN " + crn);
+                    return;
+                }
+            }
+        });
+        Thread writer = new Thread(() -> {
+            for (int crn = 0; crn < 100000; crn++) {
+                // A quarter of the adds repeat preloaded courses.
+                structure.add(new CourseDBElement("CMSC204", 25000 + crn, 4, "SC450", "Writer"));
+            }
+        });
+        reader.start();
+        writer.start();
+        for (int i = 0; i < 4; i++) {
+            structure.addShard();
+        }
+        writer.join();
+        done.set(true);
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(6, structure.getShardCount());
+        assertEquals(125000, structure.size());
+        assertEquals(125000, structure.showAll().size());
+        for (int crn = 0; crn < 125000; crn++) {
+            assertNotNull(structure.find(crn), "Lost CRN " + crn);
+        }
+    }
+
+    /**
+     * Test that scans and iteration running while shards are being added see every course
+     * exactly once, never missing one that has just moved or counting it in both shards.
+     */
+    @Test
+    public void testScansDuringRebalance() throws InterruptedException {
+        ShardedCourseDBStructure structure = new ShardedCourseDBStructure(2, 100000);
+        for (int crn = 0; crn < 40000; crn++) {
+            structure.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey Bag-O-Donuts"));
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                int scanned = structure.scan(element -> true).size();
+                int iterated = 0;
+                for (CourseDBElement element : structure) {
+                    iterated++;
+                }
+                if (scanned != 40000 || iterated != 40000) {
+                    failure.set("Scanned " + scanned + " and iterated " + iterated + " of 40000 courses");
+                    return;
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 6; i++) {
+            structure.addShard();
+        }
+        done.set(true);
+        reader.join();
+        assertNull(failure.get());
+        assertEquals(8, structure.getShardCount());
+    }
+
+    /**
+     * Test that updates and removals made while shards are being added are neither lost nor
+     * undone by the courses being moved.
+     */
+    @Test
+    public void testChangesDuringRebalance() throws InterruptedException {
+        ShardedCourseDBStructure structure = new ShardedCourseDBStructure(2, 100000);
+        for (int crn = 0; crn < 60000; crn++) {
+            structure.add(new CourseDBElement("CMSC204", crn, 4, "SC450", "Joey Bag-O-Donuts"));
+        }
+        Thread writer = new Thread(() -> {
+            for (int crn = 0; crn < 60000; crn++) {
+                if (crn % 3 == 0) {
+                    structure.remove(crn);
+                } else if (crn % 3 == 1) {
+                    structure.update(new CourseDBElement("CMSC204", crn, 4, "SC450", "Updated"));
+                }
+            }
+        });
+        writer.start();
+        for (int i = 0; i < 4; i++) {
+            structure.addShard();
+        }
+        writer.join();
+
+        assertEquals(40000, structure.size());
+        int[] shardSizes = structure.getShardSizes();
+        assertEquals(40000, Arrays.stream(shardSizes).sum());
+        for (int crn = 0; crn < 60000; crn++) {
+            CourseDBElement course = structure.find(crn);
+            if (crn % 3 == 0) {
+                assertNull(course, "Removed CRN came back: " + crn);
+            } else {
+                assertEquals(crn % 3 == 1 ? "Updated" : "Joey Bag-O-Donuts", course.getInstructorName());
+            }
+        }
+    }
+}